@@ -5,6 +5,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "azure")
 @Getter
@@ -18,6 +20,25 @@ public class AzureProps {
     public static class Speech {
         private String key;
         private String region;
+
+        // Số câu được tổng hợp giọng nói song song trong pipeline /interact
+        private int ttsConcurrency = 2;
+
+        // ffmpeg chỉ dùng làm fallback cho định dạng không giải mã được trong JVM; để trống để tắt
+        private String ffmpegPath = "ffmpeg";
+        private Duration ffmpegTimeout = Duration.ofSeconds(30);
+
+        // Worker pool riêng cho STT: số phiên nhận diện chạy song song, số job được xếp hàng
+        // và thời gian tối đa của một job (tính cả lúc chờ trong hàng đợi)
+        private int sttParallelism = 4;
+        private int sttQueueCapacity = 20;
+        private Duration sttTimeout = Duration.ofSeconds(60);
+
+        // Pool SpeechSynthesizer cho TTS (mỗi voice / output format một pool)
+        private int ttsPoolSize = 8;
+        private int ttsPoolPrewarm = 1;
+        private Duration ttsBorrowTimeout = Duration.ofSeconds(10);
+        private Duration ttsMaxIdle = Duration.ofMinutes(5);
     }
 
     @Getter
@@ -26,6 +47,15 @@ public class AzureProps {
         private String endpoint;
         private String key;
         private String deploymentName; // map từ deployment-name trong YAML
+
+        // Connection pool dùng chung cho mọi lời gọi tới Azure OpenAI
+        private int maxConnections = 50;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(30);
+        private Duration responseTimeout = Duration.ofSeconds(90);
+
+        // Thread pool cho các hàm async (CompletableFuture) của OpenAIService
+        private int asyncPoolSize = 16;
+        private int asyncQueueCapacity = 200;
     }
 
 
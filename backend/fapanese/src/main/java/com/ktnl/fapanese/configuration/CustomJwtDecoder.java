@@ -1,63 +1,93 @@
 package com.ktnl.fapanese.configuration;
 
-import com.ktnl.fapanese.dto.request.IntrospectRequest;
+import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.service.implementations.TokenValidationService;
+import com.ktnl.fapanese.service.interfaces.IJwtCacheService;
+import com.ktnl.fapanese.service.interfaces.IRevokedTokenService;
 import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.SignedJWT;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.spec.SecretKeySpec;
 import java.text.ParseException;
-import java.util.Objects;
+import java.util.Collections;
+import java.util.Map;
 
 // CustomJwtDecoder: lớp tự định nghĩa để giải mã và xác thực JWT trong Spring Security
 @Component
 public class CustomJwtDecoder implements JwtDecoder {
 
-    // Khóa bí mật dùng để verify chữ ký của JWT (được cấu hình trong application.properties)
-    @Value("${jwt.signerKey}")
-    private String signerKey;
-
-    // Service dùng để introspect token (gửi token sang AuthenticationService để kiểm tra)
+    // Service dùng để verify token (chữ ký, hạn dùng, blacklist,...)
     @Autowired
     private TokenValidationService tokenValidationService;
 
-    // Đối tượng NimbusJwtDecoder (thư viện hỗ trợ decode/verify JWT)
-    private NimbusJwtDecoder nimbusJwtDecoder = null;
+    // Cache các token đã verify để không phải verify HS512 lại mỗi request
+    @Autowired
+    private IJwtCacheService jwtCacheService;
+
+    // Danh sách jti đã thu hồi (trong bộ nhớ), kiểm tra lại cho token lấy từ cache
+    @Autowired
+    private IRevokedTokenService revokedTokenService;
+
+    // Chuyển claim của Nimbus (Date, List,...) sang kiểu mà Spring Jwt mong đợi (Instant, ...)
+    private final MappedJwtClaimSetConverter claimSetConverter =
+            MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
 
 
     @Override
     public Jwt decode(String token){
-        try {
-            // B1: Gọi API introspect để kiểm tra token có hợp lệ hay không (DB, blacklist,...)
-            var response = tokenValidationService.introspect(IntrospectRequest.builder().token(token).build());
+        // B1: Token đã được verify trước đó và chưa hết hạn → trả luôn từ cache
+        var cached = jwtCacheService.get(token);
+        if (cached.isPresent()) {
+            // Logout có thể chen giữa verify và put của một request khác → entry trong cache đã bị thu hồi
+            rejectIfRevoked(cached.get());
+            return cached.get();
+        }
 
-            // Nếu introspect báo token không hợp lệ → ném exception
-            if (!response.isValid())
-                throw new JwtException("Token invalid");
+        // B2: Cache miss → parse + verify token đúng một lần
+        SignedJWT signedJWT;
+        try {
+            signedJWT = tokenValidationService.verifyToken(token, false);
+        } catch (AppException e) {
+            // Token sai chữ ký / hết hạn / đã bị thu hồi
+            throw new JwtException("Token invalid");
         } catch (ParseException | JOSEException e) {
             // Nếu có lỗi khi parse hoặc verify token → ném JwtException
             throw new JwtException(e.getMessage());
         }
 
-        // B2: Nếu NimbusJwtDecoder chưa được khởi tạo → tạo mới với signerKey
-        if(Objects.isNull(nimbusJwtDecoder)){
-            // Tạo SecretKeySpec từ signerKey với thuật toán HMAC-SHA512
-            SecretKeySpec secretKeySpec = new SecretKeySpec(signerKey.getBytes(), "HS512");
+        // B3: Dựng Jwt của Spring từ token đã verify (không verify lại) rồi đưa vào cache
+        Jwt jwt = toJwt(token, signedJWT);
+        jwtCacheService.put(jwt);
 
-            // Khởi tạo NimbusJwtDecoder với key và thuật toán HMAC-SHA512
-            nimbusJwtDecoder = NimbusJwtDecoder.withSecretKey(secretKeySpec)
-                    .macAlgorithm(MacAlgorithm.HS512)
-                    .build();
+        // Token bị thu hồi sau lúc verify nhưng trước lúc put: evictByJti của logout đã chạy xong
+        // nên không xóa được entry vừa put → tự xóa và từ chối
+        rejectIfRevoked(jwt);
+        return jwt;
+    }
+
+    private void rejectIfRevoked(Jwt jwt) {
+        if (revokedTokenService.isRevoked(jwt.getId())) {
+            jwtCacheService.evictByJti(jwt.getId());
+            throw new JwtException("Token invalid");
         }
+    }
+
+    private Jwt toJwt(String token, SignedJWT signedJWT) {
+        try {
+            Map<String, Object> headers = signedJWT.getHeader().toJSONObject();
+            Map<String, Object> claims = claimSetConverter.convert(signedJWT.getJWTClaimsSet().getClaims());
 
-        // B3: Dùng NimbusJwtDecoder decode + verify chữ ký JWT
-        return nimbusJwtDecoder.decode(token);
+            return Jwt.withTokenValue(token)
+                    .headers(h -> h.putAll(headers))
+                    .claims(c -> c.putAll(claims))
+                    .build();
+        } catch (ParseException e) {
+            throw new JwtException(e.getMessage());
+        }
     }
 }
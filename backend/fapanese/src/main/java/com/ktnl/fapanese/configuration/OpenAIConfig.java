@@ -0,0 +1,74 @@
+package com.ktnl.fapanese.configuration;
+
+import com.azure.ai.openai.OpenAIAsyncClient;
+import com.azure.ai.openai.OpenAIClient;
+import com.azure.ai.openai.OpenAIClientBuilder;
+import com.azure.core.credential.AzureKeyCredential;
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.netty.NettyAsyncHttpClientBuilder;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import reactor.netty.resources.ConnectionProvider;
+
+// Tạo OpenAIClient một lần cho toàn ứng dụng thay vì build lại ở mỗi request
+@Configuration
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class OpenAIConfig {
+    AzureProps props;
+
+    // Connection pool (keep-alive, TLS session) dùng chung cho cả client sync lẫn async
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider openAiConnectionProvider() {
+        var openai = props.getOpenai();
+        return ConnectionProvider.builder("azure-openai")
+                .maxConnections(openai.getMaxConnections())
+                .pendingAcquireTimeout(openai.getPendingAcquireTimeout())
+                .build();
+    }
+
+    @Bean
+    public HttpClient openAiHttpClient(ConnectionProvider openAiConnectionProvider) {
+        return new NettyAsyncHttpClientBuilder()
+                .connectionProvider(openAiConnectionProvider)
+                .responseTimeout(props.getOpenai().getResponseTimeout())
+                .build();
+    }
+
+    @Bean
+    public OpenAIClientBuilder openAiClientBuilder(HttpClient openAiHttpClient) {
+        var openai = props.getOpenai();
+        return new OpenAIClientBuilder()
+                .endpoint(openai.getEndpoint())
+                .credential(new AzureKeyCredential(openai.getKey()))
+                .httpClient(openAiHttpClient);
+    }
+
+    @Bean
+    public OpenAIClient openAiClient(OpenAIClientBuilder openAiClientBuilder) {
+        return openAiClientBuilder.buildClient();
+    }
+
+    @Bean
+    public OpenAIAsyncClient openAiAsyncClient(OpenAIClientBuilder openAiClientBuilder) {
+        return openAiClientBuilder.buildAsyncClient();
+    }
+
+    // Thread pool giới hạn cho phần xử lý kết quả của các lời gọi async,
+    // để servlet thread của InterviewController không bị giữ trong lúc chờ LLM
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor openAiExecutor() {
+        var openai = props.getOpenai();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("openai-");
+        executor.setCorePoolSize(openai.getAsyncPoolSize());
+        executor.setMaxPoolSize(openai.getAsyncPoolSize());
+        executor.setQueueCapacity(openai.getAsyncQueueCapacity());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ktnl.fapanese.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Bật @Scheduled cho các job chạy nền (dọn token hết hạn,...).
+// Mặc định Spring chạy mọi job trên một thread; số thread đặt ở spring.task.scheduling.pool.size
+// để EmailOutboxService.dispatchPending (chờ kết quả gửi SMTP) không giữ chân các job khác
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -4,12 +4,14 @@ package com.ktnl.fapanese.controller;
 import com.ktnl.fapanese.dto.request.*;
 import com.ktnl.fapanese.dto.response.ApiResponse;
 import com.ktnl.fapanese.dto.response.AuthenticationResponse;
+import com.ktnl.fapanese.dto.response.CacheStatsResponse;
 import com.ktnl.fapanese.dto.response.EmailResponse;
 import com.ktnl.fapanese.dto.response.VerifyOtpResponse;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.mail.ForgotPasswordEmail;
 import com.ktnl.fapanese.mail.VerifyOtpEmail;
 import com.ktnl.fapanese.service.interfaces.IAuthenticationService;
+import com.ktnl.fapanese.service.interfaces.IJwtCacheService;
 import com.ktnl.fapanese.service.interfaces.IOtpTokenService;
 import com.ktnl.fapanese.service.interfaces.IUserService;
 import com.nimbusds.jose.JOSEException;
@@ -17,6 +19,8 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -33,6 +37,7 @@ public class AuthenticationController {
     IAuthenticationService iAuthenticationService;
     IOtpTokenService iOtpTokenService;
     IUserService iUserService;
+    IJwtCacheService iJwtCacheService;
 
     @PostMapping("/login")
     public ApiResponse<AuthenticationResponse> login(@RequestBody AuthenticationRequest request){
@@ -57,6 +62,14 @@ public class AuthenticationController {
         return ApiResponse.<Void>builder().build();
     }
 
+    @GetMapping("/token-cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<CacheStatsResponse> getTokenCacheStats() {
+        return ApiResponse.<CacheStatsResponse>builder()
+                .result(iJwtCacheService.getStats())
+                .build();
+    }
+
     @PostMapping("/send-otp")
     public ApiResponse<EmailResponse> sendOtp(@RequestBody OtpRequest request) {
         var result = iOtpTokenService.generateAndSendOtp(request.getEmail(), new VerifyOtpEmail());
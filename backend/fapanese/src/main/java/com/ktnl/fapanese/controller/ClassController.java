@@ -1,16 +1,22 @@
 package com.ktnl.fapanese.controller;
 
 import com.cloudinary.Api;
+import com.ktnl.fapanese.dto.request.ClassAnnouncementRequest;
+import com.ktnl.fapanese.dto.request.ClassCourseFilterRequest;
 import com.ktnl.fapanese.dto.request.ClassCourseRequest;
 import com.ktnl.fapanese.dto.response.*;
 import com.ktnl.fapanese.mapper.ClassCourseMapper;
 import com.ktnl.fapanese.service.interfaces.IClassCourseService;
+import com.ktnl.fapanese.service.interfaces.IClassNotificationService;
 import com.ktnl.fapanese.service.interfaces.IStudentClassService;
 import com.ktnl.fapanese.service.interfaces.IStudentService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -24,6 +30,7 @@ public class ClassController {
     IClassCourseService classCourseService;
     ClassCourseMapper classCourseMapper;
     IStudentClassService studentClassService;
+    IClassNotificationService classNotificationService;
 
 
 
@@ -36,6 +43,34 @@ public class ClassController {
                 .build();
     }
 
+    // Gửi thông báo qua email cho toàn bộ sinh viên của lớp; email được gửi nền, theo dõi qua GET bên dưới
+    @PostMapping("/{id}/notifications")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
+    public ApiResponse<ClassNotificationResponse> announce(@PathVariable Long id, @RequestBody ClassAnnouncementRequest request) {
+        return ApiResponse.<ClassNotificationResponse>builder()
+                .result(classNotificationService.announce(id, request))
+                .message("Notification queued")
+                .build();
+    }
+
+    @GetMapping("/{id}/notifications/{notificationId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
+    public ApiResponse<ClassNotificationResponse> getNotification(@PathVariable Long id, @PathVariable Long notificationId) {
+        return ApiResponse.<ClassNotificationResponse>builder()
+                .result(classNotificationService.getNotification(id, notificationId))
+                .build();
+    }
+
+    @GetMapping("/search")
+    public ApiResponse<PageResponse<ClassCourseRespone>> searchClasses(ClassCourseFilterRequest filter,
+            @PageableDefault(sort = "id") Pageable pageable) {
+        PageResponse<ClassCourseRespone> result = classCourseService.searchClasses(filter, pageable);
+        return ApiResponse.<PageResponse<ClassCourseRespone>>builder()
+                .result(result)
+                .message("Successfully searched classes")
+                .build();
+    }
+
     @GetMapping("/{id}")
     public ApiResponse<ClassCourseRespone> getClassById(@PathVariable    Long id){
         ClassCourseRespone result = classCourseService.getClassById(id);
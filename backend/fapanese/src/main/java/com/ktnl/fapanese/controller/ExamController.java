@@ -1,24 +1,45 @@
 package com.ktnl.fapanese.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktnl.fapanese.dto.request.ExamPaperSubmission;
+import com.ktnl.fapanese.dto.request.GenerateExamPapersRequest;
 import com.ktnl.fapanese.dto.request.UserAnswer;
 import com.ktnl.fapanese.dto.response.ApiResponse;
+import com.ktnl.fapanese.dto.response.BulkGradingSummaryResponse;
+import com.ktnl.fapanese.dto.response.ExamPaperBatchResponse;
+import com.ktnl.fapanese.dto.response.ExamPaperResponse;
 import com.ktnl.fapanese.dto.response.SubmitQuizResponse;
+import com.ktnl.fapanese.entity.enums.ExamKind;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.service.interfaces.IBulkExamGrader;
+import com.ktnl.fapanese.service.interfaces.IExamPaperService;
 import com.ktnl.fapanese.service.interfaces.IExamService;
-import com.ktnl.fapanese.service.interfaces.IFinalExamService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/exam")
 @RequiredArgsConstructor
 public class ExamController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final IExamService examService;
+    private final IExamPaperService examPaperService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/submit")
     public ApiResponse<SubmitQuizResponse> submitExam(@RequestBody List<UserAnswer> userAnswers) {
@@ -32,5 +53,121 @@ public class ExamController {
                 .result(result)
                 .build();
     }
-}
 
+    /**
+     * Chấm bài của cả lớp cho một đề giữa kỳ / cuối kỳ (examKind = middle | final).
+     * Input: NDJSON, mỗi dòng {"studentId": "...", "answers": [{"questionId": 1, "userAnswer": "A"}]},
+     * gửi thẳng trong body hoặc qua multipart part "file".
+     * Output: NDJSON, mỗi dòng input cho ra một dòng "result" / "error" ngay khi chấm xong,
+     * dòng cuối là "summary" kèm thống kê từng câu hỏi.
+     * Giảng viên chỉ chấm được lớp mình dạy (bắt buộc classCourseId), admin chấm được mọi lớp hoặc không theo lớp.
+     */
+    @PostMapping(value = "/{examKind}/{examId}/grade-bulk",
+            consumes = {NDJSON, MediaType.MULTIPART_FORM_DATA_VALUE}, produces = NDJSON)
+    @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
+    public ResponseEntity<StreamingResponseBody> gradeBulk(@PathVariable String examKind,
+                                                           @PathVariable Long examId,
+                                                           @RequestParam(required = false) Long classCourseId,
+                                                           HttpServletRequest request) throws IOException {
+        // Lỗi đề / lớp không tồn tại, không có quyền với lớp được trả về như API thường, trước khi bắt đầu stream
+        IBulkExamGrader grader = examService.prepareBulkGrading(parseExamKind(examKind), examId, classCourseId);
+        InputStream input = sheetsInput(request);
+
+        StreamingResponseBody body = output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+                BulkGradingSummaryResponse summary = grader.grade(reader, result -> writeLine(writer, result));
+                writeLine(writer, summary);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Bulk grading interrupted");
+            } catch (UncheckedIOException e) {
+                throw e.getCause(); // client ngắt kết nối
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    /**
+     * Phát đề ngẫu nhiên cho cả lớp (classCourseId) và/hoặc danh sách sinh viên: mỗi người
+     * N câu mỗi category, thứ tự câu và đáp án được xáo riêng.
+     */
+    @PostMapping("/{examKind}/{examId}/papers")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
+    public ApiResponse<ExamPaperBatchResponse> generatePapers(@PathVariable String examKind,
+                                                              @PathVariable Long examId,
+                                                              @RequestBody GenerateExamPapersRequest request) {
+        return ApiResponse.<ExamPaperBatchResponse>builder()
+                .result(examPaperService.generatePapers(parseExamKind(examKind), examId, request))
+                .build();
+    }
+
+    // Đề của sinh viên đang đăng nhập, theo lần phát đề mới nhất có tên sinh viên đó
+    @GetMapping("/{examKind}/{examId}/papers/me")
+    public ApiResponse<ExamPaperResponse> getMyPaper(@PathVariable String examKind, @PathVariable Long examId) {
+        return ApiResponse.<ExamPaperResponse>builder()
+                .result(examPaperService.getMyPaper(parseExamKind(examKind), examId))
+                .build();
+    }
+
+    @GetMapping("/papers/{paperSetId}/students/{studentId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
+    public ApiResponse<ExamPaperResponse> getStudentPaper(@PathVariable Long paperSetId, @PathVariable String studentId) {
+        return ApiResponse.<ExamPaperResponse>builder()
+                .result(examPaperService.getPaper(paperSetId, studentId))
+                .build();
+    }
+
+    @PostMapping("/papers/submit")
+    public ApiResponse<SubmitQuizResponse> submitPaper(@RequestBody ExamPaperSubmission submission) {
+        SubmitQuizResponse result = examPaperService.submitMyPaper(submission);
+
+        String message = String.format("Exam submitted successfully. Score: %.2f%% (%d/%d)",
+                result.getScorePercentage(), result.getCorrectCount(), result.getTotalQuestions());
+
+        return ApiResponse.<SubmitQuizResponse>builder()
+                .message(message)
+                .result(result)
+                .build();
+    }
+
+    // Điểm bài đã nộp; đáp án từng câu chỉ có sau hạn nộp
+    @GetMapping("/papers/{paperSetId}/result/me")
+    public ApiResponse<SubmitQuizResponse> getMyResult(@PathVariable Long paperSetId) {
+        return ApiResponse.<SubmitQuizResponse>builder()
+                .result(examPaperService.getMyResult(paperSetId))
+                .build();
+    }
+
+    private ExamKind parseExamKind(String examKind) {
+        try {
+            return ExamKind.valueOf(examKind.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "examKind phải là middle hoặc final");
+        }
+    }
+
+    private InputStream sheetsInput(HttpServletRequest request) throws IOException {
+        if (request instanceof MultipartHttpServletRequest multipart) {
+            MultipartFile file = multipart.getFile("file");
+            if (file == null || file.isEmpty())
+                throw new AppException(ErrorCode.INVALID_INPUT, "Thiếu file bài làm");
+            return file.getInputStream();
+        }
+        return request.getInputStream();
+    }
+
+    // Mỗi kết quả một dòng, flush ngay để giảng viên thấy tiến độ
+    private void writeLine(Writer writer, Object value) {
+        try {
+            writer.write(objectMapper.writeValueAsString(value));
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.ktnl.fapanese.controller;
 
 import com.ktnl.fapanese.dto.request.FinalExamRequest;
 import com.ktnl.fapanese.dto.response.ApiResponse;
+import com.ktnl.fapanese.dto.response.ExamSummaryResponse;
 import com.ktnl.fapanese.dto.response.FinalExamResponse;
 import com.ktnl.fapanese.dto.response.FinalExamResponse;
 import com.ktnl.fapanese.service.interfaces.IFinalExamService;
@@ -26,6 +27,15 @@ public class FinalExamController {
                 .build();
     }
 
+    @GetMapping("/summaries")
+    public ApiResponse<List<ExamSummaryResponse>> getFinalExamSummaries(@RequestParam(required = false) Long overviewPartId) {
+        List<ExamSummaryResponse> result = finalExamService.getFinalExamSummaries(overviewPartId);
+        return ApiResponse.<List<ExamSummaryResponse>>builder()
+                .result(result)
+                .message("Get final exam summaries success")
+                .build();
+    }
+
     @GetMapping("/{id}")
     public ApiResponse<FinalExamResponse> getFinalExamById(@PathVariable Long id) {
         FinalExamResponse result = finalExamService.getFinalExamById(id);
@@ -4,21 +4,41 @@ import com.cloudinary.Api;
 import com.ktnl.fapanese.dto.request.ExplainExamRequest;
 import com.ktnl.fapanese.dto.request.GradingSpeakingTestRequest;
 import com.ktnl.fapanese.dto.response.ApiResponse;
+import com.ktnl.fapanese.dto.response.CacheStatsResponse;
 import com.ktnl.fapanese.dto.response.GradingSpeakingTestResponse;
+import com.ktnl.fapanese.dto.response.SpeechRecognitionStatsResponse;
+import com.ktnl.fapanese.dto.response.TtsPrerenderJobResponse;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.service.implementations.InterviewPipelineService;
 import com.ktnl.fapanese.service.implementations.OpenAIService;
-import com.ktnl.fapanese.service.implementations.SpeechToTextService;
 import com.ktnl.fapanese.service.implementations.TextToSpeechService;
+import com.ktnl.fapanese.service.interfaces.IExplanationCacheService;
+import com.ktnl.fapanese.service.interfaces.ISpeechRecognitionJobService;
+import com.ktnl.fapanese.service.interfaces.ITtsAudioCacheService;
+import com.ktnl.fapanese.service.interfaces.ITtsPrerenderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/interview")
@@ -26,86 +46,261 @@ import java.util.Map;
 @RequiredArgsConstructor
 @Slf4j
 public class InterviewController {
-    private final SpeechToTextService stt;
+    private final ISpeechRecognitionJobService sttJobs;
     private final OpenAIService openai;
     private final TextToSpeechService tts;
+    private final IExplanationCacheService explanationCache;
+    private final InterviewPipelineService pipeline;
+    private final ITtsAudioCacheService ttsAudioCache;
+    private final ITtsPrerenderService ttsPrerender;
 
+    private static final long STREAM_TIMEOUT_MS = 180_000;
+    private static final Duration TTS_AUDIO_MAX_AGE = Duration.ofDays(365);
+
+    // STT chạy trên worker pool riêng; pool đầy → 503 (STT_BUSY), quá hạn → 504 (STT_TIMEOUT)
     @PostMapping(value="/stt", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public Map<String,Object> stt(@RequestPart("audio") MultipartFile audio) throws Exception {
-        var text = stt.transcribeWav(audio.getBytes());
-        return Map.of("text", text);
+    public CompletableFuture<Map<String,Object>> stt(@RequestPart("audio") MultipartFile audio) throws IOException {
+        return sttJobs.submit(audio.getBytes())
+                .thenApply(text -> Map.of("text", text));
     }
 
+    @GetMapping("/stt/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<SpeechRecognitionStatsResponse> sttStats() {
+        return ApiResponse.<SpeechRecognitionStatsResponse>builder()
+                .result(sttJobs.getStats())
+                .build();
+    }
+
+    // Trả về CompletableFuture để servlet thread được giải phóng trong lúc chờ LLM
     @PostMapping("/chat")
-    public Map<String,Object> chat(@RequestBody Map<String,String> body) {
+    public CompletableFuture<Map<String,Object>> chat(@RequestBody Map<String,String> body) {
+        var userText = body.getOrDefault("text", "");
+        return openai.chatInterviewAsync(userText)
+                .thenApply(aiText -> Map.of("userText", userText, "aiText", aiText));
+    }
+
+    // Bản streaming của /chat: nhận từng đoạn text ngay khi model sinh ra.
+    // Đặt ở path riêng để client gửi "Accept: */*" (axios, fetch) vẫn luôn nhận JSON từ hàm chat ở trên.
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatStream(@RequestBody Map<String,String> body) {
         var userText = body.getOrDefault("text", "");
-        var aiText = openai.chatInterview(userText);
-        return Map.of("userText", userText, "aiText", aiText);
+        return streamToEmitter(openai.chatInterviewStream(userText));
     }
 
     //mode 1: chỉ đọc tiếng nhật
     //mode 2: vừa đọc tiếng việt vừa đọc tiếng nhật, tiếng nhật phải bọc trong tag [JA:...:JA]
     @PostMapping(value="/tts/{mode}", produces = "audio/wav")
     public ResponseEntity<byte[]> tts(@RequestBody Map<String,String> body, @PathVariable int mode) throws Exception {
-        byte[] audio = null;
-        if(mode == 1){
-            audio = tts.synthJa(body.getOrDefault("text",""));
-        }else if(mode == 2){
-            audio = tts.synthSsmlPolyglot(body.getOrDefault("text",""));
-        }
+        String text = body.getOrDefault("text","");
+        String key = ttsAudioCache.audioKey(mode, text);
+
+        // Không xử lý If-None-Match ở đây: trình duyệt không gửi cho POST, còn Spring trả 412 chứ không phải 304.
+        // Client muốn request có điều kiện thì dùng GET /tts/audio/{key} (Content-Location của response)
+        byte[] audio = ttsAudioCache.getOrSynthesize(mode, text);
+        return audioResponse(key, audio);
+    }
+
+    /**
+     * File audio đã cache theo key (trả về trong ETag / Content-Location của /tts/{mode}).
+     * Nội dung của một key không bao giờ đổi nên trình duyệt / CDN được cache lâu dài.
+     */
+    @GetMapping(value = "/tts/audio/{key}", produces = "audio/wav")
+    public ResponseEntity<byte[]> ttsAudio(@PathVariable String key, WebRequest request) {
+        if (request.checkNotModified(key))
+            return null;
+
+        byte[] audio = ttsAudioCache.find(key)
+                .orElseThrow(() -> new AppException(ErrorCode.TTS_AUDIO_NOT_FOUND));
+        return audioResponse(key, audio);
+    }
+
+    @GetMapping("/tts/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<CacheStatsResponse> ttsCacheStats() {
+        return ApiResponse.<CacheStatsResponse>builder()
+                .result(ttsAudioCache.getStats())
+                .build();
+    }
+
+    @PostMapping("/tts/prerender/lessons/{lessonId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<TtsPrerenderJobResponse> prerenderLesson(@PathVariable Long lessonId) {
+        return ApiResponse.<TtsPrerenderJobResponse>builder()
+                .result(ttsPrerender.prerenderLesson(lessonId))
+                .build();
+    }
+
+    @PostMapping("/tts/prerender/speaking-exams/{speakingExamId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<TtsPrerenderJobResponse> prerenderSpeakingExam(@PathVariable Long speakingExamId) {
+        return ApiResponse.<TtsPrerenderJobResponse>builder()
+                .result(ttsPrerender.prerenderSpeakingExam(speakingExamId))
+                .build();
+    }
+
+    @GetMapping("/tts/prerender/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<TtsPrerenderJobResponse> prerenderJob(@PathVariable String jobId) {
+        return ApiResponse.<TtsPrerenderJobResponse>builder()
+                .result(ttsPrerender.getJob(jobId))
+                .build();
+    }
 
+    private ResponseEntity<byte[]> audioResponse(String key, byte[] audio) {
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=reply.wav")
+                .eTag(key)
+                .cacheControl(CacheControl.maxAge(TTS_AUDIO_MAX_AGE).cachePublic().immutable())
+                .header(HttpHeaders.CONTENT_LOCATION, "/api/interview/tts/audio/" + key)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=" + key + ".wav")
                 .contentType(MediaType.valueOf("audio/wav"))
                 .body(audio);
     }
 
 
     @PostMapping(value = "/interact", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<Map<String, Object>> interact(@RequestPart("audio") MultipartFile audio) throws Exception {
-        // 1️⃣ Speech to Text
-        String userText = stt.transcribeWav(audio.getBytes());
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> interact(@RequestPart("audio") MultipartFile audio) throws IOException {
+        // 1️⃣ Speech to Text (worker pool STT)
+        return sttJobs.submit(audio.getBytes())
+                // 2️⃣ Gọi OpenAI để nhận xét tiếng Việt
+                .thenCompose(userText -> openai.chatInterviewAsync(userText)
+                        // 3️⃣ Chuyển phản hồi thành âm thanh tiếng Việt, trên thread pool TTS riêng
+                        // (không chặn openAiExecutor trong lúc chờ Azure Speech)
+                        // ⚠️ nếu muốn giọng Việt, đổi voice sang vi-VN-HoaiMyNeural trong TextToSpeechService
+                        .thenCompose(aiText -> tts.synthSsmlPolyglotAsync(aiText)
+                                .thenApply(aiAudio -> {
+                                    // 4️⃣ Trả về JSON (text + audio base64)
+                                    Map<String, Object> result = new HashMap<>();
+                                    result.put("userText", userText);
+                                    result.put("aiText", aiText);
+                                    result.put("audioBase64", Base64.getEncoder().encodeToString(aiAudio));
 
-        // 2️⃣ Gọi OpenAI để nhận xét tiếng Việt
-        String aiText = openai.chatInterview(userText);
+                                    return ResponseEntity.ok(result);
+                                })));
+    }
 
-        // 3️⃣ Chuyển phản hồi thành âm thanh tiếng Việt
-        byte[] aiAudio = tts.synthSsmlPolyglot(aiText); // ⚠️ nếu muốn giọng Việt, đổi voice sang vi-VN-HoaiMyNeural trong TextToSpeechService
+    /**
+     * Bản pipeline của /interact, ở path riêng để client cũ gọi /interact (Accept mặc định của fetch) vẫn nhận JSON:
+     * - event "transcript": {"text": "<lời người dùng>"}
+     * - event "audio": {"index", "text", "audioBase64"} cho từng câu, phát lần lượt theo index
+     * - event "done": {"userText", "aiText"}
+     * - event "error": {"message": "..."}
+     */
+    @PostMapping(value = "/interact/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter interactStream(@RequestPart("audio") MultipartFile audio) throws IOException {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        StringBuilder aiText = new StringBuilder();
 
-        // 4️⃣ Trả về JSON (text + audio base64)
-        Map<String, Object> result = new HashMap<>();
-        result.put("userText", userText);
-        result.put("aiText", aiText);
-        result.put("audioBase64", Base64.getEncoder().encodeToString(aiAudio));
+        Disposable subscription = pipeline.transcribe(audio.getBytes())
+                .flatMapMany(userText -> {
+                    sendEvent(emitter, "transcript", Map.of("text", userText));
+                    return pipeline.reply(userText)
+                            .doOnNext(chunk -> {
+                                if (!aiText.isEmpty())
+                                    aiText.append(' ');
+                                aiText.append(chunk.getText());
+                                sendEvent(emitter, "audio", chunk);
+                            })
+                            .then(Mono.fromRunnable(() -> sendEvent(emitter, "done",
+                                    Map.of("userText", userText, "aiText", aiText.toString()))));
+                })
+                .subscribe(
+                        ignored -> {},
+                        ex -> {
+                            log.error("Interact pipeline failed: {}", ex.getMessage(), ex);
+                            sendEvent(emitter, "error", Map.of("message", String.valueOf(ex.getMessage())));
+                            emitter.complete();
+                        },
+                        emitter::complete);
 
-        return ResponseEntity.ok(result);
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(ex -> subscription.dispose());
+        return emitter;
     }
 
     @PostMapping("/explain-exam")
-    public ApiResponse<String> explainExam(@RequestBody ExplainExamRequest explainExamRequest){
-        String aiResponse = openai.explainExam(explainExamRequest);
-        return ApiResponse.<String>builder()
-                .result(aiResponse)
+    public CompletableFuture<ApiResponse<String>> explainExam(@RequestBody ExplainExamRequest explainExamRequest){
+        return openai.explainExamAsync(explainExamRequest)
+                .thenApply(aiResponse -> ApiResponse.<String>builder()
+                        .result(aiResponse)
+                        .build());
+    }
+
+    // Bản streaming của /explain-exam, path riêng như /chat/stream
+    @PostMapping(value = "/explain-exam/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter explainExamStream(@RequestBody ExplainExamRequest explainExamRequest) {
+        return streamToEmitter(openai.explainExamStream(explainExamRequest));
+    }
+
+    @GetMapping("/explain-exam/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<CacheStatsResponse> explainExamCacheStats() {
+        return ApiResponse.<CacheStatsResponse>builder()
+                .result(explanationCache.getStats())
                 .build();
     }
 
-    @PostMapping("/grade-speaking-test")
-    public ApiResponse<GradingSpeakingTestResponse> gradeTest(@RequestBody GradingSpeakingTestRequest request) {
-        log.info("Receiving speaking test for grading...");
+    /**
+     * Đẩy các đoạn text ra trình duyệt dưới dạng Server-Sent Events:
+     * - event "token": {"text": "<đoạn mới>"}
+     * - event "done":  {"text": "<toàn bộ nội dung>"} (giống hệt kết quả của API không streaming)
+     * - event "error": {"message": "..."}
+     * Data được gửi dạng JSON để giữ nguyên khoảng trắng / xuống dòng của từng đoạn.
+     */
+    private SseEmitter streamToEmitter(Flux<String> tokens) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        StringBuilder fullText = new StringBuilder();
+
+        Disposable subscription = tokens.subscribe(
+                delta -> {
+                    fullText.append(delta);
+                    sendEvent(emitter, "token", Map.of("text", delta));
+                },
+                ex -> {
+                    log.error("Streaming failed: {}", ex.getMessage(), ex);
+                    sendEvent(emitter, "error", Map.of("message", String.valueOf(ex.getMessage())));
+                    emitter.complete();
+                },
+                () -> {
+                    sendEvent(emitter, "done", Map.of("text", fullText.toString()));
+                    emitter.complete();
+                });
+
+        // Client đóng kết nối / timeout → hủy lời gọi tới Azure
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(ex -> subscription.dispose());
+        return emitter;
+    }
+
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
         try {
-            GradingSpeakingTestResponse feedback = openai.gradeSpeakingTest(request);
-            return ApiResponse.<GradingSpeakingTestResponse>builder()
-                    .result(feedback)
-                    .message("Grading completed successfully")
-                    .build();
-        } catch (Exception e) {
-            log.error("Error during grading: {}", e.getMessage(), e);
-            // Bạn nên có một cấu trúc trả về lỗi chuẩn
-            return ApiResponse.<GradingSpeakingTestResponse>builder()
-                    .code(5000) // Mã lỗi
-                    .message("Error during grading: " + e.getMessage())
-                    .build();
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Client đã ngắt kết nối
+            emitter.completeWithError(e);
         }
     }
 
+    @PostMapping("/grade-speaking-test")
+    public CompletableFuture<ApiResponse<GradingSpeakingTestResponse>> gradeTest(@RequestBody GradingSpeakingTestRequest request) {
+        log.info("Receiving speaking test for grading...");
+        return openai.gradeSpeakingTestAsync(request)
+                .thenApply(feedback -> ApiResponse.<GradingSpeakingTestResponse>builder()
+                        .result(feedback)
+                        .message("Grading completed successfully")
+                        .build())
+                .exceptionally(ex -> {
+                    Throwable e = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    log.error("Error during grading: {}", e.getMessage(), e);
+                    // Bạn nên có một cấu trúc trả về lỗi chuẩn
+                    return ApiResponse.<GradingSpeakingTestResponse>builder()
+                            .code(5000) // Mã lỗi
+                            .message("Error during grading: " + e.getMessage())
+                            .build();
+                });
+    }
+
 }
@@ -1,12 +1,16 @@
 package com.ktnl.fapanese.controller;
 
+import com.ktnl.fapanese.dto.request.LessonFilterRequest;
 import com.ktnl.fapanese.dto.request.LessonRequest;
 import com.ktnl.fapanese.dto.response.ApiResponse;
 import com.ktnl.fapanese.dto.response.LessonRespone;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.entity.Course;
 import com.ktnl.fapanese.entity.Lesson;
 import com.ktnl.fapanese.service.interfaces.ICourseService;
 import com.ktnl.fapanese.service.interfaces.ILessonService;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -31,6 +35,13 @@ public class LessonController {
         return ResponseEntity.ok(lessonService.getAllLesson());
     }
 
+    // GET /api/lessons/search?courseId=&keyword=&page=0&size=20
+    @GetMapping("/search")
+    public ResponseEntity<PageResponse<LessonRespone>> searchLessons(LessonFilterRequest filter,
+            @PageableDefault(sort = "orderIndex") Pageable pageable) {
+        return ResponseEntity.ok(lessonService.searchLessons(filter, pageable));
+    }
+
     // GET /api/lessons/{id}
     @GetMapping("/{id}")
     public ResponseEntity<LessonRespone> getLessonById(@PathVariable Long id) {
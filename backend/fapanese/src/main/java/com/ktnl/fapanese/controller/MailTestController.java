@@ -1,10 +1,14 @@
 package com.ktnl.fapanese.controller;
 
+import com.ktnl.fapanese.dto.response.ApiResponse;
+import com.ktnl.fapanese.dto.response.MailDispatchStatsResponse;
 import com.ktnl.fapanese.mail.ForgotPasswordEmail;
 import com.ktnl.fapanese.service.interfaces.IEmailService; // Giữ lại dòng này từ 'main'
+import com.ktnl.fapanese.service.interfaces.IMailDispatchService;
 import lombok.AccessLevel; // Giữ lại dòng này từ 'main'
 import lombok.RequiredArgsConstructor; // Giữ lại dòng này (có cả ở 2 nhánh)
 import lombok.experimental.FieldDefaults; // Giữ lại dòng này từ 'main'
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -15,6 +19,7 @@ import org.springframework.web.bind.annotation.RestController;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class MailTestController {
     IEmailService iEmailService;
+    IMailDispatchService mailDispatch;
 
     @GetMapping
     public String sendTestMail() {
@@ -25,4 +30,12 @@ public class MailTestController {
         return "Đã gửi mail đến: " + "hlqkhanh@gmail.com";
     }
 
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<MailDispatchStatsResponse> dispatchStats() {
+        return ApiResponse.<MailDispatchStatsResponse>builder()
+                .result(mailDispatch.getStats())
+                .build();
+    }
+
 }
\ No newline at end of file
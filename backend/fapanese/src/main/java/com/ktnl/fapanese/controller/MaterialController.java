@@ -1,16 +1,20 @@
 package com.ktnl.fapanese.controller;
 
+import com.ktnl.fapanese.dto.request.MaterialFilterRequest;
 import com.ktnl.fapanese.dto.request.MaterialRequest;
 import com.ktnl.fapanese.dto.request.UpdateDeadlineRequest;
 import com.ktnl.fapanese.dto.response.ApiResponse;
 import com.ktnl.fapanese.dto.response.ClassCourseRespone;
 import com.ktnl.fapanese.dto.response.ClassMaterialResponse;
 import com.ktnl.fapanese.dto.response.MaterialResponse;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.service.interfaces.IFileUploadService;
 import com.ktnl.fapanese.entity.ClassCourse;
 import com.ktnl.fapanese.service.interfaces.IMaterialService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -32,6 +36,16 @@ public class MaterialController {
                 .build();
     }
 
+    @GetMapping("/search")
+    public ApiResponse<PageResponse<MaterialResponse>> searchMaterials(MaterialFilterRequest filter,
+            @PageableDefault(sort = "id") Pageable pageable) {
+        PageResponse<MaterialResponse> result = materialService.searchMaterials(filter, pageable);
+        return ApiResponse.<PageResponse<MaterialResponse>>builder()
+                .result(result)
+                .message("Search materials success")
+                .build();
+    }
+
     @GetMapping("/{id}")
     public ApiResponse<MaterialResponse> getMaterialById(@PathVariable Long id) {
         MaterialResponse result = materialService.getMaterialById(id);
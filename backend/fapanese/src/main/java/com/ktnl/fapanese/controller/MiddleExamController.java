@@ -3,6 +3,7 @@ package com.ktnl.fapanese.controller;
 
 import com.ktnl.fapanese.dto.request.MiddleExamRequest;
 import com.ktnl.fapanese.dto.response.ApiResponse;
+import com.ktnl.fapanese.dto.response.ExamSummaryResponse;
 import com.ktnl.fapanese.dto.response.MiddleExamResponse;
 import com.ktnl.fapanese.dto.response.SpeakingExamResponse;
 import com.ktnl.fapanese.service.interfaces.IMiddleExamService;
@@ -27,6 +28,15 @@ public class MiddleExamController {
                 .build();
     }
 
+    @GetMapping("/summaries")
+    public ApiResponse<List<ExamSummaryResponse>> getMiddleExamSummaries(@RequestParam(required = false) Long overviewPartId) {
+        List<ExamSummaryResponse> result = middleExamService.getMiddleExamSummaries(overviewPartId);
+        return ApiResponse.<List<ExamSummaryResponse>>builder()
+                .result(result)
+                .message("Get middle exam summaries success")
+                .build();
+    }
+
     @GetMapping("/{id}")
     public ApiResponse<MiddleExamResponse> getMiddleExamById(@PathVariable Long id) {
         MiddleExamResponse result = middleExamService.getMiddleExamById(id);
@@ -1,25 +1,43 @@
 package com.ktnl.fapanese.controller;
 
+import com.ktnl.fapanese.dto.request.QuestionFilterRequest;
 import com.ktnl.fapanese.dto.request.QuestionRequest;
 import com.ktnl.fapanese.dto.request.UserAnswer;
 import com.ktnl.fapanese.dto.response.ApiResponse;
+import com.ktnl.fapanese.dto.response.CacheStatsResponse;
+import com.ktnl.fapanese.dto.response.CursorPageResponse;
 import com.ktnl.fapanese.dto.response.ExcelUploadResponse;
+import com.ktnl.fapanese.dto.response.ImportJobResponse;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.dto.response.QuestionResponse;
 import com.ktnl.fapanese.dto.response.SubmitQuizResponse;
+import com.ktnl.fapanese.entity.enums.ImportJobType;
 import com.ktnl.fapanese.entity.enums.QuestionCategory;
 import com.ktnl.fapanese.entity.enums.QuestionType;
 import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
+import com.ktnl.fapanese.service.interfaces.IImportJobService;
 import com.ktnl.fapanese.service.interfaces.IQuestionExcelUploadService;
+import com.ktnl.fapanese.service.interfaces.IQuestionExportService;
 import com.ktnl.fapanese.service.interfaces.IQuestionService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -30,6 +48,9 @@ public class QuestionController {
 
     IQuestionService questionService;
     IQuestionExcelUploadService questionExcelUploadService;
+    IAnswerKeyCacheService answerKeyCache;
+    IQuestionExportService questionExportService;
+    IImportJobService importJobService;
 
     @PostMapping
     public ApiResponse<QuestionResponse> createQuestion(@RequestBody QuestionRequest request) {
@@ -40,6 +61,8 @@ public class QuestionController {
                 .build();
     }
 
+    // Nạp cả bảng câu hỏi; frontend đã chuyển sang /search, giữ lại cho client cũ rồi sẽ bỏ
+    @Deprecated(forRemoval = true)
     @GetMapping
     public ApiResponse<List<QuestionResponse>> getAllQuestions() {
         List<QuestionResponse> result = questionService.getAllQuestions();
@@ -49,6 +72,62 @@ public class QuestionController {
                 .build();
     }
 
+    // GET /api/questions/search?category=&questionType=&lessonPartId=&keyword=&page=0&size=20&sort=id,desc
+    @GetMapping("/search")
+    public ApiResponse<PageResponse<QuestionResponse>> searchQuestions(QuestionFilterRequest filter,
+            @PageableDefault(sort = "id") Pageable pageable) {
+        PageResponse<QuestionResponse> result = questionService.searchQuestions(filter, pageable);
+        return ApiResponse.<PageResponse<QuestionResponse>>builder()
+                .result(result)
+                .message("Search questions success")
+                .build();
+    }
+
+    // GET /api/questions/scan?after=<id cuối trang trước>&limit=200
+    @GetMapping("/scan")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
+    public ApiResponse<CursorPageResponse<QuestionResponse>> scanQuestions(
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) QuestionCategory category,
+            @RequestParam(required = false) Long lessonPartId) {
+        CursorPageResponse<QuestionResponse> result = questionService.scanQuestions(after, limit, category, lessonPartId);
+        return ApiResponse.<CursorPageResponse<QuestionResponse>>builder()
+                .result(result)
+                .message("Scan questions success")
+                .build();
+    }
+
+    /**
+     * Tải toàn bộ ngân hàng câu hỏi (format = csv | xlsx). Dữ liệu được ghi dần ra response
+     * trong lúc đọc từ DB, file có thể import lại qua /upload-excel.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
+    public ResponseEntity<StreamingResponseBody> exportQuestions(@RequestParam(defaultValue = "xlsx") String format) {
+        StreamingResponseBody body;
+        MediaType contentType;
+        switch (format.toLowerCase()) {
+            case "csv" -> {
+                body = questionExportService::exportCsv;
+                contentType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+            }
+            case "xlsx" -> {
+                body = questionExportService::exportXlsx;
+                contentType = MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+            }
+            default -> throw new AppException(ErrorCode.EXPORT_FORMAT_INVALID, format);
+        }
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("questions." + format.toLowerCase())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ApiResponse<QuestionResponse> getQuestionById(@PathVariable("id") Long id) {
         QuestionResponse result = questionService.getQuestionById(id);
@@ -110,6 +189,14 @@ public class QuestionController {
 
 
 
+    @GetMapping("/answer-key-cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<CacheStatsResponse> answerKeyCacheStats() {
+        return ApiResponse.<CacheStatsResponse>builder()
+                .result(answerKeyCache.getStats())
+                .build();
+    }
+
     @GetMapping("/by-lesson-part/{lessonPartId}")
     public ApiResponse<List<QuestionResponse>> getQuestionsByLessonPart(
             @PathVariable("lessonPartId") Long lessonPartId) {
@@ -150,4 +237,24 @@ public class QuestionController {
         }
     }
 
+    // Import chạy nền cho file lớn: trả jobId ngay, tiến độ xem qua GET /upload-excel/jobs/{jobId}
+    @PostMapping("/upload-excel/jobs")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
+    public ApiResponse<ImportJobResponse> submitQuestionImportJob(@RequestParam("file") MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new AppException(ErrorCode.FILE_REQUIRED);
+        }
+        return ApiResponse.<ImportJobResponse>builder()
+                .result(importJobService.submit(ImportJobType.QUESTION, file))
+                .build();
+    }
+
+    @GetMapping("/upload-excel/jobs/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
+    public ApiResponse<ImportJobResponse> getQuestionImportJob(@PathVariable String jobId) {
+        return ApiResponse.<ImportJobResponse>builder()
+                .result(importJobService.getJob(ImportJobType.QUESTION, jobId))
+                .build();
+    }
+
 }
@@ -1,11 +1,15 @@
 package com.ktnl.fapanese.controller;
 
+import com.ktnl.fapanese.dto.request.SpeakingExamFilterRequest;
 import com.ktnl.fapanese.dto.request.SpeakingExamRequest;
 import com.ktnl.fapanese.dto.response.ApiResponse;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.dto.response.SpeakingExamResponse;
 import com.ktnl.fapanese.dto.response.SpeakingTestResponse;
 import com.ktnl.fapanese.service.interfaces.ISpeakingExamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -26,6 +30,16 @@ public class SpeakingExamController {
                 .build();
     }
 
+    @GetMapping("/search")
+    public ApiResponse<PageResponse<SpeakingExamResponse>> searchSpeakingExams(SpeakingExamFilterRequest filter,
+            @PageableDefault(sort = "id") Pageable pageable) {
+        PageResponse<SpeakingExamResponse> result = speakingExamService.searchSpeakingExams(filter, pageable);
+        return ApiResponse.<PageResponse<SpeakingExamResponse>>builder()
+                .result(result)
+                .message("Search speaking exams success")
+                .build();
+    }
+
     @GetMapping("/{id}")
     public ApiResponse<SpeakingExamResponse> getSpeakingExamById(@PathVariable Long id) {
         SpeakingExamResponse result = speakingExamService.getSpeakingExamById(id);
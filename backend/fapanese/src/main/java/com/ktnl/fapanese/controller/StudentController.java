@@ -2,18 +2,25 @@ package com.ktnl.fapanese.controller;
 
 
 import com.ktnl.fapanese.dto.request.CreateStudentRequest;
+import com.ktnl.fapanese.dto.request.StudentFilterRequest;
 import com.ktnl.fapanese.dto.response.ApiResponse;
 import com.ktnl.fapanese.dto.response.CreateStudentAccountResponse;
 import com.ktnl.fapanese.dto.response.ExcelUploadResponse;
+import com.ktnl.fapanese.dto.response.ImportJobResponse;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.dto.response.UserResponse;
+import com.ktnl.fapanese.entity.enums.ImportJobType;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
 import com.ktnl.fapanese.service.interfaces.IExcelUploadService;
+import com.ktnl.fapanese.service.interfaces.IImportJobService;
 import com.ktnl.fapanese.service.interfaces.IStudentService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -29,6 +36,7 @@ import java.util.List;
 public class StudentController {
     IStudentService iStudentService;
     IExcelUploadService iExcelUploadService;
+    IImportJobService importJobService;
 
     @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
     @PostMapping
@@ -40,6 +48,8 @@ public class StudentController {
                 .build();
     }
 
+    // Nạp toàn bộ sinh viên; frontend đã chuyển sang /search, giữ lại cho client cũ rồi sẽ bỏ
+    @Deprecated(forRemoval = true)
     @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
     @GetMapping
     public ApiResponse<List<UserResponse>> getAllStudent(){
@@ -50,6 +60,17 @@ public class StudentController {
                 .build();
     }
 
+    @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
+    @GetMapping("/search")
+    public ApiResponse<PageResponse<UserResponse>> searchStudents(StudentFilterRequest filter,
+            @PageableDefault(sort = "id") Pageable pageable) {
+        PageResponse<UserResponse> result = iStudentService.searchStudents(filter, pageable);
+        return ApiResponse.<PageResponse<UserResponse>>builder()
+                .result(result)
+                .message("Search students success")
+                .build();
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
     @GetMapping("/{email}")
     public ApiResponse<UserResponse> getStudentByEmail(@PathVariable String email) {
@@ -114,4 +135,29 @@ public class StudentController {
                 .message(message) // Message tóm tắt
                 .build(); // Mặc định code 1000, message success nếu không có lỗi
     }
+
+    // Import chạy nền cho file lớn: trả jobId ngay, tiến độ xem qua GET /upload-excel/jobs/{jobId}
+    @PostMapping("/upload-excel/jobs")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
+    public ApiResponse<ImportJobResponse> submitStudentImportJob(@RequestParam("file") MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new AppException(ErrorCode.FILE_REQUIRED);
+        }
+        String contentType = file.getContentType();
+        if (contentType == null || (!contentType.equals("application/vnd.ms-excel") && !contentType.equals("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Định dạng file không hợp lệ (.xls, .xlsx).");
+        }
+
+        return ApiResponse.<ImportJobResponse>builder()
+                .result(importJobService.submit(ImportJobType.STUDENT, file))
+                .build();
+    }
+
+    @GetMapping("/upload-excel/jobs/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LECTURER')")
+    public ApiResponse<ImportJobResponse> getStudentImportJob(@PathVariable String jobId) {
+        return ApiResponse.<ImportJobResponse>builder()
+                .result(importJobService.getJob(ImportJobType.STUDENT, jobId))
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.ktnl.fapanese.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Bài làm của một sinh viên, mỗi dòng của file NDJSON khi chấm cả lớp.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAnswerSheet {
+    private String studentId;
+    private List<UserAnswer> answers;
+}
@@ -0,0 +1,13 @@
+package com.ktnl.fapanese.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassAnnouncementRequest {
+    private String subject;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.ktnl.fapanese.dto.request;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ClassCourseFilterRequest {
+    Long courseId;
+    String lecturerId;
+    String semester;
+    String keyword; // Tìm trong tên lớp
+}
@@ -0,0 +1,16 @@
+package com.ktnl.fapanese.dto.request;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExamPaperSubmission {
+    Long paperSetId;
+    List<UserAnswer> answers; // userAnswer là chữ cái (A-D) đúng như hiển thị trên đề của sinh viên
+}
@@ -0,0 +1,23 @@
+package com.ktnl.fapanese.dto.request;
+
+import com.ktnl.fapanese.entity.enums.QuestionCategory;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class GenerateExamPapersRequest {
+    Long classCourseId;      // Phát đề cho cả lớp
+    List<String> studentIds; // Hoặc danh sách sinh viên cụ thể
+    Map<QuestionCategory, Integer> questionsPerCategory; // Bỏ trống = lấy hết câu của đề
+    LocalDateTime closesAt;  // Hạn nộp bài; đáp án chỉ công bố cho sinh viên sau thời điểm này
+    @Builder.Default
+    boolean shuffleOptions = true;
+}
@@ -0,0 +1,16 @@
+package com.ktnl.fapanese.dto.request;
+
+import com.ktnl.fapanese.entity.Material;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MaterialFilterRequest {
+    Material.MaterialType type;
+    String lecturerId;
+    String keyword; // Tìm trong tiêu đề
+}
@@ -0,0 +1,18 @@
+package com.ktnl.fapanese.dto.request;
+
+import com.ktnl.fapanese.entity.enums.QuestionCategory;
+import com.ktnl.fapanese.entity.enums.QuestionType;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class QuestionFilterRequest {
+    QuestionCategory category;
+    QuestionType questionType;
+    Long lessonPartId;
+    String keyword; // Tìm trong nội dung câu hỏi
+}
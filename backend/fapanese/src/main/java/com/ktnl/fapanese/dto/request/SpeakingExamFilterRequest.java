@@ -0,0 +1,16 @@
+package com.ktnl.fapanese.dto.request;
+
+import com.ktnl.fapanese.entity.enums.SpeakingExamType;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class SpeakingExamFilterRequest {
+    Long overviewPartId;
+    SpeakingExamType type;
+    String keyword; // Tìm trong tiêu đề
+}
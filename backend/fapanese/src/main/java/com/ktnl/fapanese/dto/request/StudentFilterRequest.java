@@ -0,0 +1,14 @@
+package com.ktnl.fapanese.dto.request;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StudentFilterRequest {
+    String campus;
+    String keyword; // Tìm theo email, họ hoặc tên
+}
@@ -0,0 +1,25 @@
+package com.ktnl.fapanese.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Kết quả chấm một dòng (một bài làm) khi chấm cả lớp; type = "result" hoặc "error".
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkGradingResultResponse {
+    String type;
+    Integer line;
+    String studentId;
+    Integer correctCount;
+    Integer totalQuestions;
+    Double scorePercentage;
+    Integer ignoredAnswers; // số câu trả lời cho câu hỏi không thuộc đề
+    String message;
+}
@@ -0,0 +1,33 @@
+package com.ktnl.fapanese.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * Dòng cuối cùng (type = "summary") khi chấm cả lớp: thống kê điểm và thống kê từng câu hỏi.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkGradingSummaryResponse {
+    @Builder.Default
+    String type = "summary";
+    Long examId;
+    String examKind;
+    Long classCourseId;
+    int gradedSheets;
+    int failedSheets;
+    int totalQuestions;
+    double averageScore;
+    double minScore;
+    double maxScore;
+    double scoreStdDev;
+    List<String> missingStudentIds; // sinh viên của lớp chưa có bài làm
+    List<ItemStatisticsResponse> items;
+}
@@ -0,0 +1,25 @@
+package com.ktnl.fapanese.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CacheStatsResponse {
+    long hits;
+    long misses;
+    long evictions;
+    int size;
+    int maxSize;
+    double hitRate;
+
+    // Chỉ có ở các cache giới hạn theo dung lượng (ví dụ cache audio TTS)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Long sizeBytes;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Long maxSizeBytes;
+}
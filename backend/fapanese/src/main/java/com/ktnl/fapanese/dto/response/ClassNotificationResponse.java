@@ -0,0 +1,28 @@
+package com.ktnl.fapanese.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ClassNotificationResponse {
+    Long id;
+    Long classCourseId;
+    String subject;
+    int recipientCount;
+    long sent;
+    long failed;
+    long pending;
+    LocalDateTime createdAt;
+
+    // Chỉ có khi xem chi tiết một thông báo
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    List<NotificationRecipientResponse> recipients;
+}
@@ -0,0 +1,22 @@
+package com.ktnl.fapanese.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * Một trang keyset: gọi tiếp với after = nextCursor cho tới khi hasMore = false.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CursorPageResponse<T> {
+    List<T> items;
+    Long nextCursor; // id của phần tử cuối trang; null khi trang rỗng
+    boolean hasMore;
+}
@@ -0,0 +1,21 @@
+package com.ktnl.fapanese.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExamPaperBatchResponse {
+    Long paperSetId;
+    String examKind;
+    Long examId;
+    Map<String, Integer> questionsPerCategory;
+    int questionsPerPaper;
+    List<ExamPaperResponse> papers;
+}
@@ -0,0 +1,24 @@
+package com.ktnl.fapanese.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExamPaperQuestionResponse {
+    Long questionId;
+    String content;
+    String category;
+    String questionType;
+
+    // Đã xáo theo từng sinh viên; không kèm đáp án
+    String optionA;
+    String optionB;
+    String optionC;
+    String optionD;
+}
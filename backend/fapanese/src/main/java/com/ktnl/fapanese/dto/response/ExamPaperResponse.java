@@ -0,0 +1,19 @@
+package com.ktnl.fapanese.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExamPaperResponse {
+    Long paperSetId;
+    String examKind;
+    Long examId;
+    String studentId;
+    List<ExamPaperQuestionResponse> questions;
+}
@@ -0,0 +1,22 @@
+package com.ktnl.fapanese.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.ktnl.fapanese.entity.enums.FinalExamType;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExamSummaryResponse {
+    Long id;
+    Long overviewPartId;
+    String examTitle;
+    String semester;
+    FinalExamType type;
+    int year;
+    long questionCount; // Chỉ số câu, không kèm nội dung câu hỏi
+}
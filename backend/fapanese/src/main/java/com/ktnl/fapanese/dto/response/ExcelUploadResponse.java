@@ -25,4 +25,10 @@ public class ExcelUploadResponse {
         this.errorMessages.add(String.format("Dòng %d: %s", rowNumber, error));
         this.failureCount++;
     }
+
+    // Cả một lô lưu thất bại: mọi dòng trong lô đều tính là lỗi nhưng chỉ ghi một thông báo
+    public void addChunkErrorMessage(int firstRow, int lastRow, int rowCount, String error) {
+        this.errorMessages.add(String.format("Dòng %d-%d: %s", firstRow, lastRow, error));
+        this.failureCount += rowCount;
+    }
 }
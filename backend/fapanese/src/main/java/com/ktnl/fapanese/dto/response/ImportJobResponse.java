@@ -0,0 +1,27 @@
+package com.ktnl.fapanese.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ImportJobResponse {
+    String jobId;
+    String type;            // STUDENT, QUESTION
+    String status;          // QUEUED, RUNNING, COMPLETED, FAILED
+    String fileName;
+    int totalRowsProcessed; // Tính tới checkpoint gần nhất khi job còn đang chạy
+    int successCount;
+    int failureCount;
+    List<String> errorMessages;
+    String failureReason;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+    LocalDateTime finishedAt;
+}
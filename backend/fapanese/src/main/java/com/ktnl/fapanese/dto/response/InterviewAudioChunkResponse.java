@@ -0,0 +1,15 @@
+package com.ktnl.fapanese.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class InterviewAudioChunkResponse {
+    int index;          // thứ tự phát, bắt đầu từ 0
+    String text;        // câu AI trả lời (còn giữ tag [JA:...:JA])
+    String audioBase64; // WAV 16kHz mono của riêng câu này
+}
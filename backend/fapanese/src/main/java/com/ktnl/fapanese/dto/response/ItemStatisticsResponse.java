@@ -0,0 +1,24 @@
+package com.ktnl.fapanese.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemStatisticsResponse {
+    Long questionId;
+    String questionType;
+    long answered;
+    long omitted;
+    long correct;
+    double difficulty;          // tỉ lệ làm đúng (p), càng nhỏ câu càng khó
+    Double discrimination;      // tương quan point-biserial giữa câu này và tổng điểm; null nếu không tính được
+    Map<String, Long> answerCounts; // phân bố đáp án đã chọn (chỉ câu trắc nghiệm)
+}
@@ -0,0 +1,24 @@
+package com.ktnl.fapanese.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MailDispatchStatsResponse {
+    int workers;
+    int openConnections;
+    int queueDepth;
+    int queueCapacity;
+    long sent;
+    long failed;
+    long retried;
+    long rejected;
+    long connectionsOpened;
+    double avgSendMs;
+    // Tốc độ gửi trong cửa sổ thống kê gần nhất (mail-dispatch.stats-interval)
+    double mailsPerSecond;
+}
@@ -0,0 +1,19 @@
+package com.ktnl.fapanese.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class NotificationRecipientResponse {
+    String email;
+    String status;
+    int attempts;
+    String lastError;
+    LocalDateTime sentAt;
+}
@@ -0,0 +1,36 @@
+package com.ktnl.fapanese.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Một trang kết quả cho các endpoint danh sách có phân trang.
+ * Không trả thẳng Page của Spring Data để JSON ổn định và không lộ chi tiết Pageable.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PageResponse<T> {
+    List<T> items;
+    int page;           // Bắt đầu từ 0
+    int size;
+    long totalElements;
+    int totalPages;
+    boolean hasNext;
+
+    public static <T> PageResponse<T> from(Page<T> page) {
+        return PageResponse.<T>builder()
+                .items(page.getContent())
+                .page(page.getNumber())
+                .size(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .hasNext(page.hasNext())
+                .build();
+    }
+}
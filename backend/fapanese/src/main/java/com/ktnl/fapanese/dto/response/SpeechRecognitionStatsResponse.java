@@ -0,0 +1,23 @@
+package com.ktnl.fapanese.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class SpeechRecognitionStatsResponse {
+    int parallelism;
+    int activeJobs;
+    int queueDepth;
+    int queueCapacity;
+    long completed;
+    long failed;
+    long rejected;
+    long timedOut;
+    double avgQueueWaitMs;
+    double avgProcessingMs;
+    long maxProcessingMs;
+}
@@ -0,0 +1,23 @@
+package com.ktnl.fapanese.dto.response;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TtsPrerenderJobResponse {
+    String jobId;
+    String target;      // ví dụ "lesson:12", "speaking-exam:3"
+    String status;      // RUNNING, COMPLETED, FAILED
+    int total;          // số câu (đã bỏ trùng) cần có audio
+    int rendered;       // số câu vừa gọi Azure để tổng hợp
+    int cached;         // số câu đã có sẵn trong cache
+    int failed;
+    LocalDateTime startedAt;
+    LocalDateTime finishedAt;
+}
@@ -0,0 +1,41 @@
+package com.ktnl.fapanese.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+// Thông báo gửi cho cả lớp: nội dung render một lần và lưu ở đây, mỗi người nhận là một dòng
+// EmailOutbox trỏ về thông báo này (trạng thái gửi theo từng người nằm ở EmailOutbox)
+@Entity
+@Table(name = "class_notification")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ClassNotification {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "class_course_id", nullable = false)
+    Long classCourseId;
+
+    @Column(name = "subject")
+    String subject;
+
+    @Column(name = "body", columnDefinition = "MEDIUMTEXT")
+    String body;
+
+    @Column(name = "recipient_count")
+    int recipientCount;
+
+    @Column(name = "created_by")
+    String createdBy;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+}
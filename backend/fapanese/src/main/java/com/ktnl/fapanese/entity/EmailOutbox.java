@@ -0,0 +1,62 @@
+package com.ktnl.fapanese.entity;
+
+import com.ktnl.fapanese.entity.enums.EmailOutboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+// Email chờ gửi, được ghi cùng transaction với dữ liệu nghiệp vụ (ví dụ tài khoản vừa tạo)
+// và được EmailOutboxService gửi sau khi commit. Nội dung đã render sẵn nên dòng PENDING của email
+// tạo tài khoản chứa mật khẩu tạm dạng rõ; body bị xóa khi email SENT hoặc FAILED
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_email_outbox_notification", columnList = "notification_id")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EmailOutbox {
+    // UUID sinh sẵn để Hibernate gom được INSERT khi tạo cả lô tài khoản
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    String id;
+
+    @Column(name = "recipient")
+    String recipient;
+
+    @Column(name = "subject")
+    String subject;
+
+    @Column(name = "body", columnDefinition = "MEDIUMTEXT")
+    String body;
+
+    // Email thuộc thông báo cả lớp: body để trống, dùng chung nội dung của ClassNotification
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "notification_id")
+    ClassNotification notification;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    EmailOutboxStatus status;
+
+    @Column(name = "attempts")
+    int attempts;
+
+    @Column(name = "next_attempt_at")
+    LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    String lastError;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    LocalDateTime sentAt;
+}
@@ -0,0 +1,29 @@
+package com.ktnl.fapanese.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+// Lời giải thích đề thi do AI sinh ra, lưu theo hash của nội dung câu hỏi
+// để dùng lại sau khi restart server (tầng cache thứ 2 của explain-exam)
+@Entity
+@Table(name = "exam_explanation")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExamExplanation {
+    @Id
+    @Column(name = "prompt_hash", length = 64)
+    String promptHash;
+
+    @Column(name = "content", columnDefinition = "TEXT")
+    String content;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,45 @@
+package com.ktnl.fapanese.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+// Bài làm của một sinh viên cho một lần phát đề; mỗi sinh viên chỉ nộp được một lần
+@Entity
+@Table(name = "exam_paper_attempt",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"paper_set_id", "student_id"}))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExamPaperAttempt {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "paper_set_id", nullable = false)
+    Long paperSetId;
+
+    @Column(name = "student_id", nullable = false)
+    String studentId;
+
+    // JSON: [{"questionId": 1, "userAnswer": "B"}, ...] — chữ cái như hiển thị trên đề của sinh viên
+    @Column(name = "answers", columnDefinition = "TEXT")
+    String answers;
+
+    @Column(name = "total_questions")
+    int totalQuestions;
+
+    @Column(name = "correct_count")
+    int correctCount;
+
+    @Column(name = "score_percentage")
+    double scorePercentage;
+
+    @Column(name = "submitted_at")
+    LocalDateTime submittedAt;
+}
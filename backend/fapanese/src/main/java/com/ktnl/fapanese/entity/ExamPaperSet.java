@@ -0,0 +1,66 @@
+package com.ktnl.fapanese.entity;
+
+import com.ktnl.fapanese.entity.enums.ExamKind;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+// Một lần phát đề ngẫu nhiên cho một bài giữa kỳ / cuối kỳ. Chỉ lưu seed, số câu mỗi loại và
+// pool id câu hỏi (một dòng cho cả khóa thi); đề của từng sinh viên được sinh lại từ đây khi cần
+@Entity
+@Table(name = "exam_paper_set")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExamPaperSet {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "exam_kind")
+    ExamKind examKind;
+
+    @Column(name = "exam_id")
+    Long examId;
+
+    // Lớp được chọn khi phát đề (có thể null nếu chỉ phát theo danh sách sinh viên)
+    @Column(name = "class_course_id")
+    Long classCourseId;
+
+    // JSON: ["userId1", ...] — toàn bộ sinh viên được phát đề lần này (lớp + danh sách thêm);
+    // chỉ những sinh viên này mới xem / nộp được đề
+    @Column(name = "student_ids", columnDefinition = "TEXT")
+    String studentIds;
+
+    @Column(name = "seed")
+    long seed;
+
+    @Column(name = "shuffle_options")
+    boolean shuffleOptions;
+
+    // JSON: {"VOCABULARY": 10, "GRAMMAR": 5, ...}
+    @Column(name = "blueprint", columnDefinition = "TEXT")
+    String blueprint;
+
+    // JSON: {"VOCABULARY": [1, 2, 3], ...} — pool tại thời điểm phát đề, id tăng dần
+    @Column(name = "question_pool", columnDefinition = "TEXT")
+    String questionPool;
+
+    // JSON: {"12": 31, ...} — với mỗi câu trong pool: bit 0-3 = có đáp án A-D, bit 4 = câu trắc nghiệm.
+    // Chụp lúc phát đề để hoán vị đáp án của từng sinh viên không đổi khi câu hỏi bị sửa sau đó
+    @Column(name = "option_masks", columnDefinition = "TEXT")
+    String optionMasks;
+
+    // Hạn nộp bài, null = không có hạn (khi đó sinh viên không bao giờ xem được đáp án)
+    @Column(name = "closes_at")
+    LocalDateTime closesAt;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,73 @@
+package com.ktnl.fapanese.entity;
+
+import com.ktnl.fapanese.entity.enums.ImportJobStatus;
+import com.ktnl.fapanese.entity.enums.ImportJobType;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+// Một lần import Excel chạy nền. File upload nằm ở filePath cho tới khi job kết thúc;
+// lastCommittedRow + các bộ đếm là checkpoint, được ghi cùng transaction với lô dữ liệu vừa lưu
+@Entity
+@Table(name = "import_job")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ImportJob {
+    @Id
+    @Column(name = "id", length = 36)
+    String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "job_type")
+    ImportJobType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    ImportJobStatus status;
+
+    @Column(name = "file_name")
+    String fileName;
+
+    @Column(name = "file_path")
+    String filePath;
+
+    @Column(name = "created_by")
+    String createdBy;
+
+    // Số dòng Excel (đánh số như trong thông báo lỗi) cuối cùng đã có kết quả được commit; 1 = mới qua header
+    @Builder.Default
+    @Column(name = "last_committed_row")
+    int lastCommittedRow = 1;
+
+    @Column(name = "total_rows_processed")
+    int totalRowsProcessed;
+
+    @Column(name = "success_count")
+    int successCount;
+
+    @Column(name = "failure_count")
+    int failureCount;
+
+    // JSON: ["Dòng 5: ...", ...]
+    @Column(name = "error_messages", columnDefinition = "LONGTEXT")
+    String errorMessages;
+
+    // Lỗi làm cả job dừng (thiếu header, file hỏng,...)
+    @Column(name = "failure_reason", columnDefinition = "TEXT")
+    String failureReason;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    LocalDateTime finishedAt;
+}
@@ -0,0 +1,7 @@
+package com.ktnl.fapanese.entity.enums;
+
+public enum EmailOutboxStatus {
+    PENDING, // Chờ gửi (kể cả đang chờ retry)
+    SENT,
+    FAILED   // Hết số lần thử
+}
@@ -0,0 +1,6 @@
+package com.ktnl.fapanese.entity.enums;
+
+public enum ExamKind {
+    MIDDLE, // MiddleExam
+    FINAL   // FinalExam
+}
@@ -0,0 +1,8 @@
+package com.ktnl.fapanese.entity.enums;
+
+public enum ImportJobStatus {
+    QUEUED,    // Đã lưu file, chờ worker
+    RUNNING,   // Đang xử lý; còn RUNNING lúc khởi động lại tức là bị dừng giữa chừng → chạy tiếp
+    COMPLETED,
+    FAILED
+}
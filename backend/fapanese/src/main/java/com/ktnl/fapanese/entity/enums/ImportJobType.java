@@ -0,0 +1,6 @@
+package com.ktnl.fapanese.entity.enums;
+
+public enum ImportJobType {
+    STUDENT,  // ExcelUploadService
+    QUESTION  // QuestionExcelUploadService
+}
@@ -42,6 +42,10 @@ public enum ErrorCode {
 
     UNAUTHORIZED_ACTION(1021, "Tài khoản của bạn đang đợi duyệt", HttpStatus.FORBIDDEN),
     ACTION_NOT_ALLOWED(1022, "Material is not submittable", HttpStatus.FORBIDDEN),
+    INVALID_SORT_PROPERTY(1023, "Không thể sắp xếp theo trường {0}", HttpStatus.BAD_REQUEST),
+    CLASS_NOTIFICATION_NOT_FOUND(1024, "Không tìm thấy thông báo của lớp", HttpStatus.NOT_FOUND),
+    CLASS_ANNOUNCEMENT_EMPTY(1025, "Tiêu đề và nội dung thông báo không được để trống", HttpStatus.BAD_REQUEST),
+    CLASS_NOT_TAUGHT(1026, "Bạn không phụ trách lớp này", HttpStatus.FORBIDDEN),
 
     // 👉 Validation specific error codes
     FIRSTNAME_REQUIRED(2001, "First name is required", HttpStatus.BAD_REQUEST),
@@ -62,11 +66,28 @@ public enum ErrorCode {
     FILE_UPLOAD_FAILED(3008, "Lỗi khi upload file lên Cloudinary", HttpStatus.INTERNAL_SERVER_ERROR),
     FILE_SIZE_EXCEED(3009, "File đã vượt quá kích cỡ", HttpStatus.BAD_REQUEST),
     ASSIGNMENT_NOT_FOUND(30010, "Không tìm thấy bài tập", HttpStatus.BAD_REQUEST),
+    EXPORT_FORMAT_INVALID(3011, "Định dạng export {0} không hợp lệ (chỉ hỗ trợ csv hoặc xlsx)", HttpStatus.BAD_REQUEST),
+    IMPORT_JOB_NOT_FOUND(3012, "Không tìm thấy job import", HttpStatus.NOT_FOUND),
+    IMPORT_JOB_ACCESS_DENIED(3013, "Bạn không có quyền xem job import này", HttpStatus.FORBIDDEN),
 
     OVERVIEW_PART_NOT_FOUND(4001, "Không tìm thấy Overview Part", HttpStatus.NOT_FOUND),
     EXAM_NOT_FOUND(4002, "Không tìm thấy bài kiểm tra", HttpStatus.NOT_FOUND),
     OVERVIEW_NOT_FOUND(4003, "Không tìm thấy Overview", HttpStatus.NOT_FOUND),
     SPEAKING_QUESTION_NOT_FOUND(4004, "Không tìm thấy Speaking Question", HttpStatus.NOT_FOUND),
+    EXAM_PAPER_NOT_FOUND(4005, "Không tìm thấy đề thi đã phát", HttpStatus.NOT_FOUND),
+    EXAM_POOL_TOO_SMALL(4006, "Đề chỉ có {1} câu loại {0}, không đủ để bốc {2} câu", HttpStatus.BAD_REQUEST),
+    EXAM_PAPER_NOT_ASSIGNED(4007, "Bạn không có tên trong danh sách dự thi của đề này", HttpStatus.FORBIDDEN),
+    EXAM_PAPER_ALREADY_SUBMITTED(4008, "Bạn đã nộp bài cho đề này", HttpStatus.BAD_REQUEST),
+    EXAM_PAPER_CLOSED(4009, "Đã hết hạn nộp bài", HttpStatus.BAD_REQUEST),
+    EXAM_PAPER_NOT_SUBMITTED(4010, "Bạn chưa nộp bài cho đề này", HttpStatus.NOT_FOUND),
+    BULK_GRADING_CLASS_REQUIRED(4011, "Giảng viên phải chọn lớp mình phụ trách khi chấm bài hàng loạt", HttpStatus.FORBIDDEN),
+
+    STT_BUSY(5001, "Hệ thống nhận diện giọng nói đang quá tải, vui lòng thử lại sau", HttpStatus.SERVICE_UNAVAILABLE),
+    STT_TIMEOUT(5002, "Nhận diện giọng nói quá thời gian cho phép", HttpStatus.GATEWAY_TIMEOUT),
+    TTS_BUSY(5003, "Hệ thống chuyển văn bản thành giọng nói đang quá tải, vui lòng thử lại sau", HttpStatus.SERVICE_UNAVAILABLE),
+    TTS_MODE_INVALID(5004, "Chế độ đọc {0} không hợp lệ (chỉ hỗ trợ 1 hoặc 2)", HttpStatus.BAD_REQUEST),
+    TTS_AUDIO_NOT_FOUND(5005, "Không tìm thấy file audio", HttpStatus.NOT_FOUND),
+    TTS_PRERENDER_JOB_NOT_FOUND(5006, "Không tìm thấy job pre-render", HttpStatus.NOT_FOUND),
 
 
     ;
@@ -3,6 +3,7 @@ package com.ktnl.fapanese.exception;
 import com.ktnl.fapanese.dto.response.ApiResponse;
 import com.ktnl.fapanese.dto.response.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -47,6 +48,14 @@ public class GlobalExceptionHandler {
     }
 
 
+    /**
+     * Tham số sort=... trỏ tới trường không tồn tại trên entity (các endpoint /search)
+     */
+    @ExceptionHandler(value = PropertyReferenceException.class)
+    ResponseEntity<ApiResponse> handlingPropertyReferenceException(PropertyReferenceException exception){
+        return handlingAppException(new AppException(ErrorCode.INVALID_SORT_PROPERTY, exception.getPropertyName()));
+    }
+
     @ExceptionHandler(value = RuntimeException.class)
     ResponseEntity<ApiResponse> handlerRuntimeException(RuntimeException re){
         ApiResponse apiResponse = new ApiResponse();
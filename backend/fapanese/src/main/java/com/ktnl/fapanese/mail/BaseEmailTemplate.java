@@ -2,11 +2,8 @@ package com.ktnl.fapanese.mail;
 
 public abstract class BaseEmailTemplate implements EmailTemplate {
 
-    protected abstract String renderBody(String... args);
-
-    @Override
-    public String getContent(String... args) {
-        return """
+    // Khung HTML chung của mọi email (CSS, header, footer); %s là chỗ đặt nội dung riêng
+    private static final String LAYOUT = """
                 <!DOCTYPE html>
                 <html lang="vi">
                 <head>
@@ -153,7 +150,25 @@ public abstract class BaseEmailTemplate implements EmailTemplate {
                   </div>
                 </body>
                 </html>
-                 """
-                .formatted(renderBody(args));
+                 """;
+
+    // Khung được format một lần lúc nạp class rồi cắt đôi quanh chỗ đặt nội dung:
+    // mỗi email chỉ còn nối 3 chuỗi thay vì format lại toàn bộ LAYOUT
+    private static final String SHELL_PREFIX;
+    private static final String SHELL_SUFFIX;
+
+    static {
+        String marker = "\u0000BODY\u0000";
+        String shell = LAYOUT.formatted(marker);
+        int at = shell.indexOf(marker);
+        SHELL_PREFIX = shell.substring(0, at);
+        SHELL_SUFFIX = shell.substring(at + marker.length());
+    }
+
+    protected abstract String renderBody(String... args);
+
+    @Override
+    public String getContent(String... args) {
+        return SHELL_PREFIX + renderBody(args) + SHELL_SUFFIX;
     }
 }
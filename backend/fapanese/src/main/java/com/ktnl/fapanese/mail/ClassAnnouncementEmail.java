@@ -0,0 +1,31 @@
+package com.ktnl.fapanese.mail;
+
+import org.springframework.web.util.HtmlUtils;
+
+// Thông báo tự do của giảng viên: tiêu đề do giảng viên nhập nên truyền qua constructor
+public class ClassAnnouncementEmail extends BaseEmailTemplate {
+    private final String subject;
+
+    public ClassAnnouncementEmail(String subject) {
+        this.subject = subject;
+    }
+
+    @Override
+    public String getSubject() {
+        return subject;
+    }
+
+    @Override
+    protected String renderBody(String... args) {
+        // args[0] = tên lớp, args[1] = nội dung thông báo (văn bản thường, giữ xuống dòng)
+        String className = HtmlUtils.htmlEscape(args.length > 0 ? args[0] : "", "UTF-8");
+        String message = HtmlUtils.htmlEscape(args.length > 1 ? args[1] : "", "UTF-8")
+                .replace("\r\n", "\n").replace("\n", "<br>");
+
+        return """
+            <h2>Thông báo từ lớp %s</h2>
+            <p>%s</p>
+            <p style="font-size:13px; color:#777;">Trân trọng,<br><strong>Đội ngũ Fapanese</strong></p>
+        """.formatted(className, message);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ktnl.fapanese.mail;
+
+import org.springframework.web.util.HtmlUtils;
+
+public class MaterialAssignedEmail extends BaseEmailTemplate {
+
+    @Override
+    public String getSubject() {
+        return "📚 Fapanese - Lớp của bạn có tài liệu / bài tập mới";
+    }
+
+    @Override
+    protected String renderBody(String... args) {
+        // args[0] = tên lớp, args[1] = tên tài liệu, args[2] = hạn nộp (rỗng nếu không có)
+        String className = HtmlUtils.htmlEscape(args.length > 0 ? args[0] : "", "UTF-8");
+        String title = HtmlUtils.htmlEscape(args.length > 1 ? args[1] : "", "UTF-8");
+        String deadline = args.length > 2 && !args[2].isBlank()
+                ? "<p>Hạn nộp: <strong>%s</strong></p>".formatted(HtmlUtils.htmlEscape(args[2], "UTF-8"))
+                : "";
+
+        return """
+            <h2>Xin chào 👋</h2>
+            <p>Giảng viên vừa giao <strong>%s</strong> cho lớp <strong>%s</strong>.</p>
+            %s
+            <p style="text-align:center;">
+              <a href="https://fapanese-web-upcz.vercel.app/" class="button">Xem trên Fapanese</a>
+            </p>
+            <p style="font-size:13px; color:#777;">Trân trọng,<br><strong>Đội ngũ Fapanese</strong></p>
+        """.formatted(title, className, deadline);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ktnl.fapanese.mail;
+
+import org.springframework.web.util.HtmlUtils;
+
+public class SubmissionGradedEmail extends BaseEmailTemplate {
+
+    @Override
+    public String getSubject() {
+        return "📝 Fapanese - Bài nộp của bạn đã được chấm điểm";
+    }
+
+    @Override
+    protected String renderBody(String... args) {
+        // args[0] = tên tài liệu, args[1] = điểm, args[2] = nhận xét (có thể rỗng)
+        String title = HtmlUtils.htmlEscape(args.length > 0 ? args[0] : "", "UTF-8");
+        String score = HtmlUtils.htmlEscape(args.length > 1 ? args[1] : "", "UTF-8");
+        String feedback = args.length > 2 && !args[2].isBlank()
+                ? "<p>Nhận xét của giảng viên:</p><p style=\"background:#f3f3f3; padding:8px 12px; border-radius:4px;\">%s</p>"
+                        .formatted(HtmlUtils.htmlEscape(args[2], "UTF-8"))
+                : "";
+
+        return """
+            <h2>Xin chào 👋</h2>
+            <p>Bài nộp <strong>%s</strong> của bạn đã được chấm: <strong>%s</strong> điểm.</p>
+            %s
+            <p style="font-size:13px; color:#777;">Trân trọng,<br><strong>Đội ngũ Fapanese</strong></p>
+        """.formatted(title, score, feedback);
+    }
+}
@@ -0,0 +1,14 @@
+package com.ktnl.fapanese.mapper;
+
+import com.ktnl.fapanese.dto.response.ExamSummaryResponse;
+import com.ktnl.fapanese.repository.projection.ExamSummary;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface ExamSummaryMapper {
+    ExamSummaryResponse toExamSummaryResponse(ExamSummary summary);
+
+    List<ExamSummaryResponse> toExamSummaryResponseList(List<ExamSummary> summaries);
+}
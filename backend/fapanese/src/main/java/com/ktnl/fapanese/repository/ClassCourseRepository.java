@@ -4,6 +4,7 @@ import com.ktnl.fapanese.dto.response.ClassCourseRespone;
 import com.ktnl.fapanese.entity.ClassCourse;
 import com.ktnl.fapanese.entity.ClassMaterial;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,7 +14,7 @@ import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface ClassCourseRepository extends JpaRepository<ClassCourse, Long> {
+public interface ClassCourseRepository extends JpaRepository<ClassCourse, Long>, JpaSpecificationExecutor<ClassCourse> {
     Optional<ClassCourse> findByCourseId(Long courseId);
     List<ClassCourse> findByLecturerId(String lecturerId);
     Optional<ClassCourse> findByClassMaterials(Set<ClassMaterial> classMaterials);
@@ -0,0 +1,9 @@
+package com.ktnl.fapanese.repository;
+
+import com.ktnl.fapanese.entity.ClassNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ClassNotificationRepository extends JpaRepository<ClassNotification, Long> {
+}
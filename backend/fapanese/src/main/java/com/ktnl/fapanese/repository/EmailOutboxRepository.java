@@ -0,0 +1,19 @@
+package com.ktnl.fapanese.repository;
+
+import com.ktnl.fapanese.entity.EmailOutbox;
+import com.ktnl.fapanese.entity.enums.EmailOutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, String> {
+    // Lấy luôn ClassNotification (nội dung dùng chung): dispatcher chạy ngoài transaction nên không lazy-load được
+    @EntityGraph(attributePaths = "notification")
+    List<EmailOutbox> findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+            EmailOutboxStatus status, LocalDateTime now, Pageable pageable);
+
+    List<EmailOutbox> findByNotification_IdOrderByRecipientAsc(Long notificationId);
+}
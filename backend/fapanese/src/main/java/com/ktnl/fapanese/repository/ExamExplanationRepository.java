@@ -0,0 +1,7 @@
+package com.ktnl.fapanese.repository;
+
+import com.ktnl.fapanese.entity.ExamExplanation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ExamExplanationRepository extends JpaRepository<ExamExplanation, String> {
+}
@@ -0,0 +1,14 @@
+package com.ktnl.fapanese.repository;
+
+import com.ktnl.fapanese.entity.ExamPaperAttempt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ExamPaperAttemptRepository extends JpaRepository<ExamPaperAttempt, Long> {
+    boolean existsByPaperSetIdAndStudentId(Long paperSetId, String studentId);
+
+    Optional<ExamPaperAttempt> findByPaperSetIdAndStudentId(Long paperSetId, String studentId);
+}
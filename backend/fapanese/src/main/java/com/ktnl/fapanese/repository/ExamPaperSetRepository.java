@@ -0,0 +1,13 @@
+package com.ktnl.fapanese.repository;
+
+import com.ktnl.fapanese.entity.ExamPaperSet;
+import com.ktnl.fapanese.entity.enums.ExamKind;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ExamPaperSetRepository extends JpaRepository<ExamPaperSet, Long> {
+    List<ExamPaperSet> findByExamKindAndExamIdOrderByIdDesc(ExamKind examKind, Long examId);
+}
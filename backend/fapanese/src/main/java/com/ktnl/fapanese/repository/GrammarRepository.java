@@ -2,6 +2,8 @@ package com.ktnl.fapanese.repository;
 
 import com.ktnl.fapanese.entity.Grammar;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +11,7 @@ import java.util.List;
 @Repository
 public interface GrammarRepository extends JpaRepository<Grammar, Long> {
     List<Grammar> findByLessonPart_Id(Long lessonPartId);
+
+    @Query("SELECT d.exampleSentence FROM GrammarDetail d WHERE d.grammar.lessonPart.lesson.id = :lessonId")
+    List<String> findExampleSentencesByLessonId(@Param("lessonId") Long lessonId);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.ktnl.fapanese.repository;
+
+import com.ktnl.fapanese.entity.ImportJob;
+import com.ktnl.fapanese.entity.enums.ImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+    List<ImportJob> findByStatusInOrderByCreatedAtAsc(Collection<ImportJobStatus> statuses);
+}
@@ -2,6 +2,20 @@ package com.ktnl.fapanese.repository;
 
 import com.ktnl.fapanese.entity.InvalidatedToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
 
 public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, String> {
+    List<InvalidatedToken> findAllByExpiryTimeAfter(Date time);
+
+    // Xóa hàng loạt bằng một câu DELETE, không load entity lên bộ nhớ
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM InvalidatedToken t WHERE t.expiryTime < :time")
+    int deleteAllExpiredBefore(@Param("time") Date time);
 }
@@ -3,11 +3,12 @@ package com.ktnl.fapanese.repository;
 import com.ktnl.fapanese.entity.Course;
 import com.ktnl.fapanese.entity.Lesson;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
-public interface LessonRepository extends JpaRepository<Lesson,Long> {
+public interface LessonRepository extends JpaRepository<Lesson,Long>, JpaSpecificationExecutor<Lesson> {
     List<Lesson> findByCourseId(Long courseId);
     List<Lesson> findByCourse(Course course);
 }
@@ -3,10 +3,11 @@ package com.ktnl.fapanese.repository;
 import com.ktnl.fapanese.entity.ClassMaterial;
 import com.ktnl.fapanese.entity.Material;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 import java.util.List;
 
-public interface MaterialRepository extends JpaRepository<Material, Long> {
+public interface MaterialRepository extends JpaRepository<Material, Long>, JpaSpecificationExecutor<Material> {
     List<Material> findByLecturerId(String lecturerId);
 
 }
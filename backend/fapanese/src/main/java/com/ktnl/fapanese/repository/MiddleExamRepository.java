@@ -1,13 +1,43 @@
 package com.ktnl.fapanese.repository;
 
 import com.ktnl.fapanese.entity.MiddleExam;
+import com.ktnl.fapanese.entity.Question;
 import com.ktnl.fapanese.entity.SpeakingExam;
+import com.ktnl.fapanese.repository.projection.ExamSummary;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MiddleExamRepository extends JpaRepository<MiddleExam, Long> {
     List<MiddleExam> findByOverviewPartId(Long partId);
+
+    // Các read path trả về cả danh sách câu hỏi: lấy đề + câu hỏi trong MỘT query (không N+1)
+    @Query("SELECT DISTINCT e FROM MiddleExam e LEFT JOIN FETCH e.questions")
+    List<MiddleExam> findAllWithQuestions();
+
+    @EntityGraph(attributePaths = "questions")
+    Optional<MiddleExam> findWithQuestionsById(Long id);
+
+    @EntityGraph(attributePaths = "questions")
+    List<MiddleExam> findWithQuestionsByOverviewPartId(Long partId);
+
+    @Query("SELECT new com.ktnl.fapanese.repository.projection.ExamSummary(" +
+            "e.id, op.id, e.examTitle, e.semester, e.type, e.year, COUNT(q)) " +
+            "FROM MiddleExam e LEFT JOIN e.overviewPart op LEFT JOIN e.questions q " +
+            "WHERE :partId IS NULL OR op.id = :partId " +
+            "GROUP BY e.id, op.id, e.examTitle, e.semester, e.type, e.year " +
+            "ORDER BY e.id")
+    List<ExamSummary> findSummaries(@Param("partId") Long partId);
+
+    @Query("SELECT q.id FROM MiddleExam e JOIN e.questions q WHERE e.id = :examId")
+    List<Long> findQuestionIdsByExamId(@Param("examId") Long examId);
+
+    @Query("SELECT q FROM MiddleExam e JOIN e.questions q WHERE e.id = :examId")
+    List<Question> findQuestionsByExamId(@Param("examId") Long examId);
 }
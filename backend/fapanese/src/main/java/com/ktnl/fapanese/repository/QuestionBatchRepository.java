@@ -0,0 +1,13 @@
+package com.ktnl.fapanese.repository;
+
+import com.ktnl.fapanese.entity.Question;
+
+import java.util.List;
+
+public interface QuestionBatchRepository {
+    /**
+     * Thêm nhiều câu hỏi bằng một JDBC batch trong một transaction riêng; id sinh ra được gán
+     * ngược vào từng Question theo đúng thứ tự. Dùng cho import số lượng lớn.
+     */
+    List<Question> batchInsert(List<Question> questions);
+}
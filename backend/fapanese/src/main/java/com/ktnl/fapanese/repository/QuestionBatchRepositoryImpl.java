@@ -0,0 +1,70 @@
+package com.ktnl.fapanese.repository;
+
+import com.ktnl.fapanese.entity.Question;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Question dùng GenerationType.IDENTITY nên Hibernate phải INSERT từng dòng để lấy id, không gom batch được.
+ * Ở đây ghi thẳng bằng JdbcTemplate.batchUpdate; với rewriteBatchedStatements của Connector/J cả lô
+ * thành một câu INSERT nhiều dòng, và id lấy lại từ generated keys.
+ */
+@RequiredArgsConstructor
+public class QuestionBatchRepositoryImpl implements QuestionBatchRepository {
+    private static final String INSERT_SQL = "INSERT INTO question (content, category, question_type, " +
+            "option_a, option_b, option_c, option_d, correct_answer, fill_answer, lesson_part_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<Question> batchInsert(List<Question> questions) {
+        if (questions.isEmpty())
+            return questions;
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Question q = questions.get(i);
+                        ps.setString(1, q.getContent());
+                        ps.setString(2, q.getCategory() == null ? null : q.getCategory().name());
+                        ps.setString(3, q.getQuestionType() == null ? null : q.getQuestionType().name());
+                        ps.setString(4, q.getOptionA());
+                        ps.setString(5, q.getOptionB());
+                        ps.setString(6, q.getOptionC());
+                        ps.setString(7, q.getOptionD());
+                        ps.setString(8, q.getCorrectAnswer());
+                        ps.setString(9, q.getFillAnswer());
+                        if (q.getLessonPart() == null)
+                            ps.setNull(10, Types.BIGINT);
+                        else
+                            ps.setLong(10, q.getLessonPart().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return questions.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != questions.size())
+            throw new IllegalStateException("Expected " + questions.size() + " generated ids but got " + keys.size());
+        for (int i = 0; i < questions.size(); i++)
+            questions.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        return questions;
+    }
+}
@@ -3,16 +3,70 @@ package com.ktnl.fapanese.repository;
 import com.ktnl.fapanese.entity.Question;
 import com.ktnl.fapanese.entity.enums.QuestionCategory;
 import com.ktnl.fapanese.entity.enums.QuestionType;
+import com.ktnl.fapanese.repository.projection.QuestionAnswerKey;
+import com.ktnl.fapanese.repository.projection.QuestionExportRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface QuestionRepository extends JpaRepository<Question, Long> {
+public interface QuestionRepository extends JpaRepository<Question, Long>, JpaSpecificationExecutor<Question>, QuestionBatchRepository {
     List<Question> findByQuestionType(QuestionType questionType);
     List<Question> findByCategory(QuestionCategory category);
     List<Question> findByLessonPart_Id(Long lessonPartId);
     int countByLessonPartId(Long lessonPartId);
 
+    @Query("SELECT new com.ktnl.fapanese.repository.projection.QuestionAnswerKey(" +
+            "q.id, q.questionType, q.correctAnswer, q.fillAnswer, lp.id) " +
+            "FROM Question q LEFT JOIN q.lessonPart lp WHERE q.id IN :ids")
+    List<QuestionAnswerKey> findAnswerKeysByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.ktnl.fapanese.repository.projection.QuestionAnswerKey(" +
+            "q.id, q.questionType, q.correctAnswer, q.fillAnswer, lp.id) " +
+            "FROM Question q LEFT JOIN q.lessonPart lp")
+    List<QuestionAnswerKey> findAllAnswerKeys();
+
+    // Id câu hỏi sẽ bị xóa theo cascade khi xóa lesson / course, để evict khỏi cache đáp án
+    @Query("SELECT q.id FROM Question q WHERE q.lessonPart.lesson.id = :lessonId")
+    List<Long> findIdsByLessonId(@Param("lessonId") Long lessonId);
+
+    @Query("SELECT q.id FROM Question q WHERE q.lessonPart.lesson.course.id = :courseId")
+    List<Long> findIdsByCourseId(@Param("courseId") Long courseId);
+
+    /**
+     * Keyset: WHERE id > :after ORDER BY id dùng thẳng index khóa chính, không tốn OFFSET
+     * dù đang ở trang thứ bao nhiêu.
+     */
+    @Query("SELECT q FROM Question q " +
+            "WHERE q.id > :after " +
+            "AND (:category IS NULL OR q.category = :category) " +
+            "AND (:lessonPartId IS NULL OR q.lessonPart.id = :lessonPartId) " +
+            "ORDER BY q.id")
+    List<Question> findNextPage(@Param("after") long after,
+                                @Param("category") QuestionCategory category,
+                                @Param("lessonPartId") Long lessonPartId,
+                                Limit limit);
+
+    /**
+     * Đọc cả bảng theo dạng stream cho export. Fetch size Integer.MIN_VALUE bảo MySQL
+     * Connector/J trả từng dòng thay vì nạp hết result set vào heap; phải gọi trong transaction
+     * và đóng stream sau khi dùng.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new com.ktnl.fapanese.repository.projection.QuestionExportRow(" +
+            "q.id, q.content, q.category, q.questionType, q.optionA, q.optionB, q.optionC, q.optionD, " +
+            "q.correctAnswer, q.fillAnswer, lp.id) " +
+            "FROM Question q LEFT JOIN q.lessonPart lp ORDER BY q.id")
+    Stream<QuestionExportRow> streamAllForExport();
+
 }
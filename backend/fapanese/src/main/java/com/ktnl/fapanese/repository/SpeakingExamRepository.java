@@ -2,11 +2,12 @@ package com.ktnl.fapanese.repository;
 
 import com.ktnl.fapanese.entity.SpeakingExam;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface SpeakingExamRepository extends JpaRepository<SpeakingExam, Long> {
+public interface SpeakingExamRepository extends JpaRepository<SpeakingExam, Long>, JpaSpecificationExecutor<SpeakingExam> {
     List<SpeakingExam> findByOverviewPartId(Long partId);
 }
@@ -1,8 +1,10 @@
 package com.ktnl.fapanese.repository;
 
 import com.ktnl.fapanese.entity.SpeakingQuestion;
+import com.ktnl.fapanese.repository.projection.SpeakingQuestionPoolEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,7 +13,10 @@ import java.util.List;
 public interface SpeakingQuestionRepository extends JpaRepository<SpeakingQuestion, Long> {
     List<SpeakingQuestion> findBySpeakingId(Long speakingId);
 
-    @Query(value = "SELECT * FROM speaking_question WHERE speaking_id = ?1 " +
-            "ORDER BY RAND() LIMIT ?2", nativeQuery = true)
-    List<SpeakingQuestion> findRandomQuestionsForSpeaking(Long speakingId, int quantity);
+    @Query("SELECT new com.ktnl.fapanese.repository.projection.SpeakingQuestionPoolEntry(q.id, q.speaking.id) " +
+            "FROM SpeakingQuestion q WHERE q.speaking IS NOT NULL")
+    List<SpeakingQuestionPoolEntry> findAllPoolEntries();
+
+    @Query("SELECT q.question FROM SpeakingQuestion q WHERE q.speaking.speakingExam.id = :speakingExamId")
+    List<String> findQuestionTextsBySpeakingExamId(@Param("speakingExamId") Long speakingExamId);
 }
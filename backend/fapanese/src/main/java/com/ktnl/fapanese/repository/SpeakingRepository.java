@@ -3,20 +3,22 @@ package com.ktnl.fapanese.repository;
 
 import com.ktnl.fapanese.entity.Speaking;
 import com.ktnl.fapanese.entity.enums.SpeakingType;
+import com.ktnl.fapanese.repository.projection.SpeakingPoolEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface SpeakingRepository extends JpaRepository<Speaking, Long> {
     List<Speaking> findByType(SpeakingType speakingType);
 
-    @Query(value = "SELECT s.* FROM speaking s " +
-            "JOIN speaking_exam se ON s.speaking_exam_id = se.id " +
-            "WHERE se.overview_part_id = ?1 AND s.type = ?2 " +
-            "ORDER BY RAND() LIMIT 1", nativeQuery = true)
-    Optional<Speaking> findRandomSpeakingByPartIdAndType(Long overviewPartId, String type);
+    @Query("SELECT new com.ktnl.fapanese.repository.projection.SpeakingPoolEntry(s.id, se.overviewPart.id, s.type) " +
+            "FROM Speaking s JOIN s.speakingExam se")
+    List<SpeakingPoolEntry> findAllPoolEntries();
+
+    @Query("SELECT s.passage FROM Speaking s WHERE s.speakingExam.id = :speakingExamId")
+    List<String> findPassagesBySpeakingExamId(@Param("speakingExamId") Long speakingExamId);
 }
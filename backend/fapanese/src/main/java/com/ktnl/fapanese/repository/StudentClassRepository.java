@@ -3,7 +3,10 @@ package com.ktnl.fapanese.repository;
 
 import com.ktnl.fapanese.entity.*;
 import com.ktnl.fapanese.entity.StudentClass;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,6 +17,10 @@ public interface StudentClassRepository extends JpaRepository<StudentClass, Stud
     // Lấy tất cả StudentClass theo student_id
     List<StudentClass> findByStudent_Id(String studentId);
 
-    // (tuỳ chọn) Lấy tất cả StudentClass theo classCourseId
+    // (tuỳ chọn) Lấy tất cả StudentClass theo classCourseId, kèm luôn student trong cùng một query
+    @EntityGraph(attributePaths = "student")
     List<StudentClass> findByIdClassCourseId(Long classCourseId);
+
+    @Query("SELECT sc.id.studentId FROM StudentClass sc WHERE sc.id.classCourseId = :classCourseId")
+    List<String> findStudentIdsByClassCourseId(@Param("classCourseId") Long classCourseId);
 }
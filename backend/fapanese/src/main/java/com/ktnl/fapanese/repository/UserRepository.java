@@ -2,15 +2,24 @@ package com.ktnl.fapanese.repository;
 
 import com.ktnl.fapanese.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User,String> {
+public interface UserRepository extends JpaRepository<User,String>, JpaSpecificationExecutor<User> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     void deleteByEmail(String email);
     List<User> findByRoles_RoleName(String roleName);
+
+    // Một query cho cả lô email thay vì findByEmail từng người. So sánh và trả về email viết thường:
+    // collation MySQL không phân biệt hoa thường nên email lưu "Nguyen@x.com" vẫn khớp "nguyen@x.com"
+    @Query("SELECT LOWER(u.email) FROM User u WHERE LOWER(u.email) IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
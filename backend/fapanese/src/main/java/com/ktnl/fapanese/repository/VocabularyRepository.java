@@ -2,6 +2,8 @@ package com.ktnl.fapanese.repository;
 
 import com.ktnl.fapanese.entity.Vocabulary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +11,7 @@ import java.util.List;
 @Repository
 public interface VocabularyRepository extends JpaRepository<Vocabulary, Long> {
     List<Vocabulary> findByLessonPart_Id(Long lessonPartId);
+
+    @Query("SELECT v.wordKana FROM Vocabulary v WHERE v.lessonPart.lesson.id = :lessonId")
+    List<String> findWordKanaByLessonId(@Param("lessonId") Long lessonId);
 }
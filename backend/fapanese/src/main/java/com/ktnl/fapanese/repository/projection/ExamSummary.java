@@ -0,0 +1,17 @@
+package com.ktnl.fapanese.repository.projection;
+
+import com.ktnl.fapanese.entity.enums.FinalExamType;
+
+/**
+ * Thông tin một đề giữa kỳ / cuối kỳ cho màn hình danh sách: chỉ đếm số câu hỏi,
+ * không đọc nội dung câu hỏi.
+ */
+public record ExamSummary(
+        Long id,
+        Long overviewPartId,
+        String examTitle,
+        String semester,
+        FinalExamType type,
+        int year,
+        long questionCount
+) {}
@@ -0,0 +1,14 @@
+package com.ktnl.fapanese.repository.projection;
+
+import com.ktnl.fapanese.entity.enums.QuestionType;
+
+/**
+ * Chỉ những cột cần để chấm một câu hỏi, không kéo theo content / options.
+ */
+public record QuestionAnswerKey(
+        Long id,
+        QuestionType questionType,
+        String correctAnswer,
+        String fillAnswer,
+        Long lessonPartId
+) {}
@@ -0,0 +1,22 @@
+package com.ktnl.fapanese.repository.projection;
+
+import com.ktnl.fapanese.entity.enums.QuestionCategory;
+import com.ktnl.fapanese.entity.enums.QuestionType;
+
+/**
+ * Một dòng export ngân hàng câu hỏi. Là DTO chứ không phải entity nên không bị giữ lại
+ * trong persistence context khi stream cả bảng.
+ */
+public record QuestionExportRow(
+        Long id,
+        String content,
+        QuestionCategory category,
+        QuestionType questionType,
+        String optionA,
+        String optionB,
+        String optionC,
+        String optionD,
+        String correctAnswer,
+        String fillAnswer,
+        Long lessonPartId
+) {}
@@ -0,0 +1,12 @@
+package com.ktnl.fapanese.repository.projection;
+
+import com.ktnl.fapanese.entity.enums.SpeakingType;
+
+/**
+ * Vị trí của một Speaking trong pool bốc đề: thuộc overviewPart nào, loại gì.
+ */
+public record SpeakingPoolEntry(
+        Long id,
+        Long overviewPartId,
+        SpeakingType type
+) {}
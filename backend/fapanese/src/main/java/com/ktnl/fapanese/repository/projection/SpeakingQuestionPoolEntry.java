@@ -0,0 +1,9 @@
+package com.ktnl.fapanese.repository.projection;
+
+/**
+ * Câu hỏi nói thuộc Speaking nào, dùng để dựng pool bốc câu hỏi.
+ */
+public record SpeakingQuestionPoolEntry(
+        Long id,
+        Long speakingId
+) {}
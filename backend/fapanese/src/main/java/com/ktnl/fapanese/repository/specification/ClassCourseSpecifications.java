@@ -0,0 +1,21 @@
+package com.ktnl.fapanese.repository.specification;
+
+import com.ktnl.fapanese.dto.request.ClassCourseFilterRequest;
+import com.ktnl.fapanese.entity.ClassCourse;
+import org.springframework.data.jpa.domain.Specification;
+
+import static com.ktnl.fapanese.repository.specification.SpecificationSupport.*;
+
+public final class ClassCourseSpecifications {
+    private ClassCourseSpecifications() {
+    }
+
+    public static Specification<ClassCourse> filter(ClassCourseFilterRequest filter) {
+        return allOf(
+                equal(filter.getCourseId(), root -> root.get("course").get("id")),
+                equal(filter.getLecturerId(), root -> root.get("lecturer").get("id")),
+                equal(filter.getSemester(), root -> root.get("semester")),
+                containsIgnoreCase(filter.getKeyword(), root -> root.get("className"))
+        );
+    }
+}
@@ -0,0 +1,19 @@
+package com.ktnl.fapanese.repository.specification;
+
+import com.ktnl.fapanese.dto.request.LessonFilterRequest;
+import com.ktnl.fapanese.entity.Lesson;
+import org.springframework.data.jpa.domain.Specification;
+
+import static com.ktnl.fapanese.repository.specification.SpecificationSupport.*;
+
+public final class LessonSpecifications {
+    private LessonSpecifications() {
+    }
+
+    public static Specification<Lesson> filter(LessonFilterRequest filter) {
+        return allOf(
+                equal(filter.getCourseId(), root -> root.get("course").get("id")),
+                containsIgnoreCase(filter.getKeyword(), root -> root.get("lessonTitle"))
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package com.ktnl.fapanese.repository.specification;
+
+import com.ktnl.fapanese.dto.request.MaterialFilterRequest;
+import com.ktnl.fapanese.entity.Material;
+import org.springframework.data.jpa.domain.Specification;
+
+import static com.ktnl.fapanese.repository.specification.SpecificationSupport.*;
+
+public final class MaterialSpecifications {
+    private MaterialSpecifications() {
+    }
+
+    public static Specification<Material> filter(MaterialFilterRequest filter) {
+        return allOf(
+                equal(filter.getType(), root -> root.get("type")),
+                equal(filter.getLecturerId(), root -> root.get("lecturer").get("id")),
+                containsIgnoreCase(filter.getKeyword(), root -> root.get("title"))
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package com.ktnl.fapanese.repository.specification;
+
+import com.ktnl.fapanese.dto.request.QuestionFilterRequest;
+import com.ktnl.fapanese.entity.Question;
+import org.springframework.data.jpa.domain.Specification;
+
+import static com.ktnl.fapanese.repository.specification.SpecificationSupport.*;
+
+public final class QuestionSpecifications {
+    private QuestionSpecifications() {
+    }
+
+    public static Specification<Question> filter(QuestionFilterRequest filter) {
+        return allOf(
+                equal(filter.getCategory(), root -> root.get("category")),
+                equal(filter.getQuestionType(), root -> root.get("questionType")),
+                equal(filter.getLessonPartId(), root -> root.get("lessonPart").get("id")),
+                containsIgnoreCase(filter.getKeyword(), root -> root.get("content"))
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package com.ktnl.fapanese.repository.specification;
+
+import com.ktnl.fapanese.dto.request.SpeakingExamFilterRequest;
+import com.ktnl.fapanese.entity.SpeakingExam;
+import org.springframework.data.jpa.domain.Specification;
+
+import static com.ktnl.fapanese.repository.specification.SpecificationSupport.*;
+
+public final class SpeakingExamSpecifications {
+    private SpeakingExamSpecifications() {
+    }
+
+    public static Specification<SpeakingExam> filter(SpeakingExamFilterRequest filter) {
+        return allOf(
+                equal(filter.getOverviewPartId(), root -> root.get("overviewPart").get("id")),
+                equal(filter.getType(), root -> root.get("type")),
+                containsIgnoreCase(filter.getKeyword(), root -> root.get("title"))
+        );
+    }
+}
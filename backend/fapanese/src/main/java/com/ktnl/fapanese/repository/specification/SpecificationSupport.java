@@ -0,0 +1,54 @@
+package com.ktnl.fapanese.repository.specification;
+
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Các mảnh Specification dùng chung cho bộ lọc danh sách.
+ * Giá trị lọc null / rỗng trả về null, và allOf bỏ qua các mảnh null,
+ * nên tham số nào client không gửi thì không sinh điều kiện WHERE.
+ */
+final class SpecificationSupport {
+    private static final char ESCAPE = '\\';
+
+    private SpecificationSupport() {
+    }
+
+    static <T> Specification<T> equal(Object value, Function<Root<T>, Expression<?>> path) {
+        if (value == null || (value instanceof String s && !StringUtils.hasText(s)))
+            return null;
+        return (root, query, cb) -> cb.equal(path.apply(root), value);
+    }
+
+    /**
+     * LIKE '%keyword%' không phân biệt hoa thường trên một trong các cột (OR).
+     */
+    @SafeVarargs
+    static <T> Specification<T> containsIgnoreCase(String keyword, Function<Root<T>, Expression<String>>... paths) {
+        if (!StringUtils.hasText(keyword))
+            return null;
+        String pattern = "%" + escapeLike(keyword.trim().toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.or(Arrays.stream(paths)
+                .map(path -> cb.like(cb.lower(path.apply(root)), pattern, ESCAPE))
+                .toArray(Predicate[]::new));
+    }
+
+    @SafeVarargs
+    static <T> Specification<T> allOf(Specification<T>... specs) {
+        List<Specification<T>> present = Arrays.stream(specs).filter(Objects::nonNull).toList();
+        return Specification.allOf(present);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,45 @@
+package com.ktnl.fapanese.repository.specification;
+
+import com.ktnl.fapanese.dto.request.StudentFilterRequest;
+import com.ktnl.fapanese.entity.Student;
+import com.ktnl.fapanese.entity.User;
+import com.ktnl.fapanese.entity.enums.UserRole;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import static com.ktnl.fapanese.repository.specification.SpecificationSupport.*;
+
+/**
+ * Sinh viên = User có role STUDENT; thông tin họ tên / campus nằm ở bảng student (LEFT JOIN).
+ */
+public final class StudentSpecifications {
+    private StudentSpecifications() {
+    }
+
+    public static Specification<User> filter(StudentFilterRequest filter) {
+        return allOf(
+                hasRole(UserRole.STUDENT.name()),
+                equal(filter.getCampus(), root -> student(root).get("campus")),
+                containsIgnoreCase(filter.getKeyword(),
+                        root -> root.get("email"),
+                        root -> student(root).get("firstName"),
+                        root -> student(root).get("lastName"))
+        );
+    }
+
+    private static Specification<User> hasRole(String roleName) {
+        return (root, query, cb) -> cb.equal(root.join("roles").get("roleName"), roleName);
+    }
+
+    // Dùng lại một LEFT JOIN student cho cả campus lẫn keyword thay vì join nhiều lần
+    @SuppressWarnings("unchecked")
+    private static Join<User, Student> student(Root<User> root) {
+        for (Join<User, ?> join : root.getJoins()) {
+            if (join.getAttribute().getName().equals("student"))
+                return (Join<User, Student>) join;
+        }
+        return root.join("student", JoinType.LEFT);
+    }
+}
@@ -0,0 +1,205 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.dto.response.CacheStatsResponse;
+import com.ktnl.fapanese.entity.Question;
+import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.repository.projection.QuestionAnswerKey;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache đáp án của toàn bộ Question để chấm quiz / bài thi mà không phải query MySQL.
+ *
+ * - Dữ liệu là một snapshot bất biến: mảng long[] id đã sắp xếp + mảng AnswerKey song song
+ *   (tra bằng binary search, không boxing key), kèm số câu hỏi theo từng lessonPart.
+ * - Nạp toàn bộ ở lần dùng đầu tiên bằng một query projection (không đọc cột TEXT content).
+ * - Tạo / sửa / xóa / import câu hỏi cập nhật snapshot ngay (copy-on-write); id chưa có trong
+ *   cache (ví dụ thêm thẳng vào DB) được đọc bổ sung từ MySQL rồi ghép vào snapshot.
+ * - Xóa lesson / course xóa câu hỏi theo cascade (LessonPart.questions) → service gọi evictAll
+ *   với id các câu hỏi đó; trong transaction thì evict sau commit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AnswerKeyCacheService implements IAnswerKeyCacheService {
+    QuestionRepository questionRepository;
+
+    AtomicLong hits = new AtomicLong();
+    AtomicLong misses = new AtomicLong();
+    AtomicLong evictions = new AtomicLong();
+
+    @NonFinal
+    volatile Snapshot snapshot;
+
+    private record Snapshot(long[] ids, AnswerKey[] keys, Map<Long, Integer> lessonPartCounts) {
+        AnswerKey get(long id) {
+            int i = Arrays.binarySearch(ids, id);
+            return i >= 0 ? keys[i] : null;
+        }
+    }
+
+    @Override
+    public Map<Long, AnswerKey> getAll(Collection<Long> questionIds) {
+        Snapshot current = loaded();
+        Map<Long, AnswerKey> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+
+        for (Long id : questionIds) {
+            if (id == null || result.containsKey(id))
+                continue;
+            AnswerKey key = current.get(id);
+            if (key != null)
+                result.put(id, key);
+            else
+                missing.add(id);
+        }
+        hits.addAndGet(result.size());
+
+        if (!missing.isEmpty()) {
+            misses.addAndGet(missing.size());
+            List<AnswerKey> loaded = questionRepository.findAnswerKeysByIdIn(missing).stream()
+                    .map(AnswerKeyCacheService::toAnswerKey)
+                    .toList();
+            if (!loaded.isEmpty()) {
+                apply(loaded, List.of());
+                loaded.forEach(key -> result.put(key.questionId(), key));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int countByLessonPart(Long lessonPartId) {
+        return loaded().lessonPartCounts().getOrDefault(lessonPartId, 0);
+    }
+
+    @Override
+    public void put(Question question) {
+        putAll(List.of(question));
+    }
+
+    @Override
+    public void putAll(Collection<Question> questions) {
+        List<AnswerKey> keys = questions.stream()
+                .filter(q -> q != null && q.getId() != null)
+                .map(AnswerKey::of)
+                .toList();
+        if (!keys.isEmpty())
+            apply(keys, List.of());
+    }
+
+    @Override
+    public void evict(Long questionId) {
+        if (questionId != null)
+            evictAll(List.of(questionId));
+    }
+
+    /**
+     * Đang trong transaction thì chỉ xóa sau khi commit: xóa sớm hơn thì getAll chạy chen giữa
+     * sẽ đọc lại câu hỏi (chưa bị xóa trong DB) và ghép đáp án cũ trở lại snapshot.
+     */
+    @Override
+    public void evictAll(Collection<Long> questionIds) {
+        List<Long> ids = questionIds.stream().filter(Objects::nonNull).toList();
+        if (ids.isEmpty())
+            return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(List.of(), ids);
+                }
+            });
+            return;
+        }
+        apply(List.of(), ids);
+    }
+
+    @Override
+    public synchronized void reload() {
+        List<QuestionAnswerKey> rows = questionRepository.findAllAnswerKeys();
+        snapshot = build(rows.stream().map(AnswerKeyCacheService::toAnswerKey).toList());
+        log.info("Loaded {} answer keys", rows.size());
+    }
+
+    @Override
+    public CacheStatsResponse getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+        Snapshot current = snapshot;
+
+        return CacheStatsResponse.builder()
+                .hits(hitCount)
+                .misses(missCount)
+                .evictions(evictions.get())
+                .size(current == null ? 0 : current.ids().length)
+                .maxSize(-1) // giữ toàn bộ câu hỏi
+                .hitRate(total == 0 ? 0 : (double) hitCount / total)
+                .build();
+    }
+
+    private Snapshot loaded() {
+        Snapshot current = snapshot;
+        if (current != null)
+            return current;
+
+        synchronized (this) {
+            if (snapshot == null)
+                reload();
+            return snapshot;
+        }
+    }
+
+    /**
+     * Tạo snapshot mới từ snapshot cũ + thay đổi. Chưa nạp lần nào thì bỏ qua:
+     * lần nạp đầu tiên sẽ đọc dữ liệu mới nhất từ DB.
+     */
+    private synchronized void apply(Collection<AnswerKey> upserts, Collection<Long> removals) {
+        Snapshot current = snapshot;
+        if (current == null)
+            return;
+
+        Map<Long, AnswerKey> merged = new HashMap<>(current.ids().length + upserts.size());
+        for (AnswerKey key : current.keys())
+            merged.put(key.questionId(), key);
+        for (Long id : removals) {
+            if (merged.remove(id) != null)
+                evictions.incrementAndGet();
+        }
+        for (AnswerKey key : upserts)
+            merged.put(key.questionId(), key);
+
+        snapshot = build(merged.values());
+    }
+
+    private static Snapshot build(Collection<AnswerKey> answerKeys) {
+        AnswerKey[] keys = answerKeys.toArray(AnswerKey[]::new);
+        Arrays.sort(keys, Comparator.comparingLong(AnswerKey::questionId));
+
+        long[] ids = new long[keys.length];
+        Map<Long, Integer> lessonPartCounts = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            ids[i] = keys[i].questionId();
+            if (keys[i].lessonPartId() != null)
+                lessonPartCounts.merge(keys[i].lessonPartId(), 1, Integer::sum);
+        }
+        return new Snapshot(ids, keys, Map.copyOf(lessonPartCounts));
+    }
+
+    private static AnswerKey toAnswerKey(QuestionAnswerKey row) {
+        return AnswerKey.of(row.id(), row.questionType(), row.correctAnswer(), row.fillAnswer(), row.lessonPartId());
+    }
+}
@@ -5,13 +5,12 @@ import com.ktnl.fapanese.dto.request.AuthenticationRequest;
 import com.ktnl.fapanese.dto.request.LogoutRequest;
 import com.ktnl.fapanese.dto.request.RefreshRequest;
 import com.ktnl.fapanese.dto.response.AuthenticationResponse;
-import com.ktnl.fapanese.entity.InvalidatedToken;
 import com.ktnl.fapanese.entity.User;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
-import com.ktnl.fapanese.repository.InvalidatedTokenRepository;
 import com.ktnl.fapanese.repository.UserRepository;
 import com.ktnl.fapanese.service.interfaces.IAuthenticationService;
+import com.ktnl.fapanese.service.interfaces.IRevokedTokenService;
 import com.nimbusds.jose.*;
 import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jwt.JWTClaimsSet;
@@ -40,8 +39,8 @@ import java.util.UUID;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class AuthenticationService implements IAuthenticationService {
     UserRepository userRepository;
-    InvalidatedTokenRepository invalidatedTokenRepository;
     TokenValidationService tokenValidationService;
+    IRevokedTokenService revokedTokenService;
 
     @NonFinal
     @Value("${jwt.signerKey}") // Lấy khóa bí mật từ application.properties (dùng để ký và verify JWT)
@@ -100,10 +99,7 @@ public class AuthenticationService implements IAuthenticationService {
         var expiryTime = signedToken.getJWTClaimsSet().getExpirationTime();
 
         //đưa vào blacklist (xóa token cũ)
-        invalidatedTokenRepository.save(InvalidatedToken.builder()
-                        .id(ijt)
-                        .expiryTime(expiryTime)
-                .build());
+        revokedTokenService.revoke(ijt, expiryTime);
 
         //tạo token mới
         var email = signedToken.getJWTClaimsSet().getSubject();
@@ -158,12 +154,8 @@ public class AuthenticationService implements IAuthenticationService {
             var jit = signedJWT.getJWTClaimsSet().getJWTID();
             Date expiryTime = signedJWT.getJWTClaimsSet().getExpirationTime();
 
-            InvalidatedToken invalidatedToken = InvalidatedToken
-                    .builder()
-                    .id(jit)
-                    .expiryTime(expiryTime)
-                    .build();
-            invalidatedTokenRepository.save(invalidatedToken);
+            // Ghi vào blacklist (DB + bộ nhớ) và xóa khỏi cache của JwtDecoder
+            revokedTokenService.revoke(jit, expiryTime);
         } catch (AppException e) {
             log.info("Token already expired");
         }
@@ -0,0 +1,288 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktnl.fapanese.dto.request.BulkAnswerSheet;
+import com.ktnl.fapanese.dto.request.UserAnswer;
+import com.ktnl.fapanese.dto.response.BulkGradingResultResponse;
+import com.ktnl.fapanese.dto.response.BulkGradingSummaryResponse;
+import com.ktnl.fapanese.dto.response.ItemStatisticsResponse;
+import com.ktnl.fapanese.entity.enums.ExamKind;
+import com.ktnl.fapanese.entity.enums.QuestionType;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService.AnswerKey;
+import com.ktnl.fapanese.service.interfaces.IBulkExamGrader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Chấm nhiều bài làm (mỗi dòng NDJSON là một {@link BulkAnswerSheet}) của cùng một đề thi.
+ *
+ * - Đáp án của đề được nạp MỘT lần khi tạo grader, không query DB trong lúc chấm.
+ * - Đọc theo từng lô CHUNK_SIZE dòng; parse + chấm các dòng trong lô song song, rồi trả kết quả
+ *   theo đúng thứ tự dòng qua onResult, nên bộ nhớ không tăng theo số bài làm.
+ * - Thống kê điểm và thống kê từng câu (độ khó, độ phân biệt, phân bố đáp án) được cộng dồn
+ *   ngay trong lượt đọc đó.
+ */
+class BulkExamGrader implements IBulkExamGrader {
+    static final int CHUNK_SIZE = 256;
+
+    private final Long examId;
+    private final ExamKind examKind;
+    private final Long classCourseId;
+    private final List<AnswerKey> answerKeys;          // theo thứ tự câu trong đề
+    private final Map<Long, Integer> itemIndex;        // questionId -> vị trí trong answerKeys
+    private final Set<String> enrolledStudentIds;      // null nếu không chấm theo lớp
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+
+    BulkExamGrader(Long examId, ExamKind examKind, Long classCourseId, List<AnswerKey> answerKeys,
+                   Set<String> enrolledStudentIds, ObjectMapper objectMapper, ExecutorService executor) {
+        this.examId = examId;
+        this.examKind = examKind;
+        this.classCourseId = classCourseId;
+        this.answerKeys = List.copyOf(answerKeys);
+        this.enrolledStudentIds = enrolledStudentIds;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+
+        Map<Long, Integer> index = new HashMap<>();
+        for (int i = 0; i < this.answerKeys.size(); i++)
+            index.put(this.answerKeys.get(i).questionId(), i);
+        this.itemIndex = index;
+    }
+
+    @Override
+    public int getTotalQuestions() {
+        return answerKeys.size();
+    }
+
+    @Override
+    public BulkGradingSummaryResponse grade(BufferedReader sheets, Consumer<BulkGradingResultResponse> onResult)
+            throws IOException, InterruptedException {
+        Statistics stats = new Statistics();
+        Set<String> gradedStudents = new HashSet<>();
+        List<Callable<GradedSheet>> chunk = new ArrayList<>(CHUNK_SIZE);
+        int lineNumber = 0;
+
+        String line;
+        while ((line = sheets.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank())
+                continue;
+
+            int number = lineNumber;
+            String text = line;
+            chunk.add(() -> gradeLine(number, text));
+            if (chunk.size() == CHUNK_SIZE) {
+                gradeChunk(chunk, stats, gradedStudents, onResult);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty())
+            gradeChunk(chunk, stats, gradedStudents, onResult);
+
+        return stats.summary(gradedStudents);
+    }
+
+    private void gradeChunk(List<Callable<GradedSheet>> tasks, Statistics stats, Set<String> gradedStudents,
+                            Consumer<BulkGradingResultResponse> onResult) throws InterruptedException {
+        // invokeAll trả Future theo đúng thứ tự task, tức thứ tự dòng
+        for (Future<GradedSheet> future : executor.invokeAll(tasks)) {
+            GradedSheet sheet;
+            try {
+                sheet = future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Unexpected grading failure", e.getCause());
+            }
+
+            // Kiểm tra trùng sinh viên phải làm tuần tự theo thứ tự dòng
+            if (sheet.error() == null && !gradedStudents.add(sheet.studentId()))
+                sheet = GradedSheet.error(sheet.line(), "Sinh viên " + sheet.studentId() + " đã có bài làm ở dòng trước");
+
+            if (sheet.error() != null) {
+                stats.failed++;
+                onResult.accept(BulkGradingResultResponse.builder()
+                        .type("error")
+                        .line(sheet.line())
+                        .studentId(sheet.studentId())
+                        .message(sheet.error())
+                        .build());
+                continue;
+            }
+
+            stats.add(sheet);
+            onResult.accept(BulkGradingResultResponse.builder()
+                    .type("result")
+                    .line(sheet.line())
+                    .studentId(sheet.studentId())
+                    .correctCount(sheet.correctCount())
+                    .totalQuestions(answerKeys.size())
+                    .scorePercentage(score(sheet.correctCount()))
+                    .ignoredAnswers(sheet.ignoredAnswers())
+                    .build());
+        }
+    }
+
+    /**
+     * Chạy song song trên executor: chỉ đọc dữ liệu bất biến của grader.
+     */
+    private GradedSheet gradeLine(int lineNumber, String line) {
+        BulkAnswerSheet sheet;
+        try {
+            sheet = objectMapper.readValue(line, BulkAnswerSheet.class);
+        } catch (JsonProcessingException e) {
+            return GradedSheet.error(lineNumber, "Dòng không phải JSON hợp lệ: " + e.getOriginalMessage());
+        }
+
+        String studentId = sheet.getStudentId();
+        if (studentId == null || studentId.isBlank())
+            return GradedSheet.error(lineNumber, "Thiếu studentId");
+        if (enrolledStudentIds != null && !enrolledStudentIds.contains(studentId))
+            return new GradedSheet(lineNumber, studentId, null, null, 0, 0,
+                    "Sinh viên " + studentId + " không thuộc lớp " + classCourseId);
+
+        String[] answers = new String[answerKeys.size()];
+        int ignored = 0;
+        if (sheet.getAnswers() != null) {
+            for (UserAnswer answer : sheet.getAnswers()) {
+                Integer index = answer == null ? null : itemIndex.get(answer.getQuestionId());
+                if (index == null)
+                    ignored++;
+                else
+                    answers[index] = answer.getUserAnswer();
+            }
+        }
+
+        boolean[] correct = new boolean[answerKeys.size()];
+        int correctCount = 0;
+        for (int i = 0; i < answers.length; i++) {
+            correct[i] = answerKeys.get(i).matches(answers[i]);
+            if (correct[i])
+                correctCount++;
+        }
+
+        return new GradedSheet(lineNumber, studentId, answers, correct, correctCount, ignored, null);
+    }
+
+    // Phần trăm điểm (làm tròn 2 chữ số) ứng với số câu đúng
+    private double score(double correctCount) {
+        if (answerKeys.isEmpty())
+            return 0.0;
+        return Math.round(correctCount * 10000.0 / answerKeys.size()) / 100.0;
+    }
+
+    private record GradedSheet(int line, String studentId, String[] answers, boolean[] correct,
+                               int correctCount, int ignoredAnswers, String error) {
+        static GradedSheet error(int line, String message) {
+            return new GradedSheet(line, null, null, null, 0, 0, message);
+        }
+    }
+
+    /**
+     * Cộng dồn thống kê trên thread đọc (tuần tự), đủ để tính độ lệch chuẩn và
+     * hệ số point-biserial trong một lượt, không giữ lại từng bài làm.
+     */
+    private class Statistics {
+        int graded;
+        int failed;
+        long sumScore;          // tổng số câu đúng của tất cả bài làm
+        long sumScoreSquared;
+        int minCorrect = Integer.MAX_VALUE;
+        int maxCorrect;
+
+        final long[] answered = new long[answerKeys.size()];
+        final long[] correct = new long[answerKeys.size()];
+        final long[] sumScoreWhenCorrect = new long[answerKeys.size()];
+        final List<Map<String, Long>> answerCounts = new ArrayList<>();
+
+        Statistics() {
+            for (AnswerKey key : answerKeys)
+                answerCounts.add(key.questionType() == QuestionType.MULTIPLE_CHOICE ? new TreeMap<>() : null);
+        }
+
+        void add(GradedSheet sheet) {
+            int total = sheet.correctCount();
+            graded++;
+            sumScore += total;
+            sumScoreSquared += (long) total * total;
+            minCorrect = Math.min(minCorrect, total);
+            maxCorrect = Math.max(maxCorrect, total);
+
+            for (int i = 0; i < answerKeys.size(); i++) {
+                String answer = sheet.answers()[i];
+                if (answer != null && !answer.isBlank()) {
+                    answered[i]++;
+                    if (answerCounts.get(i) != null)
+                        answerCounts.get(i).merge(answer.strip().toUpperCase(Locale.ROOT), 1L, Long::sum);
+                }
+                if (sheet.correct()[i]) {
+                    correct[i]++;
+                    sumScoreWhenCorrect[i] += total;
+                }
+            }
+        }
+
+        BulkGradingSummaryResponse summary(Set<String> gradedStudents) {
+            double mean = graded == 0 ? 0 : (double) sumScore / graded;
+            double variance = graded == 0 ? 0 : Math.max(0, (double) sumScoreSquared / graded - mean * mean);
+            double sd = Math.sqrt(variance);
+
+            List<ItemStatisticsResponse> items = new ArrayList<>(answerKeys.size());
+            for (int i = 0; i < answerKeys.size(); i++) {
+                double p = graded == 0 ? 0 : (double) correct[i] / graded;
+                items.add(ItemStatisticsResponse.builder()
+                        .questionId(answerKeys.get(i).questionId())
+                        .questionType(answerKeys.get(i).questionTypeName())
+                        .answered(answered[i])
+                        .omitted(graded - answered[i])
+                        .correct(correct[i])
+                        .difficulty(round(p))
+                        .discrimination(pointBiserial(i, p, mean, sd))
+                        .answerCounts(answerCounts.get(i))
+                        .build());
+            }
+
+            List<String> missing = null;
+            if (enrolledStudentIds != null) {
+                missing = enrolledStudentIds.stream()
+                        .filter(id -> !gradedStudents.contains(id))
+                        .sorted()
+                        .toList();
+            }
+
+            return BulkGradingSummaryResponse.builder()
+                    .examId(examId)
+                    .examKind(examKind.name())
+                    .classCourseId(classCourseId)
+                    .gradedSheets(graded)
+                    .failedSheets(failed)
+                    .totalQuestions(answerKeys.size())
+                    .averageScore(score(mean))
+                    .minScore(graded == 0 ? 0 : score(minCorrect))
+                    .maxScore(score(maxCorrect))
+                    .scoreStdDev(score(sd))
+                    .missingStudentIds(missing)
+                    .items(items)
+                    .build();
+        }
+
+        /**
+         * r_pb = (M1 - M) / s * sqrt(p / q), với M1 là điểm trung bình của những bài làm đúng câu này.
+         * Không tính được khi mọi bài cùng điểm, hoặc câu này ai cũng đúng / ai cũng sai.
+         */
+        private Double pointBiserial(int item, double p, double mean, double sd) {
+            if (sd == 0 || correct[item] == 0 || correct[item] == graded)
+                return null;
+            double meanWhenCorrect = (double) sumScoreWhenCorrect[item] / correct[item];
+            return round((meanWhenCorrect - mean) / sd * Math.sqrt(p / (1 - p)));
+        }
+
+        private double round(double value) {
+            return Math.round(value * 10000.0) / 10000.0;
+        }
+    }
+}
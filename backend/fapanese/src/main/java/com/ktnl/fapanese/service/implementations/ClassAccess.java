@@ -0,0 +1,38 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.entity.ClassCourse;
+import com.ktnl.fapanese.entity.Lecturer;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Kiểm tra quyền trên dữ liệu của một lớp (email sinh viên, bài làm, điểm) theo người đang đăng nhập:
+ * chỉ giảng viên dạy lớp hoặc admin. @PreAuthorize ở controller chỉ kiểm tra role, không biết lớp nào.
+ */
+final class ClassAccess {
+
+    private ClassAccess() {
+    }
+
+    static boolean isAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+
+    /**
+     * Ném CLASS_NOT_TAUGHT nếu người đang đăng nhập không phải admin và không phải giảng viên của lớp.
+     */
+    static void requireTeaches(ClassCourse classCourse) {
+        if (isAdmin())
+            return;
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Lecturer lecturer = classCourse.getLecturer();
+        String lecturerEmail = lecturer != null && lecturer.getUser() != null ? lecturer.getUser().getEmail() : null;
+        if (authentication == null || lecturerEmail == null || !lecturerEmail.equals(authentication.getName()))
+            throw new AppException(ErrorCode.CLASS_NOT_TAUGHT);
+    }
+}
@@ -1,9 +1,11 @@
 package com.ktnl.fapanese.service.implementations;
 
+import com.ktnl.fapanese.dto.request.ClassCourseFilterRequest;
 import com.ktnl.fapanese.dto.request.ClassCourseRequest;
 import com.ktnl.fapanese.dto.response.ClassCourseRespone;
 import com.ktnl.fapanese.dto.response.ClassMaterialResponse;
 import com.ktnl.fapanese.dto.response.MaterialResponse;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.dto.response.StudentClassResponse;
 import com.ktnl.fapanese.entity.*;
 import com.ktnl.fapanese.exception.AppException;
@@ -13,8 +15,10 @@ import com.ktnl.fapanese.mapper.ClassMaterialMapper;
 import com.ktnl.fapanese.mapper.MaterialMapper;
 import com.ktnl.fapanese.mapper.StudentClassMapper;
 import com.ktnl.fapanese.repository.*;
+import com.ktnl.fapanese.repository.specification.ClassCourseSpecifications;
 import com.ktnl.fapanese.service.interfaces.IClassCourseService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -105,6 +109,12 @@ public class ClassCourseService implements IClassCourseService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public PageResponse<ClassCourseRespone> searchClasses(ClassCourseFilterRequest filter, Pageable pageable) {
+        return PageResponse.from(classCourseRepository.findAll(ClassCourseSpecifications.filter(filter), pageable)
+                .map(classCourseMapper::toClassCourseResponse));
+    }
+
     @Override
     public ClassCourseRespone getClassById(Long id) {
         ClassCourse entity = classCourseRepository.findById(id)
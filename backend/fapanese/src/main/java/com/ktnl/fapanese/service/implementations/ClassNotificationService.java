@@ -0,0 +1,146 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.dto.request.ClassAnnouncementRequest;
+import com.ktnl.fapanese.dto.response.ClassNotificationResponse;
+import com.ktnl.fapanese.dto.response.NotificationRecipientResponse;
+import com.ktnl.fapanese.entity.ClassCourse;
+import com.ktnl.fapanese.entity.ClassNotification;
+import com.ktnl.fapanese.entity.EmailOutbox;
+import com.ktnl.fapanese.entity.enums.EmailOutboxStatus;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.mail.ClassAnnouncementEmail;
+import com.ktnl.fapanese.mail.EmailTemplate;
+import com.ktnl.fapanese.repository.ClassCourseRepository;
+import com.ktnl.fapanese.repository.ClassNotificationRepository;
+import com.ktnl.fapanese.repository.EmailOutboxRepository;
+import com.ktnl.fapanese.repository.StudentClassRepository;
+import com.ktnl.fapanese.service.interfaces.IClassNotificationService;
+import com.ktnl.fapanese.service.interfaces.IEmailOutboxService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Gửi email cho cả lớp (giao bài, thông báo của giảng viên).
+ *
+ * Danh sách người nhận lấy bằng một query, template được render một lần và lưu vào ClassNotification;
+ * mỗi người nhận là một dòng EmailOutbox ghi cùng transaction với nghiệp vụ. EmailOutboxService gửi dần
+ * qua MailDispatchService (giới hạn tốc độ, thử lại), trạng thái từng người xem qua getNotification.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ClassNotificationService implements IClassNotificationService {
+    StudentClassRepository studentClassRepository;
+    ClassCourseRepository classCourseRepository;
+    ClassNotificationRepository classNotificationRepository;
+    EmailOutboxRepository emailOutboxRepository;
+    IEmailOutboxService emailOutbox;
+
+    @Override
+    @Transactional
+    public ClassNotificationResponse notifyClass(Long classCourseId, EmailTemplate emailTemplate, String... args) {
+        List<String> recipients = studentClassRepository.findByIdClassCourseId(classCourseId).stream()
+                .map(studentClass -> studentClass.getStudent().getEmail())
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (recipients.isEmpty()) {
+            log.info("Class {} has no students, skipping notification '{}'", classCourseId, emailTemplate.getSubject());
+            return ClassNotificationResponse.builder()
+                    .classCourseId(classCourseId)
+                    .subject(emailTemplate.getSubject())
+                    .build();
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        ClassNotification notification = classNotificationRepository.save(ClassNotification.builder()
+                .classCourseId(classCourseId)
+                .subject(emailTemplate.getSubject())
+                .body(emailTemplate.getContent(args))
+                .recipientCount(recipients.size())
+                .createdBy(authentication != null ? authentication.getName() : null)
+                .createdAt(LocalDateTime.now())
+                .build());
+        emailOutbox.enqueueAll(notification, recipients);
+
+        log.info("Queued notification {} '{}' for {} students of class {}",
+                notification.getId(), notification.getSubject(), recipients.size(), classCourseId);
+        return toResponse(notification, 0, 0, recipients.size(), null);
+    }
+
+    @Override
+    @Transactional
+    public ClassNotificationResponse announce(Long classCourseId, ClassAnnouncementRequest request) {
+        if (request.getSubject() == null || request.getSubject().isBlank()
+                || request.getMessage() == null || request.getMessage().isBlank())
+            throw new AppException(ErrorCode.CLASS_ANNOUNCEMENT_EMPTY);
+
+        ClassCourse classCourse = findTaughtClass(classCourseId);
+        return notifyClass(classCourseId, new ClassAnnouncementEmail(request.getSubject().trim()),
+                classCourse.getClassName(), request.getMessage().trim());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ClassNotificationResponse getNotification(Long classCourseId, Long notificationId) {
+        findTaughtClass(classCourseId);
+        ClassNotification notification = classNotificationRepository.findById(notificationId)
+                .filter(n -> n.getClassCourseId().equals(classCourseId))
+                .orElseThrow(() -> new AppException(ErrorCode.CLASS_NOTIFICATION_NOT_FOUND));
+
+        List<EmailOutbox> messages = emailOutboxRepository.findByNotification_IdOrderByRecipientAsc(notificationId);
+        long sent = 0, failed = 0, pending = 0;
+        for (EmailOutbox message : messages) {
+            switch (message.getStatus()) {
+                case SENT -> sent++;
+                case FAILED -> failed++;
+                case PENDING -> pending++;
+            }
+        }
+        List<NotificationRecipientResponse> recipients = messages.stream()
+                .map(message -> NotificationRecipientResponse.builder()
+                        .email(message.getRecipient())
+                        .status(message.getStatus().name())
+                        .attempts(message.getAttempts())
+                        .lastError(message.getStatus() == EmailOutboxStatus.SENT ? null : message.getLastError())
+                        .sentAt(message.getSentAt())
+                        .build())
+                .toList();
+        return toResponse(notification, sent, failed, pending, recipients);
+    }
+
+    // Chỉ giảng viên dạy lớp (hoặc admin) được gửi thông báo và xem danh sách email sinh viên của lớp
+    private ClassCourse findTaughtClass(Long classCourseId) {
+        ClassCourse classCourse = classCourseRepository.findById(classCourseId)
+                .orElseThrow(() -> new AppException(ErrorCode.CLASS_COURSE_NOT_FOUND));
+        ClassAccess.requireTeaches(classCourse);
+        return classCourse;
+    }
+
+    private ClassNotificationResponse toResponse(ClassNotification notification, long sent, long failed, long pending,
+                                                 List<NotificationRecipientResponse> recipients) {
+        return ClassNotificationResponse.builder()
+                .id(notification.getId())
+                .classCourseId(notification.getClassCourseId())
+                .subject(notification.getSubject())
+                .recipientCount(notification.getRecipientCount())
+                .sent(sent)
+                .failed(failed)
+                .pending(pending)
+                .createdAt(notification.getCreatedAt())
+                .recipients(recipients)
+                .build();
+    }
+}
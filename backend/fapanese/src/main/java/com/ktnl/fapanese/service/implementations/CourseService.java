@@ -7,6 +7,8 @@ import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
 import com.ktnl.fapanese.mapper.CourseMapper;
 import com.ktnl.fapanese.repository.CourseRepository;
+import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
 import com.ktnl.fapanese.service.interfaces.ICourseService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -20,6 +22,8 @@ import java.util.stream.Collectors;
 public class CourseService implements ICourseService {
     private final CourseRepository courseRepository;
     private final CourseMapper courseMapper;
+    private final QuestionRepository questionRepository;
+    private final IAnswerKeyCacheService answerKeyCache;
 
     @Override
     public CourseResponse createCourse(CourseRequest request) {
@@ -66,7 +70,10 @@ public class CourseService implements ICourseService {
         if (!courseRepository.existsById(id)) {
             throw new AppException(ErrorCode.COURSE_NOT_FOUND);
         }
+        // Xóa course xóa lesson → lessonPart → câu hỏi theo cascade → bỏ đáp án của chúng khỏi cache
+        List<Long> questionIds = questionRepository.findIdsByCourseId(id);
         courseRepository.deleteById(id);
+        answerKeyCache.evictAll(questionIds);
     }
 
     @Override
@@ -0,0 +1,168 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.entity.ClassNotification;
+import com.ktnl.fapanese.entity.EmailOutbox;
+import com.ktnl.fapanese.entity.enums.EmailOutboxStatus;
+import com.ktnl.fapanese.mail.EmailTemplate;
+import com.ktnl.fapanese.repository.EmailOutboxRepository;
+import com.ktnl.fapanese.service.interfaces.IEmailOutboxService;
+import com.ktnl.fapanese.service.interfaces.IMailDispatchService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Transactional outbox cho email: nơi gọi chỉ ghi email vào bảng email_outbox trong transaction của mình,
+ * một job nền gửi sau khi commit.
+ *
+ * - Transaction nghiệp vụ chỉ còn việc ghi DB: SMTP chậm hay lỗi không làm chậm / rollback việc tạo tài khoản,
+ *   và transaction rollback thì email cũng không được gửi.
+ * - Email được đẩy cả lô sang MailDispatchService (gửi song song trên các kết nối SMTP dùng lại được).
+ * - Gửi lỗi thì thử lại sau retry-delay, mỗi lần sau gấp đôi lần trước; quá max-attempts thì FAILED.
+ * - Giả định chỉ một instance chạy dispatcher; nhiều instance dùng chung DB có thể gửi trùng.
+ * - Dòng PENDING chứa nội dung đã render, với email tạo tài khoản là cả mật khẩu tạm dạng rõ:
+ *   bảng email_outbox phải được bảo vệ như dữ liệu đăng nhập (quyền DB, backup). Body bị xóa ngay khi
+ *   email SENT hoặc FAILED nên mật khẩu chỉ nằm trong DB trong lúc còn chờ gửi / thử lại.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class EmailOutboxService implements IEmailOutboxService {
+    EmailOutboxRepository emailOutboxRepository;
+    IMailDispatchService mailDispatch;
+
+    @NonFinal
+    @Value("${email-outbox.batch-size:50}")
+    protected int BATCH_SIZE = 50;
+
+    @NonFinal
+    @Value("${email-outbox.max-attempts:5}")
+    protected int MAX_ATTEMPTS = 5;
+
+    @NonFinal
+    @Value("${email-outbox.retry-delay:60000}")
+    protected long RETRY_DELAY_MS = 60000;
+
+    /**
+     * Ghi email vào outbox; bắt buộc phải nằm trong transaction của nghiệp vụ tạo ra email này.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String to, EmailTemplate emailTemplate, String... args) {
+        LocalDateTime now = LocalDateTime.now();
+        emailOutboxRepository.save(EmailOutbox.builder()
+                .recipient(to)
+                .subject(emailTemplate.getSubject())
+                .body(emailTemplate.getContent(args))
+                .status(EmailOutboxStatus.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    /**
+     * Ghi một email cho mỗi người nhận của thông báo, dùng chung nội dung đã lưu trong notification.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(ClassNotification notification, List<String> recipients) {
+        LocalDateTime now = LocalDateTime.now();
+        emailOutboxRepository.saveAll(recipients.stream()
+                .map(to -> EmailOutbox.builder()
+                        .recipient(to)
+                        .subject(notification.getSubject())
+                        .notification(notification)
+                        .status(EmailOutboxStatus.PENDING)
+                        .nextAttemptAt(now)
+                        .createdAt(now)
+                        .build())
+                .toList());
+    }
+
+    /**
+     * Gửi các email đã tới hạn, từng lô BATCH_SIZE cho tới khi hết. Cả lô được đưa vào hàng đợi gửi rồi mới chờ
+     * kết quả; mỗi email được cập nhật trạng thái ngay khi có kết quả, nên dừng giữa chừng cũng không gửi lại
+     * email đã gửi thành công. Hàng đợi gửi đầy thì dừng, phần còn lại để lần chạy sau.
+     * Chạy trên pool của scheduler (spring.task.scheduling.pool.size) nên lúc chờ SMTP không chặn các job khác.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${email-outbox.poll-interval:5000}")
+    public int dispatchPending() {
+        int sent = 0;
+        boolean queueFull = false;
+        List<EmailOutbox> due;
+        do {
+            due = emailOutboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+                    EmailOutboxStatus.PENDING, LocalDateTime.now(), PageRequest.of(0, BATCH_SIZE));
+            List<CompletableFuture<Void>> results = due.stream()
+                    .map(message -> mailDispatch.submit(message.getRecipient(), message.getSubject(), bodyOf(message)))
+                    .toList();
+            for (int i = 0; i < due.size(); i++) {
+                EmailOutbox message = due.get(i);
+                try {
+                    results.get(i).join();
+                    markSent(message);
+                    sent++;
+                } catch (CompletionException e) {
+                    // Chưa gửi thử thì không tính là một lần thất bại
+                    if (e.getCause() instanceof RejectedExecutionException) {
+                        queueFull = true;
+                        continue;
+                    }
+                    markFailed(message, e.getCause());
+                }
+            }
+        } while (due.size() == BATCH_SIZE && !queueFull);
+
+        if (sent > 0)
+            log.info("Email outbox: sent {} emails", sent);
+        return sent;
+    }
+
+    private static String bodyOf(EmailOutbox message) {
+        return message.getNotification() != null ? message.getNotification().getBody() : message.getBody();
+    }
+
+    private void markSent(EmailOutbox message) {
+        message.setStatus(EmailOutboxStatus.SENT);
+        message.setSentAt(LocalDateTime.now());
+        message.setBody(null);
+        emailOutboxRepository.save(message);
+    }
+
+    private void markFailed(EmailOutbox message, Throwable error) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        message.setLastError(error.getMessage());
+        if (attempts >= MAX_ATTEMPTS) {
+            message.setStatus(EmailOutboxStatus.FAILED);
+            message.setBody(null); // Không gửi lại nữa: không giữ mật khẩu tạm trong DB
+            log.error("Giving up email {} to {} after {} attempts: {}", message.getId(), message.getRecipient(), attempts, error.getMessage());
+        } else {
+            message.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(retryDelayMillis(attempts))));
+            log.warn("Email {} to {} failed (attempt {}), retrying later: {}", message.getId(), message.getRecipient(), attempts, error.getMessage());
+        }
+        emailOutboxRepository.save(message);
+    }
+
+    // RETRY_DELAY, 2×, 4×,... sau mỗi lần thất bại
+    private long retryDelayMillis(int attempts) {
+        return RETRY_DELAY_MS << Math.min(attempts - 1, 16);
+    }
+}
@@ -44,22 +44,7 @@ public class EmailService implements IEmailService {
      */
     public EmailResponse sendEmail(String to, EmailTemplate emailTemplate, String... args){
         try {
-            // 1. Tạo MimeMessage (email phức tạp, hỗ trợ HTML, file đính kèm...)
-            MimeMessage message = mailSender.createMimeMessage();
-            // 2. Dùng MimeMessageHelper để set thông tin mail
-            //    - true = cho phép gửi mail có nội dung HTML hoặc multipart
-            //    - UTF-8 = mã hóa ký tự để hiển thị đúng tiếng Việt
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            // 3. Gán thông tin cơ bản
-            helper.setFrom(from);
-            helper.setTo(to);
-            helper.setSubject(emailTemplate.getSubject());
-            helper.setText(emailTemplate.getContent(args), true); // true = HTML
-
-            // 4. Gửi mail
-            mailSender.send(message);
-            log.info("Mail sent to " + to);
+            deliver(to, emailTemplate.getSubject(), emailTemplate.getContent(args));
 
         } catch (MessagingException | MailException e) {
             // Trường hợp có lỗi khi tạo / gửi email
@@ -74,4 +59,24 @@ public class EmailService implements IEmailService {
                 .isSuccess(true)
                 .build();
     }
+
+    // Gửi ngay trên thread của request (OTP, duyệt giáo viên: người dùng đang chờ); email gửi hàng loạt đi qua outbox
+    private void deliver(String to, String subject, String html) throws MessagingException {
+        // 1. Tạo MimeMessage (email phức tạp, hỗ trợ HTML, file đính kèm...)
+        MimeMessage message = mailSender.createMimeMessage();
+        // 2. Dùng MimeMessageHelper để set thông tin mail
+        //    - true = cho phép gửi mail có nội dung HTML hoặc multipart
+        //    - UTF-8 = mã hóa ký tự để hiển thị đúng tiếng Việt
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        // 3. Gán thông tin cơ bản
+        helper.setFrom(from);
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(html, true); // true = HTML
+
+        // 4. Gửi mail
+        mailSender.send(message);
+        log.info("Mail sent to " + to);
+    }
 }
@@ -0,0 +1,550 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktnl.fapanese.dto.request.ExamPaperSubmission;
+import com.ktnl.fapanese.dto.request.GenerateExamPapersRequest;
+import com.ktnl.fapanese.dto.request.UserAnswer;
+import com.ktnl.fapanese.dto.response.*;
+import com.ktnl.fapanese.entity.ExamPaperAttempt;
+import com.ktnl.fapanese.entity.ExamPaperSet;
+import com.ktnl.fapanese.entity.Question;
+import com.ktnl.fapanese.entity.User;
+import com.ktnl.fapanese.entity.enums.ExamKind;
+import com.ktnl.fapanese.entity.enums.QuestionCategory;
+import com.ktnl.fapanese.entity.enums.QuestionType;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.repository.*;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService.AnswerKey;
+import com.ktnl.fapanese.service.interfaces.IExamPaperService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * Phát đề giữa kỳ / cuối kỳ ngẫu nhiên cho từng sinh viên.
+ *
+ * - Pool là bộ câu hỏi đang gắn với đề; mỗi sinh viên được bốc N câu mỗi QuestionCategory,
+ *   xáo thứ tự câu và thứ tự đáp án A–D.
+ * - Mọi lựa chọn ngẫu nhiên đều lấy từ PRNG có seed = seed của lần phát đề ⊕ hash(studentId),
+ *   nên chỉ cần lưu một dòng ExamPaperSet cho cả khóa thi; đề của từng sinh viên sinh lại được
+ *   bất cứ lúc nào (xem lại đề, chấm bài) mà không lưu từng câu xuống DB.
+ * - Nội dung pool và đề đã sinh được giữ trong bộ nhớ: phát đề cho cả lớp chỉ tốn vài query.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ExamPaperService implements IExamPaperService {
+    private static final String LETTERS = "ABCD";
+    private static final byte NO_OPTION = -1;
+    private static final byte[] IDENTITY = {0, 1, 2, 3};
+    private static final int MULTIPLE_CHOICE_BIT = 1 << 4;
+    private static final TypeReference<Map<QuestionCategory, Integer>> BLUEPRINT_TYPE = new TypeReference<>() {};
+    private static final TypeReference<Map<QuestionCategory, long[]>> POOL_TYPE = new TypeReference<>() {};
+    private static final TypeReference<Map<Long, Integer>> OPTION_MASKS_TYPE = new TypeReference<>() {};
+    private static final TypeReference<List<String>> STUDENT_IDS_TYPE = new TypeReference<>() {};
+    private static final TypeReference<List<UserAnswer>> ANSWERS_TYPE = new TypeReference<>() {};
+
+    ExamPaperSetRepository examPaperSetRepository;
+    ExamPaperAttemptRepository examPaperAttemptRepository;
+    MiddleExamRepository middleExamRepository;
+    FinalExamRepository finalExamRepository;
+    QuestionRepository questionRepository;
+    ClassCourseRepository classCourseRepository;
+    StudentClassRepository studentClassRepository;
+    UserRepository userRepository;
+    IAnswerKeyCacheService answerKeyCache;
+    ObjectMapper objectMapper;
+    SecureRandom seedGenerator = new SecureRandom();
+
+    // paperSetId -> pool + đề đã sinh, sắp xếp theo thứ tự truy cập (LRU)
+    Map<Long, PaperSetContext> contexts = new LinkedHashMap<>(16, 0.75f, true);
+
+    @NonFinal
+    @Value("${exam-paper.cache-size:32}")
+    protected int CACHE_SIZE;
+
+    private record PoolQuestion(Long id, String content, QuestionCategory category,
+                                QuestionType questionType, String[] options) {
+        static PoolQuestion of(Question q) {
+            return new PoolQuestion(q.getId(), q.getContent(), q.getCategory(), q.getQuestionType(),
+                    new String[]{q.getOptionA(), q.getOptionB(), q.getOptionC(), q.getOptionD()});
+        }
+
+        // Đáp án nào có nội dung + có phải câu trắc nghiệm, xem ExamPaperSet.optionMasks
+        int optionMask() {
+            int mask = questionType == QuestionType.MULTIPLE_CHOICE ? MULTIPLE_CHOICE_BIT : 0;
+            for (int o = 0; o < 4; o++) {
+                if (options[o] != null)
+                    mask |= 1 << o;
+            }
+            return mask;
+        }
+    }
+
+    /**
+     * Đề của một sinh viên: id câu hỏi theo thứ tự trên đề, và với mỗi câu,
+     * optionOrder[4 * i + chữ cái hiển thị] = vị trí đáp án gốc (NO_OPTION nếu để trống).
+     */
+    private record PaperLayout(long[] questionIds, byte[] optionOrder) {
+        int indexOf(long questionId) {
+            for (int i = 0; i < questionIds.length; i++) {
+                if (questionIds[i] == questionId)
+                    return i;
+            }
+            return -1;
+        }
+    }
+
+    private record PaperSetContext(ExamPaperSet paperSet, Map<QuestionCategory, Integer> blueprint,
+                                   Map<QuestionCategory, long[]> pool, Map<Long, PoolQuestion> questions,
+                                   Map<Long, Integer> optionMasks, Set<String> cohort,
+                                   Map<String, PaperLayout> layouts) {}
+
+    @Override
+    public ExamPaperBatchResponse generatePapers(ExamKind examKind, Long examId, GenerateExamPapersRequest request) {
+        boolean exists = examKind == ExamKind.MIDDLE
+                ? middleExamRepository.existsById(examId)
+                : finalExamRepository.existsById(examId);
+        if (!exists)
+            throw new AppException(ErrorCode.EXAM_NOT_FOUND);
+
+        List<String> studentIds = cohort(request);
+        List<Question> questions = examKind == ExamKind.MIDDLE
+                ? middleExamRepository.findQuestionsByExamId(examId)
+                : finalExamRepository.findQuestionsByExamId(examId);
+
+        // Pool theo category, id tăng dần để thứ tự không phụ thuộc vào DB
+        Map<QuestionCategory, long[]> pool = new EnumMap<>(QuestionCategory.class);
+        Map<QuestionCategory, List<Long>> grouped = new EnumMap<>(QuestionCategory.class);
+        for (Question q : questions) {
+            if (q.getCategory() != null)
+                grouped.computeIfAbsent(q.getCategory(), c -> new ArrayList<>()).add(q.getId());
+        }
+        grouped.forEach((category, ids) -> pool.put(category, ids.stream().mapToLong(Long::longValue).sorted().toArray()));
+
+        Map<QuestionCategory, Integer> blueprint = blueprint(request.getQuestionsPerCategory(), pool);
+
+        Map<Long, PoolQuestion> poolQuestions = new HashMap<>();
+        questions.forEach(q -> poolQuestions.put(q.getId(), PoolQuestion.of(q)));
+        Map<Long, Integer> optionMasks = optionMasks(poolQuestions);
+
+        ExamPaperSet paperSet = examPaperSetRepository.save(ExamPaperSet.builder()
+                .examKind(examKind)
+                .examId(examId)
+                .classCourseId(request.getClassCourseId())
+                .studentIds(toJson(studentIds))
+                .seed(seedGenerator.nextLong())
+                .shuffleOptions(request.isShuffleOptions())
+                .blueprint(toJson(blueprint))
+                .questionPool(toJson(pool))
+                .optionMasks(toJson(optionMasks))
+                .closesAt(request.getClosesAt())
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        PaperSetContext context = new PaperSetContext(paperSet, blueprint, pool, poolQuestions, optionMasks,
+                Set.copyOf(studentIds), new ConcurrentHashMap<>());
+        cache(context);
+
+        List<ExamPaperResponse> papers = studentIds.stream()
+                .map(studentId -> render(context, studentId, layout(context, studentId)))
+                .toList();
+        log.info("Generated {} papers for {} exam {} (paper set {})", papers.size(), examKind, examId, paperSet.getId());
+
+        Map<String, Integer> perCategory = new LinkedHashMap<>();
+        blueprint.forEach((category, count) -> perCategory.put(category.name(), count));
+        return ExamPaperBatchResponse.builder()
+                .paperSetId(paperSet.getId())
+                .examKind(examKind.name())
+                .examId(examId)
+                .questionsPerCategory(perCategory)
+                .questionsPerPaper(blueprint.values().stream().mapToInt(Integer::intValue).sum())
+                .papers(papers)
+                .build();
+    }
+
+    /**
+     * Đề của một sinh viên trong lần phát đề; sinh viên không có trong danh sách được phát đề thì
+     * không có đề (không sinh đề cho một mã sinh viên bất kỳ).
+     */
+    @Override
+    public ExamPaperResponse getPaper(Long paperSetId, String studentId) {
+        PaperSetContext context = context(paperSetId);
+        if (!context.cohort().contains(studentId))
+            throw new AppException(ErrorCode.EXAM_PAPER_NOT_ASSIGNED);
+        return render(context, studentId, layout(context, studentId));
+    }
+
+    /**
+     * Lần phát đề mới nhất của bài thi có tên sinh viên đang đăng nhập (mỗi lớp có thể được
+     * phát đề riêng cho cùng một bài).
+     */
+    @Override
+    public ExamPaperResponse getMyPaper(ExamKind examKind, Long examId) {
+        List<ExamPaperSet> paperSets = examPaperSetRepository.findByExamKindAndExamIdOrderByIdDesc(examKind, examId);
+        if (paperSets.isEmpty())
+            throw new AppException(ErrorCode.EXAM_PAPER_NOT_FOUND);
+
+        String studentId = currentUserId();
+        ExamPaperSet paperSet = paperSets.stream()
+                .filter(set -> cohort(set).contains(studentId))
+                .findFirst()
+                .orElseThrow(() -> new AppException(ErrorCode.EXAM_PAPER_NOT_ASSIGNED));
+        return getPaper(paperSet.getId(), studentId);
+    }
+
+    /**
+     * Chấm theo đề của chính sinh viên: chữ cái sinh viên chọn được đổi về đáp án gốc trước khi
+     * so với cache đáp án; câu trên đề mà không trả lời tính là sai, câu không có trên đề bị bỏ qua.
+     */
+    @Override
+    public SubmitQuizResponse gradePaper(Long paperSetId, String studentId, List<UserAnswer> answers) {
+        PaperSetContext context = context(paperSetId);
+        PaperLayout layout = layout(context, studentId);
+
+        Map<Long, String> given = new HashMap<>();
+        if (answers != null) {
+            answers.stream()
+                    .filter(a -> a.getQuestionId() != null)
+                    .forEach(a -> given.put(a.getQuestionId(), a.getUserAnswer()));
+        }
+
+        long[] ids = layout.questionIds();
+        Map<Long, AnswerKey> keys = answerKeyCache.getAll(Arrays.stream(ids).boxed().toList());
+        int correct = 0;
+        List<QuestionCheckResponse> details = new ArrayList<>(ids.length);
+
+        for (int i = 0; i < ids.length; i++) {
+            AnswerKey key = keys.get(ids[i]);
+            if (key == null)
+                throw new AppException(ErrorCode.QUESTION_NOT_FOUND);
+
+            String userAnswer = given.get(ids[i]);
+            boolean isCorrect;
+            String correctAnswer;
+            if (key.questionType() == QuestionType.MULTIPLE_CHOICE) {
+                isCorrect = key.matches(toOriginal(layout, i, userAnswer));
+                correctAnswer = toDisplayed(layout, i, key.expectedAnswer());
+            } else {
+                isCorrect = key.matches(userAnswer);
+                correctAnswer = key.expectedAnswer();
+            }
+            if (isCorrect)
+                correct++;
+
+            details.add(QuestionCheckResponse.builder()
+                    .questionId(key.questionId())
+                    .questionType(key.questionTypeName())
+                    .isCorrect(isCorrect)
+                    .userAnswer(userAnswer)
+                    .correctAnswer(correctAnswer)
+                    .build());
+        }
+
+        double score = ids.length > 0 ? (correct * 100.0 / ids.length) : 0.0;
+        return new SubmitQuizResponse(ids.length, correct, score, details);
+    }
+
+    /**
+     * Mỗi sinh viên nộp một lần, trước hạn nộp. Bài làm được lưu lại; kết quả trả về chỉ có điểm,
+     * đáp án từng câu chỉ xem được qua getMyResult sau khi hết hạn, để không ai nộp trống
+     * lấy đáp án rồi chia sẻ cho người chưa nộp.
+     */
+    @Override
+    public SubmitQuizResponse submitMyPaper(ExamPaperSubmission submission) {
+        if (submission.getPaperSetId() == null)
+            throw new AppException(ErrorCode.INVALID_INPUT, "paperSetId is required");
+        Long paperSetId = submission.getPaperSetId();
+        String studentId = currentUserId();
+        PaperSetContext context = context(paperSetId);
+        if (!context.cohort().contains(studentId))
+            throw new AppException(ErrorCode.EXAM_PAPER_NOT_ASSIGNED);
+        if (isClosed(context.paperSet()))
+            throw new AppException(ErrorCode.EXAM_PAPER_CLOSED);
+        if (examPaperAttemptRepository.existsByPaperSetIdAndStudentId(paperSetId, studentId))
+            throw new AppException(ErrorCode.EXAM_PAPER_ALREADY_SUBMITTED);
+
+        List<UserAnswer> answers = submission.getAnswers() != null ? submission.getAnswers() : List.of();
+        SubmitQuizResponse result = gradePaper(paperSetId, studentId, answers);
+        try {
+            // Hai request nộp cùng lúc: unique (paper_set_id, student_id) chặn bản thứ hai
+            examPaperAttemptRepository.saveAndFlush(ExamPaperAttempt.builder()
+                    .paperSetId(paperSetId)
+                    .studentId(studentId)
+                    .answers(toJson(answers))
+                    .totalQuestions(result.getTotalQuestions())
+                    .correctCount(result.getCorrectCount())
+                    .scorePercentage(result.getScorePercentage())
+                    .submittedAt(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            throw new AppException(ErrorCode.EXAM_PAPER_ALREADY_SUBMITTED);
+        }
+
+        result.setDetailedResults(null);
+        return result;
+    }
+
+    /**
+     * Điểm đã lưu của bài nộp; sau hạn nộp thì kèm đáp án từng câu (chấm lại bài làm đã lưu).
+     */
+    @Override
+    public SubmitQuizResponse getMyResult(Long paperSetId) {
+        String studentId = currentUserId();
+        ExamPaperAttempt attempt = examPaperAttemptRepository.findByPaperSetIdAndStudentId(paperSetId, studentId)
+                .orElseThrow(() -> new AppException(ErrorCode.EXAM_PAPER_NOT_SUBMITTED));
+
+        List<QuestionCheckResponse> details = isClosed(context(paperSetId).paperSet())
+                ? gradePaper(paperSetId, studentId, fromJson(attempt.getAnswers(), ANSWERS_TYPE)).getDetailedResults()
+                : null;
+        return new SubmitQuizResponse(attempt.getTotalQuestions(), attempt.getCorrectCount(),
+                attempt.getScorePercentage(), details);
+    }
+
+    private static boolean isClosed(ExamPaperSet paperSet) {
+        return paperSet.getClosesAt() != null && !LocalDateTime.now().isBefore(paperSet.getClosesAt());
+    }
+
+    // ----- Sinh đề -----
+
+    private PaperLayout layout(PaperSetContext context, String studentId) {
+        return context.layouts().computeIfAbsent(studentId, id -> generateLayout(context, id));
+    }
+
+    /**
+     * Thứ tự gọi PRNG cố định: bốc theo category (thứ tự enum), xáo thứ tự câu, rồi mỗi câu
+     * một hoán vị 4 đáp án (kể cả câu tự luận). Đáp án trống / loại câu lấy từ optionMasks chụp
+     * lúc phát đề, nên sửa câu hỏi sau đó không làm đổi chữ cái sinh viên đã thấy.
+     */
+    private static PaperLayout generateLayout(PaperSetContext context, String studentId) {
+        RandomGenerator random = new SplittableRandom(context.paperSet().getSeed() ^ stableHash(studentId));
+
+        int total = context.blueprint().values().stream().mapToInt(Integer::intValue).sum();
+        long[] ids = new long[total];
+        int position = 0;
+        for (Map.Entry<QuestionCategory, Integer> entry : context.blueprint().entrySet()) {
+            long[] picked = RandomSampling.sample(context.pool().get(entry.getKey()), entry.getValue(), random);
+            System.arraycopy(picked, 0, ids, position, picked.length);
+            position += picked.length;
+        }
+        RandomSampling.shuffle(ids, random);
+
+        byte[] optionOrder = new byte[total * 4];
+        for (int i = 0; i < total; i++) {
+            byte[] permutation = context.paperSet().isShuffleOptions() ? RandomSampling.permutation(4, random) : IDENTITY;
+            int mask = context.optionMasks().getOrDefault(ids[i], 0);
+            boolean shuffle = (mask & MULTIPLE_CHOICE_BIT) != 0;
+            int displayed = 0;
+            for (byte original : shuffle ? permutation : IDENTITY) {
+                // Bỏ đáp án trống, các đáp án còn lại dồn lên A, B, ...
+                if ((mask & (1 << original)) != 0)
+                    optionOrder[i * 4 + displayed++] = original;
+            }
+            while (displayed < 4)
+                optionOrder[i * 4 + displayed++] = NO_OPTION;
+        }
+        return new PaperLayout(ids, optionOrder);
+    }
+
+    private ExamPaperResponse render(PaperSetContext context, String studentId, PaperLayout layout) {
+        long[] ids = layout.questionIds();
+        List<ExamPaperQuestionResponse> questions = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            PoolQuestion q = context.questions().get(ids[i]);
+            String[] options = new String[4];
+            for (int d = 0; d < 4; d++) {
+                byte original = layout.optionOrder()[i * 4 + d];
+                options[d] = q == null || original == NO_OPTION ? null : q.options()[original];
+            }
+            questions.add(ExamPaperQuestionResponse.builder()
+                    .questionId(ids[i])
+                    .content(q == null ? null : q.content())
+                    .category(q == null || q.category() == null ? null : q.category().name())
+                    .questionType(q == null || q.questionType() == null ? null : q.questionType().name())
+                    .optionA(options[0])
+                    .optionB(options[1])
+                    .optionC(options[2])
+                    .optionD(options[3])
+                    .build());
+        }
+
+        ExamPaperSet paperSet = context.paperSet();
+        return ExamPaperResponse.builder()
+                .paperSetId(paperSet.getId())
+                .examKind(paperSet.getExamKind().name())
+                .examId(paperSet.getExamId())
+                .studentId(studentId)
+                .questions(questions)
+                .build();
+    }
+
+    // Chữ cái sinh viên chọn → chữ cái của đáp án gốc
+    private static String toOriginal(PaperLayout layout, int index, String displayed) {
+        int d = letterIndex(displayed);
+        if (d < 0)
+            return displayed;
+        byte original = layout.optionOrder()[index * 4 + d];
+        return original == NO_OPTION ? null : String.valueOf(LETTERS.charAt(original));
+    }
+
+    // Chữ cái của đáp án đúng gốc → chữ cái hiển thị trên đề của sinh viên
+    private static String toDisplayed(PaperLayout layout, int index, String original) {
+        int o = letterIndex(original);
+        if (o < 0)
+            return original;
+        for (int d = 0; d < 4; d++) {
+            if (layout.optionOrder()[index * 4 + d] == o)
+                return String.valueOf(LETTERS.charAt(d));
+        }
+        return original;
+    }
+
+    private static int letterIndex(String letter) {
+        if (letter == null || letter.strip().length() != 1)
+            return -1;
+        return LETTERS.indexOf(Character.toUpperCase(letter.strip().charAt(0)));
+    }
+
+    // FNV-1a 64-bit: ổn định giữa các lần chạy JVM (khác String.hashCode chỉ 32-bit)
+    private static long stableHash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static Map<Long, Integer> optionMasks(Map<Long, PoolQuestion> questions) {
+        Map<Long, Integer> masks = new HashMap<>();
+        questions.forEach((id, question) -> masks.put(id, question.optionMask()));
+        return masks;
+    }
+
+    // ----- Dữ liệu đầu vào -----
+
+    private List<String> cohort(GenerateExamPapersRequest request) {
+        Set<String> studentIds = new LinkedHashSet<>();
+        if (request.getClassCourseId() != null) {
+            if (!classCourseRepository.existsById(request.getClassCourseId()))
+                throw new AppException(ErrorCode.CLASS_COURSE_NOT_FOUND);
+            studentIds.addAll(studentClassRepository.findStudentIdsByClassCourseId(request.getClassCourseId()));
+        }
+        if (request.getStudentIds() != null)
+            request.getStudentIds().stream().filter(Objects::nonNull).forEach(studentIds::add);
+        return new ArrayList<>(studentIds);
+    }
+
+    private Set<String> cohort(ExamPaperSet paperSet) {
+        return paperSet.getStudentIds() != null
+                ? Set.copyOf(fromJson(paperSet.getStudentIds(), STUDENT_IDS_TYPE))
+                : Set.of();
+    }
+
+    /**
+     * Bỏ trống → lấy hết câu của mỗi category có trong đề (vẫn xáo thứ tự).
+     */
+    private static Map<QuestionCategory, Integer> blueprint(Map<QuestionCategory, Integer> requested,
+                                                            Map<QuestionCategory, long[]> pool) {
+        Map<QuestionCategory, Integer> blueprint = new EnumMap<>(QuestionCategory.class);
+        if (requested == null || requested.isEmpty()) {
+            pool.forEach((category, ids) -> blueprint.put(category, ids.length));
+            return blueprint;
+        }
+
+        requested.forEach((category, count) -> {
+            if (category == null || count == null || count < 0)
+                throw new AppException(ErrorCode.INVALID_INPUT, "questionsPerCategory");
+            int available = pool.getOrDefault(category, new long[0]).length;
+            if (count > available)
+                throw new AppException(ErrorCode.EXAM_POOL_TOO_SMALL, category.name(), available, count);
+            if (count > 0)
+                blueprint.put(category, count);
+        });
+        return blueprint;
+    }
+
+    // ----- Cache -----
+
+    private PaperSetContext context(Long paperSetId) {
+        synchronized (contexts) {
+            PaperSetContext cached = contexts.get(paperSetId);
+            if (cached != null)
+                return cached;
+        }
+
+        ExamPaperSet paperSet = examPaperSetRepository.findById(paperSetId)
+                .orElseThrow(() -> new AppException(ErrorCode.EXAM_PAPER_NOT_FOUND));
+        Map<QuestionCategory, Integer> blueprint = new EnumMap<>(QuestionCategory.class);
+        blueprint.putAll(fromJson(paperSet.getBlueprint(), BLUEPRINT_TYPE));
+        Map<QuestionCategory, long[]> pool = new EnumMap<>(QuestionCategory.class);
+        pool.putAll(fromJson(paperSet.getQuestionPool(), POOL_TYPE));
+
+        List<Long> ids = pool.values().stream().flatMapToLong(Arrays::stream).boxed().toList();
+        Map<Long, PoolQuestion> questions = new HashMap<>();
+        questionRepository.findAllById(ids).forEach(q -> questions.put(q.getId(), PoolQuestion.of(q)));
+
+        // Lần phát đề cũ chưa có snapshot → đành dùng đáp án hiện tại của câu hỏi
+        Map<Long, Integer> optionMasks = paperSet.getOptionMasks() != null
+                ? fromJson(paperSet.getOptionMasks(), OPTION_MASKS_TYPE)
+                : optionMasks(questions);
+
+        PaperSetContext context = new PaperSetContext(paperSet, blueprint, pool, questions, optionMasks,
+                cohort(paperSet), new ConcurrentHashMap<>());
+        return cache(context);
+    }
+
+    private PaperSetContext cache(PaperSetContext context) {
+        synchronized (contexts) {
+            // Hai request cùng nạp một paper set → giữ bản đã có để dùng chung đề đã sinh
+            PaperSetContext existing = contexts.putIfAbsent(context.paperSet().getId(), context);
+            while (contexts.size() > Math.max(1, CACHE_SIZE)) {
+                Iterator<Long> eldest = contexts.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+            return existing != null ? existing : context;
+        }
+    }
+
+    private String currentUserId() {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        return user.getId();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize exam paper set", e);
+        }
+    }
+
+    private <T> T fromJson(String json, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupted exam paper set", e);
+        }
+    }
+}
@@ -1,49 +1,75 @@
 package com.ktnl.fapanese.service.implementations;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ktnl.fapanese.dto.request.UserAnswer;
 import com.ktnl.fapanese.dto.response.QuestionCheckResponse;
 import com.ktnl.fapanese.dto.response.SubmitQuizResponse;
-import com.ktnl.fapanese.entity.Question;
+import com.ktnl.fapanese.entity.ClassCourse;
+import com.ktnl.fapanese.entity.enums.ExamKind;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.repository.ClassCourseRepository;
 import com.ktnl.fapanese.repository.FinalExamRepository;
 import com.ktnl.fapanese.repository.MiddleExamRepository;
-import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.repository.StudentClassRepository;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService.AnswerKey;
+import com.ktnl.fapanese.service.interfaces.IBulkExamGrader;
 import com.ktnl.fapanese.service.interfaces.IExamService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 public class ExamService implements IExamService {
 
-    private final QuestionRepository questionRepository;
+    private final IAnswerKeyCacheService answerKeyCache;
     private final FinalExamRepository finalExamQuestionRepository;
     private final MiddleExamRepository middleExamQuestionRepository;
+    private final ClassCourseRepository classCourseRepository;
+    private final StudentClassRepository studentClassRepository;
+    private final ObjectMapper objectMapper;
 
+    private ExecutorService gradingExecutor;
+
+    @Override
     public SubmitQuizResponse checkAndSubmitExamAnswers(List<UserAnswer> userAnswers) {
         int total = userAnswers.size();
         int correct = 0;
         List<QuestionCheckResponse> details = new ArrayList<>();
 
+        // Chấm hoàn toàn trong bộ nhớ (cache đáp án), không đọc entity Question
+        Map<Long, AnswerKey> answerKeys = answerKeyCache.getAll(userAnswers.stream()
+                .map(UserAnswer::getQuestionId)
+                .toList());
+
         for (UserAnswer ans : userAnswers) {
-            Question q = questionRepository.findById(ans.getQuestionId())
-                    .orElseThrow(() -> new AppException(ErrorCode.QUESTION_NOT_FOUND));
+            AnswerKey key = answerKeys.get(ans.getQuestionId());
+            if (key == null)
+                throw new AppException(ErrorCode.QUESTION_NOT_FOUND);
 
-            boolean isCorrect = q.getCorrectAnswer() != null &&
-                    q.getCorrectAnswer().equalsIgnoreCase(ans.getUserAnswer());
+            boolean isCorrect = key.matches(ans.getUserAnswer());
 
             if (isCorrect) correct++;
 
             details.add(QuestionCheckResponse.builder()
-                    .questionId(q.getId())
-                    .questionType(q.getQuestionType().name())
+                    .questionId(key.questionId())
+                    .questionType(key.questionTypeName())
                     .isCorrect(isCorrect)
                     .userAnswer(ans.getUserAnswer())
-                    .correctAnswer(q.getCorrectAnswer())
+                    .correctAnswer(key.expectedAnswer())
                     .build());
         }
 
@@ -51,4 +77,60 @@ public class ExamService implements IExamService {
 
         return new SubmitQuizResponse(total, correct, score, details);
     }
+
+    /**
+     * Kiểm tra đề / lớp và nạp đáp án của đề một lần, trước khi bắt đầu stream kết quả.
+     * classCourseId (tùy chọn): chỉ nhận bài của sinh viên thuộc lớp, và báo ai chưa nộp.
+     */
+    @Override
+    public IBulkExamGrader prepareBulkGrading(ExamKind examKind, Long examId, Long classCourseId) {
+        boolean exists = examKind == ExamKind.MIDDLE
+                ? middleExamQuestionRepository.existsById(examId)
+                : finalExamQuestionRepository.existsById(examId);
+        if (!exists)
+            throw new AppException(ErrorCode.EXAM_NOT_FOUND);
+
+        // Kết quả chấm chứa bài làm và điểm của sinh viên: giảng viên chỉ chấm được lớp mình dạy,
+        // chấm không theo lớp thì chỉ admin
+        Set<String> enrolledStudentIds = null;
+        if (classCourseId == null) {
+            if (!ClassAccess.isAdmin())
+                throw new AppException(ErrorCode.BULK_GRADING_CLASS_REQUIRED);
+        } else {
+            ClassCourse classCourse = classCourseRepository.findById(classCourseId)
+                    .orElseThrow(() -> new AppException(ErrorCode.CLASS_COURSE_NOT_FOUND));
+            ClassAccess.requireTeaches(classCourse);
+            enrolledStudentIds = Set.copyOf(studentClassRepository.findStudentIdsByClassCourseId(classCourseId));
+        }
+
+        List<Long> questionIds = examKind == ExamKind.MIDDLE
+                ? middleExamQuestionRepository.findQuestionIdsByExamId(examId)
+                : finalExamQuestionRepository.findQuestionIdsByExamId(examId);
+        Map<Long, AnswerKey> keys = answerKeyCache.getAll(questionIds);
+        List<AnswerKey> answerKeys = questionIds.stream()
+                .distinct()
+                .map(keys::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new BulkExamGrader(examId, examKind, classCourseId, answerKeys, enrolledStudentIds,
+                objectMapper, gradingExecutor);
+    }
+
+    // Chấm bài là việc thuần CPU nên số thread bằng số core
+    @PostConstruct
+    void init() {
+        gradingExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new CustomizableThreadFactory("exam-grading-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        gradingExecutor.shutdownNow();
+        try {
+            gradingExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
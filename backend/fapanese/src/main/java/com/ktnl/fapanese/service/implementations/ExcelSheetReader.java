@@ -0,0 +1,299 @@
+package com.ktnl.fapanese.service.implementations;
+
+import org.apache.poi.ooxml.POIXMLTypeLoader;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.xmlbeans.XmlException;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbookPr;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.WorkbookDocument;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Đọc sheet đầu tiên của file Excel theo từng dòng, không dựng cả workbook trong bộ nhớ.
+ *
+ * - .xlsx: sheet XML được parse bằng SAX (XSSFReader); mỗi thẻ &lt;row&gt; được đưa cho handler
+ *   ngay khi đọc xong rồi bỏ đi, nên heap chỉ phụ thuộc vào bảng shared strings, không vào số dòng.
+ *   File upload được chép ra file tạm để OPCPackage đọc zip theo kiểu random access thay vì nạp cả zip.
+ * - .xls không có cách đọc tương đương nên vẫn qua WorkbookFactory, nhưng trả ra cùng kiểu ExcelRow.
+ * - Giống Sheet.iterator(): chỉ dòng có trong file mới được trả về (kể cả dòng không có ô nào),
+ *   dòng bị bỏ trống hẳn thì không.
+ *
+ * Cả file dùng chung một DataFormatter; ô công thức lấy giá trị đã tính sẵn trong file.
+ */
+public final class ExcelSheetReader {
+
+    public enum CellKind { STRING, NUMERIC, BOOLEAN, FORMULA, ERROR, BLANK }
+
+    /**
+     * Một ô đã đọc. text là giá trị đã format (giống DataFormatter.formatCellValue);
+     * date khác null khi ô là số có định dạng ngày tháng.
+     */
+    public record ExcelCell(int column, CellKind kind, String text, LocalDate date) {
+    }
+
+    public record ExcelRow(int rowIndex, List<ExcelCell> cells) {
+
+        /**
+         * Ô tại cột column, hoặc null nếu không có / trống (giống MissingCellPolicy.RETURN_BLANK_AS_NULL).
+         */
+        public ExcelCell getCell(int column) {
+            for (ExcelCell cell : cells) {
+                if (cell.column() == column)
+                    return cell.kind() == CellKind.BLANK ? null : cell;
+            }
+            return null;
+        }
+
+        public boolean isEmpty() {
+            return cells.stream().allMatch(cell -> cell.kind() == CellKind.BLANK);
+        }
+    }
+
+    @FunctionalInterface
+    public interface RowHandler {
+        void handle(ExcelRow row);
+    }
+
+    private ExcelSheetReader() {
+    }
+
+    /**
+     * Đọc lần lượt từng dòng của sheet đầu tiên. Exception ném ra từ handler sẽ dừng việc đọc
+     * và được ném tiếp ra ngoài nguyên vẹn.
+     */
+    public static void read(InputStream input, RowHandler handler) throws IOException {
+        InputStream in = FileMagic.prepareToCheckMagic(input instanceof BufferedInputStream ? input : new BufferedInputStream(input));
+        if (FileMagic.valueOf(in) == FileMagic.OOXML)
+            readXlsx(in, handler);
+        else
+            readWorkbook(in, handler);
+    }
+
+    private static void readXlsx(InputStream in, RowHandler handler) throws IOException {
+        Path temp = Files.createTempFile("fapanese-import-", ".xlsx");
+        try {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            try (OPCPackage pkg = OPCPackage.open(temp.toFile(), PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                Iterator<InputStream> sheets = reader.getSheetsData();
+                if (!sheets.hasNext())
+                    return;
+
+                SheetHandler sheetHandler = new SheetHandler(new ReadOnlySharedStringsTable(pkg, false),
+                        reader.getStylesTable(), isDate1904(reader), handler);
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(sheetHandler);
+                    parser.parse(new InputSource(sheet));
+                }
+            } catch (OpenXML4JException | SAXException | ParserConfigurationException | XmlException e) {
+                throw new IOException("Không đọc được file Excel: " + e.getMessage(), e);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static boolean isDate1904(XSSFReader reader) throws IOException, OpenXML4JException, XmlException {
+        try (InputStream workbook = reader.getWorkbookData()) {
+            CTWorkbookPr pr = WorkbookDocument.Factory.parse(workbook, POIXMLTypeLoader.DEFAULT_XML_OPTIONS)
+                    .getWorkbook().getWorkbookPr();
+            return pr != null && pr.isSetDate1904() && pr.getDate1904();
+        }
+    }
+
+    private static void readWorkbook(InputStream in, RowHandler handler) throws IOException {
+        DataFormatter formatter = newFormatter();
+        try (Workbook workbook = WorkbookFactory.create(in)) {
+            if (workbook.getNumberOfSheets() == 0)
+                return;
+            for (Row row : workbook.getSheetAt(0)) {
+                List<ExcelCell> cells = new ArrayList<>(Math.max(0, row.getLastCellNum()));
+                for (Cell cell : row)
+                    cells.add(toExcelCell(cell, formatter));
+                handler.handle(new ExcelRow(row.getRowNum(), cells));
+            }
+        }
+    }
+
+    private static ExcelCell toExcelCell(Cell cell, DataFormatter formatter) {
+        CellKind kind = switch (cell.getCellType()) {
+            case STRING -> CellKind.STRING;
+            case NUMERIC -> CellKind.NUMERIC;
+            case BOOLEAN -> CellKind.BOOLEAN;
+            case FORMULA -> CellKind.FORMULA;
+            case ERROR -> CellKind.ERROR;
+            default -> CellKind.BLANK;
+        };
+        LocalDate date = kind == CellKind.NUMERIC && DateUtil.isCellDateFormatted(cell)
+                ? cell.getLocalDateTimeCellValue().toLocalDate()
+                : null;
+        String text = kind == CellKind.BLANK ? "" : formatter.formatCellValue(cell);
+        return new ExcelCell(cell.getColumnIndex(), kind, text, date);
+    }
+
+    private static DataFormatter newFormatter() {
+        DataFormatter formatter = new DataFormatter();
+        formatter.setUseCachedValuesForFormulaCells(true);
+        return formatter;
+    }
+
+    /**
+     * Chuyển các sự kiện SAX của sheet XML thành ExcelRow. Chỉ giữ trong bộ nhớ các ô của dòng hiện tại.
+     */
+    private static final class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final StylesTable styles;
+        private final boolean date1904;
+        private final RowHandler handler;
+        private final DataFormatter formatter = newFormatter();
+
+        private final StringBuilder value = new StringBuilder();
+        private List<ExcelCell> cells;
+        private int rowIndex;
+        private int nextRowIndex;
+        private int nextColumn;
+
+        // Ô đang đọc
+        private int column;
+        private String type;
+        private String styleIndex;
+        private boolean hasFormula;
+        private boolean hasValue;
+        private boolean inValue;
+        private boolean inInlineString;
+        private boolean inPhonetic;
+
+        SheetHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable styles, boolean date1904, RowHandler handler) {
+            this.sharedStrings = sharedStrings;
+            this.styles = styles;
+            this.date1904 = date1904;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row" -> {
+                    String ref = attributes.getValue("r");
+                    rowIndex = ref != null ? Integer.parseInt(ref) - 1 : nextRowIndex;
+                    cells = new ArrayList<>();
+                    nextColumn = 0;
+                }
+                case "c" -> {
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? new CellReference(ref).getCol() : nextColumn;
+                    type = attributes.getValue("t");
+                    styleIndex = attributes.getValue("s");
+                    hasFormula = false;
+                    hasValue = false;
+                    value.setLength(0);
+                }
+                case "f" -> hasFormula = true;
+                case "v" -> {
+                    inValue = true;
+                    hasValue = true;
+                }
+                case "is" -> {
+                    inInlineString = true;
+                    hasValue = true;
+                }
+                case "rPh" -> inPhonetic = true;
+                case "t" -> inValue = inInlineString && !inPhonetic;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue)
+                value.append(ch, start, length);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> inValue = false;
+                case "is" -> inInlineString = false;
+                case "rPh" -> inPhonetic = false;
+                case "c" -> {
+                    cells.add(toCell());
+                    nextColumn = column + 1;
+                }
+                case "row" -> {
+                    ExcelRow row = new ExcelRow(rowIndex, cells);
+                    cells = null;
+                    nextRowIndex = rowIndex + 1;
+                    handler.handle(row);
+                }
+                default -> {
+                }
+            }
+        }
+
+        private ExcelCell toCell() {
+            if (!hasValue)
+                return new ExcelCell(column, CellKind.BLANK, "", null);
+
+            String raw = value.toString();
+            CellKind kind = hasFormula ? CellKind.FORMULA : null;
+
+            if ("s".equals(type)) {
+                String text = sharedStrings.getItemAt(Integer.parseInt(raw.trim())).getString();
+                return new ExcelCell(column, kind != null ? kind : CellKind.STRING, text, null);
+            }
+            if ("inlineStr".equals(type) || "str".equals(type))
+                return new ExcelCell(column, kind != null ? kind : CellKind.STRING, raw, null);
+            if ("b".equals(type))
+                return new ExcelCell(column, kind != null ? kind : CellKind.BOOLEAN, "0".equals(raw) ? "FALSE" : "TRUE", null);
+            if ("e".equals(type))
+                return new ExcelCell(column, kind != null ? kind : CellKind.ERROR, raw, null);
+
+            // Ô số: format theo style của ô, giống DataFormatter.formatCellValue
+            double number = Double.parseDouble(raw);
+            int formatIndex = 0;
+            String formatString = null;
+            if (styleIndex != null && styles != null) {
+                XSSFCellStyle style = styles.getStyleAt(Integer.parseInt(styleIndex));
+                if (style != null) {
+                    formatIndex = style.getDataFormat();
+                    formatString = style.getDataFormatString();
+                }
+            }
+            if (formatString == null)
+                formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+
+            String text = formatter.formatRawCellContents(number, formatIndex, formatString, date1904);
+            LocalDate date = kind == null && DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(number)
+                    ? DateUtil.getLocalDateTime(number, date1904).toLocalDate()
+                    : null;
+            return new ExcelCell(column, kind != null ? kind : CellKind.NUMERIC, text, date);
+        }
+    }
+}
@@ -8,12 +8,12 @@ import com.ktnl.fapanese.exception.ErrorCode;
 import com.ktnl.fapanese.repository.StudentRepository;
 import com.ktnl.fapanese.service.interfaces.IExcelUploadService;
 import com.ktnl.fapanese.service.interfaces.IStudentService;
-import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -21,11 +21,15 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.text.ParsePosition;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
@@ -50,143 +54,303 @@ public class ExcelUploadService implements IExcelUploadService {
             // Add more formats if needed
     );
 
+    private static final Pattern EMAIL_PATTERN =
+            Pattern.compile("^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Tối đa số lô đang validate cùng lúc; đủ để mọi core có việc mà không đọc trước quá xa
+    private static final int MAX_IN_FLIGHT_BATCHES = Math.max(2, 2 * ForkJoinPool.getCommonPoolParallelism());
+
+    // Số học sinh gom lại trước mỗi lần ghi xuống DB; mỗi lô được createStudentAccountList commit riêng
+    @NonFinal
+    @Value("${excel-import.chunk-size:500}")
+    protected int CHUNK_SIZE = 500;
+
+    // Số dòng trong mỗi task validate gửi sang ForkJoinPool
+    @NonFinal
+    @Value("${excel-import.validation-batch-size:256}")
+    protected int VALIDATION_BATCH_SIZE = 256;
+
     @Override
-    @Transactional // Ensure atomicity for the database save operation
     public ExcelUploadResponse processStudentExcel(MultipartFile file) throws IOException, AppException {
-        ExcelUploadResponse result = new ExcelUploadResponse();
-        List<CreateStudentRequest> studentsToSave = new ArrayList<>();
-        Set<String> emailsInFile = new HashSet<>(); // Track emails within the file for duplicates
+        try (InputStream inputStream = file.getInputStream()) {
+            return processStudentExcel(inputStream, ImportCheckpoint.NONE);
+        }
+    }
+
+    /**
+     * Import từ một stream bất kỳ; ImportJobService dùng để chạy job nền và chạy tiếp từ checkpoint.
+     */
+    public ExcelUploadResponse processStudentExcel(InputStream inputStream, ImportCheckpoint checkpoint) throws IOException, AppException {
+        StudentImport studentImport = new StudentImport(checkpoint);
+
+        // Đọc từng dòng theo kiểu stream (SAX), dòng nào validate xong thì bỏ khỏi bộ nhớ
+        ExcelSheetReader.read(inputStream, studentImport::accept);
+
+        // 1. Validate Header Row
+        if (studentImport.headerMap == null) {
+            throw new AppException(ErrorCode.FILE_REQUIRED); // Use specific code
+        }
+
+        // 3. Chờ các lô đang validate, gộp kết quả rồi lưu phần còn lại
+        studentImport.finish();
+
+        ExcelUploadResponse result = studentImport.result;
+        if (studentImport.queuedCount == 0 && result.getFailureCount() == 0) {
+            // Case where file had only header or only empty/invalid rows, but no actual data processed
+            if (result.getTotalRowsProcessed() == 0) {
+                result.addErrorMessage(0, "Không tìm thấy dòng dữ liệu hợp lệ nào trong file.");
+            }
+            // If totalRowsProcessed > 0 but nothing was queued, failures were already counted.
+        }
 
-        try (InputStream inputStream = file.getInputStream();
-             Workbook workbook = WorkbookFactory.create(inputStream)) {
+        log.info("Excel processing finished. Total: {}, Success: {}, Failure: {}",
+                result.getTotalRowsProcessed(), result.getSuccessCount(), result.getFailureCount());
+        return result;
+    }
 
-            Sheet sheet = workbook.getSheetAt(0);
-            Iterator<Row> rowIterator = sheet.iterator();
+    /**
+     * Một lần import, chạy theo pipeline 3 bước:
+     * 1. Đọc tuần tự (thread gọi ExcelSheetReader): đánh số dòng, gom thành lô VALIDATION_BATCH_SIZE dòng.
+     * 2. Validate song song: mỗi lô là một task trên ForkJoinPool.commonPool(); validateRow không có
+     *    trạng thái dùng chung nên các lô chạy độc lập.
+     * 3. Gộp tuần tự theo đúng thứ tự lô: ghi lỗi theo số dòng, kiểm tra email trùng trong file
+     *    (phụ thuộc thứ tự nên không song song được) và lưu theo lô CHUNK_SIZE.
+     * Vì bước 3 đi đúng thứ tự dòng, ExcelUploadResponse giống hệt khi xử lý tuần tự.
+     *
+     * Khi chạy tiếp từ checkpoint, các dòng đã commit vẫn đi qua pipeline nhưng chỉ để nạp lại emailsInFile.
+     */
+    private class StudentImport {
+        final ImportCheckpoint checkpoint;
+        final int resumeAfterRow;
+        final ExcelUploadResponse result;
+        List<CreateStudentRequest> studentsToSave = new ArrayList<>();
+        Map<String, Integer> chunkRows = new HashMap<>(); // Email → số dòng của các học sinh trong lô đang gom
+        final Set<String> emailsInFile = new HashSet<>(); // Track emails within the file for duplicates
+        final Deque<CompletableFuture<List<ValidatedRow>>> inFlight = new ArrayDeque<>();
+        List<NumberedRow> pending = new ArrayList<>();
+        Map<String, Integer> headerMap;
+        int rowNum = 1; // Start after header
+        int queuedCount;
+        int chunkFirstRow;
+        int chunkLastRow;
+        int lastMergedRow; // Dòng cuối đã gộp vào result, kể cả dòng lỗi; checkpoint ghi tới dòng này
+        int errorMark; // Số lỗi / số dòng lỗi trước lô đang lưu
+        int failureMark;
+
+        StudentImport(ImportCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+            this.resumeAfterRow = checkpoint.lastCommittedRow();
+            ExcelUploadResponse committed = checkpoint.committedProgress();
+            this.result = committed != null ? committed : new ExcelUploadResponse();
+        }
 
-            // 1. Validate Header Row
-            if (!rowIterator.hasNext()) {
-                throw new AppException(ErrorCode.FILE_REQUIRED); // Use specific code
+        void accept(ExcelSheetReader.ExcelRow currentRow) {
+            if (headerMap == null) {
+                headerMap = mapHeaderToIndex(currentRow);
+                validateRequiredHeaders(headerMap);
+                return;
             }
-            Row headerRow = rowIterator.next();
-            Map<String, Integer> headerMap = mapHeaderToIndex(headerRow);
-            validateRequiredHeaders(headerMap);
 
             // 2. Process Data Rows
-            int rowNum = 1; // Start after header
-            while (rowIterator.hasNext()) {
-                rowNum++;
-                result.setTotalRowsProcessed(result.getTotalRowsProcessed() + 1); // Increment total rows attempt
-                Row currentRow = rowIterator.next();
-
-                if (isRowEmpty(currentRow)) {
-                    log.debug("Skipping empty row {}", rowNum);
-                    result.addErrorMessage(rowNum, "Dòng trống, bỏ qua."); // Optionally report empty rows
-                    continue;
+            rowNum++;
+            pending.add(new NumberedRow(rowNum, currentRow));
+            if (pending.size() >= VALIDATION_BATCH_SIZE) {
+                dispatch();
+            }
+        }
+
+        void dispatch() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<NumberedRow> batch = pending;
+            pending = new ArrayList<>();
+            Map<String, Integer> headers = headerMap;
+            inFlight.addLast(CompletableFuture.supplyAsync(
+                    () -> batch.stream().map(row -> validateRow(row, headers)).toList(),
+                    ForkJoinPool.commonPool()));
+
+            while (inFlight.size() > MAX_IN_FLIGHT_BATCHES) {
+                mergeOldest();
+            }
+        }
+
+        void finish() {
+            dispatch();
+            while (!inFlight.isEmpty()) {
+                mergeOldest();
+            }
+            flush();
+        }
+
+        void mergeOldest() {
+            for (ValidatedRow row : inFlight.removeFirst().join()) {
+                merge(row);
+            }
+        }
+
+        void merge(ValidatedRow row) {
+            if (row.rowNum() <= resumeAfterRow) {
+                // Đã commit ở lần chạy trước
+                if (row.student() != null) {
+                    emailsInFile.add(row.student().getEmail());
                 }
+                return;
+            }
 
-                String email = null;
-                try {
-                    CreateStudentRequest student = new CreateStudentRequest();
-                    student.setFirstName(getStringCellValue(currentRow, headerMap.get(HEADER_FIRSTNAME), rowNum, "Họ (FirstName)", true));
-                    student.setLastName(getStringCellValue(currentRow, headerMap.get(HEADER_LASTNAME), rowNum, "Tên (LastName)", true));
-                    email = getStringCellValue(currentRow, headerMap.get(HEADER_EMAIL), rowNum, "Email", true);
-                    student.setCampus(getStringCellValue(currentRow, headerMap.get(HEADER_CAMPUS), rowNum, "Campus", false));
-                    student.setDateOfBirth(getDateCellValue(currentRow, headerMap.get(HEADER_DOB), rowNum, "Ngày Sinh (DateOfBirth)", false));
-
-                    // Basic Validations
-                    if (!isValidEmail(email)) {
-                        throw new AppException(ErrorCode.EMAIL_INVALID);
-                    }
-                    student.setEmail(email.toLowerCase().trim()); // Normalize email
+            // Đếm ở bước gộp chứ không ở lúc đọc, để checkpoint không tính các dòng còn đang validate
+            lastMergedRow = row.rowNum();
+            result.setTotalRowsProcessed(result.getTotalRowsProcessed() + 1); // Increment total rows attempt
+            if (row.error() != null) {
+                result.addErrorMessage(row.rowNum(), row.error());
+                return;
+            }
 
+            // Check for duplicate email within the file
+            if (!emailsInFile.add(row.student().getEmail())) {
+                log.warn("Validation error processing row {}: duplicate email in file", row.rowNum());
+                result.addErrorMessage(row.rowNum(), ErrorCode.EMAIL_EXISTED.getMessage());
+                return;
+            }
 
-                    // Check for duplicate email within the file
-                    if (!emailsInFile.add(student.getEmail())) {
-                        throw new AppException(ErrorCode.EMAIL_EXISTED);
-                    }
+            // Add to save list if valid so far
+            if (studentsToSave.isEmpty()) {
+                chunkFirstRow = row.rowNum();
+            }
+            chunkLastRow = row.rowNum();
+            studentsToSave.add(row.student());
+            chunkRows.put(row.student().getEmail(), row.rowNum());
+            queuedCount++;
 
-                    // Add to save list if valid so far
-                    studentsToSave.add(student);
+            if (studentsToSave.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
 
-                } catch (AppException e) {
-                    log.warn("Validation error processing row {}: {}", rowNum, e.getMessage());
-                    result.addErrorMessage(rowNum, e.getErrorCode().getMessage(e.getArgs()));
-                } catch (Exception e) {
-                    log.error("Unexpected system error processing row {}", rowNum, e);
-                    result.addErrorMessage(rowNum, "Lỗi hệ thống không xác định tại dòng này.");
-                }
-            } // End row iteration
-
-            // 3. Batch Save to Database
-            if (!studentsToSave.isEmpty()) {
-                try {
-                    // saveAllAndFlush triggers constraints earlier within the transaction
-                    iStudentService.createStudentAccountList(studentsToSave);
-                    result.setSuccessCount(studentsToSave.size());
-                    log.info("Successfully saved {} students from Excel.", studentsToSave.size());
-
-                } catch (DataIntegrityViolationException e) {
-                    // Handle unique constraint violations (e.g., email already exists in DB)
-                    log.warn("Data integrity violation during batch student save: {}", e.getMessage());
-                    result.setErrorMessages(new ArrayList<>()); // Clear previous row errors
-                   // result.setFailureCount(result.getTotalRowsProcessed()); // All rows in this batch failed
-                    result.setSuccessCount(0);
-
-                    // Provide a more specific error message if possible
-                    String rootMsg = e.getMostSpecificCause().getMessage().toLowerCase();
-                    if (rootMsg.contains("duplicate entry") && rootMsg.contains("email")) {
-                        result.addErrorMessage(0, ErrorCode.EMAIL_EXISTED.getMessage()); // Use generic message from ErrorCode
-                    } else {
-                        result.addErrorMessage(0, "Lỗi ràng buộc dữ liệu khi lưu.");
+        // Batch Save to Database
+        void flush() {
+            if (studentsToSave.isEmpty()) {
+                return;
+            }
+            List<CreateStudentRequest> batch = studentsToSave;
+            Map<String, Integer> rows = chunkRows;
+            errorMark = result.getErrorMessages().size();
+            failureMark = result.getFailureCount();
+            try {
+                // Checkpoint tới lastMergedRow chứ không phải chunkLastRow: các dòng lỗi gộp sau học sinh hợp lệ
+                // cuối đã nằm trong result, chạy lại từ chunkLastRow sẽ tính chúng hai lần
+                int savedRows = checkpoint.commit(lastMergedRow, () -> {
+                    // Email đã có tài khoản chỉ làm hỏng dòng của nó; ghi lỗi cùng checkpoint của lô
+                    List<String> existing = iStudentService.createStudentAccountList(batch);
+                    for (String email : existing) {
+                        Integer rowNum = rows.get(email.toLowerCase(Locale.ROOT));
+                        if (rowNum != null) {
+                            result.addErrorMessage(rowNum, ErrorCode.EMAIL_EXISTED.getMessage());
+                        } else {
+                            // Không nên xảy ra: email trong lô đều đã viết thường. Vẫn tính là một dòng lỗi của lô
+                            log.warn("Existing email {} does not match any row in rows {}-{}", email, chunkFirstRow, chunkLastRow);
+                            result.addChunkErrorMessage(chunkFirstRow, chunkLastRow, 1, ErrorCode.EMAIL_EXISTED.getMessage());
+                        }
                     }
-                    // No need to throw here, return the ExcelUploadResponse with errors
-                } catch (Exception e) {
-                    log.error("Error during batch saving students", e);
-                    result.setErrorMessages(new ArrayList<>()); // Clear previous errors
-                    //result.setFailureCount(result.getTotalRowsProcessed());
-                    result.setSuccessCount(0);
-                    result.addErrorMessage(0, "Lỗi hệ thống khi lưu dữ liệu.");
-                    // No need to throw here
-                }
-            } else if (result.getFailureCount() == 0) {
-                // Case where file had only header or only empty/invalid rows, but no actual data processed
-                if (result.getTotalRowsProcessed() == 0) {
-                    result.addErrorMessage(0, "Không tìm thấy dòng dữ liệu hợp lệ nào trong file.");
+                    return batch.size() - existing.size();
+                }, result);
+                result.setSuccessCount(result.getSuccessCount() + savedRows);
+                log.info("Saved {} students from Excel (rows {}-{}).", savedRows, chunkFirstRow, chunkLastRow);
+
+            } catch (DataIntegrityViolationException e) {
+                // Handle unique constraint violations (e.g., email already exists in DB)
+                log.warn("Data integrity violation saving students from rows {}-{}: {}", chunkFirstRow, chunkLastRow, e.getMessage());
+
+                // Provide a more specific error message if possible
+                String rootMsg = e.getMostSpecificCause().getMessage().toLowerCase();
+                if (rootMsg.contains("duplicate entry") && rootMsg.contains("email")) {
+                    addChunkError(ErrorCode.EMAIL_EXISTED.getMessage());
+                } else {
+                    addChunkError("Lỗi ràng buộc dữ liệu khi lưu.");
                 }
-                // If totalRowsProcessed > 0 but studentsToSave is empty, failures were already counted.
+            } catch (AppException e) {
+                log.warn("Could not save students from rows {}-{}: {}", chunkFirstRow, chunkLastRow, e.getMessage());
+                addChunkError(e.getErrorCode().getMessage(e.getArgs()));
+            } catch (CancellationException e) {
+                throw e; // Job nền đang dừng: không tính là lỗi của lô
+            } catch (Exception e) {
+                log.error("Error saving students from rows {}-{}", chunkFirstRow, chunkLastRow, e);
+                addChunkError("Lỗi hệ thống khi lưu dữ liệu.");
+            } finally {
+                studentsToSave = new ArrayList<>();
+                chunkRows = new HashMap<>();
             }
+        }
 
-        } // End try-with-resources
-
-        // Ensure failure count reflects total rows if saving failed entirely
-        if (result.getSuccessCount() == 0 && !studentsToSave.isEmpty() && result.getErrorMessages().stream().anyMatch(m -> m.contains("Lỗi lưu dữ liệu"))) {
-            result.setFailureCount(result.getTotalRowsProcessed());
+        // Lô lưu lỗi không commit gì, nhưng vẫn ghi checkpoint để lần chạy sau không thử lại lô này
+        void addChunkError(String message) {
+            // Bỏ lỗi từng dòng đã ghi trong transaction bị rollback, cả lô được tính bằng một lỗi chung
+            result.getErrorMessages().subList(errorMark, result.getErrorMessages().size()).clear();
+            result.setFailureCount(failureMark);
+            result.addChunkErrorMessage(chunkFirstRow, chunkLastRow, studentsToSave.size(), message);
+            checkpoint.commit(lastMergedRow, () -> 0, result);
         }
+    }
 
+    private record NumberedRow(int rowNum, ExcelSheetReader.ExcelRow row) {}
 
-        log.info("Excel processing finished. Total: {}, Success: {}, Failure: {}",
-                result.getTotalRowsProcessed(), result.getSuccessCount(), result.getFailureCount());
-        return result;
+    // Kết quả validate một dòng: student khi hợp lệ, ngược lại là thông báo lỗi
+    private record ValidatedRow(int rowNum, CreateStudentRequest student, String error) {}
+
+    /**
+     * Validate và chuẩn hóa một dòng. Chạy trên worker thread nên chỉ được đọc dữ liệu bất biến.
+     */
+    private ValidatedRow validateRow(NumberedRow numbered, Map<String, Integer> headerMap) {
+        int rowNum = numbered.rowNum();
+        ExcelSheetReader.ExcelRow currentRow = numbered.row();
+
+        if (currentRow.isEmpty()) {
+            log.debug("Skipping empty row {}", rowNum);
+            return new ValidatedRow(rowNum, null, "Dòng trống, bỏ qua."); // Optionally report empty rows
+        }
+
+        try {
+            CreateStudentRequest student = new CreateStudentRequest();
+            student.setFirstName(getStringCellValue(currentRow, headerMap.get(HEADER_FIRSTNAME), rowNum, "Họ (FirstName)", true));
+            student.setLastName(getStringCellValue(currentRow, headerMap.get(HEADER_LASTNAME), rowNum, "Tên (LastName)", true));
+            String email = getStringCellValue(currentRow, headerMap.get(HEADER_EMAIL), rowNum, "Email", true);
+            student.setCampus(getStringCellValue(currentRow, headerMap.get(HEADER_CAMPUS), rowNum, "Campus", false));
+            student.setDateOfBirth(getDateCellValue(currentRow, headerMap.get(HEADER_DOB), rowNum, "Ngày Sinh (DateOfBirth)", false));
+
+            // Basic Validations
+            if (!isValidEmail(email)) {
+                throw new AppException(ErrorCode.EMAIL_INVALID);
+            }
+            student.setEmail(email.toLowerCase().trim()); // Normalize email
+            return new ValidatedRow(rowNum, student, null);
+
+        } catch (AppException e) {
+            log.warn("Validation error processing row {}: {}", rowNum, e.getMessage());
+            return new ValidatedRow(rowNum, null, e.getErrorCode().getMessage(e.getArgs()));
+        } catch (Exception e) {
+            log.error("Unexpected system error processing row {}", rowNum, e);
+            return new ValidatedRow(rowNum, null, "Lỗi hệ thống không xác định tại dòng này.");
+        }
     }
 
     // --- Helper Methods ---
 
-    private Map<String, Integer> mapHeaderToIndex(Row headerRow) {
+    private Map<String, Integer> mapHeaderToIndex(ExcelSheetReader.ExcelRow headerRow) {
         Map<String, Integer> headerMap = new HashMap<>();
-        if (headerRow == null) return headerMap;
-        for (Cell cell : headerRow) {
-            if (cell != null && cell.getCellType() == CellType.STRING) {
-                String headerText = cell.getStringCellValue().toLowerCase().trim().replaceAll("\\s+", ""); // Normalize header
-                headerMap.put(headerText, cell.getColumnIndex());
+        for (ExcelSheetReader.ExcelCell cell : headerRow.cells()) {
+            if (cell.kind() == ExcelSheetReader.CellKind.STRING) {
+                String headerText = WHITESPACE.matcher(cell.text().toLowerCase().trim()).replaceAll(""); // Normalize header
+                headerMap.put(headerText, cell.column());
                 // Allow mapping alternative header names
                 if (headerText.equals("dob") || headerText.equals("ngaysinh")) {
-                    headerMap.putIfAbsent(HEADER_DOB, cell.getColumnIndex());
+                    headerMap.putIfAbsent(HEADER_DOB, cell.column());
                 }
                 if (headerText.equals("ho")) {
-                    headerMap.putIfAbsent(HEADER_FIRSTNAME, cell.getColumnIndex());
+                    headerMap.putIfAbsent(HEADER_FIRSTNAME, cell.column());
                 }
                 if (headerText.equals("ten")) {
-                    headerMap.putIfAbsent(HEADER_LASTNAME, cell.getColumnIndex());
+                    headerMap.putIfAbsent(HEADER_LASTNAME, cell.column());
                 }
             }
         }
@@ -203,22 +367,21 @@ public class ExcelUploadService implements IExcelUploadService {
         }
     }
 
-    private String getStringCellValue(Row row, Integer columnIndex, int rowNum, String fieldName, boolean isRequired) throws AppException {
+    private String getStringCellValue(ExcelSheetReader.ExcelRow row, Integer columnIndex, int rowNum, String fieldName, boolean isRequired) throws AppException {
         if (columnIndex == null) {
             if (isRequired) throw new AppException(ErrorCode.EXCEL_MISSING_HEADER, fieldName);
             log.info(String.format("Thiếu cột '%s'.", fieldName));
             return ""; // Default to empty string for optional fields
         }
-        Cell cell = row.getCell(columnIndex, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
+        ExcelSheetReader.ExcelCell cell = row.getCell(columnIndex);
 
-        if (cell == null || cell.getCellType() == CellType.BLANK) {
+        if (cell == null) {
             if (isRequired) throw new AppException(ErrorCode.INVALID_COLUMN, fieldName);
             log.info(String.format("Cột '%s' không được để trống.", fieldName));
             return "";
         }
 
-        DataFormatter formatter = new DataFormatter(); // Use DataFormatter for consistent string conversion
-        String cellValue = formatter.formatCellValue(cell).trim();
+        String cellValue = cell.text().trim(); // Đã được format sẵn bởi DataFormatter dùng chung của ExcelSheetReader
 
         if (isRequired && cellValue.isEmpty()) {
             if (isRequired) throw new AppException(ErrorCode.INVALID_COLUMN, fieldName);
@@ -228,51 +391,47 @@ public class ExcelUploadService implements IExcelUploadService {
         return cellValue;
     }
 
-    private LocalDate getDateCellValue(Row row, Integer columnIndex, int rowNum, String fieldName, boolean isRequired) throws AppException {
+    private LocalDate getDateCellValue(ExcelSheetReader.ExcelRow row, Integer columnIndex, int rowNum, String fieldName, boolean isRequired) throws AppException {
         if (columnIndex == null) {
             if (isRequired) throw new AppException(ErrorCode.EXCEL_MISSING_HEADER, fieldName);
             log.info(String.format("Thiếu cột '%s'.", fieldName));
             return null;
         }
-        Cell cell = row.getCell(columnIndex, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
+        ExcelSheetReader.ExcelCell cell = row.getCell(columnIndex);
 
-        if (cell == null || cell.getCellType() == CellType.BLANK) {
+        if (cell == null) {
             if (isRequired) throw new AppException(ErrorCode.INVALID_COLUMN, fieldName);
             log.info(String.format("Cột '%s' không được để trống.", fieldName));
             return null;
         }
 
         try {
-            if (cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
-                Date date = cell.getDateCellValue();
-                return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-            } else if (cell.getCellType() == CellType.STRING) {
-                String dateString = cell.getStringCellValue().trim();
+            if (cell.date() != null) {
+                return cell.date();
+            } else if (cell.kind() == ExcelSheetReader.CellKind.STRING) {
+                String dateString = cell.text().trim();
                 if (dateString.isEmpty()) { // Handle empty string case for optional date
                     if (isRequired) throw new AppException(ErrorCode.INVALID_COLUMN, fieldName);
                     log.info(String.format("Cột '%s' không được để trống.", fieldName));
                     return null;
                 }
-                for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-                    try {
-                        return LocalDate.parse(dateString, formatter);
-                    } catch (DateTimeParseException ignored) {}
+                LocalDate parsed = parseDate(dateString);
+                if (parsed != null) {
+                    return parsed;
                 }
                 throw new AppException(ErrorCode.DOB_FORMAT_INVALID, dateString, fieldName);
 
             } else {
-                // Try DataFormatter for other types just in case
-                DataFormatter dataFormatter = new DataFormatter();
-                String formattedValue = dataFormatter.formatCellValue(cell).trim();
+                // Try the formatted value for other types just in case
+                String formattedValue = cell.text().trim();
                 if (formattedValue.isEmpty()) {
                     if (isRequired) throw new AppException(ErrorCode.INVALID_COLUMN, fieldName);
                     log.info(String.format("Cột '%s' không được để trống.", fieldName));
                     return null;
                 }
-                for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-                    try {
-                        return LocalDate.parse(formattedValue, formatter);
-                    } catch (DateTimeParseException ignored) {}
+                LocalDate parsed = parseDate(formattedValue);
+                if (parsed != null) {
+                    return parsed;
                 }
                 log.info(String.format("Kiểu dữ liệu ở cột '%s' không phải ngày tháng hợp lệ.", fieldName));
                 throw new AppException(ErrorCode.EXCEL_INVALID_DATA_TYPE, fieldName);
@@ -288,20 +447,27 @@ public class ExcelUploadService implements IExcelUploadService {
         }
     }
 
-    private boolean isRowEmpty(Row row) {
-        if (row == null) return true;
-        for (int c = row.getFirstCellNum(); c < row.getLastCellNum(); c++) {
-            Cell cell = row.getCell(c, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-            if (cell != null && cell.getCellType() != CellType.BLANK) return false;
+    /**
+     * Thử lần lượt DATE_FORMATTERS. parseUnresolved không ném exception nên định dạng không khớp
+     * bị loại ngay, chỉ chuỗi đúng khuôn mới đi tiếp vào LocalDate.parse (kiểm tra ngày có thật).
+     */
+    private static LocalDate parseDate(String text) {
+        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
+            ParsePosition position = new ParsePosition(0);
+            if (formatter.parseUnresolved(text, position) == null || position.getIndex() != text.length()) {
+                continue;
+            }
+            try {
+                return LocalDate.parse(text, formatter);
+            } catch (DateTimeParseException ignored) {}
         }
-        return true;
+        return null;
     }
 
     // Basic email validation regex
     private boolean isValidEmail(String email) {
         if (email == null || email.isEmpty()) return false;
         // Simple regex, consider using a more robust library if needed
-        String emailRegex = "^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$";
-        return email.matches(emailRegex);
+        return EMAIL_PATTERN.matcher(email).matches();
     }
 }
@@ -0,0 +1,241 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.dto.request.ExplainExamRequest;
+import com.ktnl.fapanese.dto.response.CacheStatsResponse;
+import com.ktnl.fapanese.entity.ExamExplanation;
+import com.ktnl.fapanese.repository.ExamExplanationRepository;
+import com.ktnl.fapanese.service.interfaces.IExplanationCacheService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache lời giải thích của /explain-exam theo nội dung câu hỏi.
+ *
+ * - Key: SHA-256 của (question, options, correctAnswer) đã chuẩn hóa.
+ * - Tầng 1: LRU trong bộ nhớ, giới hạn số entry và có TTL.
+ * - Tầng 2 (tùy chọn): bảng exam_explanation trong MySQL, giữ lại sau khi restart.
+ * - Nhiều request giống nhau cùng lúc chỉ tạo ra MỘT lời gọi Azure OpenAI (single-flight).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ExplanationCacheService implements IExplanationCacheService {
+    // Đổi giá trị này khi sửa prompt của explainExam để bỏ qua các lời giải thích cũ
+    static String PROMPT_VERSION = "v1";
+
+    ExamExplanationRepository examExplanationRepository;
+
+    // promptHash -> lời giải thích, sắp xếp theo thứ tự truy cập (LRU)
+    Map<String, CachedExplanation> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // promptHash -> lời gọi upstream đang chạy
+    Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    AtomicLong hits = new AtomicLong();
+    AtomicLong misses = new AtomicLong();
+    AtomicLong evictions = new AtomicLong();
+
+    @NonFinal
+    @Value("${explain-cache.max-size:5000}")
+    protected int MAX_SIZE;
+
+    @NonFinal
+    @Value("${explain-cache.ttl:P7D}")
+    protected Duration TTL;
+
+    @NonFinal
+    @Value("${explain-cache.persist:true}")
+    protected boolean PERSIST;
+
+    record CachedExplanation(String content, Instant createdAt) {}
+
+    @Override
+    public CompletableFuture<String> getOrLoad(ExplainExamRequest request,
+                                               Function<ExplainExamRequest, CompletableFuture<String>> loader) {
+        String key = promptHash(request);
+
+        // 1. Tầng bộ nhớ
+        String cached = getFromMemory(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        // 2. Đã có request giống hệt đang gọi upstream → dùng chung kết quả
+        CompletableFuture<String> promise = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            hits.incrementAndGet();
+            return existing;
+        }
+
+        try {
+            // 3. Tầng MySQL
+            String persisted = getFromDatabase(key);
+            if (persisted != null) {
+                hits.incrementAndGet();
+                putInMemory(key, new CachedExplanation(persisted, Instant.now()));
+                complete(key, promise, persisted, null);
+                return promise;
+            }
+
+            // 4. Gọi Azure OpenAI
+            misses.incrementAndGet();
+            loader.apply(request).whenComplete((content, ex) -> {
+                if (ex == null)
+                    store(key, content);
+                complete(key, promise, content, ex);
+            });
+        } catch (RuntimeException e) {
+            complete(key, promise, null, e);
+        }
+
+        return promise;
+    }
+
+    @Override
+    public CacheStatsResponse getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+
+        return CacheStatsResponse.builder()
+                .hits(hitCount)
+                .misses(missCount)
+                .evictions(evictions.get())
+                .size(size)
+                .maxSize(MAX_SIZE)
+                .hitRate(total == 0 ? 0 : (double) hitCount / total)
+                .build();
+    }
+
+    private void complete(String key, CompletableFuture<String> promise, String content, Throwable ex) {
+        inFlight.remove(key, promise);
+        if (ex == null)
+            promise.complete(content);
+        else
+            promise.completeExceptionally(ex);
+    }
+
+    private String getFromMemory(String key) {
+        synchronized (entries) {
+            CachedExplanation entry = entries.get(key);
+            if (entry == null)
+                return null;
+
+            if (isExpired(entry.createdAt())) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return entry.content();
+        }
+    }
+
+    private void putInMemory(String key, CachedExplanation entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+
+            // Bỏ entry ít được dùng nhất khi vượt quá MAX_SIZE
+            var it = entries.entrySet().iterator();
+            while (entries.size() > MAX_SIZE && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private String getFromDatabase(String key) {
+        if (!PERSIST)
+            return null;
+
+        try {
+            return examExplanationRepository.findById(key)
+                    .filter(e -> e.getCreatedAt() != null
+                            && !isExpired(e.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant()))
+                    .map(ExamExplanation::getContent)
+                    .orElse(null);
+        } catch (RuntimeException e) {
+            // Tầng MySQL lỗi thì coi như miss và gọi upstream, không làm hỏng request giải thích
+            log.warn("Could not read exam explanation {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(String key, String content) {
+        putInMemory(key, new CachedExplanation(content, Instant.now()));
+
+        if (!PERSIST)
+            return;
+
+        try {
+            examExplanationRepository.save(ExamExplanation.builder()
+                    .promptHash(key)
+                    .content(content)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (RuntimeException e) {
+            // Lưu DB thất bại không ảnh hưởng tới kết quả trả về cho sinh viên
+            log.warn("Could not persist exam explanation {}: {}", key, e.getMessage());
+        }
+    }
+
+    private boolean isExpired(Instant createdAt) {
+        return createdAt.plus(TTL).isBefore(Instant.now());
+    }
+
+    /**
+     * Chuẩn hóa nội dung câu hỏi (Unicode NFKC, gộp khoảng trắng) rồi băm SHA-256,
+     * để các request chỉ khác nhau ở khoảng trắng / full-width vẫn dùng chung một entry.
+     */
+    String promptHash(ExplainExamRequest request) {
+        String normalized = String.join("\u0000",
+                PROMPT_VERSION,
+                normalize(request.getQuestion()),
+                normalize(request.getOptions()),
+                normalize(request.getCorrectAnswer()));
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String normalize(String text) {
+        if (text == null)
+            return "";
+        return Normalizer.normalize(text, Normalizer.Form.NFKC)
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+}
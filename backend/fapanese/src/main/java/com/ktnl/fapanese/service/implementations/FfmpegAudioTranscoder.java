@@ -0,0 +1,87 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.configuration.AzureProps;
+import com.ktnl.fapanese.service.interfaces.IAudioTranscoder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fallback cho các định dạng không giải mã được trong JVM (mp4/aac của Safari, ogg/vorbis...).
+ * Gửi dữ liệu qua stdin và đọc PCM từ stdout của ffmpeg, không ghi file tạm.
+ * Đường dẫn binary cấu hình qua azure.speech.ffmpeg-path; để trống để tắt fallback.
+ */
+@Service
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class FfmpegAudioTranscoder implements IAudioTranscoder {
+    // Thread đọc/ghi pipe của ffmpeg chỉ chờ I/O nên dùng virtual thread
+    private static final ExecutorService PIPE_IO = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AzureProps props;
+
+    @Override
+    public boolean supports(byte[] input) {
+        return StringUtils.hasText(props.getSpeech().getFfmpegPath());
+    }
+
+    @Override
+    public byte[] toPcm16kMono(byte[] input) throws IOException {
+        Process process = new ProcessBuilder(
+                props.getSpeech().getFfmpegPath(),
+                "-hide_banner", "-loglevel", "error",
+                "-i", "pipe:0",
+                "-f", "s16le", "-acodec", "pcm_s16le",
+                "-ar", String.valueOf(SAMPLE_RATE),
+                "-ac", "1",
+                "pipe:1"
+        ).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+
+        // Ghi stdin và đọc stdout song song để ffmpeg không bị kẹt khi buffer pipe đầy
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            try (OutputStream stdin = process.getOutputStream()) {
+                stdin.write(input);
+            } catch (IOException e) {
+                // ffmpeg thoát sớm (dữ liệu hỏng) → exit code sẽ báo lỗi
+                log.debug("ffmpeg closed stdin early: {}", e.getMessage());
+            }
+        }, PIPE_IO);
+        CompletableFuture<byte[]> reader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return process.getInputStream().readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, PIPE_IO);
+
+        try {
+            if (!process.waitFor(props.getSpeech().getFfmpegTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                throw new IOException("ffmpeg timed out");
+            writer.join();
+
+            if (process.exitValue() != 0)
+                throw new IOException("ffmpeg exited with code " + process.exitValue());
+            return reader.join();
+        } catch (CompletionException e) {
+            throw new IOException("Could not read ffmpeg output", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for ffmpeg", e);
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ktnl.fapanese.service.implementations;
 
 import com.ktnl.fapanese.dto.request.FinalExamRequest;
+import com.ktnl.fapanese.dto.response.ExamSummaryResponse;
 import com.ktnl.fapanese.dto.response.FinalExamResponse;
 import com.ktnl.fapanese.entity.FinalExam;
 import com.ktnl.fapanese.entity.MiddleExam;
@@ -8,6 +9,7 @@ import com.ktnl.fapanese.entity.OverviewPart;
 import com.ktnl.fapanese.entity.Question;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.mapper.ExamSummaryMapper;
 import com.ktnl.fapanese.mapper.FinalExamMapper;
 import com.ktnl.fapanese.repository.FinalExamRepository;
 import com.ktnl.fapanese.repository.OverviewPartRepository;
@@ -34,18 +36,20 @@ public class FinalExamService implements IFinalExamService {
     OverviewPartRepository overviewPartRepository;
     QuestionRepository questionRepository;
     FinalExamMapper finalExamMapper;
+    ExamSummaryMapper examSummaryMapper;
 
     // READ (All)
     @Override
     public List<FinalExamResponse> getAllFinalExams() {
-        List<FinalExam> exams = finalExamRepository.findAll();
+        List<FinalExam> exams = finalExamRepository.findAllWithQuestions();
         return finalExamMapper.toFinalExamResponseList(exams);
     }
 
     // READ (By Id)
     @Override
     public FinalExamResponse getFinalExamById(Long id) {
-        FinalExam exam = findExamById(id);
+        FinalExam exam = finalExamRepository.findWithQuestionsById(id)
+                .orElseThrow(() -> new AppException(ErrorCode.EXAM_NOT_FOUND));
         return finalExamMapper.toFinalExamResponse(exam);
     }
 
@@ -110,11 +114,20 @@ public class FinalExamService implements IFinalExamService {
             throw new AppException(ErrorCode.OVERVIEW_PART_NOT_FOUND);
         }
 
-        List<FinalExam> finalExams = finalExamRepository.findByOverviewPartId(partId);
+        List<FinalExam> finalExams = finalExamRepository.findWithQuestionsByOverviewPartId(partId);
 
         return finalExamMapper.toFinalExamResponseList(finalExams);
     }
 
+    // Danh sách đề cho màn hình list: một query, không đọc nội dung câu hỏi
+    @Override
+    public List<ExamSummaryResponse> getFinalExamSummaries(Long partId) {
+        if (partId != null && !overviewPartRepository.existsById(partId)) {
+            throw new AppException(ErrorCode.OVERVIEW_PART_NOT_FOUND);
+        }
+        return examSummaryMapper.toExamSummaryResponseList(finalExamRepository.findSummaries(partId));
+    }
+
     // Hàm private helper
     private FinalExam findExamById(Long id) {
         return finalExamRepository.findById(id)
@@ -0,0 +1,59 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.dto.response.ExcelUploadResponse;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Điểm dừng của một lần import Excel, để job bị ngắt giữa chừng chạy tiếp từ lô đã commit cuối cùng
+ * thay vì làm lại từ đầu.
+ *
+ * Service import gọi {@link #commit} sau mỗi lô: phần lưu dữ liệu và việc ghi checkpoint phải thành công
+ * hoặc thất bại cùng nhau, nếu không thì lúc chạy lại một lô có thể bị lưu hai lần hoặc bị bỏ sót.
+ */
+public interface ImportCheckpoint {
+
+    /**
+     * Import đồng bộ (upload qua HTTP): không có gì để khôi phục, lô nào tự commit lô đó.
+     */
+    ImportCheckpoint NONE = new ImportCheckpoint() {
+        @Override
+        public int lastCommittedRow() {
+            return 1;
+        }
+
+        @Override
+        public ExcelUploadResponse committedProgress() {
+            return null;
+        }
+
+        @Override
+        public int commit(int lastRow, IntSupplier save, ExcelUploadResponse progress) {
+            return save.getAsInt();
+        }
+    };
+
+    /**
+     * Dòng cuối cùng (đánh số như trong thông báo lỗi, header là dòng 1) đã có kết quả được commit.
+     * Các dòng tới đây vẫn được đọc lại nhưng không được lưu hay tính vào kết quả lần nữa.
+     */
+    int lastCommittedRow();
+
+    /**
+     * Kết quả đã tích lũy tới {@link #lastCommittedRow()}; null nếu import chạy từ đầu.
+     */
+    ExcelUploadResponse committedProgress();
+
+    /**
+     * Chạy save rồi ghi checkpoint trong cùng một transaction.
+     *
+     * @param lastRow  dòng cuối cùng đã có kết quả sau lô này
+     * @param save     lưu lô dữ liệu, trả về số dòng đã lưu; có thể ghi lỗi của từng dòng bị bỏ qua vào progress.
+     *                 Ném exception thì checkpoint cũng không được ghi
+     * @param progress kết quả tích lũy trước lô này; successCount chưa tính các dòng save lưu
+     * @return số dòng save đã lưu, để service import cộng vào successCount
+     * @throws java.util.concurrent.CancellationException job đang bị dừng; service import phải ném tiếp
+     *         thay vì ghi nhận thành lỗi của lô
+     */
+    int commit(int lastRow, IntSupplier save, ExcelUploadResponse progress);
+}
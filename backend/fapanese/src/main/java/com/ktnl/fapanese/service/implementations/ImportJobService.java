@@ -0,0 +1,299 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktnl.fapanese.dto.response.ExcelUploadResponse;
+import com.ktnl.fapanese.dto.response.ImportJobResponse;
+import com.ktnl.fapanese.entity.ImportJob;
+import com.ktnl.fapanese.entity.enums.ImportJobStatus;
+import com.ktnl.fapanese.entity.enums.ImportJobType;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.repository.ImportJobRepository;
+import com.ktnl.fapanese.service.interfaces.IImportJobService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntSupplier;
+
+/**
+ * Import Excel chạy nền: request upload chỉ lưu file + tạo ImportJob rồi trả jobId ngay,
+ * worker xử lý file theo từng lô, client hỏi tiến độ qua getJob.
+ *
+ * - Mỗi lô được lưu cùng transaction với checkpoint của job (lastCommittedRow + kết quả tích lũy),
+ *   nên job bị dừng giữa chừng (restart, crash) chạy tiếp đúng từ sau lô đã commit cuối cùng.
+ * - Lúc khởi động, các job còn QUEUED / RUNNING được đưa lại vào hàng đợi. Giả định chỉ có
+ *   một instance chạy job; nhiều instance dùng chung DB sẽ cùng nhận lại một job.
+ * - File upload nằm trong excel-import.job-dir cho tới khi job COMPLETED / FAILED.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ImportJobService implements IImportJobService {
+    private static final TypeReference<List<String>> ERRORS_TYPE = new TypeReference<>() {};
+
+    ImportJobRepository importJobRepository;
+    ExcelUploadService excelUploadService;
+    QuestionExcelUploadService questionExcelUploadService;
+    TransactionTemplate transactionTemplate;
+    ObjectMapper objectMapper;
+
+    @NonFinal
+    @Value("${excel-import.job-dir:data/import-jobs}")
+    protected String JOB_DIR = "data/import-jobs";
+
+    @NonFinal
+    @Value("${excel-import.job-workers:1}")
+    protected int JOB_WORKERS = 1;
+
+    @NonFinal
+    ExecutorService executor;
+
+    // Đang tắt ứng dụng: job dừng ở ranh giới lô và giữ nguyên RUNNING để lần khởi động sau chạy tiếp
+    @NonFinal
+    volatile boolean stopping;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(Math.max(1, JOB_WORKERS), new CustomizableThreadFactory("excel-import-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopping = true;
+        executor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        for (ImportJob job : importJobRepository.findByStatusInOrderByCreatedAtAsc(
+                List.of(ImportJobStatus.QUEUED, ImportJobStatus.RUNNING))) {
+            log.info("Resuming import job {} ({}) after row {}", job.getId(), job.getType(), job.getLastCommittedRow());
+            String jobId = job.getId();
+            executor.execute(() -> run(jobId));
+        }
+    }
+
+    @Override
+    public ImportJobResponse submit(ImportJobType type, MultipartFile file) throws IOException {
+        String jobId = UUID.randomUUID().toString();
+        Path dir = Path.of(JOB_DIR);
+        Files.createDirectories(dir);
+        Path path = dir.resolve(jobId + ".upload");
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        ImportJob job = importJobRepository.save(ImportJob.builder()
+                .id(jobId)
+                .type(type)
+                .status(ImportJobStatus.QUEUED)
+                .fileName(file.getOriginalFilename())
+                .filePath(path.toAbsolutePath().toString())
+                .createdBy(authentication != null ? authentication.getName() : null)
+                .errorMessages("[]")
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        ImportJobResponse response = toResponse(job);
+        executor.execute(() -> run(jobId));
+        return response;
+    }
+
+    @Override
+    public ImportJobResponse getJob(ImportJobType type, String jobId) {
+        ImportJob job = importJobRepository.findById(jobId)
+                .filter(found -> found.getType() == type)
+                .orElseThrow(() -> new AppException(ErrorCode.IMPORT_JOB_NOT_FOUND));
+
+        // Kết quả import chứa email / nội dung từng dòng: chỉ người tạo job hoặc admin được xem
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if (!isAdmin && (authentication == null || !authentication.getName().equals(job.getCreatedBy())))
+            throw new AppException(ErrorCode.IMPORT_JOB_ACCESS_DENIED);
+
+        return toResponse(job);
+    }
+
+    private void run(String jobId) {
+        ImportJob job = importJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == ImportJobStatus.COMPLETED || job.getStatus() == ImportJobStatus.FAILED)
+            return;
+
+        job.setStatus(ImportJobStatus.RUNNING);
+        job.setUpdatedAt(LocalDateTime.now());
+        importJobRepository.save(job);
+
+        JobCheckpoint checkpoint = new JobCheckpoint(jobId, job.getLastCommittedRow(), progressOf(job));
+        try (InputStream in = Files.newInputStream(Path.of(job.getFilePath()))) {
+            ExcelUploadResponse result = switch (job.getType()) {
+                case STUDENT -> excelUploadService.processStudentExcel(in, checkpoint);
+                case QUESTION -> questionExcelUploadService.processQuestionExcel(in, checkpoint);
+            };
+            finish(jobId, ImportJobStatus.COMPLETED, result, null);
+            log.info("Import job {} completed. Total: {}, Success: {}, Failure: {}", jobId,
+                    result.getTotalRowsProcessed(), result.getSuccessCount(), result.getFailureCount());
+        } catch (Exception e) {
+            if (stopping) {
+                log.info("Import job {} stopped after row {}, will resume on next startup", jobId, checkpoint.lastCommittedRow);
+                return;
+            }
+            if (e instanceof AppException appException) {
+                log.warn("Import job {} failed: {}", jobId, e.getMessage());
+                finish(jobId, ImportJobStatus.FAILED, null, appException.getErrorCode().getMessage(appException.getArgs()));
+            } else {
+                log.error("Import job {} failed", jobId, e);
+                finish(jobId, ImportJobStatus.FAILED, null, "Lỗi hệ thống khi xử lý file: " + e.getMessage());
+            }
+        }
+    }
+
+    private void finish(String jobId, ImportJobStatus status, ExcelUploadResponse result, String failureReason) {
+        ImportJob job = importJobRepository.findById(jobId).orElseThrow();
+        if (result != null)
+            applyProgress(job, result, 0);
+        LocalDateTime now = LocalDateTime.now();
+        job.setStatus(status);
+        job.setFailureReason(failureReason);
+        job.setUpdatedAt(now);
+        job.setFinishedAt(now);
+        importJobRepository.save(job);
+
+        try {
+            Files.deleteIfExists(Path.of(job.getFilePath()));
+        } catch (IOException e) {
+            log.warn("Could not delete upload of import job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    /**
+     * Checkpoint của một job. Lô dữ liệu và bản ghi ImportJob được ghi trong cùng một transaction;
+     * các repository / service lưu dữ liệu đều @Transactional nên tham gia vào transaction này.
+     */
+    private class JobCheckpoint implements ImportCheckpoint {
+        final String jobId;
+        final ExcelUploadResponse committedProgress;
+        int lastCommittedRow;
+
+        JobCheckpoint(String jobId, int lastCommittedRow, ExcelUploadResponse committedProgress) {
+            this.jobId = jobId;
+            this.lastCommittedRow = lastCommittedRow;
+            this.committedProgress = committedProgress;
+        }
+
+        @Override
+        public int lastCommittedRow() {
+            return lastCommittedRow;
+        }
+
+        @Override
+        public ExcelUploadResponse committedProgress() {
+            return committedProgress;
+        }
+
+        @Override
+        public int commit(int lastRow, IntSupplier save, ExcelUploadResponse progress) {
+            if (stopping)
+                throw new CancellationException("Import job " + jobId + " is stopping");
+
+            Integer savedRows = transactionTemplate.execute(status -> {
+                int saved = save.getAsInt();
+                ImportJob job = importJobRepository.findById(jobId)
+                        .orElseThrow(() -> new AppException(ErrorCode.IMPORT_JOB_NOT_FOUND));
+                applyProgress(job, progress, saved);
+                job.setLastCommittedRow(lastRow);
+                job.setUpdatedAt(LocalDateTime.now());
+                importJobRepository.save(job);
+                return saved;
+            });
+            lastCommittedRow = lastRow;
+            return savedRows == null ? 0 : savedRows;
+        }
+    }
+
+    private void applyProgress(ImportJob job, ExcelUploadResponse progress, int savedRows) {
+        job.setTotalRowsProcessed(progress.getTotalRowsProcessed());
+        job.setSuccessCount(progress.getSuccessCount() + savedRows);
+        job.setFailureCount(progress.getFailureCount());
+        job.setErrorMessages(writeErrors(progress.getErrorMessages()));
+    }
+
+    // null nếu job chưa commit lô nào: service import chạy từ đầu
+    private ExcelUploadResponse progressOf(ImportJob job) {
+        if (job.getLastCommittedRow() <= 1)
+            return null;
+        return ExcelUploadResponse.builder()
+                .totalRowsProcessed(job.getTotalRowsProcessed())
+                .successCount(job.getSuccessCount())
+                .failureCount(job.getFailureCount())
+                .errorMessages(readErrors(job.getErrorMessages()))
+                .build();
+    }
+
+    private ImportJobResponse toResponse(ImportJob job) {
+        return ImportJobResponse.builder()
+                .jobId(job.getId())
+                .type(job.getType().name())
+                .status(job.getStatus().name())
+                .fileName(job.getFileName())
+                .totalRowsProcessed(job.getTotalRowsProcessed())
+                .successCount(job.getSuccessCount())
+                .failureCount(job.getFailureCount())
+                .errorMessages(readErrors(job.getErrorMessages()))
+                .failureReason(job.getFailureReason())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private String writeErrors(List<String> errors) {
+        try {
+            return objectMapper.writeValueAsString(errors);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize import errors", e);
+        }
+    }
+
+    private List<String> readErrors(String json) {
+        if (json == null || json.isEmpty())
+            return new ArrayList<>();
+        try {
+            return new ArrayList<>(objectMapper.readValue(json, ERRORS_TYPE));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupted import job errors", e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.configuration.AzureProps;
+import com.ktnl.fapanese.dto.response.InterviewAudioChunkResponse;
+import com.ktnl.fapanese.service.interfaces.ISpeechRecognitionJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Luồng /interact dạng pipeline: STT → LLM (stream) → TTS theo từng câu.
+ *
+ * Câu đầu tiên được đem đi TTS ngay khi LLM viết xong câu đó, trong lúc LLM vẫn đang sinh
+ * các câu sau, nên người dùng nghe được phản hồi sớm hơn nhiều so với chờ cả ba bước tuần tự.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InterviewPipelineService {
+    private final AzureProps props;
+    private final ISpeechRecognitionJobService sttJobs;
+    private final OpenAIService openai;
+    private final TextToSpeechService tts;
+
+    /**
+     * Nhận diện giọng nói qua worker pool STT; hủy subscription (client ngắt kết nối) sẽ hủy luôn job.
+     */
+    public Mono<String> transcribe(byte[] audio) {
+        return Mono.fromFuture(() -> sttJobs.submit(audio));
+    }
+
+    /**
+     * Stream phản hồi của AI thành từng câu kèm audio, đúng thứ tự câu.
+     * Tối đa speech.tts-concurrency câu được tổng hợp giọng nói song song.
+     */
+    public Flux<InterviewAudioChunkResponse> reply(String userText) {
+        AtomicInteger index = new AtomicInteger();
+
+        return SpeechChunker.split(openai.chatInterviewStream(userText))
+                .map(sentence -> new IndexedSentence(index.getAndIncrement(), sentence))
+                .flatMapSequential(this::synthesize, Math.max(1, props.getSpeech().getTtsConcurrency()));
+    }
+
+    private Mono<InterviewAudioChunkResponse> synthesize(IndexedSentence sentence) {
+        return Mono.fromCallable(() -> tts.synthSsmlPolyglot(sentence.text()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(audio -> InterviewAudioChunkResponse.builder()
+                        .index(sentence.index())
+                        .text(sentence.text())
+                        .audioBase64(Base64.getEncoder().encodeToString(audio))
+                        .build());
+    }
+
+    private record IndexedSentence(int index, String text) {}
+}
@@ -0,0 +1,156 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.dto.response.CacheStatsResponse;
+import com.ktnl.fapanese.service.interfaces.IJwtCacheService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache các JWT đã được verify (chữ ký + hạn dùng) để CustomJwtDecoder
+ * không phải parse và verify HS512 lại cho mỗi request.
+ *
+ * - Key là SHA-256 của chuỗi token (không giữ token gốc làm key).
+ * - Mỗi entry hết hạn đúng tại claim "exp" của token.
+ * - Logout / refresh gọi evictByJti để xóa token khỏi cache ngay lập tức.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class JwtCacheService implements IJwtCacheService {
+
+    // tokenHash -> Jwt đã verify
+    Map<String, Jwt> entries = new ConcurrentHashMap<>();
+
+    // jti -> tokenHash, dùng để evict khi logout / refresh
+    Map<String, String> jtiIndex = new ConcurrentHashMap<>();
+
+    AtomicLong hits = new AtomicLong();
+    AtomicLong misses = new AtomicLong();
+    AtomicLong evictions = new AtomicLong();
+
+    @NonFinal
+    @Value("${jwt.cache.max-size:10000}")
+    protected int MAX_SIZE;
+
+    @Override
+    public Optional<Jwt> get(String token) {
+        String key = hash(token);
+        Jwt jwt = entries.get(key);
+
+        if (jwt == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+
+        // Token đã hết hạn trong lúc nằm trong cache → xóa và coi như miss
+        if (isExpired(jwt, Instant.now())) {
+            remove(key, jwt);
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+
+        hits.incrementAndGet();
+        return Optional.of(jwt);
+    }
+
+    @Override
+    public void put(Jwt jwt) {
+        // Không cache token không có exp, vì không biết khi nào entry hết hiệu lực
+        if (jwt.getExpiresAt() == null)
+            return;
+
+        if (entries.size() >= MAX_SIZE)
+            makeRoom();
+
+        String key = hash(jwt.getTokenValue());
+        entries.put(key, jwt);
+
+        if (jwt.getId() != null)
+            jtiIndex.put(jwt.getId(), key);
+    }
+
+    @Override
+    public void evictByJti(String jti) {
+        if (jti == null)
+            return;
+
+        String key = jtiIndex.remove(jti);
+        if (key != null && entries.remove(key) != null)
+            evictions.incrementAndGet();
+    }
+
+    @Override
+    public CacheStatsResponse getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        return CacheStatsResponse.builder()
+                .hits(hitCount)
+                .misses(missCount)
+                .evictions(evictions.get())
+                .size(entries.size())
+                .maxSize(MAX_SIZE)
+                .hitRate(total == 0 ? 0 : (double) hitCount / total)
+                .build();
+    }
+
+    /**
+     * Dọn các entry đã hết hạn; nếu cache vẫn đầy thì bỏ bớt entry bất kỳ
+     * để giữ kích thước không vượt quá MAX_SIZE.
+     */
+    private void makeRoom() {
+        Instant now = Instant.now();
+        entries.forEach((key, jwt) -> {
+            if (isExpired(jwt, now))
+                remove(key, jwt);
+        });
+
+        Iterator<Map.Entry<String, Jwt>> it = entries.entrySet().iterator();
+        while (entries.size() >= MAX_SIZE && it.hasNext()) {
+            Map.Entry<String, Jwt> entry = it.next();
+            remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void remove(String key, Jwt jwt) {
+        if (entries.remove(key, jwt)) {
+            evictions.incrementAndGet();
+            if (jwt.getId() != null)
+                jtiIndex.remove(jwt.getId(), key);
+        }
+    }
+
+    private boolean isExpired(Jwt jwt, Instant now) {
+        return !Objects.requireNonNull(jwt.getExpiresAt()).isAfter(now);
+    }
+
+    private String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 luôn có sẵn trong JDK
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 
 package com.ktnl.fapanese.service.implementations;
 
+import com.ktnl.fapanese.dto.request.LessonFilterRequest;
 import com.ktnl.fapanese.dto.request.LessonRequest;
 import com.ktnl.fapanese.dto.response.LessonRespone;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.entity.Course;
 import com.ktnl.fapanese.entity.Lesson;
 import com.ktnl.fapanese.exception.AppException;
@@ -10,7 +12,11 @@ import com.ktnl.fapanese.exception.ErrorCode;
 import com.ktnl.fapanese.mapper.LessonMapper;
 import com.ktnl.fapanese.repository.CourseRepository;
 import com.ktnl.fapanese.repository.LessonRepository;
+import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.repository.specification.LessonSpecifications;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
 import com.ktnl.fapanese.service.interfaces.ILessonService;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.Comparator;
@@ -22,11 +28,16 @@ public class LessonService implements ILessonService {
 
     private final LessonRepository lessonRepository;
     private final CourseRepository courseRepository;
+    private final QuestionRepository questionRepository;
+    private final IAnswerKeyCacheService answerKeyCache;
 
-    public LessonService(LessonRepository lessonRepository,  CourseRepository courseRepository) {
+    public LessonService(LessonRepository lessonRepository,  CourseRepository courseRepository,
+                         QuestionRepository questionRepository, IAnswerKeyCacheService answerKeyCache) {
 
         this.lessonRepository = lessonRepository;
         this.courseRepository = courseRepository;
+        this.questionRepository = questionRepository;
+        this.answerKeyCache = answerKeyCache;
     }
 
 
@@ -38,6 +49,12 @@ public class LessonService implements ILessonService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public PageResponse<LessonRespone> searchLessons(LessonFilterRequest filter, Pageable pageable) {
+        return PageResponse.from(lessonRepository.findAll(LessonSpecifications.filter(filter), pageable)
+                .map(LessonMapper::toLessonResponse));
+    }
+
     @Override
     public List<LessonRespone> getLessonByCourseId(Long courseId) {
         return lessonRepository.findByCourseId(courseId)
@@ -120,7 +137,10 @@ public class LessonService implements ILessonService {
             throw new AppException(ErrorCode.LESSON_NOT_FOUND);
         }
 
+        // Câu hỏi của lesson bị xóa theo cascade → bỏ đáp án của chúng khỏi cache
+        List<Long> questionIds = questionRepository.findIdsByLessonId(lessonId);
         lessonRepository.delete(lesson);
+        answerKeyCache.evictAll(questionIds);
     }
 
 }
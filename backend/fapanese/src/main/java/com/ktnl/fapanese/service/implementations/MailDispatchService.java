@@ -0,0 +1,332 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.dto.response.MailDispatchStatsResponse;
+import com.ktnl.fapanese.service.interfaces.IMailDispatchService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gửi email qua một hàng đợi giới hạn và vài worker, mỗi worker giữ một kết nối SMTP riêng.
+ *
+ * - Kết nối được dùng lại cho nhiều email: bỏ được bắt tay TCP + STARTTLS + AUTH ở mỗi email. Worker mở lại
+ *   kết nối sau max-messages-per-connection email (server thường giới hạn số email / phiên), khi rảnh quá
+ *   idle-timeout, hoặc ngay sau một lần gửi lỗi (không biết phiên còn dùng được không).
+ * - Worker lấy một lô tối đa batch-size email trong hàng đợi rồi gửi liên tiếp trên cùng kết nối.
+ * - Tổng tốc độ gửi của mọi worker không vượt max-per-second (giới hạn của nhà cung cấp SMTP), 0 = không giới hạn.
+ * - Gửi lỗi thì xếp lại vào hàng đợi sau retry-delay, lần sau gấp đôi; quá max-attempts thì future lỗi.
+ *   Đây là retry ngắn cho lỗi tạm thời (rớt kết nối); retry dài hạn do EmailOutboxService lo.
+ * - Hàng đợi đầy (chờ quá enqueue-timeout) hoặc đang tắt ứng dụng → future lỗi RejectedExecutionException.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class MailDispatchService implements IMailDispatchService {
+    JavaMailSenderImpl mailSender;
+
+    AtomicLong sent = new AtomicLong();
+    AtomicLong failed = new AtomicLong();
+    AtomicLong retried = new AtomicLong();
+    AtomicLong rejected = new AtomicLong();
+    AtomicLong connectionsOpened = new AtomicLong();
+    AtomicLong totalSendNanos = new AtomicLong();
+    AtomicInteger openConnections = new AtomicInteger();
+    // Thời điểm (nanoTime) sớm nhất được gửi email kế tiếp, chung cho mọi worker
+    AtomicLong nextSendSlot = new AtomicLong(Long.MIN_VALUE);
+
+    @NonFinal
+    @Value("${spring.mail.username:}")
+    String from;
+
+    @NonFinal
+    @Value("${mail-dispatch.workers:2}")
+    protected int WORKERS = 2;
+
+    @NonFinal
+    @Value("${mail-dispatch.queue-capacity:1000}")
+    protected int QUEUE_CAPACITY = 1000;
+
+    @NonFinal
+    @Value("${mail-dispatch.enqueue-timeout:2000}")
+    protected long ENQUEUE_TIMEOUT_MS = 2000;
+
+    @NonFinal
+    @Value("${mail-dispatch.batch-size:20}")
+    protected int BATCH_SIZE = 20;
+
+    @NonFinal
+    @Value("${mail-dispatch.max-messages-per-connection:100}")
+    protected int MAX_MESSAGES_PER_CONNECTION = 100;
+
+    @NonFinal
+    @Value("${mail-dispatch.idle-timeout:30000}")
+    protected long IDLE_TIMEOUT_MS = 30000;
+
+    @NonFinal
+    @Value("${mail-dispatch.max-per-second:10}")
+    protected int MAX_PER_SECOND = 10;
+
+    @NonFinal
+    @Value("${mail-dispatch.max-attempts:3}")
+    protected int MAX_ATTEMPTS = 3;
+
+    @NonFinal
+    @Value("${mail-dispatch.retry-delay:1000}")
+    protected long RETRY_DELAY_MS = 1000;
+
+    @NonFinal
+    BlockingQueue<MailTask> queue;
+
+    @NonFinal
+    ExecutorService workers;
+
+    @NonFinal
+    volatile boolean running;
+
+    // Cửa sổ đo tốc độ gửi, cập nhật bởi sampleThroughput
+    @NonFinal
+    long windowStartNanos;
+    @NonFinal
+    long windowStartSent;
+    @NonFinal
+    volatile double mailsPerSecond;
+
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, QUEUE_CAPACITY));
+        running = true;
+        windowStartNanos = System.nanoTime();
+        int workerCount = Math.max(1, WORKERS);
+        workers = Executors.newFixedThreadPool(workerCount, new CustomizableThreadFactory("mail-dispatch-"));
+        for (int i = 0; i < workerCount; i++)
+            workers.execute(this::runWorker);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<MailTask> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(task -> task.result.completeExceptionally(new RejectedExecutionException("Mail dispatcher is shutting down")));
+    }
+
+    @Override
+    public CompletableFuture<Void> submit(String to, String subject, String html) {
+        MailTask task = new MailTask(to, subject, html);
+        boolean accepted = false;
+        try {
+            accepted = running && queue.offer(task, ENQUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!accepted) {
+            rejected.incrementAndGet();
+            log.warn("Mail queue is full ({} queued), rejecting email to {}", queue.size(), to);
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Mail queue is full"));
+        }
+        return task.result;
+    }
+
+    private void runWorker() {
+        SmtpConnection connection = new SmtpConnection();
+        List<MailTask> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (running) {
+                MailTask first = queue.poll(IDLE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    connection.close(); // Rảnh lâu: trả kết nối, server cũng sẽ tự cắt
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (MailTask task : batch)
+                    send(connection, task);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connection.close();
+            batch.forEach(task -> task.result.completeExceptionally(new RejectedExecutionException("Mail dispatcher is shutting down")));
+        }
+    }
+
+    private void send(SmtpConnection connection, MailTask task) throws InterruptedException {
+        if (task.result.isDone())
+            return;
+        throttle();
+        task.attempts++;
+        long startedAt = System.nanoTime();
+        try {
+            MimeMessage message = toMimeMessage(task);
+            connection.transport().sendMessage(message, message.getAllRecipients());
+            connection.messages++;
+            totalSendNanos.addAndGet(System.nanoTime() - startedAt);
+            sent.incrementAndGet();
+            task.result.complete(null);
+        } catch (Exception e) {
+            connection.close();
+            retryOrFail(task, e);
+        }
+    }
+
+    // Mỗi lần gửi giữ trước một khe 1/MAX_PER_SECOND giây rồi chờ tới khe đó
+    private void throttle() throws InterruptedException {
+        if (MAX_PER_SECOND <= 0)
+            return;
+        long interval = TimeUnit.SECONDS.toNanos(1) / MAX_PER_SECOND;
+        long now = System.nanoTime();
+        long slot = Math.max(now, nextSendSlot.getAndAccumulate(now, (next, current) -> Math.max(next, current) + interval));
+        if (slot > now)
+            TimeUnit.NANOSECONDS.sleep(slot - now);
+    }
+
+    private void retryOrFail(MailTask task, Exception e) {
+        if (!running || task.attempts >= MAX_ATTEMPTS) {
+            failed.incrementAndGet();
+            log.warn("Email to {} failed after {} attempts: {}", task.to, task.attempts, e.getMessage());
+            task.result.completeExceptionally(e);
+            return;
+        }
+        retried.incrementAndGet();
+        long delay = RETRY_DELAY_MS << Math.min(task.attempts - 1, 16);
+        log.info("Email to {} failed (attempt {}), retrying in {} ms: {}", task.to, task.attempts, delay, e.getMessage());
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> {
+            if (!running || !queue.offer(task)) {
+                failed.incrementAndGet();
+                task.result.completeExceptionally(e);
+            }
+        });
+    }
+
+    private MimeMessage toMimeMessage(MailTask task) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(from);
+        helper.setTo(task.to);
+        helper.setSubject(task.subject);
+        helper.setText(task.html, true);
+        message.setSentDate(new Date());
+        message.saveChanges();
+        return message;
+    }
+
+    /**
+     * Cập nhật mailsPerSecond theo số email gửi được trong khoảng vừa qua.
+     */
+    @Scheduled(fixedDelayString = "${mail-dispatch.stats-interval:60000}")
+    public void sampleThroughput() {
+        long now = System.nanoTime();
+        long total = sent.get();
+        long delta = total - windowStartSent;
+        double seconds = (now - windowStartNanos) / 1e9;
+        mailsPerSecond = seconds > 0 ? delta / seconds : 0;
+        windowStartNanos = now;
+        windowStartSent = total;
+        if (delta > 0 || !queue.isEmpty())
+            log.info("Mail dispatch: {} sent ({} mails/s), {} queued, {} failed, {} retried",
+                    delta, String.format("%.2f", mailsPerSecond), queue.size(), failed.get(), retried.get());
+    }
+
+    @Override
+    public MailDispatchStatsResponse getStats() {
+        long sentCount = sent.get();
+        return MailDispatchStatsResponse.builder()
+                .workers(Math.max(1, WORKERS))
+                .openConnections(openConnections.get())
+                .queueDepth(queue.size())
+                .queueCapacity(queue.size() + queue.remainingCapacity())
+                .sent(sentCount)
+                .failed(failed.get())
+                .retried(retried.get())
+                .rejected(rejected.get())
+                .connectionsOpened(connectionsOpened.get())
+                .avgSendMs(sentCount == 0 ? 0 : totalSendNanos.get() / 1e6 / sentCount)
+                .mailsPerSecond(mailsPerSecond)
+                .build();
+    }
+
+    private static final class MailTask {
+        final String to;
+        final String subject;
+        final String html;
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        int attempts;
+
+        MailTask(String to, String subject, String html) {
+            this.to = to;
+            this.subject = subject;
+            this.html = html;
+        }
+    }
+
+    /**
+     * Kết nối SMTP của một worker, chỉ worker đó dùng nên không cần đồng bộ.
+     */
+    private class SmtpConnection {
+        Transport transport;
+        int messages;
+
+        Transport transport() throws MessagingException {
+            if (transport != null && messages >= MAX_MESSAGES_PER_CONNECTION)
+                close();
+            if (transport == null) {
+                Transport opened = mailSender.getSession().getTransport(
+                        mailSender.getProtocol() != null ? mailSender.getProtocol() : JavaMailSenderImpl.DEFAULT_PROTOCOL);
+                // Giống JavaMailSenderImpl: username rỗng = không AUTH
+                String username = mailSender.getUsername();
+                String password = mailSender.getPassword();
+                if ("".equals(username)) {
+                    username = null;
+                    if ("".equals(password))
+                        password = null;
+                }
+                opened.connect(mailSender.getHost(), mailSender.getPort(), username, password);
+                transport = opened;
+                messages = 0;
+                connectionsOpened.incrementAndGet();
+                openConnections.incrementAndGet();
+            }
+            return transport;
+        }
+
+        void close() {
+            if (transport == null)
+                return;
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error closing SMTP connection: {}", e.getMessage());
+            }
+            transport = null;
+            openConnections.decrementAndGet();
+        }
+    }
+}
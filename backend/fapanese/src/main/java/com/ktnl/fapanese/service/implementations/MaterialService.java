@@ -1,16 +1,21 @@
 package com.ktnl.fapanese.service.implementations;
 
+import com.ktnl.fapanese.dto.request.MaterialFilterRequest;
 import com.ktnl.fapanese.dto.request.MaterialRequest;
 import com.ktnl.fapanese.dto.response.ClassCourseRespone;
 import com.ktnl.fapanese.dto.response.ClassMaterialResponse;
 import com.ktnl.fapanese.dto.response.MaterialResponse;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.entity.*;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.mail.MaterialAssignedEmail;
 import com.ktnl.fapanese.mapper.ClassCourseMapper;
 import com.ktnl.fapanese.mapper.ClassMaterialMapper;
 import com.ktnl.fapanese.mapper.MaterialMapper;
 import com.ktnl.fapanese.repository.*;
+import com.ktnl.fapanese.repository.specification.MaterialSpecifications;
+import com.ktnl.fapanese.service.interfaces.IClassNotificationService;
 import com.ktnl.fapanese.service.interfaces.IFileUploadService;
 import com.ktnl.fapanese.service.interfaces.IMaterialService;
 import jakarta.transaction.Transactional;
@@ -18,10 +23,12 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 @Slf4j
@@ -29,6 +36,7 @@ import java.util.*;
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class MaterialService implements IMaterialService {
+    private static final DateTimeFormatter DEADLINE_FORMAT = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
 
     MaterialRepository materialRepository;
     LecturerRepository lecturerRepository;
@@ -38,6 +46,7 @@ public class MaterialService implements IMaterialService {
     ClassMaterialMapper classMaterialMapper;
     IFileUploadService iFileUploadService;
     StudentClassRepository studentClassRepository;
+    IClassNotificationService classNotificationService;
 
 
     @Override
@@ -46,6 +55,12 @@ public class MaterialService implements IMaterialService {
         return materialMapper.toMaterialResponseList(materials);
     }
 
+    @Override
+    public PageResponse<MaterialResponse> searchMaterials(MaterialFilterRequest filter, Pageable pageable) {
+        return PageResponse.from(materialRepository.findAll(MaterialSpecifications.filter(filter), pageable)
+                .map(materialMapper::toMaterialResponse));
+    }
+
     @Override
     public MaterialResponse getMaterialById(Long id) {
         Material material = findMaterialById(id);
@@ -145,6 +160,10 @@ public class MaterialService implements IMaterialService {
                 .build();
 
         classMaterialRepository.save(classMaterial);
+
+        // Báo cho cả lớp; email nằm trong outbox cùng transaction nên assign lỗi thì không gửi
+        classNotificationService.notifyClass(classCourseId, new MaterialAssignedEmail(),
+                classCourse.getClassName(), material.getTitle(), deadline != null ? deadline.format(DEADLINE_FORMAT) : "");
     }
 
     @Override
@@ -6,8 +6,10 @@ import com.ktnl.fapanese.dto.response.MaterialSubmissionResponse;
 import com.ktnl.fapanese.entity.*;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.mail.SubmissionGradedEmail;
 import com.ktnl.fapanese.mapper.MaterialSubmissionMapper;
 import com.ktnl.fapanese.repository.*;
+import com.ktnl.fapanese.service.interfaces.IEmailOutboxService;
 import com.ktnl.fapanese.service.interfaces.IMaterialSubmissionService;
 import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
@@ -17,6 +19,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +31,7 @@ public class MaterialSubmissionService implements IMaterialSubmissionService {
     StudentRepository studentRepository;
     ClassCourseRepository classCourseRepository;
     MaterialSubmissionMapper mapper;
+    IEmailOutboxService emailOutbox;
 
     @Override
     @Transactional
@@ -83,6 +87,11 @@ public class MaterialSubmissionService implements IMaterialSubmissionService {
         submission.setStatus(MaterialSubmission.Status.GRADED);
 
         MaterialSubmission saved = submissionRepository.save(submission);
+
+        // Chỉ sinh viên có bài được chấm nhận email
+        emailOutbox.enqueue(submission.getStudent().getUser().getEmail(), new SubmissionGradedEmail(),
+                submission.getMaterial().getTitle(), Objects.toString(request.getScore(), ""),
+                Objects.toString(request.getFeedback(), ""));
         return mapper.toResponse(saved);
     }
 
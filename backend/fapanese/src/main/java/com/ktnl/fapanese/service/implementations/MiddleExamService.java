@@ -1,6 +1,7 @@
 package com.ktnl.fapanese.service.implementations;
 
 import com.ktnl.fapanese.dto.request.MiddleExamRequest;
+import com.ktnl.fapanese.dto.response.ExamSummaryResponse;
 import com.ktnl.fapanese.dto.response.MiddleExamResponse;
 import com.ktnl.fapanese.dto.response.SpeakingExamResponse;
 import com.ktnl.fapanese.entity.MiddleExam;
@@ -9,6 +10,7 @@ import com.ktnl.fapanese.entity.Question;
 import com.ktnl.fapanese.entity.SpeakingExam;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.mapper.ExamSummaryMapper;
 import com.ktnl.fapanese.mapper.MiddleExamMapper;
 import com.ktnl.fapanese.repository.MiddleExamRepository;
 import com.ktnl.fapanese.repository.OverviewPartRepository;
@@ -36,18 +38,19 @@ public class MiddleExamService implements IMiddleExamService {
     OverviewPartRepository overviewPartRepository; // Dependency
     QuestionRepository questionRepository; // Dependency
     MiddleExamMapper middleExamMapper;
+    ExamSummaryMapper examSummaryMapper;
 
     // READ (All)
     @Override
     public List<MiddleExamResponse> getAllMiddleExams() {
-        List<MiddleExam> exams = middleExamRepository.findAll();
+        List<MiddleExam> exams = middleExamRepository.findAllWithQuestions();
         return middleExamMapper.toMiddleExamResponseList(exams);
     }
 
     // READ (By Id)
     @Override
     public MiddleExamResponse getMiddleExamById(Long id) {
-        MiddleExam exam = middleExamRepository.findById(id)
+        MiddleExam exam = middleExamRepository.findWithQuestionsById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.EXAM_NOT_FOUND));
         return middleExamMapper.toMiddleExamResponse(exam);
     }
@@ -115,10 +118,19 @@ public class MiddleExamService implements IMiddleExamService {
             throw new AppException(ErrorCode.OVERVIEW_PART_NOT_FOUND);
         }
 
-        List<MiddleExam> middleExams = middleExamRepository.findByOverviewPartId(partId);
+        List<MiddleExam> middleExams = middleExamRepository.findWithQuestionsByOverviewPartId(partId);
 
         return middleExamMapper.toMiddleExamResponseList(middleExams);
 
     }
 
+    // Danh sách đề cho màn hình list: một query, không đọc nội dung câu hỏi
+    @Override
+    public List<ExamSummaryResponse> getMiddleExamSummaries(Long partId) {
+        if (partId != null && !overviewPartRepository.existsById(partId)) {
+            throw new AppException(ErrorCode.OVERVIEW_PART_NOT_FOUND);
+        }
+        return examSummaryMapper.toExamSummaryResponseList(middleExamRepository.findSummaries(partId));
+    }
+
 }
@@ -1,9 +1,8 @@
 package com.ktnl.fapanese.service.implementations;
 
+import com.azure.ai.openai.OpenAIAsyncClient;
 import com.azure.ai.openai.OpenAIClient;
-import com.azure.ai.openai.OpenAIClientBuilder;
 import com.azure.ai.openai.models.*;
-import com.azure.core.credential.AzureKeyCredential;
 import com.azure.core.util.BinaryData;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -11,12 +10,20 @@ import com.ktnl.fapanese.configuration.AzureProps;
 import com.ktnl.fapanese.dto.request.ExplainExamRequest;
 import com.ktnl.fapanese.dto.request.GradingSpeakingTestRequest;
 import com.ktnl.fapanese.dto.response.GradingSpeakingTestResponse;
+import com.ktnl.fapanese.service.interfaces.IExplanationCacheService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 @Service
@@ -24,16 +31,115 @@ import java.util.List;
 @Slf4j
 public class OpenAIService {
     private final AzureProps props;
+    // Client sync / async được tạo một lần trong OpenAIConfig và dùng chung connection pool
+    private final OpenAIClient client;
+    private final OpenAIAsyncClient asyncClient;
+    private final Executor openAiExecutor;
+    private final IExplanationCacheService explanationCache;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    private OpenAIClient client() {
-        return new OpenAIClientBuilder()
-                .endpoint(props.getOpenai().getEndpoint())
-                .credential(new AzureKeyCredential(props.getOpenai().getKey()))
-                .buildClient();
+    public String chatInterview(String userJa) {
+        return complete(chatInterviewOptions(userJa));
     }
 
-    public String chatInterview(String userJa) {
+    public CompletableFuture<String> chatInterviewAsync(String userJa) {
+        return completeAsync(chatInterviewOptions(userJa));
+    }
+
+    public String explainExam(ExplainExamRequest explainExamRequest) {
+        return explainExamAsync(explainExamRequest).join();
+    }
+
+    // Cùng một câu hỏi thì dùng lại lời giải thích đã sinh (xem ExplanationCacheService)
+    public CompletableFuture<String> explainExamAsync(ExplainExamRequest explainExamRequest) {
+        return explanationCache.getOrLoad(explainExamRequest,
+                request -> completeAsync(explainExamOptions(request)));
+    }
+
+    /**
+     * Streaming: trả về từng đoạn text (delta) ngay khi model sinh ra.
+     * Ghép tất cả các delta lại sẽ được đúng nội dung như chatInterview.
+     */
+    public Flux<String> chatInterviewStream(String userJa) {
+        return completeStream(chatInterviewOptions(userJa));
+    }
+
+    /**
+     * Streaming của explainExam, đi chung cache + single-flight với explainExamAsync:
+     * - Đã có trong cache, hoặc đang có request giống hệt gọi Azure → trả toàn bộ nội dung trong một lần khi có.
+     * - Request đầu tiên stream từ Azure; xong thì hoàn thành lời gọi chung trên openAiExecutor,
+     *   để việc lưu cache (save JPA) không chạy trên event loop của Netty.
+     */
+    public Flux<String> explainExamStream(ExplainExamRequest explainExamRequest) {
+        return Flux.defer(() -> {
+            AtomicBoolean leader = new AtomicBoolean();
+            CompletableFuture<String> upstream = new CompletableFuture<>();
+            CompletableFuture<String> shared = explanationCache.getOrLoad(explainExamRequest, request -> {
+                leader.set(true);
+                return upstream;
+            });
+
+            // shared là lời gọi chung của mọi request đang chờ: client này ngắt thì chỉ hủy đăng ký của nó,
+            // không được cancel future (mặc định của fromFuture) làm hỏng kết quả của các request khác
+            if (!leader.get())
+                return Mono.fromFuture(shared, true).flux();
+
+            StringBuilder fullText = new StringBuilder();
+            return completeStream(explainExamOptions(explainExamRequest))
+                    .doOnNext(fullText::append)
+                    .doOnComplete(() -> upstream.completeAsync(fullText::toString, openAiExecutor))
+                    .doOnError(upstream::completeExceptionally)
+                    // Client ngắt giữa chừng → giải phóng các request đang chờ cùng câu hỏi
+                    .doOnCancel(() -> upstream.completeExceptionally(new CancellationException("Stream cancelled")));
+        });
+    }
+
+    public GradingSpeakingTestResponse gradeSpeakingTest(GradingSpeakingTestRequest request) throws JsonProcessingException {
+        log.info("Calling Azure OpenAI for grading...");
+        return parseGrading(complete(gradingOptions(request)));
+    }
+
+    public CompletableFuture<GradingSpeakingTestResponse> gradeSpeakingTestAsync(GradingSpeakingTestRequest request) {
+        log.info("Calling Azure OpenAI for grading (async)...");
+        return completeAsync(gradingOptions(request)).thenApply(json -> {
+            try {
+                return parseGrading(json);
+            } catch (JsonProcessingException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private String complete(ChatCompletionsOptions options) {
+        var resp = client.getChatCompletions(props.getOpenai().getDeploymentName(), options);
+        return resp.getChoices().get(0).getMessage().getContent();
+    }
+
+    /**
+     * Gọi Azure OpenAI không chặn luồng: request đi qua Netty (không giữ thread nào trong lúc chờ),
+     * phần xử lý kết quả chạy trên openAiExecutor (thread pool có giới hạn).
+     */
+    private CompletableFuture<String> completeAsync(ChatCompletionsOptions options) {
+        return asyncClient.getChatCompletions(props.getOpenai().getDeploymentName(), options)
+                .toFuture()
+                .thenApplyAsync(resp -> resp.getChoices().get(0).getMessage().getContent(), openAiExecutor);
+    }
+
+    private Flux<String> completeStream(ChatCompletionsOptions options) {
+        return asyncClient.getChatCompletionsStream(props.getOpenai().getDeploymentName(), options)
+                .flatMapIterable(ChatCompletions::getChoices)
+                .mapNotNull(choice -> choice.getDelta() == null ? null : choice.getDelta().getContent())
+                .filter(delta -> !delta.isEmpty());
+    }
+
+    private GradingSpeakingTestResponse parseGrading(String jsonResponse) throws JsonProcessingException {
+        log.info("Received JSON response from AI: {}", jsonResponse);
+
+        // Parse JSON string sang GradingResponse DTO
+        return objectMapper.readValue(jsonResponse, GradingSpeakingTestResponse.class);
+    }
+
+    private ChatCompletionsOptions chatInterviewOptions(String userJa) {
         var system = """
 [GIA SƯ GIAO TIẾP TỰ NHIÊN CÓ CẤU TRÚC - TỐI ƯU TTS]
 
@@ -73,13 +179,10 @@ Bây giờ, hãy tiếp tục. Bạn có thường dùng Tiếng Nhật trong cu
                 new ChatRequestUserMessage("Câu sinh viên nói: " + userJa)
         );
 
-        var options = new ChatCompletionsOptions(messages).setTemperature(0.6);
-
-        var resp = client().getChatCompletions(props.getOpenai().getDeploymentName(), options);
-        return resp.getChoices().get(0).getMessage().getContent();
+        return new ChatCompletionsOptions(messages).setTemperature(0.6);
     }
 
-    public String explainExam(ExplainExamRequest explainExamRequest) {
+    private ChatCompletionsOptions explainExamOptions(ExplainExamRequest explainExamRequest) {
         var system = """
             Bạn là một giảng viên tiếng Nhật người Việt, đang hỗ trợ sinh viên luyện đề thi môn tiếng nhật.
             Nhiệm vụ của bạn:
@@ -105,13 +208,10 @@ Bây giờ, hãy tiếp tục. Bạn có thường dùng Tiếng Nhật trong cu
                 new ChatRequestUserMessage(userPrompt)
         );
 
-        var opts  = new ChatCompletionsOptions(messages).setTemperature(0.6);
-
-        var resp = client().getChatCompletions(props.getOpenai().getDeploymentName(), opts);
-        return resp.getChoices().get(0).getMessage().getContent();
+        return new ChatCompletionsOptions(messages).setTemperature(0.6);
     }
 
-    public GradingSpeakingTestResponse gradeSpeakingTest(GradingSpeakingTestRequest request) throws JsonProcessingException {
+    private ChatCompletionsOptions gradingOptions(GradingSpeakingTestRequest request) {
         // 1. Định nghĩa System Prompt (Vai trò của AI)
         var systemPrompt = """
             Bạn là một giảng viên tiếng Nhật dày dạn kinh nghiệm, chuyên chấm thi vấn đáp.
@@ -193,19 +293,9 @@ Bây giờ, hãy tiếp tục. Bạn có thường dùng Tiếng Nhật trong cu
                 .setStrict(true);
 
         // 4. Thiết lập Options, BẮT BUỘC trả về JSON
-        var opts = new ChatCompletionsOptions(messages)
+        return new ChatCompletionsOptions(messages)
                 .setTemperature(0.5)
                 .setResponseFormat(new ChatCompletionsJsonSchemaResponseFormat(schema));
-
-        // 5. Gọi API
-        log.info("Calling Azure OpenAI for grading...");
-        ChatCompletions resp = client().getChatCompletions(props.getOpenai().getDeploymentName(), opts);
-
-        String jsonResponse = resp.getChoices().get(0).getMessage().getContent();
-        log.info("Received JSON response from AI: {}", jsonResponse);
-
-        // 6. Parse JSON string sang GradingResponse DTO
-        return objectMapper.readValue(jsonResponse, GradingSpeakingTestResponse.class);
     }
 
 
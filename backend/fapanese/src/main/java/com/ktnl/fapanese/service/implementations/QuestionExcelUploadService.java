@@ -5,22 +5,24 @@ import com.ktnl.fapanese.entity.Question;
 import com.ktnl.fapanese.entity.enums.QuestionCategory;
 import com.ktnl.fapanese.entity.enums.QuestionType;
 import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
 import com.ktnl.fapanese.exception.AppException; // (Import AppException của bạn)
 import com.ktnl.fapanese.exception.ErrorCode; // (Import ErrorCode của bạn)
 import com.ktnl.fapanese.service.interfaces.IQuestionExcelUploadService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 
 @Slf4j
 @Service
@@ -29,6 +31,7 @@ import java.util.*;
 public class QuestionExcelUploadService implements IQuestionExcelUploadService {
 
     QuestionRepository questionRepository;
+    IAnswerKeyCacheService answerKeyCache;
 
     // Định nghĩa các cột Excel cho Question
     private static final String HEADER_CONTENT = "content";
@@ -41,171 +44,234 @@ public class QuestionExcelUploadService implements IQuestionExcelUploadService {
     private static final String HEADER_CORRECT_ANSWER = "correctanswer";
     private static final String HEADER_FILL_ANSWER = "fillanswer";
 
+    // Số câu hỏi mỗi lô; mỗi lô là một JDBC batch và được commit riêng
+    @NonFinal
+    @Value("${excel-import.chunk-size:500}")
+    protected int CHUNK_SIZE = 500;
+
+    // Không bọc cả file trong một transaction: mỗi lô tự commit trong batchInsert, lô lỗi không kéo theo các lô khác
     @Override
-    @Transactional
     public ExcelUploadResponse processQuestionExcel(MultipartFile file) throws IOException {
-        ExcelUploadResponse result = new ExcelUploadResponse();
-        List<Question> questionsToSave = new ArrayList<>();
+        try (InputStream inputStream = file.getInputStream()) {
+            return processQuestionExcel(inputStream, ImportCheckpoint.NONE);
+        }
+    }
+
+    /**
+     * Import từ một stream bất kỳ; ImportJobService dùng để chạy job nền và chạy tiếp từ checkpoint.
+     */
+    public ExcelUploadResponse processQuestionExcel(InputStream inputStream, ImportCheckpoint checkpoint) throws IOException {
+        QuestionImport questionImport = new QuestionImport(checkpoint);
 
-        try (InputStream inputStream = file.getInputStream();
-             Workbook workbook = WorkbookFactory.create(inputStream)) {
+        ExcelSheetReader.read(inputStream, questionImport::accept);
 
-            Sheet sheet = workbook.getSheetAt(0);
-            Iterator<Row> rowIterator = sheet.iterator();
+        // 1. Validate Header Row
+        if (questionImport.headerMap == null) {
+            throw new AppException(ErrorCode.FILE_REQUIRED);
+        }
+
+        // 3. Lưu lô cuối
+        questionImport.flush();
 
-            // 1. Validate Header Row
-            if (!rowIterator.hasNext()) {
-                throw new AppException(ErrorCode.FILE_REQUIRED);
+        ExcelUploadResponse result = questionImport.result;
+        if (questionImport.queuedCount == 0 && result.getFailureCount() == 0) {
+            if (result.getTotalRowsProcessed() == 0) {
+                result.addErrorMessage(0, "Không tìm thấy dòng dữ liệu hợp lệ nào trong file.");
+            }
+        }
+
+        log.info("Question Excel processing finished. Total: {}, Success: {}, Failure: {}",
+                result.getTotalRowsProcessed(), result.getSuccessCount(), result.getFailureCount());
+        return result;
+    }
+
+    /**
+     * Một lần import: validate từng dòng ngay khi ExcelSheetReader đọc tới, đủ CHUNK_SIZE câu thì lưu.
+     * Các dòng không quá checkpoint.lastCommittedRow() đã được lưu ở lần chạy trước nên bỏ qua.
+     */
+    private class QuestionImport {
+        final ImportCheckpoint checkpoint;
+        final int resumeAfterRow;
+        final ExcelUploadResponse result;
+        List<Question> questionsToSave = new ArrayList<>();
+        Map<String, Integer> headerMap;
+        int rowNum = 1;
+        int queuedCount;
+        int chunkFirstRow;
+        int chunkLastRow;
+
+        QuestionImport(ImportCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+            this.resumeAfterRow = checkpoint.lastCommittedRow();
+            ExcelUploadResponse committed = checkpoint.committedProgress();
+            this.result = committed != null ? committed : new ExcelUploadResponse();
+        }
+
+        void accept(ExcelSheetReader.ExcelRow currentRow) {
+            if (headerMap == null) {
+                headerMap = mapHeaderToIndex(currentRow);
+                validateRequiredHeaders(headerMap);
+                return;
             }
-            Row headerRow = rowIterator.next();
-            Map<String, Integer> headerMap = mapHeaderToIndex(headerRow);
-            validateRequiredHeaders(headerMap); // (Đã cập nhật hàm này bên dưới)
 
             // 2. Process Data Rows
-            int rowNum = 1;
-            while (rowIterator.hasNext()) {
-                rowNum++;
-                result.setTotalRowsProcessed(result.getTotalRowsProcessed() + 1);
-                Row currentRow = rowIterator.next();
-
-                if (isRowEmpty(currentRow)) {
-                    log.debug("Skipping empty row {}", rowNum);
-                    continue;
-                }
+            rowNum++;
+            if (rowNum <= resumeAfterRow) {
+                return;
+            }
+            result.setTotalRowsProcessed(result.getTotalRowsProcessed() + 1);
+
+            if (currentRow.isEmpty()) {
+                log.debug("Skipping empty row {}", rowNum);
+                return;
+            }
+
+            try {
+                Question question = new Question();
+
+                // Lấy các giá trị bắt buộc
+                question.setContent(getStringCellValue(currentRow, headerMap.get(HEADER_CONTENT), rowNum, "Nội dung (Content)", true));
+                String typeStr = getStringCellValue(currentRow, headerMap.get(HEADER_TYPE), rowNum, "Loại (QuestionType)", true);
 
                 try {
-                    Question question = new Question();
+                    question.setQuestionType(QuestionType.valueOf(typeStr.toUpperCase().trim()));
+                } catch (IllegalArgumentException e) {
+                    throw new AppException(ErrorCode.EXCEL_INVALID_DATA_TYPE, "QuestionType", typeStr);
+                }
 
-                    // Lấy các giá trị bắt buộc
-                    question.setContent(getStringCellValue(currentRow, headerMap.get(HEADER_CONTENT), rowNum, "Nội dung (Content)", true));
-                    String typeStr = getStringCellValue(currentRow, headerMap.get(HEADER_TYPE), rowNum, "Loại (QuestionType)", true);
+                // Lấy các giá trị tùy chọn (không còn bắt buộc)
+                question.setCorrectAnswer(getStringCellValue(currentRow, headerMap.get(HEADER_CORRECT_ANSWER), rowNum, "Đáp án đúng (CorrectAnswer)", false)); // Đổi thành false
+                String categoryStr = getStringCellValue(currentRow, headerMap.get(HEADER_CATEGORY), rowNum, "Thể loại (Category)", false); // Đổi thành false
 
+                // Xử lý Category (Nếu rỗng thì đặt mặc định)
+                if (categoryStr != null && !categoryStr.isEmpty()) {
                     try {
-                        question.setQuestionType(QuestionType.valueOf(typeStr.toUpperCase().trim()));
+                        question.setCategory(QuestionCategory.valueOf(categoryStr.toUpperCase().trim()));
                     } catch (IllegalArgumentException e) {
-                        throw new AppException(ErrorCode.EXCEL_INVALID_DATA_TYPE, "QuestionType", typeStr);
-                    }
-
-                    // Lấy các giá trị tùy chọn (không còn bắt buộc)
-                    question.setCorrectAnswer(getStringCellValue(currentRow, headerMap.get(HEADER_CORRECT_ANSWER), rowNum, "Đáp án đúng (CorrectAnswer)", false)); // Đổi thành false
-                    String categoryStr = getStringCellValue(currentRow, headerMap.get(HEADER_CATEGORY), rowNum, "Thể loại (Category)", false); // Đổi thành false
-
-                    // Xử lý Category (Nếu rỗng thì đặt mặc định)
-                    if (categoryStr != null && !categoryStr.isEmpty()) {
-                        try {
-                            question.setCategory(QuestionCategory.valueOf(categoryStr.toUpperCase().trim()));
-                        } catch (IllegalArgumentException e) {
-                            throw new AppException(ErrorCode.EXCEL_INVALID_DATA_TYPE, "Category", categoryStr);
-                        }
-                    } else {
-                        // Đặt giá trị mặc định nếu category bị thiếu/rỗng
-                        question.setCategory(QuestionCategory.VOCABULARY);
-                        log.warn("Row {}: Category is missing/empty, defaulting to VOCABULARY.", rowNum);
+                        throw new AppException(ErrorCode.EXCEL_INVALID_DATA_TYPE, "Category", categoryStr);
                     }
+                } else {
+                    // Đặt giá trị mặc định nếu category bị thiếu/rỗng
+                    question.setCategory(QuestionCategory.VOCABULARY);
+                    log.warn("Row {}: Category is missing/empty, defaulting to VOCABULARY.", rowNum);
+                }
 
 
-                    // Lấy các giá trị tùy chọn dựa trên QuestionType
-                    if (question.getQuestionType() == QuestionType.MULTIPLE_CHOICE) {
-                        question.setOptionA(getStringCellValue(currentRow, headerMap.get(HEADER_OPTION_A), rowNum, "OptionA", false));
-                        question.setOptionB(getStringCellValue(currentRow, headerMap.get(HEADER_OPTION_B), rowNum, "OptionB", false));
-                        question.setOptionC(getStringCellValue(currentRow, headerMap.get(HEADER_OPTION_C), rowNum, "OptionC", false));
-                        question.setOptionD(getStringCellValue(currentRow, headerMap.get(HEADER_OPTION_D), rowNum, "OptionD", false));
-                    }
+                // Lấy các giá trị tùy chọn dựa trên QuestionType
+                if (question.getQuestionType() == QuestionType.MULTIPLE_CHOICE) {
+                    question.setOptionA(getStringCellValue(currentRow, headerMap.get(HEADER_OPTION_A), rowNum, "OptionA", false));
+                    question.setOptionB(getStringCellValue(currentRow, headerMap.get(HEADER_OPTION_B), rowNum, "OptionB", false));
+                    question.setOptionC(getStringCellValue(currentRow, headerMap.get(HEADER_OPTION_C), rowNum, "OptionC", false));
+                    question.setOptionD(getStringCellValue(currentRow, headerMap.get(HEADER_OPTION_D), rowNum, "OptionD", false));
+                }
 
-                    if (question.getQuestionType() == QuestionType.FILL) {
-                        question.setFillAnswer(getStringCellValue(currentRow, headerMap.get(HEADER_FILL_ANSWER), rowNum, "FillAnswer", false));
-                    }
+                if (question.getQuestionType() == QuestionType.FILL) {
+                    question.setFillAnswer(getStringCellValue(currentRow, headerMap.get(HEADER_FILL_ANSWER), rowNum, "FillAnswer", false));
+                }
 
-                    questionsToSave.add(question);
+                if (questionsToSave.isEmpty()) {
+                    chunkFirstRow = rowNum;
+                }
+                chunkLastRow = rowNum;
+                questionsToSave.add(question);
+                queuedCount++;
 
-                } catch (AppException e) {
-                    log.warn("Error processing row {}: {}", rowNum, e.getMessage(), e);
+            } catch (AppException e) {
+                log.warn("Error processing row {}: {}", rowNum, e.getMessage(), e);
 
-                    String formattedMessage = e.getErrorCode().getMessage(); // Lấy message thô (ví dụ: "Cột {0} không được để trống.")
+                String formattedMessage = e.getErrorCode().getMessage(); // Lấy message thô (ví dụ: "Cột {0} không được để trống.")
 
-                    // Sử dụng e.getArgs() thay vì e.getParams()
-                    if (e.getArgs() != null && e.getArgs().length > 0) {
-                        try {
-                            // MessageFormat.format sẽ thay thế {0}, {1} bằng các args
-                            formattedMessage = MessageFormat.format(formattedMessage, e.getArgs());
-                        } catch (Exception formatEx) {
-                            // Nếu format lỗi, dùng message gốc
-                            log.error("Cannot format error message: {}", e.getMessage(), formatEx);
-                            // formattedMessage vẫn là e.getErrorCode().getMessage()
-                        }
+                // Sử dụng e.getArgs() thay vì e.getParams()
+                if (e.getArgs() != null && e.getArgs().length > 0) {
+                    try {
+                        // MessageFormat.format sẽ thay thế {0}, {1} bằng các args
+                        formattedMessage = MessageFormat.format(formattedMessage, e.getArgs());
+                    } catch (Exception formatEx) {
+                        // Nếu format lỗi, dùng message gốc
+                        log.error("Cannot format error message: {}", e.getMessage(), formatEx);
+                        // formattedMessage vẫn là e.getErrorCode().getMessage()
                     }
-
-                    result.addErrorMessage(rowNum, formattedMessage);
-                } catch (Exception e) {
-                    log.error("Unexpected error processing row {}", rowNum, e);
-                    result.addErrorMessage(rowNum, "Lỗi không xác định: " + e.getMessage());
                 }
-            } // End row iteration
 
-            // 3. Batch Save to Database
-            if (!questionsToSave.isEmpty()) {
-                try {
-                    questionRepository.saveAll(questionsToSave);
-                    result.setSuccessCount(questionsToSave.size());
-                    log.info("Successfully saved {} questions from Excel.", questionsToSave.size());
-
-                } catch (Exception e) {
-                    log.error("Error during batch saving questions", e);
-                    result.setErrorMessages(new ArrayList<>());
-                    result.setFailureCount(result.getTotalRowsProcessed());
-                    result.setSuccessCount(0);
-                    result.addErrorMessage(0, "Lỗi hệ thống khi lưu dữ liệu. " + e.getMessage());
-                }
-            } else if (result.getFailureCount() == 0) {
-                if (result.getTotalRowsProcessed() == 0) {
-                    result.addErrorMessage(0, "Không tìm thấy dòng dữ liệu hợp lệ nào trong file.");
-                }
+                result.addErrorMessage(rowNum, formattedMessage);
+            } catch (Exception e) {
+                log.error("Unexpected error processing row {}", rowNum, e);
+                result.addErrorMessage(rowNum, "Lỗi không xác định: " + e.getMessage());
             }
 
-        } // End try-with-resources
+            if (questionsToSave.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
 
-        log.info("Question Excel processing finished. Total: {}, Success: {}, Failure: {}",
-                result.getTotalRowsProcessed(), result.getSuccessCount(), result.getFailureCount());
-        return result;
+        // Lưu một lô; lỗi chỉ làm hỏng các dòng trong lô này
+        void flush() {
+            if (questionsToSave.isEmpty()) {
+                return;
+            }
+            List<Question> batch = questionsToSave;
+            List<Question> saved = new ArrayList<>();
+            try {
+                // Checkpoint tới dòng cuối đã đọc (không phải chunkLastRow): các dòng lỗi sau câu hợp lệ cuối
+                // đã nằm trong result, chạy lại từ chunkLastRow sẽ tính chúng hai lần
+                int savedRows = checkpoint.commit(rowNum, () -> {
+                    saved.addAll(questionRepository.batchInsert(batch));
+                    return batch.size();
+                }, result);
+                // Chỉ đưa vào cache khi lô (và checkpoint) đã commit
+                answerKeyCache.putAll(saved);
+                result.setSuccessCount(result.getSuccessCount() + savedRows);
+                log.info("Saved {} questions from Excel (rows {}-{}).", questionsToSave.size(), chunkFirstRow, chunkLastRow);
+
+            } catch (CancellationException e) {
+                throw e; // Job nền đang dừng: không tính là lỗi của lô
+            } catch (Exception e) {
+                log.error("Error saving questions from rows {}-{}", chunkFirstRow, chunkLastRow, e);
+                result.addChunkErrorMessage(chunkFirstRow, chunkLastRow, questionsToSave.size(),
+                        "Lỗi hệ thống khi lưu dữ liệu. " + e.getMessage());
+                checkpoint.commit(rowNum, () -> 0, result);
+            } finally {
+                questionsToSave = new ArrayList<>();
+            }
+        }
     }
 
     // --- Helper Methods (Sao chép từ ExcelUploadService của bạn) ---
 
-    private Map<String, Integer> mapHeaderToIndex(Row headerRow) {
+    private Map<String, Integer> mapHeaderToIndex(ExcelSheetReader.ExcelRow headerRow) {
         Map<String, Integer> headerMap = new HashMap<>();
-        if (headerRow == null) return headerMap;
-        for (Cell cell : headerRow) {
-            if (cell != null && cell.getCellType() == CellType.STRING) {
-                String headerText = cell.getStringCellValue().toLowerCase().trim().replaceAll("\\s+", ""); // Normalize header
-                headerMap.put(headerText, cell.getColumnIndex());
+        for (ExcelSheetReader.ExcelCell cell : headerRow.cells()) {
+            if (cell.kind() == ExcelSheetReader.CellKind.STRING) {
+                String headerText = cell.text().toLowerCase().trim().replaceAll("\\s+", ""); // Normalize header
+                headerMap.put(headerText, cell.column());
 
                 // Thêm các alias (tên thay thế) cho tiêu đề cột
                 if (headerText.equals("type") || headerText.equals("loaicuahoi")) {
-                    headerMap.putIfAbsent(HEADER_TYPE, cell.getColumnIndex());
+                    headerMap.putIfAbsent(HEADER_TYPE, cell.column());
                 }
                 if (headerText.equals("noidung")) {
-                    headerMap.putIfAbsent(HEADER_CONTENT, cell.getColumnIndex());
+                    headerMap.putIfAbsent(HEADER_CONTENT, cell.column());
                 }
                 if (headerText.equals("theloai")) {
-                    headerMap.putIfAbsent(HEADER_CATEGORY, cell.getColumnIndex());
+                    headerMap.putIfAbsent(HEADER_CATEGORY, cell.column());
                 }
                 if (headerText.equals("dapandung")) {
-                    headerMap.putIfAbsent(HEADER_CORRECT_ANSWER, cell.getColumnIndex());
+                    headerMap.putIfAbsent(HEADER_CORRECT_ANSWER, cell.column());
                 }
                 if (headerText.equals("dapandien")) {
-                    headerMap.putIfAbsent(HEADER_FILL_ANSWER, cell.getColumnIndex());
+                    headerMap.putIfAbsent(HEADER_FILL_ANSWER, cell.column());
                 }
                 if (headerText.equals("a")) {
-                    headerMap.putIfAbsent(HEADER_OPTION_A, cell.getColumnIndex());
+                    headerMap.putIfAbsent(HEADER_OPTION_A, cell.column());
                 }
                 if (headerText.equals("b")) {
-                    headerMap.putIfAbsent(HEADER_OPTION_B, cell.getColumnIndex());
+                    headerMap.putIfAbsent(HEADER_OPTION_B, cell.column());
                 }
                 if (headerText.equals("c")) {
-                    headerMap.putIfAbsent(HEADER_OPTION_C, cell.getColumnIndex());
+                    headerMap.putIfAbsent(HEADER_OPTION_C, cell.column());
                 }
                 if (headerText.equals("d")) {
-                    headerMap.putIfAbsent(HEADER_OPTION_D, cell.getColumnIndex());
+                    headerMap.putIfAbsent(HEADER_OPTION_D, cell.column());
                 }
             }
         }
@@ -226,20 +292,19 @@ public class QuestionExcelUploadService implements IQuestionExcelUploadService {
     }
 
     // Helper này được giữ nguyên từ service của bạn
-    private String getStringCellValue(Row row, Integer columnIndex, int rowNum, String fieldName, boolean isRequired) throws AppException {
+    private String getStringCellValue(ExcelSheetReader.ExcelRow row, Integer columnIndex, int rowNum, String fieldName, boolean isRequired) throws AppException {
         if (columnIndex == null) {
             if (isRequired) throw new AppException(ErrorCode.EXCEL_MISSING_HEADER, fieldName);
             return null; // Trả về null cho trường không bắt buộc
         }
-        Cell cell = row.getCell(columnIndex, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
+        ExcelSheetReader.ExcelCell cell = row.getCell(columnIndex);
 
-        if (cell == null || cell.getCellType() == CellType.BLANK) {
+        if (cell == null) {
             if (isRequired) throw new AppException(ErrorCode.INVALID_COLUMN, fieldName); // Cần mã lỗi phù hợp
             return null; // Trả về null cho trường không bắt buộc
         }
 
-        DataFormatter formatter = new DataFormatter();
-        String cellValue = formatter.formatCellValue(cell).trim();
+        String cellValue = cell.text().trim();
 
         if (isRequired && cellValue.isEmpty()) {
             throw new AppException(ErrorCode.INVALID_COLUMN, fieldName); // Cần mã lỗi phù hợp
@@ -247,14 +312,4 @@ public class QuestionExcelUploadService implements IQuestionExcelUploadService {
 
         return cellValue.isEmpty() ? null : cellValue; // Trả về null nếu giá trị là rỗng sau khi trim
     }
-
-    // Helper này được giữ nguyên từ service của bạn
-    private boolean isRowEmpty(Row row) {
-        if (row == null) return true;
-        for (int c = row.getFirstCellNum(); c < row.getLastCellNum(); c++) {
-            Cell cell = row.getCell(c, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-            if (cell != null && cell.getCellType() != CellType.BLANK) return false;
-        }
-        return true;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,128 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.repository.projection.QuestionExportRow;
+import com.ktnl.fapanese.service.interfaces.IQuestionExportService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Export toàn bộ ngân hàng câu hỏi ra CSV / XLSX với bộ nhớ không đổi theo số dòng:
+ * dữ liệu được stream từ DB (QuestionRepository.streamAllForExport) và ghi thẳng ra output.
+ *
+ * Tiêu đề cột trùng với file import của QuestionExcelUploadService (thêm id, lessonPartId),
+ * nên file export có thể import lại ở campus khác.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class QuestionExportService implements IQuestionExportService {
+    static final String[] HEADERS = {
+            "id", "content", "category", "questionType",
+            "optionA", "optionB", "optionC", "optionD",
+            "correctAnswer", "fillAnswer", "lessonPartId"
+    };
+
+    // Số dòng XLSX giữ trong RAM; các dòng cũ hơn được SXSSF đẩy xuống file tạm
+    static final int XLSX_ROW_WINDOW = 100;
+
+    QuestionRepository questionRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCsv(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write('\uFEFF'); // BOM để Excel mở đúng tiếng Nhật / tiếng Việt
+        writeCsvLine(writer, HEADERS);
+
+        try (Stream<QuestionExportRow> rows = questionRepository.streamAllForExport()) {
+            Iterator<QuestionExportRow> it = rows.iterator();
+            while (it.hasNext())
+                writeCsvLine(writer, values(it.next()));
+        }
+        writer.flush();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportXlsx(OutputStream output) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try (workbook; Stream<QuestionExportRow> rows = questionRepository.streamAllForExport()) {
+            Sheet sheet = workbook.createSheet("questions");
+            writeXlsxRow(sheet.createRow(0), HEADERS);
+
+            int rowIndex = 1;
+            Iterator<QuestionExportRow> it = rows.iterator();
+            while (it.hasNext())
+                writeXlsxRow(sheet.createRow(rowIndex++), values(it.next()));
+
+            workbook.write(output);
+        } finally {
+            if (!workbook.dispose())
+                log.warn("Could not delete SXSSF temp files for question export");
+        }
+    }
+
+    private static String[] values(QuestionExportRow row) {
+        return new String[]{
+                toText(row.id()), row.content(), toText(row.category()), toText(row.questionType()),
+                row.optionA(), row.optionB(), row.optionC(), row.optionD(),
+                row.correctAnswer(), row.fillAnswer(), toText(row.lessonPartId())
+        };
+    }
+
+    private static String toText(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static void writeXlsxRow(Row row, String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null)
+                row.createCell(i).setCellValue(values[i]);
+        }
+    }
+
+    private static void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                writer.write(',');
+            writeCsvField(writer, values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * RFC 4180: bọc trong dấu nháy kép nếu có dấu phẩy / nháy / xuống dòng, nháy kép nhân đôi.
+     */
+    static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty())
+            return;
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
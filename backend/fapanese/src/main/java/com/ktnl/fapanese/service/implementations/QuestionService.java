@@ -1,7 +1,10 @@
 package com.ktnl.fapanese.service.implementations;
 
+import com.ktnl.fapanese.dto.request.QuestionFilterRequest;
 import com.ktnl.fapanese.dto.request.QuestionRequest;
 import com.ktnl.fapanese.dto.request.UserAnswer;
+import com.ktnl.fapanese.dto.response.CursorPageResponse;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.dto.response.QuestionCheckResponse;
 import com.ktnl.fapanese.dto.response.QuestionResponse;
 import com.ktnl.fapanese.dto.response.SubmitQuizResponse;
@@ -14,12 +17,18 @@ import com.ktnl.fapanese.mapper.QuestionMapper;
 import com.ktnl.fapanese.repository.LessonPartRepository;
 import com.ktnl.fapanese.repository.LessonRepository;
 import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.repository.specification.QuestionSpecifications;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService.AnswerKey;
 import com.ktnl.fapanese.service.interfaces.IQuestionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +38,10 @@ public class QuestionService implements IQuestionService {
     private final LessonRepository lessonRepository;
     private final QuestionMapper questionMapper;
     private final LessonPartRepository lessonPartRepository;
+    private final IAnswerKeyCacheService answerKeyCache;
+
+    private static final int DEFAULT_SCAN_LIMIT = 200;
+    private static final int MAX_SCAN_LIMIT = 1000;
 
 
     @Override
@@ -44,6 +57,7 @@ public class QuestionService implements IQuestionService {
         question.setLessonPart(lessonPart);
 
         Question saved = questionRepository.save(question);
+        answerKeyCache.put(saved);
         return questionMapper.toQuestionResponse(saved);
     }
 
@@ -56,6 +70,32 @@ public class QuestionService implements IQuestionService {
                 .collect(Collectors.toList());
     }
 
+    // Chỉ đọc đúng một trang (LIMIT/OFFSET + COUNT), điều kiện lọc nằm trong SQL
+    @Override
+    public PageResponse<QuestionResponse> searchQuestions(QuestionFilterRequest filter, Pageable pageable) {
+        return PageResponse.from(questionRepository.findAll(QuestionSpecifications.filter(filter), pageable)
+                .map(questionMapper::toQuestionResponse));
+    }
+
+    /**
+     * Quét cả ngân hàng câu hỏi theo keyset (id > after). Đọc dư một dòng để biết còn trang sau
+     * hay không, không cần COUNT.
+     */
+    @Override
+    public CursorPageResponse<QuestionResponse> scanQuestions(Long after, Integer limit, QuestionCategory category, Long lessonPartId) {
+        int size = Math.clamp(limit == null ? DEFAULT_SCAN_LIMIT : limit, 1, MAX_SCAN_LIMIT);
+        List<Question> rows = questionRepository.findNextPage(after == null ? 0L : after,
+                category, lessonPartId, Limit.of(size + 1));
+
+        boolean hasMore = rows.size() > size;
+        List<Question> page = hasMore ? rows.subList(0, size) : rows;
+        return CursorPageResponse.<QuestionResponse>builder()
+                .items(questionMapper.toQuestionResponseList(page))
+                .nextCursor(page.isEmpty() ? null : page.get(page.size() - 1).getId())
+                .hasMore(hasMore)
+                .build();
+    }
+
     @Override
     public QuestionResponse getQuestionById(Long id) {
         Question question = questionRepository.findById(id)
@@ -77,6 +117,7 @@ public class QuestionService implements IQuestionService {
         }
 
         Question updated = questionRepository.save(question);
+        answerKeyCache.put(updated);
         return questionMapper.toQuestionResponse(updated);
     }
 
@@ -87,6 +128,7 @@ public class QuestionService implements IQuestionService {
             throw new AppException(ErrorCode.QUESTION_NOT_FOUND);
         }
         questionRepository.deleteById(id);
+        answerKeyCache.evict(id);
     }
 
     // ✅ Các method mới
@@ -110,54 +152,39 @@ public class QuestionService implements IQuestionService {
             throw new AppException(ErrorCode.INVALID_INPUT);
         }
 
-        List<QuestionCheckResponse> detailedResults = new ArrayList<>();
+        // Đáp án lấy từ cache trong bộ nhớ, chỉ query MySQL cho id chưa có trong cache
+        Map<Long, AnswerKey> answerKeys = answerKeyCache.getAll(userAnswers.stream()
+                .map(UserAnswer::getQuestionId)
+                .toList());
+
+        List<QuestionCheckResponse> detailedResults = new ArrayList<>(userAnswers.size());
         int correctCount = 0;
 
         for (UserAnswer userAnswer : userAnswers) {
-            Question question = questionRepository.findById(userAnswer.getQuestionId())
-                    .orElseThrow(() -> new AppException(ErrorCode.QUESTION_NOT_FOUND));
-
-            String questionType = question.getQuestionType().name();
-            String storedAnswer;
-            boolean isCorrect = false;
-
-            if ("MULTIPLE_CHOICE".equalsIgnoreCase(questionType)) {
-                storedAnswer = question.getCorrectAnswer();
-                if (storedAnswer != null && storedAnswer.equalsIgnoreCase(userAnswer.getUserAnswer())) {
-                    isCorrect = true;
-                }
-            } else if ("FILL".equalsIgnoreCase(questionType)) {
-                storedAnswer = question.getFillAnswer();
-                if (storedAnswer != null && storedAnswer.trim().equalsIgnoreCase(userAnswer.getUserAnswer().trim())) {
-                    isCorrect = true;
-                }
-            } else {
-                storedAnswer = "UNKNOWN_TYPE";
-                isCorrect = false;
+            AnswerKey answerKey = answerKeys.get(userAnswer.getQuestionId());
+            if (answerKey == null) {
+                throw new AppException(ErrorCode.QUESTION_NOT_FOUND);
             }
 
+            boolean isCorrect = answerKey.matches(userAnswer.getUserAnswer());
             if (isCorrect) {
                 correctCount++;
             }
 
             detailedResults.add(QuestionCheckResponse.builder()
-                    .questionId(question.getId())
-                    .questionType(questionType)
+                    .questionId(answerKey.questionId())
+                    .questionType(answerKey.questionTypeName())
                     .isCorrect(isCorrect)
                     .userAnswer(userAnswer.getUserAnswer())
-                    .correctAnswer(storedAnswer)
+                    .correctAnswer(answerKey.expectedAnswer())
                     .build());
         }
 
-        Long lessonPartId = null;
-        if (!userAnswers.isEmpty()) {
-            Question firstQuestion = questionRepository.findById(userAnswers.get(0).getQuestionId())
-                    .orElseThrow(() -> new AppException(ErrorCode.QUESTION_NOT_FOUND));
-            lessonPartId = firstQuestion.getLessonPart().getId();
-        }
+        // Tổng số câu tính theo lessonPart của câu đầu tiên
+        Long lessonPartId = answerKeys.get(userAnswers.get(0).getQuestionId()).lessonPartId();
 
         long totalQuestions = (lessonPartId != null)
-                ? questionRepository.countByLessonPartId(lessonPartId)
+                ? answerKeyCache.countByLessonPart(lessonPartId)
                 : userAnswers.size();
 
 
@@ -0,0 +1,63 @@
+package com.ktnl.fapanese.service.implementations;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Các thuật toán bốc / xáo ngẫu nhiên dùng chung cho việc tạo đề.
+ * Chỉ phụ thuộc vào RandomGenerator truyền vào, nên cùng seed luôn cho cùng kết quả.
+ */
+final class RandomSampling {
+
+    private RandomSampling() {
+    }
+
+    /**
+     * Chọn min(k, n) phần tử khác nhau, đều ngẫu nhiên, theo thứ tự bốc được.
+     * Fisher–Yates chỉ chạy k bước đầu; các vị trí đã đổi chỗ ghi vào một map nhỏ
+     * thay vì hoán vị trên bản copy của cả mảng.
+     */
+    static long[] sample(long[] pool, int k, RandomGenerator random) {
+        int n = pool.length;
+        int count = Math.max(0, Math.min(k, n));
+        long[] result = new long[count];
+        Map<Integer, Integer> swapped = new HashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(n - i);
+            int atJ = swapped.getOrDefault(j, j);
+            swapped.put(j, swapped.getOrDefault(i, i));
+            result[i] = pool[atJ];
+        }
+        return result;
+    }
+
+    /**
+     * Xáo trộn tại chỗ (Fisher–Yates).
+     */
+    static void shuffle(long[] values, RandomGenerator random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    /**
+     * Hoán vị ngẫu nhiên của 0..n-1.
+     */
+    static byte[] permutation(int n, RandomGenerator random) {
+        byte[] order = new byte[n];
+        for (int i = 0; i < n; i++)
+            order[i] = (byte) i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,91 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.entity.InvalidatedToken;
+import com.ktnl.fapanese.repository.InvalidatedTokenRepository;
+import com.ktnl.fapanese.service.interfaces.IJwtCacheService;
+import com.ktnl.fapanese.service.interfaces.IRevokedTokenService;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Danh sách token đã bị thu hồi (logout / refresh), giữ trong bộ nhớ để
+ * verifyToken kiểm tra O(1) mà không phải truy vấn MySQL ở mỗi request.
+ *
+ * - Khi khởi động: load các jti còn hiệu lực từ bảng invalidated_token.
+ * - Khi revoke: ghi xuống DB rồi cập nhật set trong bộ nhớ (write-through).
+ * - Định kỳ: xóa các dòng đã hết hạn ở cả DB lẫn bộ nhớ.
+ *
+ * Một token chỉ được coi là "hết hạn hẳn" sau exp + REFRESHABLE_DURATION,
+ * vì trong khoảng đó nó vẫn có thể được dùng để refresh.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RevokedTokenService implements IRevokedTokenService {
+    InvalidatedTokenRepository invalidatedTokenRepository;
+    IJwtCacheService jwtCacheService;
+
+    // jti -> expiryTime (epoch millis)
+    Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    @NonFinal
+    @Value("${jwt.refreshable-duration}")
+    protected long REFRESHABLE_DURATION;
+
+    @PostConstruct
+    void loadRevokedTokens() {
+        invalidatedTokenRepository.findAllByExpiryTimeAfter(retentionCutoff())
+                .forEach(token -> revokedTokens.put(token.getId(), token.getExpiryTime().getTime()));
+
+        log.info("Loaded {} revoked tokens into memory", revokedTokens.size());
+    }
+
+    @Override
+    public void revoke(String jti, Date expiryTime) {
+        invalidatedTokenRepository.save(InvalidatedToken.builder()
+                .id(jti)
+                .expiryTime(expiryTime)
+                .build());
+
+        revokedTokens.put(jti, expiryTime.getTime());
+
+        // Token có thể đang nằm trong cache của CustomJwtDecoder → xóa ngay
+        jwtCacheService.evictByJti(jti);
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        return jti != null && revokedTokens.containsKey(jti);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:3600000}")
+    public int purgeExpired() {
+        Date cutoff = retentionCutoff();
+
+        int deleted = invalidatedTokenRepository.deleteAllExpiredBefore(cutoff);
+        revokedTokens.values().removeIf(expiry -> expiry < cutoff.getTime());
+
+        if (deleted > 0)
+            log.info("Purged {} expired revoked tokens", deleted);
+        return deleted;
+    }
+
+    private Date retentionCutoff() {
+        return Date.from(Instant.now().minus(REFRESHABLE_DURATION, ChronoUnit.SECONDS));
+    }
+}
@@ -1,6 +1,8 @@
 package com.ktnl.fapanese.service.implementations;
 
+import com.ktnl.fapanese.dto.request.SpeakingExamFilterRequest;
 import com.ktnl.fapanese.dto.request.SpeakingExamRequest;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.dto.response.SpeakingExamResponse;
 import com.ktnl.fapanese.dto.response.SpeakingRespone;
 import com.ktnl.fapanese.dto.response.SpeakingTestItemResponse;
@@ -17,18 +19,25 @@ import com.ktnl.fapanese.repository.OverviewPartRepository;
 import com.ktnl.fapanese.repository.SpeakingExamRepository;
 import com.ktnl.fapanese.repository.SpeakingQuestionRepository;
 import com.ktnl.fapanese.repository.SpeakingRepository;
+import com.ktnl.fapanese.repository.specification.SpeakingExamSpecifications;
 import com.ktnl.fapanese.service.interfaces.ISpeakingExamService;
+import com.ktnl.fapanese.service.interfaces.ISpeakingSamplerService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -44,6 +53,7 @@ public class SpeakingExamService implements ISpeakingExamService {
     SpeakingQuestionMapper speakingQuestionMapper;
     SpeakingTestItemMapper speakingTestItemMapper;
     SpeakingTestQuestionMapper speakingTestQuestionMapper;
+    ISpeakingSamplerService speakingSampler;
 
     // READ (All)
     @Override
@@ -53,6 +63,13 @@ public class SpeakingExamService implements ISpeakingExamService {
         return speakingExamMapper.toSpeakingExamResponseList(exams);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<SpeakingExamResponse> searchSpeakingExams(SpeakingExamFilterRequest filter, Pageable pageable) {
+        return PageResponse.from(speakingExamRepository.findAll(SpeakingExamSpecifications.filter(filter), pageable)
+                .map(speakingExamMapper::toSpeakingExamResponse));
+    }
+
     // READ (By Id)
     @Override
     @Transactional(readOnly = true) // 👈 Quan trọng để load lazy 'speakings'
@@ -90,6 +107,7 @@ public class SpeakingExamService implements ISpeakingExamService {
             OverviewPart overviewPart = overviewPartRepository.findById(request.getOverviewPartId())
                     .orElseThrow(() -> new AppException(ErrorCode.OVERVIEW_PART_NOT_FOUND));
             existingExam.setOverviewPart(overviewPart);
+            speakingSampler.invalidate(); // Các Speaking của đề chuyển sang pool của overviewPart mới
         }
 
         SpeakingExam updatedExam = speakingExamRepository.save(existingExam);
@@ -105,6 +123,7 @@ public class SpeakingExamService implements ISpeakingExamService {
         // Do 'cascade = CascadeType.ALL, orphanRemoval = true'
         // Xóa 'SpeakingExam' sẽ tự động xóa tất cả 'Speaking' liên quan
         speakingExamRepository.delete(exam);
+        speakingSampler.invalidate();
     }
 
     @Override
@@ -133,34 +152,64 @@ public class SpeakingExamService implements ISpeakingExamService {
 
     }
 
+    /**
+     * Bốc id từ pool trong bộ nhớ, sau đó lấy entity bằng đúng 2 query theo khóa chính
+     * (một cho 3 Speaking, một cho các câu hỏi) thay vì 5 query ORDER BY RAND().
+     */
     @Override
+    @Transactional(readOnly = true)
     public SpeakingTestResponse generateRandomSpeakingTest(Long overviewPartId) {
-        Speaking passageSpeaking = speakingRepository.findRandomSpeakingByPartIdAndType(overviewPartId, SpeakingType.PASSAGE.name())
-                .orElseThrow(() -> new AppException(ErrorCode.OVERVIEW_PART_NOT_FOUND));
-
-        Speaking pictureSpeaking = speakingRepository.findRandomSpeakingByPartIdAndType(overviewPartId, SpeakingType.PICTURE.name())
-                .orElseThrow(() -> new AppException(ErrorCode.OVERVIEW_PART_NOT_FOUND));
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Long passageId = pickSpeaking(overviewPartId, SpeakingType.PASSAGE);
+            Long pictureId = pickSpeaking(overviewPartId, SpeakingType.PICTURE);
+            Long questionId = pickSpeaking(overviewPartId, SpeakingType.QUESTION);
+
+            List<Long> pictureQuestionIds = speakingSampler.pickQuestions(pictureId, 1);
+            List<Long> noPictureQuestionIds = speakingSampler.pickQuestions(questionId, 2);
+            List<Long> questionIds = new ArrayList<>(pictureQuestionIds);
+            questionIds.addAll(noPictureQuestionIds);
+
+            Map<Long, Speaking> speakings = speakingRepository.findAllById(List.of(passageId, pictureId, questionId))
+                    .stream()
+                    .collect(Collectors.toMap(Speaking::getId, Function.identity()));
+            Map<Long, SpeakingQuestion> questions = questionIds.isEmpty() ? Map.of()
+                    : speakingQuestionRepository.findAllById(questionIds).stream()
+                            .collect(Collectors.toMap(SpeakingQuestion::getId, Function.identity()));
+
+            // Pool còn id đã bị xóa khỏi DB (ví dụ xóa thẳng trong MySQL) → nạp lại rồi bốc lại một lần
+            if (speakings.size() < 3 || !questions.keySet().containsAll(questionIds)) {
+                if (attempt == 0) {
+                    log.warn("Speaking pool is stale for overviewPart {}, reloading", overviewPartId);
+                    speakingSampler.reload();
+                }
+                continue;
+            }
 
-        Speaking questionSpeaking = speakingRepository.findRandomSpeakingByPartIdAndType(overviewPartId, SpeakingType.QUESTION.name())
-                .orElseThrow(() -> new AppException(ErrorCode.OVERVIEW_PART_NOT_FOUND));
+            SpeakingTestItemResponse passageSpeakingRes = speakingTestItemMapper.toSpeakingTestItemResponse(speakings.get(passageId));
 
-        List<SpeakingQuestion> pictureQuestion = speakingQuestionRepository.findRandomQuestionsForSpeaking(pictureSpeaking.getId(), 1);
-        List<SpeakingQuestion> noPictureQuestion = speakingQuestionRepository.findRandomQuestionsForSpeaking(questionSpeaking.getId(), 2);
+            SpeakingTestItemResponse pictureSpeakingRes = speakingTestItemMapper.toSpeakingTestItemResponse(speakings.get(pictureId));
+            pictureSpeakingRes.setQuestions(
+                   speakingTestQuestionMapper.toSpeakingQuestionResponseList(inPickedOrder(questions, pictureQuestionIds))
+            );
 
-        SpeakingTestItemResponse passageSpeakingRes = speakingTestItemMapper.toSpeakingTestItemResponse(passageSpeaking);
+            SpeakingTestItemResponse questionSpeakingRes = speakingTestItemMapper.toSpeakingTestItemResponse(speakings.get(questionId));
+            questionSpeakingRes.setQuestions(
+                    speakingTestQuestionMapper.toSpeakingQuestionResponseList(inPickedOrder(questions, noPictureQuestionIds))
+            );
 
-        SpeakingTestItemResponse pictureSpeakingRes = speakingTestItemMapper.toSpeakingTestItemResponse(pictureSpeaking);
-        pictureSpeakingRes.setQuestions(
-               speakingTestQuestionMapper.toSpeakingQuestionResponseList(pictureQuestion)
-        );
+            return new SpeakingTestResponse(passageSpeakingRes, pictureSpeakingRes, questionSpeakingRes);
+        }
+        throw new AppException(ErrorCode.OVERVIEW_PART_NOT_FOUND);
+    }
 
-        SpeakingTestItemResponse questionSpeakingRes = speakingTestItemMapper.toSpeakingTestItemResponse(questionSpeaking);
-        questionSpeakingRes.setQuestions(
-                speakingTestQuestionMapper.toSpeakingQuestionResponseList(noPictureQuestion)
-        );
+    private Long pickSpeaking(Long overviewPartId, SpeakingType type) {
+        return speakingSampler.pickSpeaking(overviewPartId, type)
+                .orElseThrow(() -> new AppException(ErrorCode.OVERVIEW_PART_NOT_FOUND));
+    }
 
-        SpeakingTestResponse speakingTest = new SpeakingTestResponse(passageSpeakingRes, pictureSpeakingRes, questionSpeakingRes);
-        return speakingTest;
+    // findAllById không đảm bảo thứ tự → xếp lại theo thứ tự đã bốc
+    private static List<SpeakingQuestion> inPickedOrder(Map<Long, SpeakingQuestion> questions, List<Long> ids) {
+        return ids.stream().map(questions::get).toList();
     }
 
     // Hàm private helper
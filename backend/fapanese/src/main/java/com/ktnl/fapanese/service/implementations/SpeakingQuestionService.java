@@ -10,6 +10,7 @@ import com.ktnl.fapanese.mapper.SpeakingQuestionMapper;
 import com.ktnl.fapanese.repository.SpeakingQuestionRepository;
 import com.ktnl.fapanese.repository.SpeakingRepository;
 import com.ktnl.fapanese.service.interfaces.ISpeakingQuestionService;
+import com.ktnl.fapanese.service.interfaces.ISpeakingSamplerService;
 import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -30,6 +31,7 @@ public class SpeakingQuestionService implements ISpeakingQuestionService {
     SpeakingQuestionRepository speakingQuestionRepository;
     SpeakingRepository speakingRepository;
     SpeakingQuestionMapper speakingQuestionMapper; // <-- Đã inject Mapper
+    ISpeakingSamplerService speakingSampler;
 
     @Override
     @Transactional
@@ -45,6 +47,7 @@ public class SpeakingQuestionService implements ISpeakingQuestionService {
 
         // 3. Lưu vào DB
         SpeakingQuestion savedQuestion = speakingQuestionRepository.save(question);
+        speakingSampler.putQuestion(savedQuestion);
         log.info("Created speaking question with id: {}", savedQuestion.getId());
 
         // 4. Map Entity -> Response DTO (dùng Mapper)
@@ -103,6 +106,7 @@ public class SpeakingQuestionService implements ISpeakingQuestionService {
 
         // 4. Lưu lại
         SpeakingQuestion updatedQuestion = speakingQuestionRepository.save(existingQuestion);
+        speakingSampler.putQuestion(updatedQuestion);
         log.info("Updated question with id: {}", updatedQuestion.getId());
 
         // 5. Trả về DTO (dùng Mapper)
@@ -117,6 +121,7 @@ public class SpeakingQuestionService implements ISpeakingQuestionService {
             throw new AppException(ErrorCode.SPEAKING_QUESTION_NOT_FOUND);
         }
         speakingQuestionRepository.deleteById(id);
+        speakingSampler.evictQuestion(id);
         log.info("Deleted question with id: {}", id);
     }
 
@@ -0,0 +1,215 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.entity.Speaking;
+import com.ktnl.fapanese.entity.SpeakingExam;
+import com.ktnl.fapanese.entity.SpeakingQuestion;
+import com.ktnl.fapanese.entity.enums.SpeakingType;
+import com.ktnl.fapanese.repository.SpeakingQuestionRepository;
+import com.ktnl.fapanese.repository.SpeakingRepository;
+import com.ktnl.fapanese.repository.projection.SpeakingPoolEntry;
+import com.ktnl.fapanese.repository.projection.SpeakingQuestionPoolEntry;
+import com.ktnl.fapanese.service.interfaces.ISpeakingSamplerService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bốc ngẫu nhiên Speaking / SpeakingQuestion cho đề thi nói mà không dùng ORDER BY RAND().
+ *
+ * - Giữ trong bộ nhớ danh sách id theo (overviewPartId, type) và theo speakingId, nạp một lần
+ *   bằng hai query projection (chỉ id + khóa nhóm).
+ * - Bốc 1 phần tử là O(1); bốc k câu hỏi dùng Fisher–Yates từng phần (O(k), không copy mảng).
+ * - Mảng id không bao giờ bị sửa tại chỗ: CRUD tạo mảng mới rồi thay vào map, người đọc luôn
+ *   thấy một mảng hoàn chỉnh. Thay đổi lớn (sửa / xóa SpeakingExam) thì invalidate để nạp lại.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SpeakingSamplerService implements ISpeakingSamplerService {
+    private static final long[] EMPTY = new long[0];
+
+    SpeakingRepository speakingRepository;
+    SpeakingQuestionRepository speakingQuestionRepository;
+
+    @NonFinal
+    volatile Pools pools;
+
+    private record PoolKey(Long overviewPartId, SpeakingType type) {}
+
+    private record Pools(Map<PoolKey, long[]> speakings, Map<Long, PoolKey> speakingKeys,
+                         Map<Long, long[]> questions, Map<Long, Long> questionOwners) {}
+
+    @Override
+    public Optional<Long> pickSpeaking(Long overviewPartId, SpeakingType type) {
+        long[] pool = loaded().speakings().getOrDefault(new PoolKey(overviewPartId, type), EMPTY);
+        if (pool.length == 0)
+            return Optional.empty();
+        return Optional.of(pool[ThreadLocalRandom.current().nextInt(pool.length)]);
+    }
+
+    @Override
+    public List<Long> pickQuestions(Long speakingId, int quantity) {
+        long[] pool = loaded().questions().getOrDefault(speakingId, EMPTY);
+        long[] picked = RandomSampling.sample(pool, quantity, ThreadLocalRandom.current());
+        List<Long> result = new ArrayList<>(picked.length);
+        for (long id : picked)
+            result.add(id);
+        return result;
+    }
+
+    @Override
+    public synchronized void putSpeaking(Speaking speaking) {
+        Pools current = pools;
+        if (current == null || speaking == null || speaking.getId() == null)
+            return;
+
+        PoolKey oldKey = current.speakingKeys().get(speaking.getId());
+        PoolKey newKey = keyOf(speaking);
+        if (Objects.equals(oldKey, newKey))
+            return;
+
+        if (oldKey != null) {
+            current.speakingKeys().remove(speaking.getId());
+            current.speakings().computeIfPresent(oldKey, (k, ids) -> without(ids, speaking.getId()));
+        }
+        if (newKey != null) {
+            current.speakingKeys().put(speaking.getId(), newKey);
+            current.speakings().merge(newKey, new long[]{speaking.getId()}, SpeakingSamplerService::concat);
+        }
+    }
+
+    @Override
+    public synchronized void evictSpeaking(Long speakingId) {
+        Pools current = pools;
+        if (current == null || speakingId == null)
+            return;
+
+        PoolKey key = current.speakingKeys().remove(speakingId);
+        if (key != null)
+            current.speakings().computeIfPresent(key, (k, ids) -> without(ids, speakingId));
+
+        // Xóa Speaking thì câu hỏi con bị xóa theo (cascade)
+        long[] questionIds = current.questions().remove(speakingId);
+        if (questionIds != null) {
+            for (long id : questionIds)
+                current.questionOwners().remove(id);
+        }
+    }
+
+    @Override
+    public synchronized void putQuestion(SpeakingQuestion question) {
+        Pools current = pools;
+        if (current == null || question == null || question.getId() == null)
+            return;
+
+        Long oldOwner = current.questionOwners().get(question.getId());
+        Long newOwner = question.getSpeaking() == null ? null : question.getSpeaking().getId();
+        if (Objects.equals(oldOwner, newOwner))
+            return;
+
+        if (oldOwner != null) {
+            current.questionOwners().remove(question.getId());
+            current.questions().computeIfPresent(oldOwner, (k, ids) -> without(ids, question.getId()));
+        }
+        if (newOwner != null) {
+            current.questionOwners().put(question.getId(), newOwner);
+            current.questions().merge(newOwner, new long[]{question.getId()}, SpeakingSamplerService::concat);
+        }
+    }
+
+    @Override
+    public synchronized void evictQuestion(Long questionId) {
+        Pools current = pools;
+        if (current == null || questionId == null)
+            return;
+
+        Long owner = current.questionOwners().remove(questionId);
+        if (owner != null)
+            current.questions().computeIfPresent(owner, (k, ids) -> without(ids, questionId));
+    }
+
+    @Override
+    public synchronized void reload() {
+        List<SpeakingPoolEntry> speakingRows = speakingRepository.findAllPoolEntries();
+        List<SpeakingQuestionPoolEntry> questionRows = speakingQuestionRepository.findAllPoolEntries();
+
+        Map<PoolKey, List<Long>> speakingGroups = new HashMap<>();
+        Map<Long, PoolKey> speakingKeys = new ConcurrentHashMap<>();
+        for (SpeakingPoolEntry row : speakingRows) {
+            if (row.overviewPartId() == null || row.type() == null)
+                continue;
+            PoolKey key = new PoolKey(row.overviewPartId(), row.type());
+            speakingGroups.computeIfAbsent(key, k -> new ArrayList<>()).add(row.id());
+            speakingKeys.put(row.id(), key);
+        }
+
+        Map<Long, List<Long>> questionGroups = new HashMap<>();
+        Map<Long, Long> questionOwners = new ConcurrentHashMap<>();
+        for (SpeakingQuestionPoolEntry row : questionRows) {
+            questionGroups.computeIfAbsent(row.speakingId(), k -> new ArrayList<>()).add(row.id());
+            questionOwners.put(row.id(), row.speakingId());
+        }
+
+        pools = new Pools(toArrays(speakingGroups), speakingKeys, toArrays(questionGroups), questionOwners);
+        log.info("Loaded speaking pools: {} speakings in {} groups, {} questions",
+                speakingKeys.size(), speakingGroups.size(), questionOwners.size());
+    }
+
+    @Override
+    public void invalidate() {
+        pools = null;
+    }
+
+    private Pools loaded() {
+        Pools current = pools;
+        if (current != null)
+            return current;
+
+        synchronized (this) {
+            if (pools == null)
+                reload();
+            return pools;
+        }
+    }
+
+    private static PoolKey keyOf(Speaking speaking) {
+        SpeakingExam exam = speaking.getSpeakingExam();
+        if (exam == null || exam.getOverviewPart() == null || speaking.getType() == null)
+            return null;
+        return new PoolKey(exam.getOverviewPart().getId(), speaking.getType());
+    }
+
+    private static <K> Map<K, long[]> toArrays(Map<K, List<Long>> groups) {
+        Map<K, long[]> arrays = new ConcurrentHashMap<>();
+        groups.forEach((key, ids) -> arrays.put(key, ids.stream().mapToLong(Long::longValue).toArray()));
+        return arrays;
+    }
+
+    private static long[] concat(long[] ids, long[] added) {
+        long[] result = Arrays.copyOf(ids, ids.length + added.length);
+        System.arraycopy(added, 0, result, ids.length, added.length);
+        return result;
+    }
+
+    private static long[] without(long[] ids, long removed) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == removed) {
+                if (ids.length == 1)
+                    return null; // computeIfPresent: bỏ luôn nhóm rỗng
+                long[] result = new long[ids.length - 1];
+                System.arraycopy(ids, 0, result, 0, i);
+                System.arraycopy(ids, i + 1, result, i, ids.length - i - 1);
+                return result;
+            }
+        }
+        return ids;
+    }
+}
@@ -8,9 +8,11 @@ import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
 import com.ktnl.fapanese.mapper.SpeakingMapper;
 import com.ktnl.fapanese.repository.SpeakingRepository;
+import com.ktnl.fapanese.service.interfaces.ISpeakingSamplerService;
 import com.ktnl.fapanese.service.interfaces.ISpeakingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Comparator;
 import java.util.List;
@@ -21,12 +23,15 @@ import java.util.stream.Collectors;
 public class SpeakingService implements ISpeakingService {
     private final SpeakingRepository speakingRepository;
     private final SpeakingMapper speakingMapper;
+    private final ISpeakingSamplerService speakingSampler;
 
 
     @Override
+    @Transactional
     public SpeakingRespone createSpeaking(SpeakingRequest request) {
         Speaking speaking = speakingMapper.toSpeaking(request);
         Speaking saved =  speakingRepository.save(speaking);
+        speakingSampler.putSpeaking(saved);
         return speakingMapper.toSpeakingResponse(saved);
     }
 
@@ -46,11 +51,13 @@ public class SpeakingService implements ISpeakingService {
     }
 
     @Override
+    @Transactional
     public SpeakingRespone updateSpeaking(Long id,SpeakingRequest request) {
         Speaking speaking = speakingRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.SPEAKING_NOT_FOUND));
         speakingMapper.updateSpeaking(speaking, request);
         Speaking saved = speakingRepository.save(speaking);
+        speakingSampler.putSpeaking(saved); // type có thể đã đổi → chuyển sang pool khác
 
         return speakingMapper.toSpeakingResponse(saved);
     }
@@ -61,6 +68,7 @@ public class SpeakingService implements ISpeakingService {
             throw new AppException(ErrorCode.SPEAKING_NOT_FOUND);
         }
         speakingRepository.deleteById(id);
+        speakingSampler.evictSpeaking(id);
     }
 
     @Override
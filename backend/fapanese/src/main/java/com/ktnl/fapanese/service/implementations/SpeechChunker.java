@@ -0,0 +1,106 @@
+package com.ktnl.fapanese.service.implementations;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gom các đoạn text mà LLM stream ra thành từng câu hoàn chỉnh để đưa đi TTS.
+ *
+ * - Cắt sau dấu kết thúc câu: '.', '!', '?' (phải có khoảng trắng phía sau, tránh cắt "1." hay "3.5"),
+ *   '。', '！', '？' và xuống dòng.
+ * - Không bao giờ cắt bên trong tag [JA:...:JA]; tag chưa đóng thì chờ thêm token.
+ * - Câu quá ngắn (ví dụ "Ừ.") được gộp vào câu sau để không tốn một lần gọi TTS riêng.
+ * - Không có dấu câu mà buffer đã quá dài → cắt tại khoảng trắng cuối cùng nằm ngoài tag.
+ *
+ * Không thread-safe: mỗi lượt stream dùng một instance riêng (xem {@link #split(Flux)}).
+ */
+public class SpeechChunker {
+    static final int MIN_CHUNK_LENGTH = 12;
+    static final int MAX_CHUNK_LENGTH = 200;
+
+    private static final String JA_OPEN = "[JA:";
+    private static final String JA_CLOSE = ":JA]";
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**
+     * Chia stream token thành stream các câu; phần còn lại được đẩy ra khi stream kết thúc.
+     */
+    public static Flux<String> split(Flux<String> tokens) {
+        return Flux.defer(() -> {
+            SpeechChunker chunker = new SpeechChunker();
+            return tokens.concatMapIterable(chunker::push)
+                    .concatWith(Mono.fromSupplier(chunker::flush));
+        });
+    }
+
+    /**
+     * Thêm một đoạn text mới, trả về các câu đã hoàn chỉnh (có thể rỗng).
+     */
+    public List<String> push(String delta) {
+        buffer.append(delta);
+
+        List<String> chunks = new ArrayList<>();
+        int cut;
+        while ((cut = findCut()) > 0) {
+            String chunk = buffer.substring(0, cut).trim();
+            buffer.delete(0, cut);
+            if (!chunk.isEmpty())
+                chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * Trả về phần text còn lại trong buffer (null nếu rỗng).
+     */
+    public String flush() {
+        String rest = buffer.toString().trim();
+        buffer.setLength(0);
+        return rest.isEmpty() ? null : rest;
+    }
+
+    // Vị trí cắt (exclusive) của câu hoàn chỉnh đầu tiên trong buffer, 0 nếu chưa có
+    private int findCut() {
+        int lastSpace = 0;
+        int i = 0;
+        while (i < buffer.length()) {
+            if (startsWith(i, JA_OPEN)) {
+                int close = buffer.indexOf(JA_CLOSE, i + JA_OPEN.length());
+                if (close < 0)
+                    break; // Tag chưa đóng → chờ thêm token
+                i = close + JA_CLOSE.length();
+                continue;
+            }
+
+            char c = buffer.charAt(i);
+            if (Character.isWhitespace(c) && i < MAX_CHUNK_LENGTH)
+                lastSpace = i + 1;
+
+            if (isSentenceEnd(i) && i + 1 >= MIN_CHUNK_LENGTH)
+                return i + 1;
+            i++;
+        }
+
+        if (i >= MAX_CHUNK_LENGTH && lastSpace >= MIN_CHUNK_LENGTH)
+            return lastSpace;
+        return 0;
+    }
+
+    private boolean isSentenceEnd(int i) {
+        char c = buffer.charAt(i);
+        if (c == '\n' || c == '。' || c == '！' || c == '？')
+            return true;
+        if (c == '.' || c == '!' || c == '?')
+            return i + 1 < buffer.length() && Character.isWhitespace(buffer.charAt(i + 1));
+        return false;
+    }
+
+    private boolean startsWith(int i, String token) {
+        return buffer.length() - i >= token.length()
+                && buffer.substring(i, i + token.length()).equals(token);
+    }
+}
@@ -0,0 +1,146 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.configuration.AzureProps;
+import com.ktnl.fapanese.dto.response.SpeechRecognitionStatsResponse;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.service.interfaces.ISpeechRecognitionJobService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Chạy các phiên nhận diện giọng nói trên một worker pool riêng, tách khỏi thread của Tomcat.
+ *
+ * - Số job chạy song song và độ dài hàng đợi bị giới hạn; hàng đợi đầy → STT_BUSY (503).
+ * - Mỗi job có deadline tính từ lúc submit; quá hạn → STT_TIMEOUT (504) và worker bị interrupt
+ *   để SpeechToTextService dừng recognizer, trả slot cho job khác.
+ * - Client hủy (ví dụ đóng kết nối SSE) cũng interrupt worker theo cách tương tự.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SpeechRecognitionJobService implements ISpeechRecognitionJobService {
+    AzureProps props;
+    SpeechToTextService speechToTextService;
+
+    AtomicLong completed = new AtomicLong();
+    AtomicLong failed = new AtomicLong();
+    AtomicLong rejected = new AtomicLong();
+    AtomicLong timedOut = new AtomicLong();
+    AtomicLong totalQueueWaitNanos = new AtomicLong();
+    AtomicLong totalProcessingNanos = new AtomicLong();
+    AtomicLong maxProcessingNanos = new AtomicLong();
+    AtomicLong startedJobs = new AtomicLong();
+    AtomicLong finishedJobs = new AtomicLong();
+
+    @NonFinal
+    ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        int parallelism = Math.max(1, props.getSpeech().getSttParallelism());
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, props.getSpeech().getSttQueueCapacity())),
+                new CustomizableThreadFactory("stt-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public CompletableFuture<String> submit(byte[] audio) {
+        long submittedAt = System.nanoTime();
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        Future<?> task;
+        try {
+            task = executor.submit(() -> runJob(audio, submittedAt, result));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            log.warn("STT queue is full ({} queued), rejecting job", executor.getQueue().size());
+            return CompletableFuture.failedFuture(new AppException(ErrorCode.STT_BUSY));
+        }
+
+        // Quá hạn → báo lỗi cho client ngay, không chờ Azure trả về
+        CompletableFuture.delayedExecutor(props.getSpeech().getSttTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .execute(() -> {
+                    if (finish(timedOut, () -> result.completeExceptionally(new AppException(ErrorCode.STT_TIMEOUT))))
+                        log.warn("STT job timed out after {}", props.getSpeech().getSttTimeout());
+                });
+
+        // Timeout hoặc client hủy → interrupt worker (hoặc bỏ job nếu còn trong hàng đợi)
+        result.whenComplete((text, ex) -> {
+            if (ex != null)
+                task.cancel(true);
+        });
+        return result;
+    }
+
+    private void runJob(byte[] audio, long submittedAt, CompletableFuture<String> result) {
+        if (result.isDone())
+            return; // Đã timeout / bị hủy trong lúc chờ
+
+        long startedAt = System.nanoTime();
+        startedJobs.incrementAndGet();
+        totalQueueWaitNanos.addAndGet(startedAt - submittedAt);
+
+        try {
+            String text = speechToTextService.transcribeWav(audio);
+            finish(completed, () -> result.complete(text));
+        } catch (Exception e) {
+            finish(failed, () -> result.completeExceptionally(e));
+        } finally {
+            long elapsed = System.nanoTime() - startedAt;
+            totalProcessingNanos.addAndGet(elapsed);
+            maxProcessingNanos.accumulateAndGet(elapsed, Math::max);
+            finishedJobs.incrementAndGet();
+        }
+    }
+
+    /**
+     * Đếm trước rồi mới complete, để client nhận kết quả là thấy thống kê đã cập nhật;
+     * nếu future đã được complete ở nơi khác (timeout / job xong trước) thì trả lại số đếm.
+     */
+    private boolean finish(AtomicLong counter, BooleanSupplier complete) {
+        counter.incrementAndGet();
+        if (complete.getAsBoolean())
+            return true;
+        counter.decrementAndGet();
+        return false;
+    }
+
+    @Override
+    public SpeechRecognitionStatsResponse getStats() {
+        long started = startedJobs.get();
+        long finished = finishedJobs.get();
+
+        return SpeechRecognitionStatsResponse.builder()
+                .parallelism(executor.getMaximumPoolSize())
+                .activeJobs(executor.getActiveCount())
+                .queueDepth(executor.getQueue().size())
+                .queueCapacity(executor.getQueue().size() + executor.getQueue().remainingCapacity())
+                .completed(completed.get())
+                .failed(failed.get())
+                .rejected(rejected.get())
+                .timedOut(timedOut.get())
+                .avgQueueWaitMs(started == 0 ? 0 : totalQueueWaitNanos.get() / 1e6 / started)
+                .avgProcessingMs(finished == 0 ? 0 : totalProcessingNanos.get() / 1e6 / finished)
+                .maxProcessingMs(TimeUnit.NANOSECONDS.toMillis(maxProcessingNanos.get()))
+                .build();
+    }
+}
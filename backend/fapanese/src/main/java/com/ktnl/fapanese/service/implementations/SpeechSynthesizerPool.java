@@ -0,0 +1,171 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.configuration.AzureProps;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.microsoft.cognitiveservices.speech.Connection;
+import com.microsoft.cognitiveservices.speech.SpeechConfig;
+import com.microsoft.cognitiveservices.speech.SpeechSynthesisOutputFormat;
+import com.microsoft.cognitiveservices.speech.SpeechSynthesizer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool các SpeechSynthesizer đã khởi tạo sẵn, chia theo (voice, output format).
+ *
+ * - Mỗi key dùng chung MỘT SpeechConfig thay vì gọi SpeechConfig.fromSubscription ở mỗi request.
+ * - borrow/release: một synthesizer chỉ được một request dùng tại một thời điểm; tối đa
+ *   tts-pool-size synthesizer mỗi key, hết chỗ thì chờ tts-borrow-timeout rồi báo TTS_BUSY.
+ * - Health check: synthesizer vừa gặp lỗi kết nối / dịch vụ, hoặc nằm không quá tts-max-idle
+ *   (Azure đã đóng websocket), sẽ bị đóng và thay bằng cái mới.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpeechSynthesizerPool {
+    private final AzureProps props;
+
+    private final Map<PoolKey, KeyedPool> pools = new ConcurrentHashMap<>();
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    public record PoolKey(String voice, SpeechSynthesisOutputFormat format) {}
+
+    private record IdleSynthesizer(SpeechSynthesizer synthesizer, Instant idleSince) {}
+
+    private class KeyedPool {
+        final PoolKey key;
+        final Semaphore permits = new Semaphore(Math.max(1, props.getSpeech().getTtsPoolSize()));
+        final LinkedBlockingDeque<IdleSynthesizer> idle = new LinkedBlockingDeque<>();
+        volatile SpeechConfig config;
+
+        KeyedPool(PoolKey key) {
+            this.key = key;
+        }
+
+        synchronized SpeechConfig config() {
+            if (config == null) {
+                SpeechConfig cfg = SpeechConfig.fromSubscription(props.getSpeech().getKey(), props.getSpeech().getRegion());
+                if (key.voice() != null)
+                    cfg.setSpeechSynthesisVoiceName(key.voice());
+                cfg.setSpeechSynthesisOutputFormat(key.format());
+                config = cfg;
+            }
+            return config;
+        }
+    }
+
+    /**
+     * Mượn một synthesizer; bắt buộc phải gọi {@link #release} trong finally.
+     */
+    public SpeechSynthesizer borrow(PoolKey key) throws InterruptedException {
+        KeyedPool pool = pools.computeIfAbsent(key, KeyedPool::new);
+
+        if (!pool.permits.tryAcquire(props.getSpeech().getTtsBorrowTimeout().toMillis(), TimeUnit.MILLISECONDS))
+            throw new AppException(ErrorCode.TTS_BUSY);
+
+        try {
+            IdleSynthesizer entry;
+            while ((entry = pool.idle.pollFirst()) != null) {
+                if (isStale(entry)) {
+                    discard(entry.synthesizer());
+                    continue;
+                }
+                reused.incrementAndGet();
+                return entry.synthesizer();
+            }
+            return create(pool);
+        } catch (RuntimeException e) {
+            pool.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Trả synthesizer về pool; healthy = false nếu lần tổng hợp vừa rồi lỗi kết nối / dịch vụ.
+     */
+    public void release(PoolKey key, SpeechSynthesizer synthesizer, boolean healthy) {
+        KeyedPool pool = pools.get(key);
+        if (pool == null) {
+            discard(synthesizer);
+            return;
+        }
+
+        if (healthy)
+            pool.idle.offerFirst(new IdleSynthesizer(synthesizer, Instant.now()));
+        else
+            discard(synthesizer);
+        pool.permits.release();
+    }
+
+    /**
+     * Khởi tạo sẵn vài synthesizer và mở trước kết nối tới Azure để request đầu tiên không phải chờ.
+     */
+    public void prewarm(PoolKey key, int count) {
+        KeyedPool pool = pools.computeIfAbsent(key, KeyedPool::new);
+        for (int i = 0; i < count && pool.idle.size() < count; i++) {
+            SpeechSynthesizer synthesizer = create(pool);
+            try {
+                Connection.fromSpeechSynthesizer(synthesizer).openConnection(false);
+            } catch (RuntimeException e) {
+                log.warn("Could not pre-open TTS connection for {}: {}", key, e.getMessage());
+            }
+            pool.idle.offerLast(new IdleSynthesizer(synthesizer, Instant.now()));
+        }
+    }
+
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    public long getReusedCount() {
+        return reused.get();
+    }
+
+    public long getDiscardedCount() {
+        return discarded.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pools.values().forEach(pool -> {
+            IdleSynthesizer entry;
+            while ((entry = pool.idle.pollFirst()) != null)
+                entry.synthesizer().close();
+            if (pool.config != null)
+                pool.config.close();
+        });
+        pools.clear();
+    }
+
+    private SpeechSynthesizer create(KeyedPool pool) {
+        created.incrementAndGet();
+        // audioConfig = null: lấy audio qua result.getAudioData(), không phát ra loa của server
+        return new SpeechSynthesizer(pool.config(), null);
+    }
+
+    private boolean isStale(IdleSynthesizer entry) {
+        return entry.idleSince().plus(props.getSpeech().getTtsMaxIdle()).isBefore(Instant.now());
+    }
+
+    private void discard(SpeechSynthesizer synthesizer) {
+        discarded.incrementAndGet();
+        try {
+            synthesizer.close();
+        } catch (RuntimeException e) {
+            log.debug("Error closing synthesizer: {}", e.getMessage());
+        }
+    }
+}
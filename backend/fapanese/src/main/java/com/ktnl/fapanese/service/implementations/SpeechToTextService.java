@@ -2,49 +2,39 @@ package com.ktnl.fapanese.service.implementations;
 
 import com.ktnl.fapanese.configuration.AzureProps;
 import com.microsoft.cognitiveservices.speech.*;
+import com.ktnl.fapanese.service.interfaces.IAudioTranscoder;
 import com.microsoft.cognitiveservices.speech.audio.AudioConfig;
+import com.microsoft.cognitiveservices.speech.audio.AudioInputStream;
+import com.microsoft.cognitiveservices.speech.audio.AudioStreamFormat;
+import com.microsoft.cognitiveservices.speech.audio.PushAudioInputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SpeechToTextService {
     private final AzureProps props;
+    private final List<IAudioTranscoder> transcoders;
+
+    private static final long STOP_TIMEOUT_SECONDS = 5;
 
     public String transcribeWav(byte[] inputBytes) throws Exception {
-        // 1️⃣ Ghi file tạm WebM (hoặc file gốc, ví dụ: "audio.webm")
-        Path tempInput = Files.createTempFile("audio-", ".webm");
-        Files.write(tempInput, inputBytes);
-
-        // 2️⃣ Convert WebM -> WAV (Giữ nguyên logic FFmpeg của bạn)
-        String ffmpegPath = "C:\\ProgramData\\chocolatey\\bin\\ffmpeg.exe"; // Hoặc đường dẫn động
-        Path tempWav = Files.createTempFile("converted-", ".wav");
-
-        Process process = new ProcessBuilder(
-                ffmpegPath, "-y",
-                "-i", tempInput.toString(),
-                "-ar", "16000", // Tần số 16kHz
-                "-ac", "1", // 1 kênh (mono)
-                "-f", "wav",
-                tempWav.toString()
-        ).redirectErrorStream(true).start();
-        process.waitFor();
-
-        long wavSize = Files.exists(tempWav) ? Files.size(tempWav) : 0;
-        log.info("✅ FFmpeg convert done. File size: {} bytes", wavSize);
-
-        if (wavSize == 0) {
-            Files.deleteIfExists(tempInput);
-            throw new RuntimeException("⚠️ FFmpeg failed to convert file");
+        // 1️⃣ Giải mã + resample về PCM 16kHz mono ngay trong bộ nhớ (không file tạm, không spawn process)
+        byte[] pcm = transcode(inputBytes);
+        log.info("✅ Audio transcoded. PCM size: {} bytes", pcm.length);
+
+        if (pcm.length == 0) {
+            throw new RuntimeException("⚠️ Failed to decode audio (empty PCM)");
         }
 
-        // 3️⃣ Nhận diện giọng nói qua Azure (ĐÃ THAY ĐỔI)
+        // 2️⃣ Nhận diện giọng nói qua Azure
         SpeechConfig cfg = SpeechConfig.fromSubscription(
                 props.getSpeech().getKey(),
                 props.getSpeech().getRegion()
@@ -57,9 +47,17 @@ public class SpeechToTextService {
         // Dùng để báo hiệu khi file đã được xử lý XONG
         CompletableFuture<Void> fileProcessingDone = new CompletableFuture<>();
 
-        try (AudioConfig audio = AudioConfig.fromWavFileInput(tempWav.toString());
+        // Recognizer đọc PCM từ PushAudioInputStream thay vì từ file WAV
+        PushAudioInputStream pushStream = AudioInputStream.createPushStream(
+                AudioStreamFormat.getWaveFormatPCM(IAudioTranscoder.SAMPLE_RATE, (short) 16, (short) 1));
+
+        try (AudioConfig audio = AudioConfig.fromStreamInput(pushStream);
              SpeechRecognizer recognizer = new SpeechRecognizer(cfg, audio)) {
 
+            // Đẩy toàn bộ PCM rồi close() để báo hết dữ liệu → sessionStopped sẽ được kích hoạt
+            pushStream.write(pcm);
+            pushStream.close();
+
             // SỰ KIỆN 1: Kích hoạt mỗi khi nhận diện được 1 cụm từ
             recognizer.recognized.addEventListener((s, e) -> {
                 if (e.getResult().getReason() == ResultReason.RecognizedSpeech) {
@@ -92,11 +90,14 @@ public class SpeechToTextService {
             // 4. BẮT ĐẦU nhận diện LIÊN TỤC
             recognizer.startContinuousRecognitionAsync().get();
 
-            // 5. CHỜ cho đến khi sự kiện sessionStopped được kích hoạt
-            fileProcessingDone.get(); // Chặn luồng (block) cho đến khi fileProcessingDone.complete() được gọi
-
-            // 6. Dừng recognizer (dọn dẹp)
-            recognizer.stopContinuousRecognitionAsync().get();
+            // 5. CHỜ cho đến khi sự kiện sessionStopped được kích hoạt.
+            // SpeechRecognitionJobService interrupt thread này khi job quá hạn / bị hủy.
+            try {
+                fileProcessingDone.get();
+            } finally {
+                // 6. Dừng recognizer (dọn dẹp) - kể cả khi bị interrupt giữa chừng
+                recognizer.stopContinuousRecognitionAsync().get(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
 
             // 7. Trả về kết quả đã ghép
             String result = fullTranscript.toString().trim();
@@ -104,12 +105,26 @@ public class SpeechToTextService {
                 throw new RuntimeException("No speech recognized (empty transcript)");
             }
             return result;
+        }
+    }
 
-        } finally {
-            // Dọn dẹp file tạm
-            Files.deleteIfExists(tempInput);
-            Files.deleteIfExists(tempWav);
+    /**
+     * Thử lần lượt các transcoder theo @Order (WebM/Opus, WAV trong JVM, cuối cùng là ffmpeg).
+     * Transcoder nào giải mã lỗi thì chuyển sang cái tiếp theo.
+     */
+    private byte[] transcode(byte[] inputBytes) {
+        RuntimeException failure = new RuntimeException("⚠️ Unsupported audio format");
+        for (IAudioTranscoder transcoder : transcoders) {
+            if (!transcoder.supports(inputBytes))
+                continue;
+            try {
+                return transcoder.toPcm16kMono(inputBytes);
+            } catch (IOException e) {
+                log.warn("{} could not decode audio: {}", transcoder.getClass().getSimpleName(), e.getMessage());
+                failure.addSuppressed(e);
+            }
         }
+        throw failure;
     }
 }
 
@@ -1,7 +1,9 @@
 package com.ktnl.fapanese.service.implementations;
 
 import com.ktnl.fapanese.dto.request.CreateStudentRequest;
+import com.ktnl.fapanese.dto.request.StudentFilterRequest;
 import com.ktnl.fapanese.dto.response.CreateStudentAccountResponse;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.dto.response.UserResponse;
 import com.ktnl.fapanese.entity.Role;
 import com.ktnl.fapanese.entity.Student;
@@ -13,17 +15,23 @@ import com.ktnl.fapanese.mail.AccountCreatedEmailTemplate;
 import com.ktnl.fapanese.mapper.UserMapper;
 import com.ktnl.fapanese.repository.RoleRepository;
 import com.ktnl.fapanese.repository.UserRepository;
+import com.ktnl.fapanese.repository.specification.StudentSpecifications;
+import com.ktnl.fapanese.service.interfaces.IEmailOutboxService;
 import com.ktnl.fapanese.service.interfaces.IStudentService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
 
@@ -36,44 +44,86 @@ public class StudentService implements IStudentService {
     RoleRepository roleRepo;
     UserMapper mapper;
     PasswordEncoder passwordEncoder;
-    EmailService emailService;
+    IEmailOutboxService emailOutbox;
 
     @Override
+    @Transactional
     public CreateStudentAccountResponse createStudentAccount(CreateStudentRequest createStudentRequest) {
         Optional<User> existingUserOpt  = userRepo.findByEmail(createStudentRequest.getEmail());
 
         if(existingUserOpt.isPresent())
             throw new AppException(ErrorCode.EMAIL_EXISTED);
 
-        User user = mapper.toUser(createStudentRequest);
         String randomPassword = generateRandomPassword(8);
-        user.setPassword_hash(passwordEncoder.encode(randomPassword));
-        Role role = roleRepo.findByRoleName(UserRole.STUDENT.name());
-        user.setRoles(Set.of(role));
-        user.setStatus(0);
-
-        Student student = mapper.toStudent(createStudentRequest);
-        student.setUser(user);       // Quan hệ từ Student -> User
-//        student.setAvtUrl("https://drive.google.com/file/d/1KZJdE58UiYN8UjoZ0y7wUw0Ptge8FZ0i/view?usp=drive_link");
-        user.setStudent(student);    // Quan hệ ngược lại từ User -> Student
+        User user = buildStudentUser(createStudentRequest, roleRepo.findByRoleName(UserRole.STUDENT.name()),
+                passwordEncoder.encode(randomPassword));
 
         // 3. Chỉ cần LƯU USER MỘT LẦN DUY NHẤT ở cuối cùng
         // Do có CascadeType.ALL, JPA sẽ tự động lưu cả Lecturer/Student liên quan
         User savedUser = userRepo.save(user);
 
-        emailService.sendEmail(savedUser.getEmail(), new AccountCreatedEmailTemplate(), savedUser.getEmail(), randomPassword);
+        // Email mật khẩu được gửi sau khi commit, qua outbox
+        emailOutbox.enqueue(savedUser.getEmail(), new AccountCreatedEmailTemplate(), savedUser.getEmail(), randomPassword);
 
         // 4. Map từ đối tượng đã được lưu (có đầy đủ thông tin) và trả về
         return mapper.toStudentRegisterRequest(createStudentRequest);
 
     }
 
+    /**
+     * Tạo tài khoản cho cả một lô học sinh (dùng cho import Excel) trong một transaction:
+     * kiểm tra email đã tồn tại cho cả lô, đọc role một lần, rồi saveAll. User dùng id UUID sinh sẵn
+     * nên Hibernate gom được các INSERT theo hibernate.jdbc.batch_size.
+     * Email đã có tài khoản bị bỏ qua thay vì làm hỏng cả lô; các dòng còn lại vẫn được lưu.
+     * Email mật khẩu chỉ được ghi vào outbox cùng transaction, không gửi SMTP ở đây;
+     * BCrypt (tốn CPU nhất trong lô) được băm song song trước khi đụng tới DB.
+     *
+     * @return các email (viết thường) đã có tài khoản nên không được tạo
+     */
     @Override
-    public boolean createStudentAccountList(List<CreateStudentRequest> list){
-        for(CreateStudentRequest request : list){
-            createStudentAccount(request);
-        }
-        return true;
+    @Transactional
+    public List<String> createStudentAccountList(List<CreateStudentRequest> list){
+        if (list.isEmpty())
+            return List.of();
+
+        // Email so sánh ở dạng viết thường ở cả hai phía, kể cả khi tài khoản cũ lưu email có chữ hoa
+        List<String> existing = userRepo.findExistingEmails(list.stream().map(request -> normalizeEmail(request.getEmail())).toList())
+                .stream().map(StudentService::normalizeEmail).distinct().toList();
+        Set<String> skipped = new HashSet<>(existing);
+        List<CreateStudentRequest> toCreate = skipped.isEmpty() ? list
+                : list.stream().filter(request -> !skipped.contains(normalizeEmail(request.getEmail()))).toList();
+        if (toCreate.isEmpty())
+            return existing;
+
+        List<String> passwords = toCreate.stream().map(request -> generateRandomPassword(8)).toList();
+        List<String> hashes = passwords.parallelStream().map(passwordEncoder::encode).toList();
+
+        Role role = roleRepo.findByRoleName(UserRole.STUDENT.name());
+        List<User> users = new ArrayList<>(toCreate.size());
+        for (int i = 0; i < toCreate.size(); i++)
+            users.add(buildStudentUser(toCreate.get(i), role, hashes.get(i)));
+        userRepo.saveAll(users);
+
+        AccountCreatedEmailTemplate template = new AccountCreatedEmailTemplate();
+        for (int i = 0; i < users.size(); i++)
+            emailOutbox.enqueue(users.get(i).getEmail(), template, users.get(i).getEmail(), passwords.get(i));
+        return existing;
+    }
+
+    private User buildStudentUser(CreateStudentRequest request, Role role, String passwordHash) {
+        User user = mapper.toUser(request);
+        user.setPassword_hash(passwordHash);
+        user.setRoles(Set.of(role));
+        user.setStatus(0);
+
+        Student student = mapper.toStudent(request);
+        student.setUser(user);       // Quan hệ từ Student -> User
+        user.setStudent(student);    // Quan hệ ngược lại từ User -> Student
+        return user;
+    }
+
+    private static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
     }
 
     private String generateRandomPassword(int length) {
@@ -96,6 +146,12 @@ public class StudentService implements IStudentService {
         return userResponseList;
     }
 
+    @Override
+    public PageResponse<UserResponse> searchStudents(StudentFilterRequest filter, Pageable pageable) {
+        return PageResponse.from(userRepo.findAll(StudentSpecifications.filter(filter), pageable)
+                .map(mapper::toUserResponse));
+    }
+
     @Override
     public UserResponse getStudentByEmail(String email) {
         User user = userRepo.findByEmail(email)
@@ -2,11 +2,17 @@ package com.ktnl.fapanese.service.implementations;
 
 import com.ktnl.fapanese.configuration.AzureProps;
 import com.microsoft.cognitiveservices.speech.*;
-import com.microsoft.cognitiveservices.speech.audio.AudioConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -15,6 +21,7 @@ import java.util.regex.Pattern;
 @Slf4j
 public class TextToSpeechService {
     private final AzureProps props;
+    private final SpeechSynthesizerPool synthesizerPool;
 
 
     // Giọng nói Mặc định cho Tiếng Việt
@@ -24,21 +31,55 @@ public class TextToSpeechService {
     // Mẫu regex để tìm kiếm nội dung được bọc: [JA:Nội dung tiếng Nhật:JA]
     private static final Pattern JA_PATTERN = Pattern.compile("\\[JA:(.*?):JA\\]");
 
+    // synthJa đặt voice trong SpeechConfig; bản polyglot chọn voice trong SSML
+    private static final SpeechSynthesizerPool.PoolKey JA_KEY =
+            new SpeechSynthesizerPool.PoolKey(JA_VOICE, SpeechSynthesisOutputFormat.Riff16Khz16BitMonoPcm);
+    private static final SpeechSynthesizerPool.PoolKey POLYGLOT_KEY =
+            new SpeechSynthesizerPool.PoolKey(null, SpeechSynthesisOutputFormat.Riff16Khz16BitMonoPcm);
 
 
-    public byte[] synthJa(String text) throws Exception {
-        var cfg = SpeechConfig.fromSubscription(props.getSpeech().getKey(), props.getSpeech().getRegion());
-        cfg.setSpeechSynthesisVoiceName("ja-JP-NanamiNeural");
-        cfg.setSpeechSynthesisOutputFormat(SpeechSynthesisOutputFormat.Riff16Khz16BitMonoPcm);
+    // Thread riêng cho các lời gọi TTS async: tổng hợp giọng nói chặn thread tới khi Azure trả audio,
+    // không được chạy trên openAiExecutor (chỉ dành cho xử lý kết quả OpenAI). Số thread bằng số synthesizer
+    // tối đa của một voice, nhiều hơn cũng chỉ đứng chờ mượn synthesizer
+    private ExecutorService synthExecutor;
+
+    @PostConstruct
+    void startExecutor() {
+        synthExecutor = Executors.newFixedThreadPool(Math.max(1, props.getSpeech().getTtsPoolSize()),
+                new CustomizableThreadFactory("tts-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (synthExecutor != null)
+            synthExecutor.shutdownNow();
+    }
 
-        try (SpeechSynthesizer synth = new SpeechSynthesizer(cfg, null)) {
+    @PostConstruct
+    void prewarmSynthesizers() {
+        try {
+            synthesizerPool.prewarm(POLYGLOT_KEY, props.getSpeech().getTtsPoolPrewarm());
+            synthesizerPool.prewarm(JA_KEY, props.getSpeech().getTtsPoolPrewarm());
+        } catch (RuntimeException e) {
+            // Thiếu key / region khi chạy local: synthesizer sẽ được tạo khi có request đầu tiên
+            log.warn("Could not prewarm TTS synthesizers: {}", e.getMessage());
+        }
+    }
+
+    public byte[] synthJa(String text) throws Exception {
+        SpeechSynthesizer synth = synthesizerPool.borrow(JA_KEY);
+        boolean healthy = false;
+        try {
             var res = synth.SpeakTextAsync(text).get();
+            healthy = isHealthy(res);
             if (res.getReason() == ResultReason.SynthesizingAudioCompleted) return res.getAudioData();
             if (res.getReason() == ResultReason.Canceled) {
                 var d = SpeechSynthesisCancellationDetails.fromResult(res);
                 throw new RuntimeException("TTS canceled: " + d.getErrorDetails());
             }
             throw new RuntimeException("TTS failed");
+        } finally {
+            synthesizerPool.release(JA_KEY, synth, healthy);
         }
     }
 
@@ -53,13 +94,14 @@ public class TextToSpeechService {
         String ssmlContent = createPolyglotSsml(aiText);
         log.info("Generated SSML: {}", ssmlContent);
 
-        // 2. Cấu hình Azure TTS
-        var cfg = SpeechConfig.fromSubscription(props.getSpeech().getKey(), props.getSpeech().getRegion());
-        cfg.setSpeechSynthesisOutputFormat(SpeechSynthesisOutputFormat.Riff16Khz16BitMonoPcm);
+        // 2. Mượn synthesizer đã khởi tạo sẵn (SpeechConfig dùng chung) từ pool
+        SpeechSynthesizer synth = synthesizerPool.borrow(POLYGLOT_KEY);
+        boolean healthy = false;
 
         // 3. Thực hiện tổng hợp giọng nói
-        try (SpeechSynthesizer synth = new SpeechSynthesizer(cfg, null)) {
+        try {
             var res = synth.SpeakSsmlAsync(ssmlContent).get();
+            healthy = isHealthy(res);
 
             if (res.getReason() == ResultReason.SynthesizingAudioCompleted) return res.getAudioData();
 
@@ -70,9 +112,35 @@ public class TextToSpeechService {
                 throw new RuntimeException("TTS canceled: " + d.getErrorDetails());
             }
             throw new RuntimeException("TTS failed with unknown reason: " + res.getReason());
+        } finally {
+            synthesizerPool.release(POLYGLOT_KEY, synth, healthy);
         }
     }
 
+    /**
+     * Bản async của synthSsmlPolyglot, chạy trên thread pool TTS riêng.
+     */
+    public CompletableFuture<byte[]> synthSsmlPolyglotAsync(String aiText) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return synthSsmlPolyglot(aiText);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, synthExecutor);
+    }
+
+    /**
+     * Synthesizer vẫn dùng lại được nếu tổng hợp thành công, hoặc chỉ bị từ chối vì nội dung (BadRequest).
+     * Lỗi kết nối / xác thực / timeout → bỏ synthesizer này, lần sau tạo cái mới.
+     */
+    private boolean isHealthy(SpeechSynthesisResult res) {
+        if (res.getReason() != ResultReason.Canceled)
+            return true;
+        var d = SpeechSynthesisCancellationDetails.fromResult(res);
+        return d.getErrorCode() == CancellationErrorCode.BadRequest;
+    }
+
     /**
      * Xây dựng cấu trúc SSML từ văn bản thô.
      * Tự động chuyển đổi phần không có tag sang Tiếng Việt, phần có tag [JA:...:JA] sang Tiếng Nhật.
@@ -4,6 +4,7 @@ import com.ktnl.fapanese.dto.request.IntrospectRequest;
 import com.ktnl.fapanese.dto.response.IntrospectResponse;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.service.interfaces.IRevokedTokenService;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSVerifier;
 import com.nimbusds.jose.crypto.MACVerifier;
@@ -26,7 +27,7 @@ import java.util.Date;
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class TokenValidationService {
-
+    IRevokedTokenService revokedTokenService;
 
     @NonFinal
     @Value("${jwt.signerKey}") // Lấy khóa bí mật từ application.properties (dùng để ký và verify JWT)
@@ -103,9 +104,10 @@ public class TokenValidationService {
         if(!(verified && expiryTime.after(new Date())))
             throw new AppException(ErrorCode.AUTHENTICATED);
 
-        //từ từ update sau phần logout refresh
-        //...
-        ///
+        // Token đã bị thu hồi (logout / refresh) → không được dùng tiếp
+        // (tra cứu trong bộ nhớ, không truy vấn DB)
+        if(revokedTokenService.isRevoked(signedJWT.getJWTClaimsSet().getJWTID()))
+            throw new AppException(ErrorCode.AUTHENTICATED);
 
         // Trả về token hợp lệ để tiếp tục sử dụng
         return signedJWT;
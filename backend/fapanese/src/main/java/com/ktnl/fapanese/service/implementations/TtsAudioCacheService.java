@@ -0,0 +1,258 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.dto.response.CacheStatsResponse;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.service.interfaces.ITtsAudioCacheService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Cache audio đã tổng hợp của /tts theo nội dung câu.
+ *
+ * - Key: SHA-256 của (phiên bản, mode, text đã chuẩn hóa); cùng một câu luôn ra cùng một file.
+ * - Tầng 1: LRU trong bộ nhớ, giới hạn theo tổng số byte audio.
+ * - Tầng 2: file {key}.wav trong tts-cache.dir, giữ lại sau khi restart và được phục vụ
+ *   trực tiếp qua GET /api/interview/tts/audio/{key}.
+ * - Nhiều request cùng một câu chỉ tạo ra MỘT lời gọi Azure TTS (single-flight).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TtsAudioCacheService implements ITtsAudioCacheService {
+    // Đổi giá trị này khi đổi voice / output format để bỏ qua các file audio cũ
+    static String AUDIO_VERSION = "v1";
+
+    static Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    TextToSpeechService tts;
+
+    // audioKey -> audio wav, sắp xếp theo thứ tự truy cập (LRU)
+    Map<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // audioKey -> lời gọi Azure đang chạy
+    Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    AtomicLong hits = new AtomicLong();
+    AtomicLong misses = new AtomicLong();
+    AtomicLong evictions = new AtomicLong();
+
+    @NonFinal
+    long memoryBytes;
+
+    @NonFinal
+    @Value("${tts-cache.dir:${java.io.tmpdir}/fapanese-tts-cache}")
+    protected Path DIR;
+
+    @NonFinal
+    @Value("${tts-cache.memory-max-bytes:67108864}")
+    protected long MEMORY_MAX_BYTES;
+
+    @Override
+    public String audioKey(int mode, String text) {
+        checkMode(mode);
+        String normalized = String.join("\u0000", AUDIO_VERSION, String.valueOf(mode), normalize(text));
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public byte[] getOrSynthesize(int mode, String text) throws Exception {
+        String key = audioKey(mode, text);
+
+        // 1. Bộ nhớ, rồi ổ đĩa
+        Optional<byte[]> cached = find(key);
+        if (cached.isPresent()) {
+            hits.incrementAndGet();
+            return cached.get();
+        }
+
+        // 2. Đã có request cùng câu đang gọi Azure → chờ dùng chung kết quả
+        CompletableFuture<byte[]> promise = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            hits.incrementAndGet();
+            return await(existing);
+        }
+
+        // 3. Gọi Azure TTS
+        misses.incrementAndGet();
+        try {
+            byte[] audio = mode == 1 ? tts.synthJa(text) : tts.synthSsmlPolyglot(text);
+            putInMemory(key, audio);
+            writeToDisk(key, audio);
+            promise.complete(audio);
+            return audio;
+        } catch (Exception e) {
+            promise.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, promise);
+        }
+    }
+
+    /**
+     * Tra cache (bộ nhớ rồi ổ đĩa) mà không gọi Azure; key không hợp lệ coi như không có.
+     */
+    @Override
+    public Optional<byte[]> find(String audioKey) {
+        if (audioKey == null || !KEY_PATTERN.matcher(audioKey).matches())
+            return Optional.empty();
+
+        byte[] audio = getFromMemory(audioKey);
+        if (audio == null) {
+            audio = readFromDisk(audioKey);
+            if (audio != null)
+                putInMemory(audioKey, audio);
+        }
+        return Optional.ofNullable(audio);
+    }
+
+    @Override
+    public boolean contains(String audioKey) {
+        if (audioKey == null || !KEY_PATTERN.matcher(audioKey).matches())
+            return false;
+        synchronized (entries) {
+            if (entries.containsKey(audioKey))
+                return true;
+        }
+        return Files.isRegularFile(fileOf(audioKey));
+    }
+
+    @Override
+    public CacheStatsResponse getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        int size;
+        long bytes;
+        synchronized (entries) {
+            size = entries.size();
+            bytes = memoryBytes;
+        }
+
+        return CacheStatsResponse.builder()
+                .hits(hitCount)
+                .misses(missCount)
+                .evictions(evictions.get())
+                .size(size)
+                .maxSize(-1) // không giới hạn số entry, chỉ giới hạn dung lượng
+                .hitRate(total == 0 ? 0 : (double) hitCount / total)
+                .sizeBytes(bytes)
+                .maxSizeBytes(MEMORY_MAX_BYTES)
+                .build();
+    }
+
+    private byte[] await(CompletableFuture<byte[]> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    private byte[] getFromMemory(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private void putInMemory(String key, byte[] audio) {
+        // File lớn hơn cả giới hạn thì chỉ để trên đĩa
+        if (audio.length > MEMORY_MAX_BYTES)
+            return;
+
+        synchronized (entries) {
+            byte[] previous = entries.put(key, audio);
+            if (previous != null)
+                memoryBytes -= previous.length;
+            memoryBytes += audio.length;
+
+            // Bỏ entry ít được dùng nhất khi vượt quá MEMORY_MAX_BYTES
+            var it = entries.entrySet().iterator();
+            while (memoryBytes > MEMORY_MAX_BYTES && it.hasNext()) {
+                memoryBytes -= it.next().getValue().length;
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private byte[] readFromDisk(String key) {
+        Path file = fileOf(key);
+        if (!Files.isRegularFile(file))
+            return null;
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            log.warn("Could not read cached TTS audio {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, byte[] audio) {
+        try {
+            Files.createDirectories(DIR);
+            // Ghi ra file tạm rồi đổi tên, để request khác không bao giờ đọc phải file ghi dở
+            Path tmp = Files.createTempFile(DIR, key, ".tmp");
+            try {
+                Files.write(tmp, audio);
+                Files.move(tmp, fileOf(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            // Ghi đĩa thất bại không ảnh hưởng tới kết quả trả về cho sinh viên
+            log.warn("Could not persist TTS audio {}: {}", key, e.getMessage());
+        }
+    }
+
+    private Path fileOf(String key) {
+        return DIR.resolve(key + ".wav");
+    }
+
+    private void checkMode(int mode) {
+        if (mode != 1 && mode != 2)
+            throw new AppException(ErrorCode.TTS_MODE_INVALID, mode);
+    }
+
+    private String normalize(String text) {
+        if (text == null)
+            return "";
+        return Normalizer.normalize(text, Normalizer.Form.NFKC)
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+}
@@ -0,0 +1,164 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.dto.response.TtsPrerenderJobResponse;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.repository.*;
+import com.ktnl.fapanese.service.interfaces.ITtsAudioCacheService;
+import com.ktnl.fapanese.service.interfaces.ITtsPrerenderService;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Job nền (cho admin) tổng hợp sẵn audio của cả một Lesson hoặc SpeakingExam vào cache TTS,
+ * để lúc sinh viên học / thi thì mọi câu đều đã có file, không phải chờ Azure.
+ *
+ * - Lesson: Vocabulary.wordKana + GrammarDetail.exampleSentence.
+ * - SpeakingExam: Speaking.passage + SpeakingQuestion.question.
+ * Các job chạy lần lượt trên một thread riêng để không chiếm hết quota TTS của request thật.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TtsPrerenderService implements ITtsPrerenderService {
+    // Các nội dung này đều là tiếng Nhật thuần
+    static int MODE = 1;
+
+    LessonRepository lessonRepository;
+    VocabularyRepository vocabularyRepository;
+    GrammarRepository grammarRepository;
+    SpeakingExamRepository speakingExamRepository;
+    SpeakingRepository speakingRepository;
+    SpeakingQuestionRepository speakingQuestionRepository;
+    ITtsAudioCacheService ttsAudioCache;
+
+    Map<String, PrerenderJob> jobs = new ConcurrentHashMap<>();
+    ExecutorService executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("tts-prerender-"));
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public TtsPrerenderJobResponse prerenderLesson(Long lessonId) {
+        if (!lessonRepository.existsById(lessonId))
+            throw new AppException(ErrorCode.LESSON_NOT_FOUND);
+
+        return start("lesson:" + lessonId, () -> concat(
+                vocabularyRepository.findWordKanaByLessonId(lessonId),
+                grammarRepository.findExampleSentencesByLessonId(lessonId)));
+    }
+
+    @Override
+    public TtsPrerenderJobResponse prerenderSpeakingExam(Long speakingExamId) {
+        if (!speakingExamRepository.existsById(speakingExamId))
+            throw new AppException(ErrorCode.EXAM_NOT_FOUND);
+
+        return start("speaking-exam:" + speakingExamId, () -> concat(
+                speakingRepository.findPassagesBySpeakingExamId(speakingExamId),
+                speakingQuestionRepository.findQuestionTextsBySpeakingExamId(speakingExamId)));
+    }
+
+    @Override
+    public TtsPrerenderJobResponse getJob(String jobId) {
+        PrerenderJob job = jobs.get(jobId);
+        if (job == null)
+            throw new AppException(ErrorCode.TTS_PRERENDER_JOB_NOT_FOUND);
+        return job.toResponse();
+    }
+
+    private TtsPrerenderJobResponse start(String target, Supplier<List<String>> texts) {
+        PrerenderJob job = new PrerenderJob(UUID.randomUUID().toString(), target);
+        jobs.put(job.jobId, job);
+        executor.execute(() -> run(job, texts));
+        return job.toResponse();
+    }
+
+    private void run(PrerenderJob job, Supplier<List<String>> texts) {
+        String status = "FAILED";
+        try {
+            // Bỏ câu rỗng và câu trùng key (chỉ khác khoảng trắng / full-width)
+            Map<String, String> byKey = new LinkedHashMap<>();
+            for (String text : texts.get()) {
+                if (text != null && !text.isBlank())
+                    byKey.putIfAbsent(ttsAudioCache.audioKey(MODE, text), text);
+            }
+            job.total = byKey.size();
+
+            for (var entry : byKey.entrySet()) {
+                if (Thread.currentThread().isInterrupted())
+                    break;
+
+                if (ttsAudioCache.contains(entry.getKey())) {
+                    job.cached.incrementAndGet();
+                    continue;
+                }
+                try {
+                    ttsAudioCache.getOrSynthesize(MODE, entry.getValue());
+                    job.rendered.incrementAndGet();
+                } catch (Exception e) {
+                    job.failed.incrementAndGet();
+                    log.warn("Pre-render {} failed for \"{}\": {}", job.target, entry.getValue(), e.getMessage());
+                }
+            }
+            status = "COMPLETED";
+        } catch (RuntimeException e) {
+            log.error("Pre-render job {} ({}) failed", job.jobId, job.target, e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            job.status = status;
+        }
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    private static class PrerenderJob {
+        final String jobId;
+        final String target;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicInteger rendered = new AtomicInteger();
+        final AtomicInteger cached = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        volatile int total;
+        volatile String status = "RUNNING";
+        volatile LocalDateTime finishedAt;
+
+        PrerenderJob(String jobId, String target) {
+            this.jobId = jobId;
+            this.target = target;
+        }
+
+        TtsPrerenderJobResponse toResponse() {
+            return TtsPrerenderJobResponse.builder()
+                    .jobId(jobId)
+                    .target(target)
+                    .status(status)
+                    .total(total)
+                    .rendered(rendered.get())
+                    .cached(cached.get())
+                    .failed(failed.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
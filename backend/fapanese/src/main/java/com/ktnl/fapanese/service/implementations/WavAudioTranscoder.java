@@ -0,0 +1,103 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.service.interfaces.IAudioTranscoder;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Đọc WAV bằng javax.sound.sampled (có sẵn trong JDK), rồi downmix về mono
+ * và resample về 16 kHz ngay trong bộ nhớ.
+ */
+@Service
+@Order(2)
+public class WavAudioTranscoder implements IAudioTranscoder {
+
+    @Override
+    public boolean supports(byte[] input) {
+        return input.length >= 12
+                && input[0] == 'R' && input[1] == 'I' && input[2] == 'F' && input[3] == 'F'
+                && input[8] == 'W' && input[9] == 'A' && input[10] == 'V' && input[11] == 'E';
+    }
+
+    @Override
+    public byte[] toPcm16kMono(byte[] input) throws IOException {
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(new ByteArrayInputStream(input))) {
+            AudioFormat format = source.getFormat();
+            int channels = format.getChannels();
+            float sampleRate = format.getSampleRate();
+
+            // Để JDK lo phần đổi bit depth / endian / u-law..., còn channel và sample rate tự xử lý
+            AudioFormat pcm16 = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED,
+                    sampleRate, 16, channels, channels * 2, sampleRate, false);
+            byte[] interleaved;
+            try (AudioInputStream converted = AudioSystem.getAudioInputStream(pcm16, source)) {
+                interleaved = converted.readAllBytes();
+            }
+
+            short[] mono = downmix(interleaved, channels);
+            if (Math.round(sampleRate) != SAMPLE_RATE)
+                mono = resample(mono, sampleRate);
+            return toBytes(mono);
+        } catch (UnsupportedAudioFileException | IllegalArgumentException e) {
+            throw new IOException("Unsupported WAV format", e);
+        }
+    }
+
+    private static short[] downmix(byte[] interleaved, int channels) {
+        int frames = interleaved.length / (2 * channels);
+        short[] mono = new short[frames];
+        for (int f = 0; f < frames; f++) {
+            int sum = 0;
+            for (int c = 0; c < channels; c++) {
+                int i = (f * channels + c) * 2;
+                sum += (short) ((interleaved[i] & 0xFF) | (interleaved[i + 1] << 8));
+            }
+            mono[f] = (short) (sum / channels);
+        }
+        return mono;
+    }
+
+    /**
+     * Resample bằng nội suy tuyến tính; khi giảm tần số thì lấy trung bình các mẫu trong
+     * mỗi bước để tránh aliasing (đủ tốt cho nhận diện giọng nói).
+     */
+    static short[] resample(short[] input, float sourceRate) {
+        double step = sourceRate / SAMPLE_RATE;
+        int outputLength = (int) (input.length / step);
+        short[] output = new short[outputLength];
+
+        for (int i = 0; i < outputLength; i++) {
+            double position = i * step;
+            int index = (int) position;
+
+            if (step > 1) {
+                int end = Math.min(input.length, (int) Math.ceil(position + step));
+                long sum = 0;
+                for (int j = index; j < end; j++)
+                    sum += input[j];
+                output[i] = (short) (sum / Math.max(1, end - index));
+            } else {
+                double fraction = position - index;
+                int next = Math.min(index + 1, input.length - 1);
+                output[i] = (short) Math.round(input[index] * (1 - fraction) + input[next] * fraction);
+            }
+        }
+        return output;
+    }
+
+    private static byte[] toBytes(short[] samples) {
+        byte[] bytes = new byte[samples.length * 2];
+        for (int i = 0; i < samples.length; i++) {
+            bytes[i * 2] = (byte) samples[i];
+            bytes[i * 2 + 1] = (byte) (samples[i] >> 8);
+        }
+        return bytes;
+    }
+}
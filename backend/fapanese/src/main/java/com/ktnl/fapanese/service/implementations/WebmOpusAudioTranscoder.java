@@ -0,0 +1,242 @@
+package com.ktnl.fapanese.service.implementations;
+
+import com.ktnl.fapanese.service.interfaces.IAudioTranscoder;
+import io.github.jaredmdobson.concentus.OpusDecoder;
+import io.github.jaredmdobson.concentus.OpusException;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Giải mã WebM/Opus (định dạng mặc định của MediaRecorder trên Chrome/Firefox) ngay trong JVM.
+ *
+ * - Đọc cấu trúc EBML để lấy các Opus packet của track audio.
+ * - Opus decoder chạy thẳng ở 16 kHz mono nên không cần resample / downmix thêm.
+ * Codec khác Opus (ví dụ Vorbis) → ném IOException để SpeechToTextService chuyển sang ffmpeg.
+ */
+@Service
+@Order(1)
+public class WebmOpusAudioTranscoder implements IAudioTranscoder {
+    private static final long EBML = 0x1A45DFA3L;
+    private static final long SEGMENT = 0x18538067L;
+    private static final long TRACKS = 0x1654AE6BL;
+    private static final long TRACK_ENTRY = 0xAEL;
+    private static final long TRACK_NUMBER = 0xD7L;
+    private static final long CODEC_ID = 0x86L;
+    private static final long CODEC_PRIVATE = 0x63A2L;
+    private static final long CLUSTER = 0x1F43B675L;
+    private static final long BLOCK_GROUP = 0xA0L;
+    private static final long BLOCK = 0xA1L;
+    private static final long SIMPLE_BLOCK = 0xA3L;
+
+    // Các element chứa element con: đi vào bên trong thay vì bỏ qua
+    private static final Set<Long> MASTER_ELEMENTS = Set.of(SEGMENT, TRACKS, TRACK_ENTRY, CLUSTER, BLOCK_GROUP);
+
+    // Opus packet dài nhất là 120 ms
+    private static final int MAX_FRAME_SAMPLES = SAMPLE_RATE * 120 / 1000;
+
+    @Override
+    public boolean supports(byte[] input) {
+        return input.length >= 4 && readUnsigned(input, 0, 4) == EBML;
+    }
+
+    @Override
+    public byte[] toPcm16kMono(byte[] input) throws IOException {
+        WebmAudio webm = demux(input);
+        if (!"A_OPUS".equals(webm.codecId))
+            throw new IOException("Unsupported WebM audio codec: " + webm.codecId);
+
+        OpusDecoder decoder;
+        try {
+            decoder = new OpusDecoder(SAMPLE_RATE, 1);
+        } catch (OpusException e) {
+            throw new IOException(e);
+        }
+
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream(webm.packets.size() * MAX_FRAME_SAMPLES);
+        short[] frame = new short[MAX_FRAME_SAMPLES];
+
+        // Pre-skip trong OpusHead tính theo 48 kHz
+        int skip = webm.preSkip / (48000 / SAMPLE_RATE);
+        for (byte[] packet : webm.packets) {
+            int samples;
+            try {
+                samples = decoder.decode(packet, 0, packet.length, frame, 0, MAX_FRAME_SAMPLES, false);
+            } catch (OpusException e) {
+                throw new IOException("Corrupted Opus packet", e);
+            }
+
+            for (int i = 0; i < samples; i++) {
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                pcm.write(frame[i] & 0xFF);
+                pcm.write((frame[i] >> 8) & 0xFF);
+            }
+        }
+        return pcm.toByteArray();
+    }
+
+    /**
+     * Duyệt tuần tự các element EBML. MediaRecorder ghi Segment/Cluster với kích thước "unknown",
+     * nên các master element được đi vào trực tiếp thay vì dựa vào size của chúng.
+     */
+    private WebmAudio demux(byte[] data) throws IOException {
+        WebmAudio webm = new WebmAudio();
+        long currentTrack = -1;
+        String currentCodec = null;
+
+        int pos = 0;
+        try {
+            while (pos < data.length) {
+                Vint id = readVint(data, pos, false);
+                Vint size = readVint(data, pos + id.length, true);
+                int payload = pos + id.length + size.length;
+
+                if (MASTER_ELEMENTS.contains(id.value)) {
+                    pos = payload;
+                    continue;
+                }
+                if (size.value < 0 || payload + size.value > data.length) {
+                    // Phần cuối bị cắt (client dừng ghi âm giữa chừng) → dùng những gì đã đọc được
+                    if (!webm.packets.isEmpty())
+                        break;
+                    throw new IOException("Truncated WebM element 0x" + Long.toHexString(id.value));
+                }
+                int end = payload + (int) size.value;
+
+                if (id.value == TRACK_NUMBER) {
+                    currentTrack = readUnsigned(data, payload, (int) size.value);
+                } else if (id.value == CODEC_ID) {
+                    currentCodec = new String(data, payload, (int) size.value).trim();
+                    // Track audio đầu tiên là track được nhận diện
+                    if (currentCodec.startsWith("A_") && webm.trackNumber < 0) {
+                        webm.trackNumber = currentTrack;
+                        webm.codecId = currentCodec;
+                    }
+                } else if (id.value == CODEC_PRIVATE && "A_OPUS".equals(currentCodec) && size.value >= 12) {
+                    // OpusHead: magic(8) version(1) channels(1) pre-skip(2, LE)
+                    webm.preSkip = (data[payload + 10] & 0xFF) | (data[payload + 11] & 0xFF) << 8;
+                } else if (id.value == SIMPLE_BLOCK || id.value == BLOCK) {
+                    readBlock(data, payload, end, webm);
+                }
+                pos = end;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            if (webm.packets.isEmpty())
+                throw new IOException("Malformed WebM data", e);
+        }
+
+        if (webm.trackNumber < 0)
+            throw new IOException("No audio track in WebM data");
+        return webm;
+    }
+
+    private void readBlock(byte[] data, int start, int end, WebmAudio webm) throws IOException {
+        Vint track = readVint(data, start, true);
+        if (track.value != webm.trackNumber)
+            return;
+
+        // track(vint) + timecode(2) + flags(1)
+        int flags = data[start + track.length + 2] & 0xFF;
+        int pos = start + track.length + 3;
+
+        int lacing = (flags >> 1) & 0x03;
+        if (lacing == 0) {
+            webm.packets.add(copy(data, pos, end));
+            return;
+        }
+
+        int frameCount = (data[pos++] & 0xFF) + 1;
+        List<Integer> sizes = new ArrayList<>(frameCount);
+        switch (lacing) {
+            case 1 -> { // Xiph lacing
+                for (int i = 0; i < frameCount - 1; i++) {
+                    int frameSize = 0;
+                    int b;
+                    do {
+                        b = data[pos++] & 0xFF;
+                        frameSize += b;
+                    } while (b == 0xFF);
+                    sizes.add(frameSize);
+                }
+            }
+            case 3 -> { // EBML lacing: frame đầu là vint, các frame sau là độ chênh lệch có dấu
+                Vint first = readVint(data, pos, true);
+                pos += first.length;
+                long frameSize = first.value;
+                sizes.add((int) frameSize);
+                for (int i = 1; i < frameCount - 1; i++) {
+                    Vint diff = readVint(data, pos, true);
+                    pos += diff.length;
+                    frameSize += diff.value - ((1L << (7 * diff.length - 1)) - 1);
+                    sizes.add((int) frameSize);
+                }
+            }
+            default -> { // Fixed-size lacing
+                int frameSize = (end - pos) / frameCount;
+                for (int i = 0; i < frameCount - 1; i++)
+                    sizes.add(frameSize);
+            }
+        }
+
+        for (int frameSize : sizes) {
+            webm.packets.add(copy(data, pos, pos + frameSize));
+            pos += frameSize;
+        }
+        webm.packets.add(copy(data, pos, end));
+    }
+
+    private static byte[] copy(byte[] data, int from, int to) throws IOException {
+        if (from > to || to > data.length)
+            throw new IOException("Malformed WebM block");
+        byte[] packet = new byte[to - from];
+        System.arraycopy(data, from, packet, 0, packet.length);
+        return packet;
+    }
+
+    /**
+     * Đọc số nguyên độ dài thay đổi của EBML.
+     * ID giữ nguyên bit đánh dấu độ dài; size thì bỏ bit đó, giá trị toàn bit 1 nghĩa là "unknown" (-1).
+     */
+    private static Vint readVint(byte[] data, int pos, boolean stripMarker) throws IOException {
+        int first = data[pos] & 0xFF;
+        int length = Integer.numberOfLeadingZeros(first) - 23;
+        if (first == 0 || length > 8)
+            throw new IOException("Invalid EBML variable-length integer");
+
+        long value = stripMarker ? first & (0xFF >> length) : first;
+        boolean allOnes = value == (0xFF >> length);
+        for (int i = 1; i < length; i++) {
+            int b = data[pos + i] & 0xFF;
+            allOnes &= b == 0xFF;
+            value = (value << 8) | b;
+        }
+
+        if (stripMarker && allOnes)
+            value = -1;
+        return new Vint(value, length);
+    }
+
+    private static long readUnsigned(byte[] data, int pos, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++)
+            value = (value << 8) | (data[pos + i] & 0xFF);
+        return value;
+    }
+
+    private record Vint(long value, int length) {}
+
+    private static class WebmAudio {
+        long trackNumber = -1;
+        String codecId;
+        int preSkip;
+        final List<byte[]> packets = new ArrayList<>();
+    }
+}
@@ -0,0 +1,59 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import com.ktnl.fapanese.dto.response.CacheStatsResponse;
+import com.ktnl.fapanese.entity.Question;
+import com.ktnl.fapanese.entity.enums.QuestionType;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+public interface IAnswerKeyCacheService {
+    Map<Long, AnswerKey> getAll(Collection<Long> questionIds);
+    int countByLessonPart(Long lessonPartId);
+    void put(Question question);
+    void putAll(Collection<Question> questions);
+    void evict(Long questionId);
+    void evictAll(Collection<Long> questionIds);
+    void reload();
+    CacheStatsResponse getStats();
+
+    /**
+     * Đáp án của một câu hỏi, đã chuẩn hóa sẵn để chấm mà không cần entity Question.
+     * expectedAnswer: đáp án gốc (trả về cho sinh viên); normalizedAnswer: dùng để so sánh.
+     */
+    record AnswerKey(Long questionId, QuestionType questionType, String expectedAnswer,
+                     String normalizedAnswer, Long lessonPartId) {
+
+        public static AnswerKey of(Long questionId, QuestionType questionType, String correctAnswer,
+                                   String fillAnswer, Long lessonPartId) {
+            String expected;
+            if (questionType == QuestionType.MULTIPLE_CHOICE)
+                expected = correctAnswer;
+            else if (questionType == QuestionType.FILL)
+                expected = fillAnswer;
+            else
+                return new AnswerKey(questionId, questionType, "UNKNOWN_TYPE", null, lessonPartId);
+
+            return new AnswerKey(questionId, questionType, expected, normalize(expected), lessonPartId);
+        }
+
+        public static AnswerKey of(Question question) {
+            return of(question.getId(), question.getQuestionType(), question.getCorrectAnswer(),
+                    question.getFillAnswer(), question.getLessonPart() == null ? null : question.getLessonPart().getId());
+        }
+
+        public boolean matches(String userAnswer) {
+            return normalizedAnswer != null && userAnswer != null && normalizedAnswer.equals(normalize(userAnswer));
+        }
+
+        public String questionTypeName() {
+            return questionType == null ? null : questionType.name();
+        }
+
+        // Không phân biệt hoa thường, bỏ khoảng trắng đầu / cuối
+        static String normalize(String answer) {
+            return answer == null ? null : answer.strip().toLowerCase(Locale.ROOT);
+        }
+    }
+}
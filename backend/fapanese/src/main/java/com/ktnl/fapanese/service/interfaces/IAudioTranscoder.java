@@ -0,0 +1,21 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import java.io.IOException;
+
+/**
+ * Chuyển audio người dùng upload về đúng định dạng Azure STT cần:
+ * PCM 16-bit little-endian, 16 kHz, mono, KHÔNG có header WAV.
+ *
+ * SpeechToTextService thử các transcoder theo thứ tự @Order; transcoder nào không hỗ trợ
+ * hoặc giải mã lỗi thì chuyển sang transcoder tiếp theo (cuối cùng là ffmpeg).
+ */
+public interface IAudioTranscoder {
+    int SAMPLE_RATE = 16000;
+
+    /**
+     * Kiểm tra nhanh (theo magic bytes) xem transcoder có đọc được dữ liệu này không.
+     */
+    boolean supports(byte[] input);
+
+    byte[] toPcm16kMono(byte[] input) throws IOException;
+}
@@ -0,0 +1,21 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import com.ktnl.fapanese.dto.response.BulkGradingResultResponse;
+import com.ktnl.fapanese.dto.response.BulkGradingSummaryResponse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Bộ chấm hàng loạt cho một đề thi, đã nạp sẵn đáp án (xem IExamService.prepareBulkGrading).
+ */
+public interface IBulkExamGrader {
+    int getTotalQuestions();
+
+    /**
+     * Chấm toàn bộ dữ liệu NDJSON đọc được từ reader; mỗi dòng cho ra đúng một kết quả qua onResult.
+     */
+    BulkGradingSummaryResponse grade(BufferedReader sheets, Consumer<BulkGradingResultResponse> onResult)
+            throws IOException, InterruptedException;
+}
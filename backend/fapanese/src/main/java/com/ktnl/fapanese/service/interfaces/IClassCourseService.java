@@ -1,9 +1,11 @@
 package com.ktnl.fapanese.service.interfaces;
 
+import com.ktnl.fapanese.dto.request.ClassCourseFilterRequest;
 import com.ktnl.fapanese.dto.request.ClassCourseRequest;
 import com.ktnl.fapanese.dto.response.*;
 
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 
 public interface IClassCourseService {
     ClassCourseRespone createClass(ClassCourseRequest request);
@@ -12,6 +14,8 @@ public interface IClassCourseService {
 
     List<ClassCourseRespone> getAllClasses();
 
+    PageResponse<ClassCourseRespone> searchClasses(ClassCourseFilterRequest filter, Pageable pageable);
+
     ClassCourseRespone getClassById(Long id);
     ClassCourseRespone getClassByCourseId(Long courseId);
 
@@ -0,0 +1,11 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import com.ktnl.fapanese.dto.request.ClassAnnouncementRequest;
+import com.ktnl.fapanese.dto.response.ClassNotificationResponse;
+import com.ktnl.fapanese.mail.EmailTemplate;
+
+public interface IClassNotificationService {
+    ClassNotificationResponse notifyClass(Long classCourseId, EmailTemplate emailTemplate, String... args);
+    ClassNotificationResponse announce(Long classCourseId, ClassAnnouncementRequest request);
+    ClassNotificationResponse getNotification(Long classCourseId, Long notificationId);
+}
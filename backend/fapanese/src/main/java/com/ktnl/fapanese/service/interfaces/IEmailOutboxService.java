@@ -0,0 +1,11 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import com.ktnl.fapanese.entity.ClassNotification;
+import com.ktnl.fapanese.mail.EmailTemplate;
+import java.util.List;
+
+public interface IEmailOutboxService {
+    void enqueue(String to, EmailTemplate emailTemplate, String... args);
+    void enqueueAll(ClassNotification notification, List<String> recipients);
+    int dispatchPending();
+}
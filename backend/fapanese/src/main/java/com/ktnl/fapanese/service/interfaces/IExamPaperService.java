@@ -0,0 +1,20 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import com.ktnl.fapanese.dto.request.ExamPaperSubmission;
+import com.ktnl.fapanese.dto.request.GenerateExamPapersRequest;
+import com.ktnl.fapanese.dto.request.UserAnswer;
+import com.ktnl.fapanese.dto.response.ExamPaperBatchResponse;
+import com.ktnl.fapanese.dto.response.ExamPaperResponse;
+import com.ktnl.fapanese.dto.response.SubmitQuizResponse;
+import com.ktnl.fapanese.entity.enums.ExamKind;
+
+import java.util.List;
+
+public interface IExamPaperService {
+    ExamPaperBatchResponse generatePapers(ExamKind examKind, Long examId, GenerateExamPapersRequest request);
+    ExamPaperResponse getPaper(Long paperSetId, String studentId);
+    ExamPaperResponse getMyPaper(ExamKind examKind, Long examId);
+    SubmitQuizResponse gradePaper(Long paperSetId, String studentId, List<UserAnswer> answers);
+    SubmitQuizResponse submitMyPaper(ExamPaperSubmission submission);
+    SubmitQuizResponse getMyResult(Long paperSetId);
+}
@@ -2,9 +2,11 @@ package com.ktnl.fapanese.service.interfaces;
 
 import com.ktnl.fapanese.dto.request.UserAnswer;
 import com.ktnl.fapanese.dto.response.SubmitQuizResponse;
+import com.ktnl.fapanese.entity.enums.ExamKind;
 
 import java.util.List;
 
 public interface IExamService {
     SubmitQuizResponse checkAndSubmitExamAnswers(List<UserAnswer> userAnswers);
+    IBulkExamGrader prepareBulkGrading(ExamKind examKind, Long examId, Long classCourseId);
 }
@@ -0,0 +1,13 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import com.ktnl.fapanese.dto.request.ExplainExamRequest;
+import com.ktnl.fapanese.dto.response.CacheStatsResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+public interface IExplanationCacheService {
+    CompletableFuture<String> getOrLoad(ExplainExamRequest request,
+                                        Function<ExplainExamRequest, CompletableFuture<String>> loader);
+    CacheStatsResponse getStats();
+}
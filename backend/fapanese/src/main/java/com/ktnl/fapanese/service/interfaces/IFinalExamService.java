@@ -1,6 +1,7 @@
 package com.ktnl.fapanese.service.interfaces;
 
 import com.ktnl.fapanese.dto.request.FinalExamRequest;
+import com.ktnl.fapanese.dto.response.ExamSummaryResponse;
 import com.ktnl.fapanese.dto.response.FinalExamResponse;
 
 import java.util.List;
@@ -17,4 +18,6 @@ public interface IFinalExamService {
     void deleteFinalExam(Long id);
 
     List<FinalExamResponse> getAllFinalExamsByOverviewPartId(Long partId);
+
+    List<ExamSummaryResponse> getFinalExamSummaries(Long partId);
 }
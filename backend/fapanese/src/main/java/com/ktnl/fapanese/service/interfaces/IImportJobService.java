@@ -0,0 +1,12 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import com.ktnl.fapanese.dto.response.ImportJobResponse;
+import com.ktnl.fapanese.entity.enums.ImportJobType;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+public interface IImportJobService {
+    ImportJobResponse submit(ImportJobType type, MultipartFile file) throws IOException;
+    ImportJobResponse getJob(ImportJobType type, String jobId);
+}
@@ -0,0 +1,13 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import com.ktnl.fapanese.dto.response.CacheStatsResponse;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Optional;
+
+public interface IJwtCacheService {
+    Optional<Jwt> get(String token);
+    void put(Jwt jwt);
+    void evictByJti(String jti);
+    CacheStatsResponse getStats();
+}
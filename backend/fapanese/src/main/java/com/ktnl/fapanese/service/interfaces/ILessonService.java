@@ -1,14 +1,18 @@
 package com.ktnl.fapanese.service.interfaces;
 
 import com.ktnl.fapanese.dto.response.LessonRespone;
+import com.ktnl.fapanese.dto.response.PageResponse;
+import com.ktnl.fapanese.dto.request.LessonFilterRequest;
 import com.ktnl.fapanese.dto.request.LessonRequest;
 import com.ktnl.fapanese.entity.Course;
 import com.ktnl.fapanese.entity.Lesson;
 
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 
 public interface ILessonService {
     List<LessonRespone> getAllLesson();
+    PageResponse<LessonRespone> searchLessons(LessonFilterRequest filter, Pageable pageable);
     List<LessonRespone> getLessonByCourseId(Long courseId);
     LessonRespone getLessonByLessonId(Long lessonId);
     List<LessonRespone> findByCourseCode(String course);
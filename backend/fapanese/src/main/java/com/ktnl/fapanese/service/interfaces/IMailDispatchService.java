@@ -0,0 +1,10 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import com.ktnl.fapanese.dto.response.MailDispatchStatsResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface IMailDispatchService {
+    CompletableFuture<Void> submit(String to, String subject, String html);
+    MailDispatchStatsResponse getStats();
+}
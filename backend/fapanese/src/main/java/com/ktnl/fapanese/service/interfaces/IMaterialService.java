@@ -1,15 +1,19 @@
 package com.ktnl.fapanese.service.interfaces;
 
+import com.ktnl.fapanese.dto.request.MaterialFilterRequest;
 import com.ktnl.fapanese.dto.request.MaterialRequest;
 import com.ktnl.fapanese.dto.response.ClassCourseRespone;
 import com.ktnl.fapanese.dto.response.ClassMaterialResponse;
 import com.ktnl.fapanese.dto.response.MaterialResponse;
+import com.ktnl.fapanese.dto.response.PageResponse;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 
 public interface IMaterialService {
     List<MaterialResponse> getAllMaterials();
+    PageResponse<MaterialResponse> searchMaterials(MaterialFilterRequest filter, Pageable pageable);
     MaterialResponse getMaterialById(Long id);
     MaterialResponse createMaterial(MaterialRequest request);
     MaterialResponse updateMaterial(Long id, MaterialRequest request);
@@ -1,6 +1,7 @@
 package com.ktnl.fapanese.service.interfaces;
 
 import com.ktnl.fapanese.dto.request.MiddleExamRequest;
+import com.ktnl.fapanese.dto.response.ExamSummaryResponse;
 import com.ktnl.fapanese.dto.response.MiddleExamResponse;
 import com.ktnl.fapanese.dto.response.SpeakingExamResponse;
 
@@ -18,4 +19,6 @@ public interface IMiddleExamService {
     void deleteMiddleExam(Long id);
 
     List<MiddleExamResponse> getAllMiddleExamsByOverviewPartId(Long partId);
+
+    List<ExamSummaryResponse> getMiddleExamSummaries(Long partId);
 }
@@ -0,0 +1,9 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface IQuestionExportService {
+    void exportCsv(OutputStream output) throws IOException;
+    void exportXlsx(OutputStream output) throws IOException;
+}
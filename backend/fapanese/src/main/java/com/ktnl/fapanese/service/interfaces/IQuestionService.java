@@ -1,17 +1,23 @@
 package com.ktnl.fapanese.service.interfaces;
 
+import com.ktnl.fapanese.dto.request.QuestionFilterRequest;
 import com.ktnl.fapanese.dto.request.QuestionRequest;
 import com.ktnl.fapanese.dto.request.UserAnswer;
+import com.ktnl.fapanese.dto.response.CursorPageResponse;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.dto.response.QuestionResponse;
 import com.ktnl.fapanese.dto.response.SubmitQuizResponse;
 import com.ktnl.fapanese.entity.enums.QuestionCategory;
 import com.ktnl.fapanese.entity.enums.QuestionType;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
 public interface IQuestionService {
     QuestionResponse createQuestion(QuestionRequest request);
     List<QuestionResponse> getAllQuestions();
+    PageResponse<QuestionResponse> searchQuestions(QuestionFilterRequest filter, Pageable pageable);
+    CursorPageResponse<QuestionResponse> scanQuestions(Long after, Integer limit, QuestionCategory category, Long lessonPartId);
     QuestionResponse getQuestionById(Long id);
     QuestionResponse updateQuestion(Long id, QuestionRequest request);
     void deleteQuestion(Long id);
@@ -0,0 +1,9 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import java.util.Date;
+
+public interface IRevokedTokenService {
+    void revoke(String jti, Date expiryTime);
+    boolean isRevoked(String jti);
+    int purgeExpired();
+}
@@ -1,14 +1,19 @@
 package com.ktnl.fapanese.service.interfaces;
 
+import com.ktnl.fapanese.dto.request.SpeakingExamFilterRequest;
 import com.ktnl.fapanese.dto.request.SpeakingExamRequest;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.dto.response.SpeakingExamResponse;
 import com.ktnl.fapanese.dto.response.SpeakingTestResponse;
 
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 
 public interface ISpeakingExamService {
     List<SpeakingExamResponse> getAllSpeakingExams();
 
+    PageResponse<SpeakingExamResponse> searchSpeakingExams(SpeakingExamFilterRequest filter, Pageable pageable);
+
     SpeakingExamResponse getSpeakingExamById(Long id);
 
     SpeakingExamResponse createSpeakingExam(SpeakingExamRequest request);
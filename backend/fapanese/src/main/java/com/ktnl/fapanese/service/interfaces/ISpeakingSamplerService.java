@@ -0,0 +1,19 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import com.ktnl.fapanese.entity.Speaking;
+import com.ktnl.fapanese.entity.SpeakingQuestion;
+import com.ktnl.fapanese.entity.enums.SpeakingType;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ISpeakingSamplerService {
+    Optional<Long> pickSpeaking(Long overviewPartId, SpeakingType type);
+    List<Long> pickQuestions(Long speakingId, int quantity);
+    void putSpeaking(Speaking speaking);
+    void evictSpeaking(Long speakingId);
+    void putQuestion(SpeakingQuestion question);
+    void evictQuestion(Long questionId);
+    void reload();
+    void invalidate();
+}
@@ -0,0 +1,10 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import com.ktnl.fapanese.dto.response.SpeechRecognitionStatsResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface ISpeechRecognitionJobService {
+    CompletableFuture<String> submit(byte[] audio);
+    SpeechRecognitionStatsResponse getStats();
+}
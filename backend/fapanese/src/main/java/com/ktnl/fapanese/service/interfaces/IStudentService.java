@@ -1,11 +1,14 @@
 package com.ktnl.fapanese.service.interfaces;
 
 import com.ktnl.fapanese.dto.request.CreateStudentRequest;
+import com.ktnl.fapanese.dto.request.StudentFilterRequest;
 import com.ktnl.fapanese.dto.response.CreateStudentAccountResponse;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.dto.response.UserResponse;
 // import org.springframework.security.access.prepost.PreAuthorize; // Có thể xóa import này
 
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 
 public interface IStudentService {
 
@@ -13,10 +16,12 @@ public interface IStudentService {
 
     List<UserResponse> getAllStudent();
 
+    PageResponse<UserResponse> searchStudents(StudentFilterRequest filter, Pageable pageable);
+
     UserResponse getStudentByEmail(String email);
 
     UserResponse updateStudent(String email, CreateStudentRequest studentUpdateRequest);
 
     void deleteStudent(String email);
-    boolean createStudentAccountList(List<CreateStudentRequest> list);
+    List<String> createStudentAccountList(List<CreateStudentRequest> list);
 }
\ No newline at end of file
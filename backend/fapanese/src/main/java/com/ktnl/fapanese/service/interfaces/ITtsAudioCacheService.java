@@ -0,0 +1,13 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import com.ktnl.fapanese.dto.response.CacheStatsResponse;
+
+import java.util.Optional;
+
+public interface ITtsAudioCacheService {
+    String audioKey(int mode, String text);
+    byte[] getOrSynthesize(int mode, String text) throws Exception;
+    Optional<byte[]> find(String audioKey);
+    boolean contains(String audioKey);
+    CacheStatsResponse getStats();
+}
@@ -0,0 +1,9 @@
+package com.ktnl.fapanese.service.interfaces;
+
+import com.ktnl.fapanese.dto.response.TtsPrerenderJobResponse;
+
+public interface ITtsPrerenderService {
+    TtsPrerenderJobResponse prerenderLesson(Long lessonId);
+    TtsPrerenderJobResponse prerenderSpeakingExam(Long speakingExamId);
+    TtsPrerenderJobResponse getJob(String jobId);
+}
@@ -0,0 +1,94 @@
+package com.ktnl.fapanese.configuration;
+
+import com.ktnl.fapanese.service.implementations.JwtCacheService;
+import com.ktnl.fapanese.service.implementations.TokenValidationService;
+import com.ktnl.fapanese.service.interfaces.IRevokedTokenService;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomJwtDecoderTest {
+
+    @Mock
+    TokenValidationService tokenValidationService;
+
+    @Mock
+    IRevokedTokenService revokedTokenService;
+
+    JwtCacheService jwtCacheService;
+    CustomJwtDecoder decoder;
+    String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jwtCacheService = new JwtCacheService();
+        ReflectionTestUtils.setField(jwtCacheService, "MAX_SIZE", 10);
+
+        decoder = new CustomJwtDecoder();
+        ReflectionTestUtils.setField(decoder, "tokenValidationService", tokenValidationService);
+        ReflectionTestUtils.setField(decoder, "jwtCacheService", jwtCacheService);
+        ReflectionTestUtils.setField(decoder, "revokedTokenService", revokedTokenService);
+
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.HS512), new JWTClaimsSet.Builder()
+                .subject("user@example.com")
+                .jwtID("jti-1")
+                .expirationTime(Date.from(Instant.now().plusSeconds(3600)))
+                .build());
+        signedJWT.sign(new MACSigner("0123456789abcdef".repeat(4).getBytes()));
+        token = signedJWT.serialize();
+        when(tokenValidationService.verifyToken(anyString(), eq(false))).thenAnswer(inv -> SignedJWT.parse(token));
+    }
+
+    @Test
+    @DisplayName("Decode - Token hợp lệ được verify một lần rồi lấy từ cache")
+    void decode_Valid_VerifiedOnceThenCached() throws Exception {
+        assertEquals("jti-1", decoder.decode(token).getId());
+        assertEquals("jti-1", decoder.decode(token).getId());
+
+        verify(tokenValidationService, times(1)).verifyToken(token, false);
+        assertEquals(1, jwtCacheService.getStats().getHits());
+    }
+
+    @Test
+    @DisplayName("Decode - Token trong cache bị thu hồi sau đó thì bị từ chối và xóa khỏi cache")
+    void decode_CachedThenRevoked_Rejected() {
+        decoder.decode(token);
+        when(revokedTokenService.isRevoked("jti-1")).thenReturn(true);
+
+        assertThrows(JwtException.class, () -> decoder.decode(token));
+        assertEquals(0, jwtCacheService.getStats().getSize());
+    }
+
+    @Test
+    @DisplayName("Decode - Logout chen giữa verify và put: không để lại token đã thu hồi trong cache")
+    void decode_RevokedBetweenVerifyAndPut_NotCached() throws Exception {
+        when(tokenValidationService.verifyToken(anyString(), eq(false))).thenAnswer(inv -> {
+            SignedJWT verified = SignedJWT.parse(token);
+            // Logout chạy xong (ghi blacklist + evictByJti) khi token chưa được put vào cache
+            when(revokedTokenService.isRevoked("jti-1")).thenReturn(true);
+            jwtCacheService.evictByJti("jti-1");
+            return verified;
+        });
+
+        assertThrows(JwtException.class, () -> decoder.decode(token));
+        assertEquals(0, jwtCacheService.getStats().getSize());
+    }
+}
@@ -0,0 +1,177 @@
+package com.ktnl.fapanese.controller;
+
+import com.ktnl.fapanese.dto.request.ExplainExamRequest;
+import com.ktnl.fapanese.service.implementations.InterviewPipelineService;
+import com.ktnl.fapanese.service.implementations.OpenAIService;
+import com.ktnl.fapanese.service.implementations.TextToSpeechService;
+import com.ktnl.fapanese.service.interfaces.IExplanationCacheService;
+import com.ktnl.fapanese.service.interfaces.ISpeechRecognitionJobService;
+import com.ktnl.fapanese.service.interfaces.ITtsAudioCacheService;
+import com.ktnl.fapanese.service.interfaces.ITtsPrerenderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Client hiện tại (axios, fetch) gửi "Accept: application/json, text/plain, */*" nên phải luôn vào
+// handler JSON; bản streaming chỉ dùng khi gọi đúng path /stream.
+@ExtendWith(MockitoExtension.class)
+class InterviewControllerTest {
+
+    private static final String BROWSER_ACCEPT = "application/json, text/plain, */*";
+
+    @Mock
+    ISpeechRecognitionJobService sttJobs;
+    @Mock
+    OpenAIService openai;
+    @Mock
+    TextToSpeechService tts;
+    @Mock
+    IExplanationCacheService explanationCache;
+    @Mock
+    InterviewPipelineService pipeline;
+    @Mock
+    ITtsAudioCacheService ttsAudioCache;
+    @Mock
+    ITtsPrerenderService ttsPrerender;
+
+    @InjectMocks
+    InterviewController interviewController;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(interviewController).build();
+    }
+
+    @Test
+    @DisplayName("ExplainExam - Accept có */* thì vào handler JSON và nhận ApiResponse")
+    void explainExam_BrowserAccept_ReturnsJson() throws Exception {
+        when(openai.explainExamAsync(any(ExplainExamRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture("Giải thích"));
+
+        MvcResult result = mockMvc.perform(post("/api/interview/explain-exam")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Accept", BROWSER_ACCEPT)
+                        .content("{\"question\":\"Q\",\"options\":\"A,B\",\"correctAnswer\":\"A\"}"))
+                .andExpect(handler().methodName("explainExam"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.result").value("Giải thích"));
+    }
+
+    @Test
+    @DisplayName("Chat - Accept có */* thì vào handler JSON")
+    void chat_BrowserAccept_ReturnsJson() throws Exception {
+        when(openai.chatInterviewAsync("こんにちは")).thenReturn(CompletableFuture.completedFuture("Xin chào"));
+
+        MvcResult result = mockMvc.perform(post("/api/interview/chat")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Accept", BROWSER_ACCEPT)
+                        .content("{\"text\":\"こんにちは\"}"))
+                .andExpect(handler().methodName("chat"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.aiText").value("Xin chào"));
+    }
+
+    @Test
+    @DisplayName("ExplainExam - Path /stream mới trả về Server-Sent Events")
+    void explainExamStream_StreamPath_ReturnsSse() throws Exception {
+        when(openai.explainExamStream(any(ExplainExamRequest.class))).thenReturn(Flux.just("Giải ", "thích"));
+
+        mockMvc.perform(post("/api/interview/explain-exam/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Accept", BROWSER_ACCEPT)
+                        .content("{\"question\":\"Q\"}"))
+                .andExpect(handler().methodName("explainExamStream"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM));
+    }
+
+    @Test
+    @DisplayName("Chat - Path /stream mới trả về Server-Sent Events")
+    void chatStream_StreamPath_ReturnsSse() throws Exception {
+        when(openai.chatInterviewStream(anyString())).thenReturn(Flux.just("Xin ", "chào"));
+
+        mockMvc.perform(post("/api/interview/chat/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"こんにちは\"}"))
+                .andExpect(handler().methodName("chatStream"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM));
+    }
+
+    @Test
+    @DisplayName("Interact - Accept */* (fetch mặc định) thì vào handler JSON")
+    void interact_DefaultAccept_ReturnsJson() throws Exception {
+        when(sttJobs.submit(any())).thenReturn(CompletableFuture.completedFuture("こんにちは"));
+        when(openai.chatInterviewAsync("こんにちは")).thenReturn(CompletableFuture.completedFuture("Xin chào"));
+        when(tts.synthSsmlPolyglotAsync("Xin chào")).thenReturn(CompletableFuture.completedFuture(new byte[]{1, 2}));
+
+        MvcResult result = mockMvc.perform(multipart("/api/interview/interact")
+                        .file(new MockMultipartFile("audio", "a.webm", "audio/webm", new byte[]{0}))
+                        .header("Accept", "*/*"))
+                .andExpect(handler().methodName("interact"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.aiText").value("Xin chào"));
+    }
+
+    @Test
+    @DisplayName("Tts - POST luôn trả audio kèm ETag, kể cả khi client gửi If-None-Match trùng")
+    void tts_Post_IgnoresIfNoneMatch() throws Exception {
+        when(ttsAudioCache.audioKey(1, "こんにちは")).thenReturn("abc");
+        when(ttsAudioCache.getOrSynthesize(1, "こんにちは")).thenReturn(new byte[]{1, 2});
+
+        mockMvc.perform(post("/api/interview/tts/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-None-Match", "\"abc\"")
+                        .content("{\"text\":\"こんにちは\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc\""))
+                .andExpect(header().string("Content-Location", "/api/interview/tts/audio/abc"))
+                .andExpect(content().bytes(new byte[]{1, 2}));
+    }
+
+    @Test
+    @DisplayName("Interact - Path /stream mới trả về Server-Sent Events")
+    void interactStream_StreamPath_ReturnsSse() throws Exception {
+        when(pipeline.transcribe(any())).thenReturn(Mono.just("こんにちは"));
+        when(pipeline.reply("こんにちは")).thenReturn(Flux.empty());
+
+        mockMvc.perform(multipart("/api/interview/interact/stream")
+                        .file(new MockMultipartFile("audio", "a.webm", "audio/webm", new byte[]{0}))
+                        .header("Accept", BROWSER_ACCEPT))
+                .andExpect(handler().methodName("interactStream"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM));
+    }
+}
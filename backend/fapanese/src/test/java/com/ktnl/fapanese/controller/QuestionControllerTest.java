@@ -0,0 +1,99 @@
+package com.ktnl.fapanese.controller;
+
+import com.ktnl.fapanese.dto.request.QuestionFilterRequest;
+import com.ktnl.fapanese.dto.response.PageResponse;
+import com.ktnl.fapanese.dto.response.QuestionResponse;
+import com.ktnl.fapanese.entity.Question;
+import com.ktnl.fapanese.entity.enums.QuestionCategory;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.exception.GlobalExceptionHandler;
+import com.ktnl.fapanese.service.interfaces.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class QuestionControllerTest {
+
+    @Mock
+    IQuestionService questionService;
+    @Mock
+    IQuestionExcelUploadService questionExcelUploadService;
+    @Mock
+    IAnswerKeyCacheService answerKeyCache;
+    @Mock
+    IQuestionExportService questionExportService;
+    @Mock
+    IImportJobService importJobService;
+
+    @InjectMocks
+    QuestionController questionController;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(questionController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .build();
+    }
+
+    @Test
+    @DisplayName("GET /search - Bộ lọc và page / size / sort lấy từ query string")
+    void search_BindsFilterAndPageable() throws Exception {
+        when(questionService.searchQuestions(any(), any())).thenReturn(PageResponse.<QuestionResponse>builder()
+                .items(List.of()).page(1).size(5).totalElements(6).totalPages(2).build());
+
+        mockMvc.perform(get("/api/questions/search")
+                        .param("category", "GRAMMAR").param("keyword", "食")
+                        .param("page", "1").param("size", "5").param("sort", "content,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.totalElements").value(6))
+                .andExpect(jsonPath("$.result.page").value(1));
+
+        ArgumentCaptor<QuestionFilterRequest> filter = ArgumentCaptor.forClass(QuestionFilterRequest.class);
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(questionService).searchQuestions(filter.capture(), pageable.capture());
+        assertEquals(QuestionCategory.GRAMMAR, filter.getValue().getCategory());
+        assertEquals("食", filter.getValue().getKeyword());
+        assertEquals(1, pageable.getValue().getPageNumber());
+        assertEquals(5, pageable.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Direction.DESC, "content"), pageable.getValue().getSort());
+    }
+
+    @Test
+    @DisplayName("GET /search - sort theo trường không tồn tại → 400 INVALID_SORT_PROPERTY")
+    void search_UnknownSortProperty_BadRequest() throws Exception {
+        // Spring Data ném PropertyReferenceException khi dựng câu truy vấn với sort sai
+        when(questionService.searchQuestions(any(), any())).thenThrow(
+                new PropertyReferenceException("password", TypeInformation.of(Question.class), List.of()));
+
+        mockMvc.perform(get("/api/questions/search").param("sort", "password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(ErrorCode.INVALID_SORT_PROPERTY.getCode()))
+                .andExpect(jsonPath("$.message").value("Không thể sắp xếp theo trường password"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.ktnl.fapanese.repository.specification;
+
+import com.ktnl.fapanese.dto.request.*;
+import com.ktnl.fapanese.entity.Material;
+import com.ktnl.fapanese.entity.enums.QuestionCategory;
+import com.ktnl.fapanese.entity.enums.QuestionType;
+import com.ktnl.fapanese.entity.enums.SpeakingExamType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Mỗi trường lọc sinh đúng một điều kiện trên đúng cột; trường bỏ trống không sinh điều kiện.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+class SpecificationsTest {
+
+    Root root;
+    CriteriaQuery query;
+    CriteriaBuilder cb;
+
+    @BeforeEach
+    void setUp() {
+        root = mock(Root.class, RETURNS_DEEP_STUBS);
+        query = mock(CriteriaQuery.class);
+        cb = mock(CriteriaBuilder.class);
+    }
+
+    private void apply(Specification<?> spec) {
+        ((Specification) spec).toPredicate(root, query, cb);
+    }
+
+    private void verifyLike(String pattern, int times) {
+        verify(cb, times(times)).like(any(), eq(pattern), eq('\\'));
+    }
+
+    @Test
+    @DisplayName("QuestionSpecifications - category, questionType, lessonPart.id và keyword trên content")
+    void question_AllFilters() {
+        apply(QuestionSpecifications.filter(QuestionFilterRequest.builder()
+                .category(QuestionCategory.GRAMMAR).questionType(QuestionType.FILL)
+                .lessonPartId(3L).keyword(" 食べ ").build()));
+
+        verify(cb).equal(root.get("category"), QuestionCategory.GRAMMAR);
+        verify(cb).equal(root.get("questionType"), QuestionType.FILL);
+        verify(cb).equal(root.get("lessonPart").get("id"), 3L);
+        verify(cb).lower(root.get("content"));
+        verifyLike("%食べ%", 1);
+    }
+
+    @Test
+    @DisplayName("StudentSpecifications - chỉ role STUDENT, campus và keyword dùng chung một LEFT JOIN student")
+    void student_AllFilters() {
+        apply(StudentSpecifications.filter(StudentFilterRequest.builder().campus("HCM").keyword("SV01").build()));
+
+        verify(cb).equal(root.join("roles").get("roleName"), "STUDENT");
+        verify(cb).equal(root.join("student", JoinType.LEFT).get("campus"), "HCM");
+        verify(cb).lower(root.get("email"));
+        verify(cb).lower(root.join("student", JoinType.LEFT).get("firstName"));
+        verify(cb).lower(root.join("student", JoinType.LEFT).get("lastName"));
+        verifyLike("%sv01%", 3);
+        verify(cb).or(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("StudentSpecifications - bộ lọc rỗng vẫn giới hạn role STUDENT")
+    void student_EmptyFilter_OnlyRole() {
+        apply(StudentSpecifications.filter(new StudentFilterRequest()));
+
+        verify(cb).equal(root.join("roles").get("roleName"), "STUDENT");
+        verify(cb, never()).like(any(), anyString(), anyChar());
+        verify(root, never()).join("student", JoinType.LEFT);
+    }
+
+    @Test
+    @DisplayName("ClassCourseSpecifications - course.id, lecturer.id, semester và keyword trên className")
+    void classCourse_AllFilters() {
+        apply(ClassCourseSpecifications.filter(ClassCourseFilterRequest.builder()
+                .courseId(1L).lecturerId("gv01").semester("FA25").keyword("SE18").build()));
+
+        verify(cb).equal(root.get("course").get("id"), 1L);
+        verify(cb).equal(root.get("lecturer").get("id"), "gv01");
+        verify(cb).equal(root.get("semester"), "FA25");
+        verify(cb).lower(root.get("className"));
+        verifyLike("%se18%", 1);
+    }
+
+    @Test
+    @DisplayName("ClassCourseSpecifications - semester rỗng / toàn khoảng trắng thì bỏ qua")
+    void classCourse_BlankSemester_Ignored() {
+        assertNull(ClassCourseSpecifications.filter(ClassCourseFilterRequest.builder().semester("  ").keyword("").build())
+                .toPredicate(root, query, cb));
+        verifyNoInteractions(cb);
+    }
+
+    @Test
+    @DisplayName("LessonSpecifications - course.id và keyword trên lessonTitle")
+    void lesson_AllFilters() {
+        apply(LessonSpecifications.filter(LessonFilterRequest.builder().courseId(2L).keyword("Bài").build()));
+
+        verify(cb).equal(root.get("course").get("id"), 2L);
+        verify(cb).lower(root.get("lessonTitle"));
+        verifyLike("%bài%", 1);
+    }
+
+    @Test
+    @DisplayName("MaterialSpecifications - type, lecturer.id và keyword trên title (escape ký tự LIKE)")
+    void material_AllFilters() {
+        apply(MaterialSpecifications.filter(MaterialFilterRequest.builder()
+                .type(Material.MaterialType.ASSIGNMENT).lecturerId("gv01").keyword("50%_off").build()));
+
+        verify(cb).equal(root.get("type"), Material.MaterialType.ASSIGNMENT);
+        verify(cb).equal(root.get("lecturer").get("id"), "gv01");
+        verify(cb).lower(root.get("title"));
+        verifyLike("%50\\%\\_off%", 1);
+    }
+
+    @Test
+    @DisplayName("SpeakingExamSpecifications - overviewPart.id, type và keyword trên title")
+    void speakingExam_AllFilters() {
+        apply(SpeakingExamSpecifications.filter(SpeakingExamFilterRequest.builder()
+                .overviewPartId(4L).type(SpeakingExamType.PICTURE).keyword("Mô tả").build()));
+
+        verify(cb).equal(root.get("overviewPart").get("id"), 4L);
+        verify(cb).equal(root.get("type"), SpeakingExamType.PICTURE);
+        verify(cb).lower(root.get("title"));
+        verifyLike("%mô tả%", 1);
+    }
+}
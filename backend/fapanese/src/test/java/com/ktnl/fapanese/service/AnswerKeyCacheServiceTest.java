@@ -0,0 +1,144 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.entity.LessonPart;
+import com.ktnl.fapanese.entity.Question;
+import com.ktnl.fapanese.entity.enums.QuestionType;
+import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.repository.projection.QuestionAnswerKey;
+import com.ktnl.fapanese.service.implementations.AnswerKeyCacheService;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService.AnswerKey;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnswerKeyCacheServiceTest {
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @InjectMocks
+    private AnswerKeyCacheService answerKeyCacheService;
+
+    private static final List<QuestionAnswerKey> ROWS = List.of(
+            new QuestionAnswerKey(3L, QuestionType.MULTIPLE_CHOICE, "B", null, 10L),
+            new QuestionAnswerKey(1L, QuestionType.MULTIPLE_CHOICE, "A", null, 10L),
+            new QuestionAnswerKey(2L, QuestionType.FILL, null, " Tokyo ", 20L));
+
+    @Test
+    @DisplayName("getAll - Nạp toàn bộ một lần, các lần sau không query MySQL")
+    void getAll_LoadsOnceThenServesFromMemory() {
+        when(questionRepository.findAllAnswerKeys()).thenReturn(ROWS);
+
+        Map<Long, AnswerKey> first = answerKeyCacheService.getAll(List.of(1L, 2L));
+        Map<Long, AnswerKey> second = answerKeyCacheService.getAll(List.of(3L, 1L));
+
+        assertEquals(2, first.size());
+        assertEquals("B", second.get(3L).expectedAnswer());
+        verify(questionRepository, times(1)).findAllAnswerKeys();
+        verify(questionRepository, never()).findAnswerKeysByIdIn(anyCollection());
+        assertEquals(4, answerKeyCacheService.getStats().getHits());
+        assertEquals(3, answerKeyCacheService.getStats().getSize());
+    }
+
+    @Test
+    @DisplayName("AnswerKey.matches - Không phân biệt hoa thường / khoảng trắng đầu cuối")
+    void answerKey_NormalizedMatch() {
+        when(questionRepository.findAllAnswerKeys()).thenReturn(ROWS);
+
+        Map<Long, AnswerKey> keys = answerKeyCacheService.getAll(List.of(1L, 2L));
+
+        assertTrue(keys.get(1L).matches("a"));
+        assertFalse(keys.get(1L).matches("b"));
+        assertTrue(keys.get(2L).matches("tokyo  "));
+        assertFalse(keys.get(2L).matches(null));
+        assertEquals(" Tokyo ", keys.get(2L).expectedAnswer());
+    }
+
+    @Test
+    @DisplayName("AnswerKey - Loại câu hỏi không hỗ trợ - Luôn sai, hiển thị UNKNOWN_TYPE")
+    void answerKey_UnknownType() {
+        AnswerKey key = AnswerKey.of(1L, QuestionType.TRUE_FALSE, "TRUE", null, 10L);
+
+        assertFalse(key.matches("TRUE"));
+        assertEquals("UNKNOWN_TYPE", key.expectedAnswer());
+    }
+
+    @Test
+    @DisplayName("getAll - Id chưa có trong cache - Đọc bổ sung từ MySQL rồi giữ lại")
+    void getAll_MissingId_LoadsFromDatabase() {
+        when(questionRepository.findAllAnswerKeys()).thenReturn(ROWS);
+        when(questionRepository.findAnswerKeysByIdIn(List.of(4L, 99L))).thenReturn(List.of(
+                new QuestionAnswerKey(4L, QuestionType.MULTIPLE_CHOICE, "C", null, 10L)));
+
+        Map<Long, AnswerKey> keys = answerKeyCacheService.getAll(List.of(1L, 4L, 99L));
+
+        assertEquals(2, keys.size());
+        assertFalse(keys.containsKey(99L));
+        assertEquals(3, answerKeyCacheService.countByLessonPart(10L));
+
+        answerKeyCacheService.getAll(List.of(4L));
+        verify(questionRepository, times(1)).findAnswerKeysByIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("put / evict - Cập nhật snapshot và số câu theo lessonPart")
+    void putAndEvict_UpdateSnapshot() {
+        when(questionRepository.findAllAnswerKeys()).thenReturn(ROWS);
+        assertEquals(2, answerKeyCacheService.countByLessonPart(10L));
+
+        LessonPart lessonPart = new LessonPart();
+        lessonPart.setId(20L);
+        answerKeyCacheService.put(Question.builder().id(1L).questionType(QuestionType.MULTIPLE_CHOICE)
+                .correctAnswer("D").lessonPart(lessonPart).build());
+        answerKeyCacheService.evict(3L);
+
+        Map<Long, AnswerKey> keys = answerKeyCacheService.getAll(List.of(1L));
+        assertEquals("D", keys.get(1L).expectedAnswer());
+        assertEquals(0, answerKeyCacheService.countByLessonPart(10L));
+        assertEquals(2, answerKeyCacheService.countByLessonPart(20L));
+        assertEquals(1, answerKeyCacheService.getStats().getEvictions());
+    }
+
+    @Test
+    @DisplayName("evictAll - Trong transaction thì chỉ evict sau khi commit")
+    void evictAll_InTransaction_EvictsAfterCommit() {
+        when(questionRepository.findAllAnswerKeys()).thenReturn(ROWS);
+        answerKeyCacheService.getAll(List.of(1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            answerKeyCacheService.evictAll(List.of(1L, 3L));
+            assertEquals(3, answerKeyCacheService.getStats().getSize());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, answerKeyCacheService.getStats().getSize());
+        assertEquals(0, answerKeyCacheService.countByLessonPart(10L));
+        assertEquals(2, answerKeyCacheService.getStats().getEvictions());
+    }
+
+    @Test
+    @DisplayName("putAll - Trước lần nạp đầu tiên - Bỏ qua, lần nạp sau đọc từ DB")
+    void putAll_BeforeLoad_Ignored() {
+        answerKeyCacheService.putAll(List.of(Question.builder().id(7L).questionType(QuestionType.FILL).build()));
+
+        verifyNoInteractions(questionRepository);
+        assertEquals(0, answerKeyCacheService.getStats().getSize());
+    }
+}
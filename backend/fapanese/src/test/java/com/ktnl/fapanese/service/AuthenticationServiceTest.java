@@ -4,16 +4,15 @@ import com.ktnl.fapanese.dto.request.AuthenticationRequest;
 import com.ktnl.fapanese.dto.request.LogoutRequest;
 import com.ktnl.fapanese.dto.request.RefreshRequest;
 import com.ktnl.fapanese.dto.response.AuthenticationResponse;
-import com.ktnl.fapanese.entity.InvalidatedToken;
 import com.ktnl.fapanese.entity.Permission;
 import com.ktnl.fapanese.entity.Role;
 import com.ktnl.fapanese.entity.User;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
-import com.ktnl.fapanese.repository.InvalidatedTokenRepository;
 import com.ktnl.fapanese.repository.UserRepository;
 import com.ktnl.fapanese.service.implementations.AuthenticationService;
 import com.ktnl.fapanese.service.implementations.TokenValidationService;
+import com.ktnl.fapanese.service.interfaces.IRevokedTokenService;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
@@ -51,10 +50,10 @@ class AuthenticationServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private InvalidatedTokenRepository invalidatedTokenRepository;
+    private TokenValidationService tokenValidationService;
 
     @Mock
-    private TokenValidationService tokenValidationService;
+    private IRevokedTokenService revokedTokenService;
 
     @Mock
     private PasswordEncoder passwordEncoder; // Dùng cho updatePassword
@@ -206,7 +205,7 @@ class AuthenticationServiceTest {
         }
 
         // Kiểm tra xem có lưu vào blacklist hay không
-        verify(invalidatedTokenRepository, times(expectSaveToBlacklist)).save(any(InvalidatedToken.class));
+        verify(revokedTokenService, times(expectSaveToBlacklist)).revoke(MOCK_JTI, MOCK_EXPIRY_TIME);
     }
 
     // --- 4. Test Logout (Gộp 2 kịch bản) ---
@@ -240,7 +239,7 @@ class AuthenticationServiceTest {
         });
 
         // Assert
-        verify(invalidatedTokenRepository, times(expectSaveToBlacklist)).save(any(InvalidatedToken.class));
+        verify(revokedTokenService, times(expectSaveToBlacklist)).revoke(MOCK_JTI, MOCK_EXPIRY_TIME);
     }
 
     // --- 5. Test Update Password (Gộp 2 kịch bản) ---
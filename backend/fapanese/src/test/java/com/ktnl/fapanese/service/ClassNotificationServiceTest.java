@@ -0,0 +1,223 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.dto.request.ClassAnnouncementRequest;
+import com.ktnl.fapanese.dto.response.ClassNotificationResponse;
+import com.ktnl.fapanese.entity.*;
+import com.ktnl.fapanese.entity.enums.EmailOutboxStatus;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.mail.EmailTemplate;
+import com.ktnl.fapanese.repository.ClassCourseRepository;
+import com.ktnl.fapanese.repository.ClassNotificationRepository;
+import com.ktnl.fapanese.repository.EmailOutboxRepository;
+import com.ktnl.fapanese.repository.StudentClassRepository;
+import com.ktnl.fapanese.service.implementations.ClassNotificationService;
+import com.ktnl.fapanese.service.interfaces.IEmailOutboxService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClassNotificationServiceTest {
+
+    @Mock
+    StudentClassRepository studentClassRepository;
+    @Mock
+    ClassCourseRepository classCourseRepository;
+    @Mock
+    ClassNotificationRepository classNotificationRepository;
+    @Mock
+    EmailOutboxRepository emailOutboxRepository;
+    @Mock
+    IEmailOutboxService emailOutbox;
+    @Mock
+    EmailTemplate emailTemplate;
+
+    @InjectMocks
+    ClassNotificationService classNotificationService;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void loginAs(String email, String authority) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(email, null, authority));
+    }
+
+    // Lớp 10 (SE1801) do lecturer@test.com dạy
+    private ClassCourse givenTaughtClass() {
+        User user = new User();
+        user.setEmail("lecturer@test.com");
+        Lecturer lecturer = new Lecturer();
+        lecturer.setUser(user);
+        ClassCourse classCourse = new ClassCourse();
+        classCourse.setId(10L);
+        classCourse.setClassName("SE1801");
+        classCourse.setLecturer(lecturer);
+        when(classCourseRepository.findById(10L)).thenReturn(Optional.of(classCourse));
+        return classCourse;
+    }
+
+    private static StudentClass enrolled(String email) {
+        User student = new User();
+        student.setEmail(email);
+        return StudentClass.builder().student(student).build();
+    }
+
+    private void givenStudents(String... emails) {
+        when(studentClassRepository.findByIdClassCourseId(10L))
+                .thenReturn(Arrays.stream(emails).map(ClassNotificationServiceTest::enrolled).toList());
+    }
+
+    private void givenSaveAssignsId() {
+        when(classNotificationRepository.save(any(ClassNotification.class))).thenAnswer(inv -> {
+            ClassNotification notification = inv.getArgument(0);
+            notification.setId(7L);
+            return notification;
+        });
+    }
+
+    @Test
+    @DisplayName("NotifyClass - Render template một lần, mỗi sinh viên một email trong outbox")
+    void notifyClass_RendersOnceAndEnqueuesEveryStudent() {
+        givenStudents("a@test.com", "b@test.com", "c@test.com");
+        givenSaveAssignsId();
+        when(emailTemplate.getSubject()).thenReturn("Bài mới");
+        when(emailTemplate.getContent("SE1801", "Bài 1")).thenReturn("<p>Bài 1</p>");
+
+        ClassNotificationResponse response = classNotificationService.notifyClass(10L, emailTemplate, "SE1801", "Bài 1");
+
+        verify(emailTemplate, times(1)).getContent(any(String[].class));
+        ArgumentCaptor<ClassNotification> notification = ArgumentCaptor.forClass(ClassNotification.class);
+        verify(classNotificationRepository).save(notification.capture());
+        assertEquals("<p>Bài 1</p>", notification.getValue().getBody());
+        assertEquals(3, notification.getValue().getRecipientCount());
+        verify(emailOutbox).enqueueAll(notification.getValue(), List.of("a@test.com", "b@test.com", "c@test.com"));
+
+        assertEquals(7L, response.getId());
+        assertEquals(3, response.getRecipientCount());
+        assertEquals(3, response.getPending());
+    }
+
+    @Test
+    @DisplayName("NotifyClass - Lớp không có sinh viên: không render, không ghi outbox")
+    void notifyClass_EmptyClass_NothingQueued() {
+        givenStudents();
+        when(emailTemplate.getSubject()).thenReturn("Bài mới");
+
+        ClassNotificationResponse response = classNotificationService.notifyClass(10L, emailTemplate, "SE1801");
+
+        assertNull(response.getId());
+        assertEquals(0, response.getRecipientCount());
+        verify(emailTemplate, never()).getContent(any(String[].class));
+        verifyNoInteractions(classNotificationRepository, emailOutbox);
+    }
+
+    @Test
+    @DisplayName("Announce - Nội dung giảng viên nhập được escape HTML")
+    void announce_Success_EscapesMessage() {
+        givenTaughtClass();
+        loginAs("lecturer@test.com", "ROLE_LECTURER");
+        givenStudents("a@test.com");
+        givenSaveAssignsId();
+
+        ClassNotificationResponse response = classNotificationService.announce(10L,
+                new ClassAnnouncementRequest(" Nghỉ học ", "Lớp nghỉ <b>thứ 2</b>\nHọc bù thứ 7"));
+
+        ArgumentCaptor<ClassNotification> notification = ArgumentCaptor.forClass(ClassNotification.class);
+        verify(classNotificationRepository).save(notification.capture());
+        assertEquals("Nghỉ học", notification.getValue().getSubject());
+        String body = notification.getValue().getBody();
+        assertTrue(body.contains("SE1801"));
+        assertTrue(body.contains("&lt;b&gt;thứ 2&lt;/b&gt;<br>Học bù thứ 7"));
+        assertFalse(body.contains("<b>thứ 2</b>"));
+        assertEquals(1, response.getRecipientCount());
+    }
+
+    @Test
+    @DisplayName("Announce - Thiếu tiêu đề / nội dung hoặc lớp không tồn tại thì báo lỗi")
+    void announce_Invalid_Throws() {
+        AppException empty = assertThrows(AppException.class,
+                () -> classNotificationService.announce(10L, new ClassAnnouncementRequest("Tiêu đề", "  ")));
+        assertEquals(ErrorCode.CLASS_ANNOUNCEMENT_EMPTY, empty.getErrorCode());
+
+        when(classCourseRepository.findById(99L)).thenReturn(Optional.empty());
+        AppException notFound = assertThrows(AppException.class,
+                () -> classNotificationService.announce(99L, new ClassAnnouncementRequest("Tiêu đề", "Nội dung")));
+        assertEquals(ErrorCode.CLASS_COURSE_NOT_FOUND, notFound.getErrorCode());
+        verifyNoInteractions(emailOutbox);
+    }
+
+    @Test
+    @DisplayName("GetNotification - Trạng thái gửi của từng người nhận")
+    void getNotification_ReturnsPerRecipientStatus() {
+        givenTaughtClass();
+        loginAs("lecturer@test.com", "ROLE_LECTURER");
+        ClassNotification notification = ClassNotification.builder()
+                .id(7L).classCourseId(10L).subject("Bài mới").recipientCount(3).createdAt(LocalDateTime.now()).build();
+        when(classNotificationRepository.findById(7L)).thenReturn(Optional.of(notification));
+        when(emailOutboxRepository.findByNotification_IdOrderByRecipientAsc(7L)).thenReturn(List.of(
+                EmailOutbox.builder().recipient("a@test.com").status(EmailOutboxStatus.SENT).attempts(0).sentAt(LocalDateTime.now()).build(),
+                EmailOutbox.builder().recipient("b@test.com").status(EmailOutboxStatus.FAILED).attempts(5).lastError("Mailbox not found").build(),
+                EmailOutbox.builder().recipient("c@test.com").status(EmailOutboxStatus.PENDING).attempts(1).lastError("Timeout").build()));
+
+        ClassNotificationResponse response = classNotificationService.getNotification(10L, 7L);
+
+        assertEquals(1, response.getSent());
+        assertEquals(1, response.getFailed());
+        assertEquals(1, response.getPending());
+        assertEquals(3, response.getRecipients().size());
+        assertEquals("FAILED", response.getRecipients().get(1).getStatus());
+        assertEquals("Mailbox not found", response.getRecipients().get(1).getLastError());
+    }
+
+    @Test
+    @DisplayName("GetNotification - Thông báo của lớp khác thì không tìm thấy")
+    void getNotification_OtherClass_NotFound() {
+        givenTaughtClass();
+        loginAs("lecturer@test.com", "ROLE_LECTURER");
+        ClassNotification notification = ClassNotification.builder().id(7L).classCourseId(11L).build();
+        when(classNotificationRepository.findById(7L)).thenReturn(Optional.of(notification));
+
+        AppException e = assertThrows(AppException.class, () -> classNotificationService.getNotification(10L, 7L));
+        assertEquals(ErrorCode.CLASS_NOTIFICATION_NOT_FOUND, e.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Announce / GetNotification - Giảng viên không dạy lớp bị từ chối, admin thì được")
+    void announceAndGetNotification_OnlyTeachingLecturerOrAdmin() {
+        givenTaughtClass();
+        loginAs("other@test.com", "ROLE_LECTURER");
+
+        AppException announce = assertThrows(AppException.class,
+                () -> classNotificationService.announce(10L, new ClassAnnouncementRequest("Tiêu đề", "Nội dung")));
+        assertEquals(ErrorCode.CLASS_NOT_TAUGHT, announce.getErrorCode());
+        AppException status = assertThrows(AppException.class,
+                () -> classNotificationService.getNotification(10L, 7L));
+        assertEquals(ErrorCode.CLASS_NOT_TAUGHT, status.getErrorCode());
+        verifyNoInteractions(classNotificationRepository, emailOutbox);
+
+        loginAs("admin@test.com", "ROLE_ADMIN");
+        givenStudents("a@test.com");
+        givenSaveAssignsId();
+        ClassNotificationResponse response = classNotificationService.announce(10L, new ClassAnnouncementRequest("Tiêu đề", "Nội dung"));
+        assertEquals(1, response.getRecipientCount());
+    }
+}
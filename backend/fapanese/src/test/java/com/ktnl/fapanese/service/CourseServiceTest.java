@@ -7,6 +7,8 @@ import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
 import com.ktnl.fapanese.mapper.CourseMapper;
 import com.ktnl.fapanese.repository.CourseRepository;
+import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
 import com.ktnl.fapanese.service.implementations.CourseService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -39,6 +41,12 @@ class CourseServiceTest {
     @Mock
     private CourseMapper courseMapper;
 
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @Mock
+    private IAnswerKeyCacheService answerKeyCache;
+
     @InjectMocks
     private CourseService courseService;
 
@@ -195,11 +203,14 @@ class CourseServiceTest {
             AppException e = assertThrows(AppException.class, () -> courseService.deleteCourse(courseId));
             assertEquals(expectedErrorCode, e.getErrorCode());
             verify(courseRepository, never()).deleteById(any());
+            verifyNoInteractions(answerKeyCache);
         } else {
             // Kịch bản SUCCESS
             doNothing().when(courseRepository).deleteById(courseId);
+            when(questionRepository.findIdsByCourseId(courseId)).thenReturn(List.of(5L, 6L));
             courseService.deleteCourse(courseId);
             verify(courseRepository, times(1)).deleteById(courseId);
+            verify(answerKeyCache).evictAll(List.of(5L, 6L));
         }
     }
 
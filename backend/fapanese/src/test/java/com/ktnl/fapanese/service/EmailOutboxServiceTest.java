@@ -0,0 +1,230 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.entity.ClassNotification;
+import com.ktnl.fapanese.entity.EmailOutbox;
+import com.ktnl.fapanese.entity.enums.EmailOutboxStatus;
+import com.ktnl.fapanese.mail.EmailTemplate;
+import com.ktnl.fapanese.repository.EmailOutboxRepository;
+import com.ktnl.fapanese.service.implementations.EmailOutboxService;
+import com.ktnl.fapanese.service.interfaces.IMailDispatchService;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxServiceTest {
+
+    @Mock
+    EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    IMailDispatchService mailDispatch;
+
+    @Mock
+    EmailTemplate emailTemplate;
+
+    @InjectMocks
+    EmailOutboxService emailOutboxService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(emailOutboxService, "BATCH_SIZE", 2);
+        ReflectionTestUtils.setField(emailOutboxService, "MAX_ATTEMPTS", 3);
+        ReflectionTestUtils.setField(emailOutboxService, "RETRY_DELAY_MS", 60000L);
+    }
+
+    private static EmailOutbox pending(String to) {
+        return EmailOutbox.builder()
+                .id("id-" + to)
+                .recipient(to)
+                .subject("Subject")
+                .body("<p>password</p>")
+                .status(EmailOutboxStatus.PENDING)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Enqueue - Lưu email PENDING với nội dung đã render, chưa gửi SMTP")
+    void enqueue_SavesPendingMessage() throws Exception {
+        when(emailTemplate.getSubject()).thenReturn("Tài khoản mới");
+        when(emailTemplate.getContent("a@test.com", "pw")).thenReturn("<p>a@test.com / pw</p>");
+
+        emailOutboxService.enqueue("a@test.com", emailTemplate, "a@test.com", "pw");
+
+        ArgumentCaptor<EmailOutbox> captor = ArgumentCaptor.forClass(EmailOutbox.class);
+        verify(emailOutboxRepository).save(captor.capture());
+        EmailOutbox saved = captor.getValue();
+        assertEquals("a@test.com", saved.getRecipient());
+        assertEquals("Tài khoản mới", saved.getSubject());
+        assertEquals("<p>a@test.com / pw</p>", saved.getBody());
+        assertEquals(EmailOutboxStatus.PENDING, saved.getStatus());
+        assertEquals(0, saved.getAttempts());
+        assertNotNull(saved.getNextAttemptAt());
+        verify(mailDispatch, never()).submit(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("EnqueueAll - Mỗi người nhận một dòng, không chép nội dung thông báo")
+    @SuppressWarnings("unchecked")
+    void enqueueAll_OneRowPerRecipientSharingBody() {
+        ClassNotification notification = ClassNotification.builder().id(7L).subject("Bài mới").body("<p>Bài 1</p>").build();
+
+        emailOutboxService.enqueueAll(notification, List.of("a@test.com", "b@test.com"));
+
+        ArgumentCaptor<List<EmailOutbox>> captor = ArgumentCaptor.forClass(List.class);
+        verify(emailOutboxRepository).saveAll(captor.capture());
+        List<EmailOutbox> rows = captor.getValue();
+        assertEquals(List.of("a@test.com", "b@test.com"), rows.stream().map(EmailOutbox::getRecipient).toList());
+        for (EmailOutbox row : rows) {
+            assertSame(notification, row.getNotification());
+            assertNull(row.getBody());
+            assertEquals("Bài mới", row.getSubject());
+            assertEquals(EmailOutboxStatus.PENDING, row.getStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("Dispatch - Email của thông báo lớp gửi nội dung chung của ClassNotification")
+    void dispatchPending_NotificationMessage_UsesSharedBody() {
+        ClassNotification notification = ClassNotification.builder().id(7L).subject("Bài mới").body("<p>Bài 1</p>").build();
+        EmailOutbox message = pending("a@test.com");
+        message.setBody(null);
+        message.setNotification(notification);
+        when(emailOutboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+                any(), any(), any())).thenReturn(List.of(message));
+        when(mailDispatch.submit(anyString(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        emailOutboxService.dispatchPending();
+
+        verify(mailDispatch).submit("a@test.com", "Subject", "<p>Bài 1</p>");
+        assertEquals(EmailOutboxStatus.SENT, message.getStatus());
+    }
+
+    @Test
+    @DisplayName("Dispatch - Gửi thành công: SENT, xóa nội dung, dừng khi lô không đầy")
+    void dispatchPending_Success_MarksSentAndWipesBody() throws Exception {
+        EmailOutbox a = pending("a@test.com");
+        EmailOutbox b = pending("b@test.com");
+        EmailOutbox c = pending("c@test.com");
+        when(emailOutboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+                eq(EmailOutboxStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(a, b), List.of(c));
+        when(mailDispatch.submit(anyString(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        int sent = emailOutboxService.dispatchPending();
+
+        assertEquals(3, sent);
+        for (EmailOutbox message : List.of(a, b, c)) {
+            assertEquals(EmailOutboxStatus.SENT, message.getStatus());
+            assertNull(message.getBody());
+            assertNotNull(message.getSentAt());
+        }
+        verify(mailDispatch).submit("a@test.com", "Subject", "<p>password</p>");
+        // Lô thứ hai chỉ có 1 email (< BATCH_SIZE) nên không truy vấn thêm
+        verify(emailOutboxRepository, times(2)).findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+                any(), any(), any());
+        verify(emailOutboxRepository, times(3)).save(any(EmailOutbox.class));
+    }
+
+    @Test
+    @DisplayName("Dispatch - Gửi lỗi: tăng attempts, hẹn lại theo backoff, giữ nội dung")
+    void dispatchPending_Failure_SchedulesRetry() throws Exception {
+        EmailOutbox message = pending("a@test.com");
+        message.setAttempts(1);
+        when(emailOutboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+                any(), any(), any())).thenReturn(List.of(message));
+        when(mailDispatch.submit(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new MessagingException("SMTP down")));
+
+        LocalDateTime before = LocalDateTime.now();
+        int sent = emailOutboxService.dispatchPending();
+
+        assertEquals(0, sent);
+        assertEquals(EmailOutboxStatus.PENDING, message.getStatus());
+        assertEquals(2, message.getAttempts());
+        assertEquals("SMTP down", message.getLastError());
+        assertEquals("<p>password</p>", message.getBody());
+        // Lần lỗi thứ 2: 2 × retry-delay
+        assertFalse(message.getNextAttemptAt().isBefore(before.plusSeconds(120)));
+        verify(emailOutboxRepository).save(message);
+    }
+
+    @Test
+    @DisplayName("Dispatch - Lỗi tới max-attempts thì FAILED, không thử lại và xóa nội dung")
+    void dispatchPending_FailureAtMaxAttempts_MarksFailed() throws Exception {
+        EmailOutbox message = pending("a@test.com");
+        message.setAttempts(2);
+        when(emailOutboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+                any(), any(), any())).thenReturn(List.of(message));
+        when(mailDispatch.submit(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new MessagingException("Invalid address")));
+
+        emailOutboxService.dispatchPending();
+
+        assertEquals(EmailOutboxStatus.FAILED, message.getStatus());
+        assertEquals(3, message.getAttempts());
+        assertEquals("Invalid address", message.getLastError());
+        assertNull(message.getBody());
+    }
+
+    @Test
+    @DisplayName("Dispatch - Một email lỗi không chặn các email còn lại trong lô")
+    void dispatchPending_OneFailure_OthersStillSent() throws Exception {
+        List<EmailOutbox> batch = IntStream.range(0, 2).mapToObj(i -> pending("u" + i + "@test.com")).toList();
+        when(emailOutboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+                any(), any(), any())).thenReturn(batch, List.of());
+        when(mailDispatch.submit(eq("u0@test.com"), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new MessagingException("Mailbox full")));
+        when(mailDispatch.submit(eq("u1@test.com"), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        int sent = emailOutboxService.dispatchPending();
+
+        assertEquals(1, sent);
+        assertEquals(EmailOutboxStatus.PENDING, batch.get(0).getStatus());
+        assertEquals(EmailOutboxStatus.SENT, batch.get(1).getStatus());
+    }
+
+    @Test
+    @DisplayName("Dispatch - Hàng đợi gửi đầy: giữ PENDING, không tính lần thử, dừng vòng lặp")
+    void dispatchPending_QueueFull_LeavesPendingAndStops() throws Exception {
+        List<EmailOutbox> batch = IntStream.range(0, 2).mapToObj(i -> pending("u" + i + "@test.com")).toList();
+        when(emailOutboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+                any(), any(), any())).thenReturn(batch);
+        when(mailDispatch.submit(eq("u0@test.com"), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(mailDispatch.submit(eq("u1@test.com"), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("Mail queue is full")));
+
+        int sent = emailOutboxService.dispatchPending();
+
+        assertEquals(1, sent);
+        assertEquals(EmailOutboxStatus.SENT, batch.get(0).getStatus());
+        assertEquals(EmailOutboxStatus.PENDING, batch.get(1).getStatus());
+        assertEquals(0, batch.get(1).getAttempts());
+        // Lô đầy nhưng hàng đợi đầy nên không lấy lô tiếp theo
+        verify(emailOutboxRepository, times(1)).findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+                any(), any(), any());
+        verify(emailOutboxRepository, never()).save(batch.get(1));
+    }
+}
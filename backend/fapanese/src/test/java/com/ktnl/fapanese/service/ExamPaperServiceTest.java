@@ -0,0 +1,462 @@
+package com.ktnl.fapanese.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktnl.fapanese.dto.request.ExamPaperSubmission;
+import com.ktnl.fapanese.dto.request.GenerateExamPapersRequest;
+import com.ktnl.fapanese.dto.request.UserAnswer;
+import com.ktnl.fapanese.dto.response.ExamPaperBatchResponse;
+import com.ktnl.fapanese.dto.response.ExamPaperQuestionResponse;
+import com.ktnl.fapanese.dto.response.ExamPaperResponse;
+import com.ktnl.fapanese.dto.response.SubmitQuizResponse;
+import com.ktnl.fapanese.entity.ExamPaperAttempt;
+import com.ktnl.fapanese.entity.ExamPaperSet;
+import com.ktnl.fapanese.entity.Question;
+import com.ktnl.fapanese.entity.User;
+import com.ktnl.fapanese.entity.enums.ExamKind;
+import com.ktnl.fapanese.entity.enums.QuestionCategory;
+import com.ktnl.fapanese.entity.enums.QuestionType;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.repository.*;
+import com.ktnl.fapanese.service.implementations.ExamPaperService;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService.AnswerKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ExamPaperServiceTest {
+
+    @Mock
+    private ExamPaperSetRepository examPaperSetRepository;
+    @Mock
+    private ExamPaperAttemptRepository examPaperAttemptRepository;
+    @Mock
+    private MiddleExamRepository middleExamRepository;
+    @Mock
+    private FinalExamRepository finalExamRepository;
+    @Mock
+    private QuestionRepository questionRepository;
+    @Mock
+    private ClassCourseRepository classCourseRepository;
+    @Mock
+    private StudentClassRepository studentClassRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private IAnswerKeyCacheService answerKeyCache;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private ExamPaperService examPaperService;
+
+    private final Map<Long, Question> questions = new LinkedHashMap<>();
+    private final List<ExamPaperSet> savedSets = new ArrayList<>();
+    private final List<ExamPaperAttempt> attempts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(examPaperService, "CACHE_SIZE", 32);
+
+        // 10 VOCABULARY (1-10), 6 GRAMMAR (11-16, câu 16 là FILL), 4 READING (17-20)
+        for (long id = 1; id <= 20; id++) {
+            QuestionCategory category = id <= 10 ? QuestionCategory.VOCABULARY
+                    : id <= 16 ? QuestionCategory.GRAMMAR : QuestionCategory.READING;
+            boolean fill = id == 16;
+            questions.put(id, Question.builder()
+                    .id(id)
+                    .content("Q" + id)
+                    .category(category)
+                    .questionType(fill ? QuestionType.FILL : QuestionType.MULTIPLE_CHOICE)
+                    .optionA(fill ? null : id + "-a")
+                    .optionB(fill ? null : id + "-b")
+                    .optionC(fill ? null : id + "-c")
+                    .optionD(fill || id == 20 ? null : id + "-d") // câu 20 chỉ có 3 đáp án
+                    .correctAnswer(fill ? null : String.valueOf("ABC".charAt((int) (id % 3))))
+                    .fillAnswer(fill ? "たべます" : null)
+                    .build());
+        }
+
+        when(middleExamRepository.existsById(7L)).thenReturn(true);
+        when(middleExamRepository.findQuestionsByExamId(7L)).thenReturn(new ArrayList<>(questions.values()));
+        when(classCourseRepository.existsById(3L)).thenReturn(true);
+        when(studentClassRepository.findStudentIdsByClassCourseId(3L)).thenReturn(List.of("s1", "s2", "s3"));
+        when(examPaperSetRepository.save(any(ExamPaperSet.class))).thenAnswer(inv -> {
+            ExamPaperSet set = inv.getArgument(0);
+            set.setId(100L + savedSets.size());
+            savedSets.add(set);
+            return set;
+        });
+        when(examPaperSetRepository.findById(anyLong())).thenAnswer(inv -> savedSets.stream()
+                .filter(s -> s.getId().equals(inv.getArgument(0))).findFirst());
+        when(questionRepository.findAllById(anyIterable())).thenAnswer(inv -> {
+            List<Question> result = new ArrayList<>();
+            inv.<Iterable<Long>>getArgument(0).forEach(id -> result.add(questions.get(id)));
+            return result;
+        });
+        when(answerKeyCache.getAll(anyCollection())).thenAnswer(inv -> {
+            Map<Long, AnswerKey> keys = new HashMap<>();
+            inv.<Collection<Long>>getArgument(0).forEach(id -> keys.put(id, AnswerKey.of(questions.get(id))));
+            return keys;
+        });
+        when(examPaperSetRepository.findByExamKindAndExamIdOrderByIdDesc(any(), anyLong())).thenAnswer(inv ->
+                savedSets.reversed().stream()
+                        .filter(set -> set.getExamKind() == inv.getArgument(0) && set.getExamId().equals(inv.getArgument(1)))
+                        .toList());
+        when(examPaperAttemptRepository.saveAndFlush(any(ExamPaperAttempt.class))).thenAnswer(inv -> {
+            attempts.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        when(examPaperAttemptRepository.existsByPaperSetIdAndStudentId(anyLong(), anyString())).thenAnswer(inv ->
+                attempt(inv.getArgument(0), inv.getArgument(1)).isPresent());
+        when(examPaperAttemptRepository.findByPaperSetIdAndStudentId(anyLong(), anyString())).thenAnswer(inv ->
+                attempt(inv.getArgument(0), inv.getArgument(1)));
+    }
+
+    private Optional<ExamPaperAttempt> attempt(Long paperSetId, String studentId) {
+        return attempts.stream()
+                .filter(a -> a.getPaperSetId().equals(paperSetId) && a.getStudentId().equals(studentId))
+                .findFirst();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void loginAs(String studentId) {
+        User user = new User();
+        user.setId(studentId);
+        user.setEmail(studentId + "@test.com");
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(user.getEmail(), null));
+    }
+
+    private GenerateExamPapersRequest request(Map<QuestionCategory, Integer> perCategory) {
+        return GenerateExamPapersRequest.builder()
+                .classCourseId(3L)
+                .studentIds(List.of("s3", "s4"))
+                .questionsPerCategory(perCategory)
+                .shuffleOptions(true)
+                .build();
+    }
+
+    private static final Map<QuestionCategory, Integer> BLUEPRINT = Map.of(
+            QuestionCategory.VOCABULARY, 5, QuestionCategory.GRAMMAR, 3, QuestionCategory.READING, 2);
+
+    @Test
+    @DisplayName("generatePapers - Mỗi sinh viên đúng N câu mỗi category, đáp án được xáo nhưng giữ nguyên nội dung")
+    void generatePapers_DrawsPerCategoryAndShufflesOptions() {
+        ExamPaperBatchResponse batch = examPaperService.generatePapers(ExamKind.MIDDLE, 7L, request(BLUEPRINT));
+
+        assertEquals(List.of("s1", "s2", "s3", "s4"),
+                batch.getPapers().stream().map(ExamPaperResponse::getStudentId).toList());
+        assertEquals(10, batch.getQuestionsPerPaper());
+
+        for (ExamPaperResponse paper : batch.getPapers()) {
+            List<ExamPaperQuestionResponse> items = paper.getQuestions();
+            assertEquals(10, items.size());
+            assertEquals(10, items.stream().map(ExamPaperQuestionResponse::getQuestionId).distinct().count());
+            Map<String, Long> perCategory = items.stream()
+                    .collect(Collectors.groupingBy(ExamPaperQuestionResponse::getCategory, Collectors.counting()));
+            assertEquals(Map.of("VOCABULARY", 5L, "GRAMMAR", 3L, "READING", 2L), perCategory);
+
+            for (ExamPaperQuestionResponse item : items) {
+                Question q = questions.get(item.getQuestionId());
+                Set<String> original = new HashSet<>(Arrays.asList(q.getOptionA(), q.getOptionB(), q.getOptionC(), q.getOptionD()));
+                Set<String> shown = new HashSet<>(Arrays.asList(item.getOptionA(), item.getOptionB(), item.getOptionC(), item.getOptionD()));
+                assertEquals(original, shown);
+            }
+        }
+
+        // Một lần phát đề chỉ lưu một dòng, đề từng sinh viên không được lưu
+        verify(examPaperSetRepository, times(1)).save(any(ExamPaperSet.class));
+        verify(middleExamRepository, times(1)).findQuestionsByExamId(7L);
+        verifyNoInteractions(questionRepository);
+    }
+
+    @Test
+    @DisplayName("generatePapers - Các sinh viên nhận đề khác nhau (thứ tự câu / đáp án)")
+    void generatePapers_PapersDifferBetweenStudents() {
+        ExamPaperBatchResponse batch = examPaperService.generatePapers(ExamKind.MIDDLE, 7L, request(BLUEPRINT));
+
+        Set<List<ExamPaperQuestionResponse>> distinct = batch.getPapers().stream()
+                .map(ExamPaperResponse::getQuestions)
+                .collect(Collectors.toSet());
+        assertEquals(4, distinct.size());
+    }
+
+    @Test
+    @DisplayName("getPaper - Sinh lại từ dòng ExamPaperSet (sau khi mất cache) ra đúng đề cũ")
+    void getPaper_ReproducibleFromStoredSet() {
+        ExamPaperBatchResponse batch = examPaperService.generatePapers(ExamKind.MIDDLE, 7L, request(BLUEPRINT));
+
+        ExamPaperService restarted = restarted();
+
+        for (ExamPaperResponse paper : batch.getPapers())
+            assertEquals(paper, restarted.getPaper(batch.getPaperSetId(), paper.getStudentId()));
+        verify(questionRepository, times(1)).findAllById(anyIterable()); // nạp pool một lần cho cả lớp
+    }
+
+    // Instance mới = restart server: chỉ còn dòng ExamPaperSet trong DB
+    private ExamPaperService restarted() {
+        ExamPaperService restarted = new ExamPaperService(examPaperSetRepository, examPaperAttemptRepository, middleExamRepository,
+                finalExamRepository, questionRepository, classCourseRepository, studentClassRepository,
+                userRepository, answerKeyCache, objectMapper);
+        ReflectionTestUtils.setField(restarted, "CACHE_SIZE", 32);
+        return restarted;
+    }
+
+    @Test
+    @DisplayName("gradePaper - Câu hỏi bị sửa đáp án sau khi phát đề vẫn chấm theo chữ cái sinh viên đã thấy")
+    void gradePaper_QuestionEditedAfterGeneration_UsesSnapshot() {
+        ExamPaperBatchResponse batch = examPaperService.generatePapers(ExamKind.MIDDLE, 7L, request(BLUEPRINT));
+        ExamPaperResponse paper = batch.getPapers().get(0);
+        List<UserAnswer> answers = paper.getQuestions().stream()
+                .map(item -> new UserAnswer(item.getQuestionId(), displayedCorrectAnswer(item)))
+                .toList();
+
+        // Giảng viên xóa đáp án D của mọi câu, rồi server restart
+        questions.values().forEach(q -> q.setOptionD(null));
+        SubmitQuizResponse result = restarted().gradePaper(batch.getPaperSetId(), paper.getStudentId(), answers);
+
+        assertEquals(10, result.getCorrectCount());
+    }
+
+    @Test
+    @DisplayName("gradePaper - Chấm theo chữ cái hiển thị trên đề của từng sinh viên")
+    void gradePaper_MapsDisplayedLettersBackToOriginal() {
+        ExamPaperBatchResponse batch = examPaperService.generatePapers(ExamKind.MIDDLE, 7L, request(BLUEPRINT));
+        ExamPaperResponse paper = batch.getPapers().get(1);
+
+        List<UserAnswer> answers = paper.getQuestions().stream()
+                .map(item -> new UserAnswer(item.getQuestionId(), displayedCorrectAnswer(item)))
+                .toList();
+        SubmitQuizResponse allCorrect = examPaperService.gradePaper(batch.getPaperSetId(), paper.getStudentId(), answers);
+
+        assertEquals(10, allCorrect.getTotalQuestions());
+        assertEquals(10, allCorrect.getCorrectCount());
+        assertEquals(100.0, allCorrect.getScorePercentage());
+        for (int i = 0; i < 10; i++)
+            assertEquals(answers.get(i).getUserAnswer(), allCorrect.getDetailedResults().get(i).getCorrectAnswer());
+
+        // Bỏ trống câu đầu + thêm câu không có trên đề → câu đầu sai, câu lạ bị bỏ qua
+        List<UserAnswer> partial = new ArrayList<>(answers.subList(1, 10));
+        partial.add(new UserAnswer(999L, "A"));
+        SubmitQuizResponse result = examPaperService.gradePaper(batch.getPaperSetId(), paper.getStudentId(), partial);
+
+        assertEquals(10, result.getTotalQuestions());
+        assertEquals(9, result.getCorrectCount());
+        assertFalse(result.getDetailedResults().get(0).isCorrect());
+    }
+
+    // Chữ cái trên đề đang hiển thị nội dung của đáp án đúng gốc
+    private String displayedCorrectAnswer(ExamPaperQuestionResponse item) {
+        Question q = questions.get(item.getQuestionId());
+        if (q.getQuestionType() == QuestionType.FILL)
+            return q.getFillAnswer();
+        String correctText = switch (q.getCorrectAnswer()) {
+            case "A" -> q.getOptionA();
+            case "B" -> q.getOptionB();
+            case "C" -> q.getOptionC();
+            default -> q.getOptionD();
+        };
+        List<String> shown = Arrays.asList(item.getOptionA(), item.getOptionB(), item.getOptionC(), item.getOptionD());
+        return String.valueOf("ABCD".charAt(shown.indexOf(correctText)));
+    }
+
+    @Test
+    @DisplayName("generatePapers - Bỏ trống questionsPerCategory → lấy hết câu của đề")
+    void generatePapers_DefaultBlueprint_UsesWholePool() {
+        ExamPaperBatchResponse batch = examPaperService.generatePapers(ExamKind.MIDDLE, 7L, request(null));
+
+        assertEquals(20, batch.getQuestionsPerPaper());
+        assertEquals(questions.keySet(), batch.getPapers().get(0).getQuestions().stream()
+                .map(ExamPaperQuestionResponse::getQuestionId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    @DisplayName("generatePapers - Pool không đủ câu → EXAM_POOL_TOO_SMALL, không lưu gì")
+    void generatePapers_PoolTooSmall() {
+        AppException e = assertThrows(AppException.class, () -> examPaperService.generatePapers(ExamKind.MIDDLE, 7L,
+                request(Map.of(QuestionCategory.READING, 5))));
+
+        assertEquals(ErrorCode.EXAM_POOL_TOO_SMALL, e.getErrorCode());
+        verify(examPaperSetRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("generatePapers - Đề / lớp không tồn tại")
+    void generatePapers_NotFound() {
+        when(finalExamRepository.existsById(7L)).thenReturn(false);
+        when(classCourseRepository.existsById(3L)).thenReturn(false);
+
+        AppException exam = assertThrows(AppException.class,
+                () -> examPaperService.generatePapers(ExamKind.FINAL, 7L, request(BLUEPRINT)));
+        AppException classCourse = assertThrows(AppException.class,
+                () -> examPaperService.generatePapers(ExamKind.MIDDLE, 7L, request(BLUEPRINT)));
+
+        assertEquals(ErrorCode.EXAM_NOT_FOUND, exam.getErrorCode());
+        assertEquals(ErrorCode.CLASS_COURSE_NOT_FOUND, classCourse.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("getPaper - Lần phát đề không tồn tại → EXAM_PAPER_NOT_FOUND")
+    void getPaper_PaperSetNotFound() {
+        AppException e = assertThrows(AppException.class, () -> examPaperService.getPaper(404L, "s1"));
+        assertEquals(ErrorCode.EXAM_PAPER_NOT_FOUND, e.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("getPaper - Sinh viên không có trong lần phát đề → EXAM_PAPER_NOT_ASSIGNED, kể cả sau restart")
+    void getPaper_NotInCohort() {
+        ExamPaperBatchResponse batch = examPaperService.generatePapers(ExamKind.MIDDLE, 7L, request(BLUEPRINT));
+
+        AppException e = assertThrows(AppException.class, () -> examPaperService.getPaper(batch.getPaperSetId(), "s5"));
+        AppException afterRestart = assertThrows(AppException.class,
+                () -> restarted().getPaper(batch.getPaperSetId(), "s5"));
+
+        assertEquals(ErrorCode.EXAM_PAPER_NOT_ASSIGNED, e.getErrorCode());
+        assertEquals(ErrorCode.EXAM_PAPER_NOT_ASSIGNED, afterRestart.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("getMyPaper - Lấy lần phát đề mới nhất có tên sinh viên, không có tên → EXAM_PAPER_NOT_ASSIGNED")
+    void getMyPaper_OnlyForStudentsInCohort() {
+        ExamPaperBatchResponse classBatch = examPaperService.generatePapers(ExamKind.MIDDLE, 7L, request(BLUEPRINT));
+        // Lần phát đề sau cho lớp khác không được che mất đề của lớp 3
+        examPaperService.generatePapers(ExamKind.MIDDLE, 7L, GenerateExamPapersRequest.builder()
+                .studentIds(List.of("s9")).shuffleOptions(true).build());
+
+        loginAs("s4");
+        ExamPaperResponse mine = examPaperService.getMyPaper(ExamKind.MIDDLE, 7L);
+        assertEquals(classBatch.getPaperSetId(), mine.getPaperSetId());
+        assertEquals(classBatch.getPapers().get(3), mine);
+
+        loginAs("s5");
+        AppException e = assertThrows(AppException.class, () -> examPaperService.getMyPaper(ExamKind.MIDDLE, 7L));
+        assertEquals(ErrorCode.EXAM_PAPER_NOT_ASSIGNED, e.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("submitMyPaper - Sinh viên không được phát đề này thì không nộp được, kể cả sau restart")
+    void submitMyPaper_NotInCohort_Forbidden() {
+        ExamPaperBatchResponse batch = examPaperService.generatePapers(ExamKind.MIDDLE, 7L, request(BLUEPRINT));
+        ExamPaperSubmission submission = new ExamPaperSubmission(batch.getPaperSetId(), List.of());
+
+        loginAs("s5");
+        AppException e = assertThrows(AppException.class, () -> examPaperService.submitMyPaper(submission));
+        AppException afterRestart = assertThrows(AppException.class, () -> restarted().submitMyPaper(submission));
+
+        assertEquals(ErrorCode.EXAM_PAPER_NOT_ASSIGNED, e.getErrorCode());
+        assertEquals(ErrorCode.EXAM_PAPER_NOT_ASSIGNED, afterRestart.getErrorCode());
+        verify(answerKeyCache, never()).getAll(anyCollection());
+    }
+
+    private List<UserAnswer> correctAnswers(ExamPaperResponse paper) {
+        return paper.getQuestions().stream()
+                .map(item -> new UserAnswer(item.getQuestionId(), displayedCorrectAnswer(item)))
+                .toList();
+    }
+
+    private ExamPaperBatchResponse generateClosingAt(LocalDateTime closesAt) {
+        GenerateExamPapersRequest request = request(BLUEPRINT);
+        request.setClosesAt(closesAt);
+        return examPaperService.generatePapers(ExamKind.MIDDLE, 7L, request);
+    }
+
+    @Test
+    @DisplayName("submitMyPaper - Lưu bài làm, chỉ trả điểm (không có đáp án), nộp lần hai → EXAM_PAPER_ALREADY_SUBMITTED")
+    void submitMyPaper_SavesAttemptOnceWithoutAnswers() {
+        ExamPaperBatchResponse batch = generateClosingAt(LocalDateTime.now().plusHours(1));
+        ExamPaperResponse paper = batch.getPapers().get(0);
+        loginAs(paper.getStudentId());
+
+        SubmitQuizResponse blank = examPaperService.submitMyPaper(new ExamPaperSubmission(batch.getPaperSetId(), null));
+
+        assertEquals(10, blank.getTotalQuestions());
+        assertEquals(0, blank.getCorrectCount());
+        assertNull(blank.getDetailedResults());
+        assertEquals(1, attempts.size());
+        assertEquals(paper.getStudentId(), attempts.get(0).getStudentId());
+        assertEquals("[]", attempts.get(0).getAnswers());
+
+        // Nộp trống để lấy đáp án rồi nộp lại không được
+        AppException e = assertThrows(AppException.class, () -> examPaperService.submitMyPaper(
+                new ExamPaperSubmission(batch.getPaperSetId(), correctAnswers(paper))));
+        assertEquals(ErrorCode.EXAM_PAPER_ALREADY_SUBMITTED, e.getErrorCode());
+        assertEquals(1, attempts.size());
+    }
+
+    @Test
+    @DisplayName("submitMyPaper - Hai request nộp cùng lúc: bản ghi trùng bị unique constraint chặn")
+    void submitMyPaper_ConcurrentDuplicate_AlreadySubmitted() {
+        ExamPaperBatchResponse batch = generateClosingAt(null);
+        loginAs("s1");
+        when(examPaperAttemptRepository.saveAndFlush(any(ExamPaperAttempt.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        AppException e = assertThrows(AppException.class, () -> examPaperService.submitMyPaper(
+                new ExamPaperSubmission(batch.getPaperSetId(), List.of())));
+        assertEquals(ErrorCode.EXAM_PAPER_ALREADY_SUBMITTED, e.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("submitMyPaper - Sau hạn nộp → EXAM_PAPER_CLOSED")
+    void submitMyPaper_AfterClose_Rejected() {
+        ExamPaperBatchResponse batch = generateClosingAt(LocalDateTime.now().minusMinutes(1));
+        loginAs("s1");
+
+        AppException e = assertThrows(AppException.class, () -> examPaperService.submitMyPaper(
+                new ExamPaperSubmission(batch.getPaperSetId(), List.of())));
+        assertEquals(ErrorCode.EXAM_PAPER_CLOSED, e.getErrorCode());
+        verify(examPaperAttemptRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("getMyResult - Trước hạn chỉ có điểm đã lưu, sau hạn kèm đáp án theo chữ cái trên đề")
+    void getMyResult_RevealsAnswersOnlyAfterClose() {
+        ExamPaperBatchResponse batch = generateClosingAt(LocalDateTime.now().plusHours(1));
+        ExamPaperResponse paper = batch.getPapers().get(2);
+        List<UserAnswer> answers = correctAnswers(paper);
+        loginAs(paper.getStudentId());
+        examPaperService.submitMyPaper(new ExamPaperSubmission(batch.getPaperSetId(), answers));
+
+        SubmitQuizResponse beforeClose = examPaperService.getMyResult(batch.getPaperSetId());
+        assertEquals(10, beforeClose.getCorrectCount());
+        assertNull(beforeClose.getDetailedResults());
+
+        savedSets.get(0).setClosesAt(LocalDateTime.now().minusSeconds(1));
+        SubmitQuizResponse afterClose = restarted().getMyResult(batch.getPaperSetId());
+        assertEquals(10, afterClose.getCorrectCount());
+        for (int i = 0; i < 10; i++)
+            assertEquals(answers.get(i).getUserAnswer(), afterClose.getDetailedResults().get(i).getCorrectAnswer());
+
+        loginAs("s2");
+        AppException e = assertThrows(AppException.class, () -> examPaperService.getMyResult(batch.getPaperSetId()));
+        assertEquals(ErrorCode.EXAM_PAPER_NOT_SUBMITTED, e.getErrorCode());
+    }
+}
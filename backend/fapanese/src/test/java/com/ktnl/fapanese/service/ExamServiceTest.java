@@ -1,53 +1,92 @@
 package com.ktnl.fapanese.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ktnl.fapanese.dto.request.UserAnswer;
+import com.ktnl.fapanese.dto.response.BulkGradingResultResponse;
+import com.ktnl.fapanese.dto.response.BulkGradingSummaryResponse;
+import com.ktnl.fapanese.dto.response.ItemStatisticsResponse;
 import com.ktnl.fapanese.dto.response.QuestionCheckResponse;
 import com.ktnl.fapanese.dto.response.SubmitQuizResponse;
+import com.ktnl.fapanese.entity.ClassCourse;
+import com.ktnl.fapanese.entity.Lecturer;
 import com.ktnl.fapanese.entity.Question;
+import com.ktnl.fapanese.entity.User;
+import com.ktnl.fapanese.entity.enums.ExamKind;
 import com.ktnl.fapanese.entity.enums.QuestionType;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.repository.ClassCourseRepository;
 import com.ktnl.fapanese.repository.FinalExamRepository;
 import com.ktnl.fapanese.repository.MiddleExamRepository;
-import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.repository.StudentClassRepository;
 import com.ktnl.fapanese.service.implementations.ExamService;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService.AnswerKey;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvFileSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.BufferedReader;
+import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT) // Cần thiết vì các kịch bản lỗi không dùng hết mock
 class ExamServiceTest {
 
     @Mock
-    private QuestionRepository questionRepository;
+    private IAnswerKeyCacheService answerKeyCache;
     @Mock
     private FinalExamRepository finalExamQuestionRepository; // Mock dù không dùng
     @Mock
     private MiddleExamRepository middleExamQuestionRepository; // Mock dù không dùng
 
+    @Mock
+    private ClassCourseRepository classCourseRepository;
+    @Mock
+    private StudentClassRepository studentClassRepository;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private ExamService examService;
 
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(examService, "shutdown");
+        SecurityContextHolder.clearContext();
+    }
+
     // --- Dữ liệu mock cho các câu hỏi ---
     private Question q1, q2, q3_case, q4_null;
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.invokeMethod(examService, "init");
+
         // Giả lập các câu hỏi trong DB
         q1 = Question.builder()
                 .id(1L)
@@ -84,10 +123,13 @@ class ExamServiceTest {
         List<UserAnswer> userAnswers = new ArrayList<>();
 
         // 1. Mock các câu hỏi (mặc định là tìm thấy)
-        when(questionRepository.findById(1L)).thenReturn(Optional.of(q1));
-        when(questionRepository.findById(2L)).thenReturn(Optional.of(q2));
-        when(questionRepository.findById(3L)).thenReturn(Optional.of(q3_case));
-        when(questionRepository.findById(4L)).thenReturn(Optional.of(q4_null));
+        Map<Long, Question> questions = new HashMap<>(Map.of(1L, q1, 2L, q2, 3L, q3_case, 4L, q4_null));
+        when(answerKeyCache.getAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            Map<Long, AnswerKey> keys = new HashMap<>();
+            ids.stream().filter(questions::containsKey).forEach(id -> keys.put(id, AnswerKey.of(questions.get(id))));
+            return keys;
+        });
 
         // 2. Tạo danh sách câu trả lời của user dựa trên kịch bản
         switch (testName) {
@@ -122,8 +164,7 @@ class ExamServiceTest {
                 userAnswers.add(new UserAnswer(1L, "A")); // Câu này OK
                 userAnswers.add(new UserAnswer(99L, "???")); // Câu này sẽ lỗi
 
-                // Ghi đè mock cho câu 99L
-                when(questionRepository.findById(99L)).thenReturn(Optional.empty());
+                // Câu 99L không có trong cache lẫn DB → getAll không trả về
                 break;
         }
         return userAnswers;
@@ -191,4 +232,179 @@ class ExamServiceTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    // ============================================================
+    // BULK GRADING (chấm cả lớp)
+    // ============================================================
+
+    private void mockMiddleExam() {
+        when(middleExamQuestionRepository.existsById(7L)).thenReturn(true);
+        when(middleExamQuestionRepository.findQuestionIdsByExamId(7L)).thenReturn(List.of(1L, 2L));
+        when(answerKeyCache.getAll(anyCollection())).thenReturn(Map.of(
+                1L, AnswerKey.of(1L, QuestionType.MULTIPLE_CHOICE, "A", null, 10L),
+                2L, AnswerKey.of(2L, QuestionType.MULTIPLE_CHOICE, "B", null, 10L)));
+    }
+
+    private static void loginAs(String email, String authority) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(email, null, authority));
+    }
+
+    // Lớp 5 do lecturer@test.com dạy
+    private void givenTaughtClass() {
+        User user = new User();
+        user.setEmail("lecturer@test.com");
+        Lecturer lecturer = new Lecturer();
+        lecturer.setUser(user);
+        ClassCourse classCourse = new ClassCourse();
+        classCourse.setId(5L);
+        classCourse.setLecturer(lecturer);
+        when(classCourseRepository.findById(5L)).thenReturn(Optional.of(classCourse));
+    }
+
+    private BulkGradingSummaryResponse grade(Long classCourseId, String ndjson, List<BulkGradingResultResponse> results)
+            throws Exception {
+        return examService.prepareBulkGrading(ExamKind.MIDDLE, 7L, classCourseId)
+                .grade(new BufferedReader(new StringReader(ndjson)), results::add);
+    }
+
+    @Test
+    @DisplayName("Bulk grading - Chấm nhiều bài, kết quả theo đúng thứ tự dòng và thống kê từng câu")
+    void gradeBulk_GradesInOrderWithItemStatistics() throws Exception {
+        loginAs("admin@test.com", "ROLE_ADMIN");
+        mockMiddleExam();
+        String ndjson = """
+                {"studentId":"s1","answers":[{"questionId":1,"userAnswer":"A"},{"questionId":2,"userAnswer":"B"}]}
+                {"studentId":"s2","answers":[{"questionId":1,"userAnswer":"a"},{"questionId":2,"userAnswer":"C"}]}
+
+                {"studentId":"s3","answers":[{"questionId":1,"userAnswer":"D"},{"questionId":99,"userAnswer":"A"}]}
+                """;
+        List<BulkGradingResultResponse> results = new ArrayList<>();
+
+        BulkGradingSummaryResponse summary = grade(null, ndjson, results);
+
+        assertEquals(3, results.size());
+        assertEquals(List.of("s1", "s2", "s3"), results.stream().map(BulkGradingResultResponse::getStudentId).toList());
+        assertEquals(4, results.get(2).getLine());
+        assertEquals(100.0, results.get(0).getScorePercentage());
+        assertEquals(50.0, results.get(1).getScorePercentage());
+        assertEquals(0.0, results.get(2).getScorePercentage());
+        assertEquals(1, results.get(2).getIgnoredAnswers());
+
+        assertEquals(3, summary.getGradedSheets());
+        assertEquals(0, summary.getFailedSheets());
+        assertEquals(50.0, summary.getAverageScore());
+        assertEquals(0.0, summary.getMinScore());
+        assertEquals(100.0, summary.getMaxScore());
+
+        ItemStatisticsResponse item1 = summary.getItems().get(0);
+        assertEquals(1L, item1.getQuestionId());
+        assertEquals(2, item1.getCorrect());
+        assertEquals(0.6667, item1.getDifficulty());
+        assertEquals(Map.of("A", 2L, "D", 1L), item1.getAnswerCounts());
+        assertNotNull(item1.getDiscrimination());
+        assertTrue(item1.getDiscrimination() > 0);
+
+        ItemStatisticsResponse item2 = summary.getItems().get(1);
+        assertEquals(2, item2.getAnswered());
+        assertEquals(1, item2.getOmitted());
+        assertEquals(1, item2.getCorrect());
+    }
+
+    @Test
+    @DisplayName("Bulk grading - Dòng lỗi / trùng sinh viên / không thuộc lớp → dòng error, vẫn chấm tiếp")
+    void gradeBulk_ReportsInvalidLines() throws Exception {
+        loginAs("lecturer@test.com", "ROLE_LECTURER");
+        mockMiddleExam();
+        givenTaughtClass();
+        when(studentClassRepository.findStudentIdsByClassCourseId(5L)).thenReturn(List.of("s1", "s2", "s4"));
+        String ndjson = """
+                {"studentId":"s1","answers":[{"questionId":1,"userAnswer":"A"}]}
+                not json
+                {"studentId":"s1","answers":[]}
+                {"studentId":"outsider","answers":[]}
+                {"answers":[]}
+                {"studentId":"s2","answers":[{"questionId":2,"userAnswer":"B"}]}
+                """;
+        List<BulkGradingResultResponse> results = new ArrayList<>();
+
+        BulkGradingSummaryResponse summary = grade(5L, ndjson, results);
+
+        assertEquals(List.of("result", "error", "error", "error", "error", "result"),
+                results.stream().map(BulkGradingResultResponse::getType).toList());
+        assertEquals(2, summary.getGradedSheets());
+        assertEquals(4, summary.getFailedSheets());
+        assertEquals(List.of("s4"), summary.getMissingStudentIds());
+        assertEquals(5L, summary.getClassCourseId());
+    }
+
+    @Test
+    @DisplayName("Bulk grading - Nhiều hơn một lô (CHUNK_SIZE) vẫn giữ thứ tự")
+    void gradeBulk_ManySheets_KeepsOrder() throws Exception {
+        loginAs("admin@test.com", "ROLE_ADMIN");
+        mockMiddleExam();
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 1000; i++)
+            ndjson.append("{\"studentId\":\"s").append(i).append("\",\"answers\":[{\"questionId\":1,\"userAnswer\":\"")
+                    .append(i % 2 == 0 ? "A" : "B").append("\"}]}\n");
+        List<BulkGradingResultResponse> results = new ArrayList<>();
+
+        BulkGradingSummaryResponse summary = grade(null, ndjson.toString(), results);
+
+        assertEquals(1000, results.size());
+        for (int i = 0; i < 1000; i++)
+            assertEquals("s" + i, results.get(i).getStudentId());
+        assertEquals(500, summary.getItems().get(0).getCorrect());
+        assertEquals(25.0, summary.getAverageScore());
+        verify(answerKeyCache, times(1)).getAll(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Bulk grading - Đề không tồn tại → EXAM_NOT_FOUND")
+    void prepareBulkGrading_ExamNotFound() {
+        when(finalExamQuestionRepository.existsById(7L)).thenReturn(false);
+
+        AppException e = assertThrows(AppException.class,
+                () -> examService.prepareBulkGrading(ExamKind.FINAL, 7L, null));
+        assertEquals(ErrorCode.EXAM_NOT_FOUND, e.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Bulk grading - Lớp không tồn tại → CLASS_COURSE_NOT_FOUND")
+    void prepareBulkGrading_ClassNotFound() {
+        loginAs("admin@test.com", "ROLE_ADMIN");
+        mockMiddleExam();
+        when(classCourseRepository.findById(5L)).thenReturn(Optional.empty());
+
+        AppException e = assertThrows(AppException.class,
+                () -> examService.prepareBulkGrading(ExamKind.MIDDLE, 7L, 5L));
+        assertEquals(ErrorCode.CLASS_COURSE_NOT_FOUND, e.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Bulk grading - Giảng viên không dạy lớp → CLASS_NOT_TAUGHT, admin thì được")
+    void prepareBulkGrading_OnlyTeachingLecturerOrAdmin() {
+        mockMiddleExam();
+        givenTaughtClass();
+
+        loginAs("other@test.com", "ROLE_LECTURER");
+        AppException e = assertThrows(AppException.class,
+                () -> examService.prepareBulkGrading(ExamKind.MIDDLE, 7L, 5L));
+        assertEquals(ErrorCode.CLASS_NOT_TAUGHT, e.getErrorCode());
+        verify(studentClassRepository, never()).findStudentIdsByClassCourseId(any());
+
+        loginAs("admin@test.com", "ROLE_ADMIN");
+        assertNotNull(examService.prepareBulkGrading(ExamKind.MIDDLE, 7L, 5L));
+    }
+
+    @Test
+    @DisplayName("Bulk grading - Giảng viên chấm không theo lớp → BULK_GRADING_CLASS_REQUIRED")
+    void prepareBulkGrading_LecturerWithoutClass_Forbidden() {
+        loginAs("lecturer@test.com", "ROLE_LECTURER");
+        mockMiddleExam();
+
+        AppException e = assertThrows(AppException.class,
+                () -> examService.prepareBulkGrading(ExamKind.MIDDLE, 7L, null));
+        assertEquals(ErrorCode.BULK_GRADING_CLASS_REQUIRED, e.getErrorCode());
+        verify(answerKeyCache, never()).getAll(anyCollection());
+    }
+}
@@ -0,0 +1,161 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.dto.response.ExcelUploadResponse;
+import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.service.implementations.QuestionExcelUploadService;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Benchmark import câu hỏi từ Excel: cách cũ (WorkbookFactory dựng cả DOM, mỗi ô một DataFormatter)
+ * so với processQuestionExcel hiện tại (SAX qua ExcelSheetReader, lưu theo lô), trên file sinh sẵn bằng SXSSF.
+ * In ra thời gian và mức dùng cao nhất của old gen (lấy mẫu mỗi 2ms) — phần dữ liệu sống đủ lâu để bị
+ * promote, tức là thứ làm heap phình theo kích thước file; rác ngắn hạn ở young gen không tính.
+ * Không chạy trong build thường:
+ *
+ *   mvn test -Dtest=ExcelImportBenchmarkTest -Dbenchmark=true [-Dbenchmark.rows=100000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ExcelImportBenchmarkTest {
+
+    private static final int[] ROW_COUNTS = {10_000, Integer.getInteger("benchmark.rows", 100_000)};
+    private static final String[] HEADERS = {"content", "questionType", "category", "optionA", "optionB",
+            "optionC", "optionD", "correctAnswer", "fillAnswer"};
+
+    @Test
+    @DisplayName("Benchmark - Import câu hỏi: DOM (WorkbookFactory) vs SAX + lưu theo lô")
+    void questionImport_DomVsStreaming() throws Exception {
+        System.out.printf("%-8s %10s %14s %14s %14s %14s%n", "rows", "file (KB)",
+                "dom (ms)", "sax (ms)", "dom old (MB)", "sax old (MB)");
+
+        for (int rows : ROW_COUNTS) {
+            byte[] xlsx = generate(rows);
+            MockMultipartFile file = new MockMultipartFile("file", "questions.xlsx",
+                    "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", xlsx);
+
+            // stubOnly: mock không giữ lại tham số các lần gọi, nếu không cả 100k câu hỏi sẽ nằm lại trong heap
+            QuestionRepository repository = mock(QuestionRepository.class, withSettings().stubOnly());
+            when(repository.batchInsert(anyList())).thenAnswer(inv -> inv.getArgument(0));
+            QuestionExcelUploadService service = new QuestionExcelUploadService(repository,
+                    mock(IAnswerKeyCacheService.class, withSettings().stubOnly()));
+
+            // Chạy nóng một lần cho JIT
+            readWithDom(file);
+            service.processQuestionExcel(file);
+
+            Measurement dom = measure(() -> readWithDom(file));
+            Measurement sax = measure(() -> service.processQuestionExcel(file).getSuccessCount());
+            assertEquals(rows, dom.result());
+            assertEquals(rows, sax.result());
+
+            System.out.printf("%-8d %10d %14d %14d %14.1f %14.1f%n", rows, xlsx.length / 1024,
+                    dom.millis(), sax.millis(), dom.peakHeapBytes() / 1048576.0, sax.peakHeapBytes() / 1048576.0);
+        }
+    }
+
+    /**
+     * Cách đọc cũ của hai service import, chỉ giữ phần đọc file để so sánh.
+     */
+    private static int readWithDom(MockMultipartFile file) throws IOException {
+        int count = 0;
+        try (InputStream in = file.getInputStream(); Workbook workbook = WorkbookFactory.create(in)) {
+            for (Row row : workbook.getSheetAt(0)) {
+                if (row.getRowNum() == 0)
+                    continue;
+                for (Cell cell : row) {
+                    DataFormatter formatter = new DataFormatter();
+                    formatter.formatCellValue(cell).trim();
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static byte[] generate(int rows) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        workbook.setCompressTempFiles(true);
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Questions");
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++)
+                header.createCell(i).setCellValue(HEADERS[i]);
+
+            for (int r = 1; r <= rows; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue("Câu hỏi số " + r + ": chọn nghĩa đúng của từ 日本語");
+                row.createCell(1).setCellValue("MULTIPLE_CHOICE");
+                row.createCell(2).setCellValue(r % 2 == 0 ? "VOCABULARY" : "GRAMMAR");
+                row.createCell(3).setCellValue("Đáp án A " + r);
+                row.createCell(4).setCellValue("Đáp án B " + r);
+                row.createCell(5).setCellValue("Đáp án C " + r);
+                row.createCell(6).setCellValue("Đáp án D " + r);
+                row.createCell(7).setCellValue("A");
+            }
+            workbook.write(out);
+            return out.toByteArray();
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private record Measurement(int result, long millis, long peakHeapBytes) {}
+
+    private static Measurement measure(Callable<Integer> task) throws Exception {
+        System.gc();
+        long baseline = oldGenUsed();
+
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(oldGenUsed(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        long start = System.nanoTime();
+        int result;
+        try {
+            result = task.call();
+        } finally {
+            running.set(false);
+            sampler.join();
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new Measurement(result, millis, Math.max(0, peak.get() - baseline));
+    }
+
+    private static long oldGenUsed() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .filter(pool -> pool.getName().contains("Old") || pool.getName().contains("Tenured"))
+                .mapToLong(pool -> pool.getUsage().getUsed())
+                .sum();
+    }
+}
@@ -5,11 +5,13 @@ import com.ktnl.fapanese.dto.response.ExcelUploadResponse;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
 import com.ktnl.fapanese.service.implementations.ExcelUploadService;
+import com.ktnl.fapanese.service.implementations.ImportCheckpoint;
 import com.ktnl.fapanese.service.interfaces.IStudentService;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,15 +27,18 @@ import org.mockito.quality.Strictness;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.IntSupplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyList;
@@ -125,8 +130,8 @@ class ExcelUploadServiceTest {
         );
         MockMultipartFile file = createMockExcelFile("Sheet1", headers, data);
 
-        // Giả lập iStudentService.createStudentAccountList không ném lỗi
-        when(iStudentService.createStudentAccountList(anyList())).thenReturn(true);
+        // Giả lập iStudentService.createStudentAccountList: không email nào đã có tài khoản
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of());
 
         // Act
         ExcelUploadResponse response = excelUploadService.processStudentExcel(file);
@@ -178,7 +183,7 @@ class ExcelUploadServiceTest {
                 List.of("Cường", "Phạm", "cuong.pham@test.com")  // Hợp lệ
         );
         MockMultipartFile file = createMockExcelFile("Sheet1", headers, data);
-        when(iStudentService.createStudentAccountList(anyList())).thenReturn(true);
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of());
 
         // Act
         ExcelUploadResponse response = excelUploadService.processStudentExcel(file);
@@ -225,7 +230,7 @@ class ExcelUploadServiceTest {
         assertEquals(0, response.getSuccessCount());
         assertEquals(1, response.getFailureCount()); // Lỗi do DB
         assertEquals(1, response.getErrorMessages().size());
-        assertEquals("Dòng 0: " + ErrorCode.EMAIL_EXISTED.getMessage(), response.getErrorMessages().get(0));
+        assertEquals("Dòng 2-2: " + ErrorCode.EMAIL_EXISTED.getMessage(), response.getErrorMessages().get(0));
     }
 
     @Test
@@ -289,7 +294,7 @@ class ExcelUploadServiceTest {
                 List.of("Bình", "Trần", "binh.tran@test.com")  // Dòng 3 hợp lệ
         );
         MockMultipartFile file = createMockExcelFile("Sheet1", headers, data);
-        when(iStudentService.createStudentAccountList(anyList())).thenReturn(true);
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of());
 
         // Act
         ExcelUploadResponse response = excelUploadService.processStudentExcel(file);
@@ -339,7 +344,7 @@ class ExcelUploadServiceTest {
         // vì nó đang được set là false (isRequired=false) trong service.
 
         // Hiện tại, test này sẽ chạy như một kịch bản THÀNH CÔNG (DOB là optional)
-        when(iStudentService.createStudentAccountList(anyList())).thenReturn(true);
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of());
         ExcelUploadResponse response = excelUploadService.processStudentExcel(file);
 
         assertEquals(1, response.getTotalRowsProcessed());
@@ -378,7 +383,7 @@ class ExcelUploadServiceTest {
                 List.of("An", "Nguyễn", "an.nguyen@test.com", "2000-01-01")
         );
         MockMultipartFile file = createMockExcelFile("Sheet1", headers, data);
-        when(iStudentService.createStudentAccountList(anyList())).thenReturn(true);
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of());
 
         // Act
         ExcelUploadResponse response = excelUploadService.processStudentExcel(file);
@@ -395,6 +400,84 @@ class ExcelUploadServiceTest {
         assertEquals(LocalDate.of(2000,1,1), captor.getValue().get(0).getDateOfBirth());
     }
 
+    @Test
+    @DisplayName("processStudentExcel: Email đã có tài khoản chỉ báo lỗi đúng dòng đó, các dòng khác trong lô vẫn lưu")
+    void processStudentExcel_ExistingEmail_ReportsRowAndSavesRest() throws IOException {
+        // Arrange
+        List<String> headers = List.of("FirstName", "LastName", "Email");
+        List<List<Object>> data = List.of(
+                List.of("An", "Nguyễn", "an@test.com"),      // Dòng 2
+                List.of("Bình", "Trần", "binh@test.com"),    // Dòng 3 - đã có tài khoản
+                List.of("Chi", "Lê", "chi@test.com")         // Dòng 4
+        );
+        MockMultipartFile file = createMockExcelFile("Sheet1", headers, data);
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of("binh@test.com"));
+
+        // Act
+        ExcelUploadResponse response = excelUploadService.processStudentExcel(file);
+
+        // Assert
+        assertEquals(3, response.getTotalRowsProcessed());
+        assertEquals(2, response.getSuccessCount());
+        assertEquals(1, response.getFailureCount());
+        assertEquals(List.of("Dòng 3: " + ErrorCode.EMAIL_EXISTED.getMessage()), response.getErrorMessages());
+    }
+
+    @Test
+    @DisplayName("processStudentExcel: Email đã có tài khoản trả về khác hoa thường vẫn báo lỗi đúng dòng")
+    void processStudentExcel_ExistingEmailDifferentCase_ReportsRow() throws IOException {
+        List<String> headers = List.of("FirstName", "LastName", "Email");
+        List<List<Object>> data = List.of(
+                List.of("An", "Nguyễn", "an@test.com"),      // Dòng 2
+                List.of("Bình", "Trần", "Binh@Test.com")     // Dòng 3 - đã có tài khoản
+        );
+        MockMultipartFile file = createMockExcelFile("Sheet1", headers, data);
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of("Binh@test.com"));
+
+        ExcelUploadResponse response = excelUploadService.processStudentExcel(file);
+
+        assertEquals(1, response.getSuccessCount());
+        assertEquals(1, response.getFailureCount());
+        assertEquals(List.of("Dòng 3: " + ErrorCode.EMAIL_EXISTED.getMessage()), response.getErrorMessages());
+    }
+
+    @Test
+    @DisplayName("Checkpoint: Ghi tới dòng cuối đã gộp, kể cả dòng lỗi sau học sinh hợp lệ cuối")
+    void processStudentExcel_CheckpointCoversTrailingErrorRows() throws IOException {
+        List<String> headers = List.of("FirstName", "LastName", "Email");
+        List<List<Object>> data = List.of(
+                List.of("An", "Nguyễn", "an@test.com"),      // Dòng 2
+                List.of("Bình", "Trần", "email-sai")         // Dòng 3 - lỗi, gộp sau học sinh cuối
+        );
+        MockMultipartFile file = createMockExcelFile("Sheet1", headers, data);
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of());
+        List<Integer> checkpointRows = new ArrayList<>();
+        ImportCheckpoint checkpoint = new ImportCheckpoint() {
+            @Override
+            public int lastCommittedRow() {
+                return 1;
+            }
+
+            @Override
+            public ExcelUploadResponse committedProgress() {
+                return null;
+            }
+
+            @Override
+            public int commit(int lastRow, IntSupplier save, ExcelUploadResponse progress) {
+                checkpointRows.add(lastRow);
+                return save.getAsInt();
+            }
+        };
+
+        ExcelUploadResponse response = excelUploadService.processStudentExcel(file.getInputStream(), checkpoint);
+
+        // Lỗi dòng 3 đã nằm trong progress của lần commit này, nên chạy lại phải bắt đầu sau dòng 3
+        assertEquals(List.of(3), checkpointRows);
+        assertEquals(1, response.getSuccessCount());
+        assertEquals(1, response.getFailureCount());
+    }
+
     @Test
     @DisplayName("Coverage: Lỗi hệ thống chung khi lưu (catch Exception e)")
     void processStudentExcel_Fail_GenericSaveException() throws IOException {
@@ -416,7 +499,7 @@ class ExcelUploadServiceTest {
         assertEquals(1, response.getTotalRowsProcessed());
         assertEquals(0, response.getSuccessCount());
         assertEquals(1, response.getFailureCount()); // Kích hoạt nhánh if cuối cùng
-        assertEquals("Dòng 0: Lỗi hệ thống khi lưu dữ liệu.", response.getErrorMessages().get(0));
+        assertEquals("Dòng 2-2: Lỗi hệ thống khi lưu dữ liệu.", response.getErrorMessages().get(0));
     }
 
     @Test
@@ -443,7 +526,7 @@ class ExcelUploadServiceTest {
         assertEquals(1, response.getTotalRowsProcessed());
         assertEquals(0, response.getSuccessCount());
         assertEquals(1, response.getFailureCount());
-        assertEquals("Dòng 0: Lỗi ràng buộc dữ liệu khi lưu.", response.getErrorMessages().get(0));
+        assertEquals("Dòng 2-2: Lỗi ràng buộc dữ liệu khi lưu.", response.getErrorMessages().get(0));
     }
 
     @Test
@@ -456,7 +539,7 @@ class ExcelUploadServiceTest {
                 List.of("Bình", "Trần", "duplicate@test.com")  // Lỗi trùng lặp
         );
         MockMultipartFile file = createMockExcelFile("Sheet1", headers, data);
-        when(iStudentService.createStudentAccountList(anyList())).thenReturn(true);
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of());
 
         // Act
         ExcelUploadResponse response = excelUploadService.processStudentExcel(file);
@@ -477,7 +560,7 @@ class ExcelUploadServiceTest {
                 List.of("An", "Nguyễn", "an@test.com", LocalDate.of(2002, 10, 20)) // Gửi LocalDate
         );
         MockMultipartFile file = createMockExcelFile("Sheet1", headers, data);
-        when(iStudentService.createStudentAccountList(anyList())).thenReturn(true);
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of());
 
         // Act
         ExcelUploadResponse response = excelUploadService.processStudentExcel(file);
@@ -657,7 +740,7 @@ class ExcelUploadServiceTest {
             file = new MockMultipartFile("file", "null_row.xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", out.toByteArray());
         }
 
-        when(iStudentService.createStudentAccountList(anyList())).thenReturn(true);
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of());
 
         // Act
         ExcelUploadResponse response = excelUploadService.processStudentExcel(file);
@@ -674,4 +757,203 @@ class ExcelUploadServiceTest {
         assertEquals(0, response.getFailureCount()); // Không có dòng null nào được xử lý
         assertTrue(response.getErrorMessages().isEmpty()); // Không có lỗi
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("processStudentExcel: File lớn hơn CHUNK_SIZE được lưu thành nhiều lô")
+    void processStudentExcel_SavesInChunks() throws IOException {
+        ReflectionTestUtils.setField(excelUploadService, "CHUNK_SIZE", 2);
+        List<String> headers = List.of("FirstName", "LastName", "Email");
+        List<List<Object>> data = List.of(
+                List.of("An", "Nguyễn", "an@test.com"),
+                List.of("Bình", "Trần", "binh@test.com"),
+                List.of("Chi", "Lê", "an@test.com"), // Trùng email ở lô trước vẫn bị phát hiện
+                List.of("Dũng", "Phạm", "dung@test.com")
+        );
+        MockMultipartFile file = createMockExcelFile("Sheet1", headers, data);
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of());
+
+        ExcelUploadResponse response = excelUploadService.processStudentExcel(file);
+
+        assertEquals(4, response.getTotalRowsProcessed());
+        assertEquals(3, response.getSuccessCount());
+        assertEquals(1, response.getFailureCount());
+        assertEquals("Dòng 4: " + ErrorCode.EMAIL_EXISTED.getMessage(), response.getErrorMessages().get(0));
+
+        ArgumentCaptor<List<CreateStudentRequest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(iStudentService, times(2)).createStudentAccountList(captor.capture());
+        assertEquals(List.of("an@test.com", "binh@test.com"),
+                captor.getAllValues().get(0).stream().map(CreateStudentRequest::getEmail).toList());
+        assertEquals(List.of("dung@test.com"),
+                captor.getAllValues().get(1).stream().map(CreateStudentRequest::getEmail).toList());
+    }
+
+    @Test
+    @DisplayName("processStudentExcel: Đọc được file ghi bằng SXSSF (inline string, ngày dạng số)")
+    void processStudentExcel_StreamingWorkbookFile() throws IOException {
+        MockMultipartFile file;
+        SXSSFWorkbook workbook = new SXSSFWorkbook();
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+            Sheet sheet = workbook.createSheet("Sheet1");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Ho");
+            header.createCell(1).setCellValue("Ten");
+            header.createCell(2).setCellValue("Email");
+            header.createCell(3).setCellValue("Ngay Sinh");
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue("An");
+            row.createCell(1).setCellValue("Nguyễn");
+            row.createCell(2).setCellValue("An@Test.com");
+            Cell dob = row.createCell(3);
+            dob.setCellValue(LocalDate.of(2003, 12, 31));
+            dob.setCellStyle(dateStyle);
+            workbook.write(out);
+            file = new MockMultipartFile("file", "sxssf.xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", out.toByteArray());
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of());
+
+        ExcelUploadResponse response = excelUploadService.processStudentExcel(file);
+
+        assertEquals(1, response.getSuccessCount());
+        ArgumentCaptor<List<CreateStudentRequest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(iStudentService).createStudentAccountList(captor.capture());
+        CreateStudentRequest saved = captor.getValue().get(0);
+        assertEquals("an@test.com", saved.getEmail());
+        assertEquals(LocalDate.of(2003, 12, 31), saved.getDateOfBirth());
+    }
+
+    @Test
+    @DisplayName("processStudentExcel: Một lô lưu lỗi → chỉ các dòng của lô đó thất bại, lô khác vẫn được lưu")
+    void processStudentExcel_ChunkSaveFails_OtherChunksSaved() throws IOException {
+        ReflectionTestUtils.setField(excelUploadService, "CHUNK_SIZE", 2);
+        List<String> headers = List.of("FirstName", "LastName", "Email");
+        List<List<Object>> data = List.of(
+                List.of("An", "Nguyễn", "an@test.com"),
+                List.of("Bình", "Trần", "binh@test.com"),
+                List.of("Chi", "Lê", "chi@test.com"),
+                List.of("Dũng", "Phạm", "dung@test.com"),
+                List.of("Em", "Võ", "em@test.com")
+        );
+        MockMultipartFile file = createMockExcelFile("Sheet1", headers, data);
+        when(iStudentService.createStudentAccountList(anyList()))
+                .thenReturn(List.of())
+                .thenThrow(new RuntimeException("Mất kết nối DB"))
+                .thenReturn(List.of());
+
+        ExcelUploadResponse response = excelUploadService.processStudentExcel(file);
+
+        verify(iStudentService, times(3)).createStudentAccountList(anyList());
+        assertEquals(5, response.getTotalRowsProcessed());
+        assertEquals(3, response.getSuccessCount());
+        assertEquals(2, response.getFailureCount());
+        assertEquals(List.of("Dòng 4-5: Lỗi hệ thống khi lưu dữ liệu."), response.getErrorMessages());
+    }
+
+    @Test
+    @DisplayName("processStudentExcel: Validate song song theo lô cho cùng kết quả và thứ tự lỗi như xử lý một lô")
+    void processStudentExcel_ParallelValidation_SameResultAsSingleBatch() throws IOException {
+        List<String> headers = List.of("FirstName", "LastName", "Email", "DateOfBirth");
+        List<List<Object>> data = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            if (i % 17 == 0)
+                data.add(List.of()); // Dòng trống
+            else if (i % 10 == 3)
+                data.add(List.of("An", "Nguyễn", "email-sai-" + i, "01/01/2000"));
+            else if (i % 10 == 7)
+                data.add(List.of("Bình", "Trần", "student" + (i - 1) + "@test.com", "01/01/2000")); // Trùng dòng trước
+            else if (i % 25 == 11)
+                data.add(List.of("Chi", "Lê", "student" + i + "@test.com", "31/02/2000")); // Ngày không tồn tại
+            else
+                data.add(List.of("Dũng", "Phạm", "student" + i + "@test.com", "2000-01-" + String.format("%02d", i % 28 + 1)));
+        }
+        MockMultipartFile file = createMockExcelFile("Sheet1", headers, data);
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of());
+        ReflectionTestUtils.setField(excelUploadService, "CHUNK_SIZE", 40);
+
+        // Một lô duy nhất: tương đương xử lý tuần tự
+        ReflectionTestUtils.setField(excelUploadService, "VALIDATION_BATCH_SIZE", 1000);
+        ExcelUploadResponse sequential = excelUploadService.processStudentExcel(file);
+
+        // Lô rất nhỏ: nhiều task chạy song song, gộp lại theo thứ tự
+        ReflectionTestUtils.setField(excelUploadService, "VALIDATION_BATCH_SIZE", 3);
+        for (int run = 0; run < 5; run++) {
+            ExcelUploadResponse parallel = excelUploadService.processStudentExcel(file);
+            assertEquals(sequential.getTotalRowsProcessed(), parallel.getTotalRowsProcessed());
+            assertEquals(sequential.getSuccessCount(), parallel.getSuccessCount());
+            assertEquals(sequential.getFailureCount(), parallel.getFailureCount());
+            assertEquals(sequential.getErrorMessages(), parallel.getErrorMessages());
+        }
+
+        assertEquals(300, sequential.getTotalRowsProcessed());
+        assertEquals(300, sequential.getSuccessCount() + sequential.getFailureCount());
+        assertEquals("Dòng 2: Dòng trống, bỏ qua.", sequential.getErrorMessages().get(0));
+        assertEquals("Dòng 5: " + ErrorCode.EMAIL_INVALID.getMessage(), sequential.getErrorMessages().get(1));
+        assertEquals("Dòng 9: " + ErrorCode.EMAIL_EXISTED.getMessage(), sequential.getErrorMessages().get(2));
+
+        // Các lô lưu xuống DB cũng giữ đúng thứ tự dòng
+        ArgumentCaptor<List<CreateStudentRequest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(iStudentService, atLeastOnce()).createStudentAccountList(captor.capture());
+        List<List<CreateStudentRequest>> batches = captor.getAllValues();
+        int perRun = batches.size() / 6;
+        for (int run = 1; run < 6; run++) {
+            for (int b = 0; b < perRun; b++) {
+                assertEquals(batches.get(b).stream().map(CreateStudentRequest::getEmail).toList(),
+                        batches.get(run * perRun + b).stream().map(CreateStudentRequest::getEmail).toList());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("processStudentExcel: Chạy tiếp từ checkpoint - Không lưu lại dòng đã commit, vẫn bắt email trùng với dòng trước checkpoint")
+    void processStudentExcel_ResumeFromCheckpoint() throws IOException {
+        List<String> headers = List.of("FirstName", "LastName", "Email");
+        List<List<Object>> data = List.of(
+                List.of("An", "Nguyễn", "an@test.com"),      // Dòng 2 - đã lưu
+                List.of("Bình", "Trần", "email-sai"),        // Dòng 3 - đã báo lỗi
+                List.of("Chi", "Lê", "chi@test.com"),        // Dòng 4 - đã lưu
+                List.of("Dũng", "Phạm", "an@test.com"),      // Dòng 5 - trùng dòng 2
+                List.of("Em", "Võ", "em@test.com")           // Dòng 6
+        );
+        MockMultipartFile file = createMockExcelFile("Sheet1", headers, data);
+        when(iStudentService.createStudentAccountList(anyList())).thenReturn(List.of());
+
+        ExcelUploadResponse committed = new ExcelUploadResponse();
+        committed.setTotalRowsProcessed(3);
+        committed.setSuccessCount(2);
+        committed.addErrorMessage(3, ErrorCode.EMAIL_INVALID.getMessage());
+        List<Integer> checkpointRows = new ArrayList<>();
+        ImportCheckpoint checkpoint = new ImportCheckpoint() {
+            @Override
+            public int lastCommittedRow() {
+                return 4;
+            }
+
+            @Override
+            public ExcelUploadResponse committedProgress() {
+                return committed;
+            }
+
+            @Override
+            public int commit(int lastRow, IntSupplier save, ExcelUploadResponse progress) {
+                checkpointRows.add(lastRow);
+                return save.getAsInt();
+            }
+        };
+
+        ExcelUploadResponse response = excelUploadService.processStudentExcel(file.getInputStream(), checkpoint);
+
+        ArgumentCaptor<List<CreateStudentRequest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(iStudentService, times(1)).createStudentAccountList(captor.capture());
+        assertEquals(List.of("em@test.com"), captor.getValue().stream().map(CreateStudentRequest::getEmail).toList());
+        assertEquals(List.of(6), checkpointRows);
+        assertEquals(5, response.getTotalRowsProcessed());
+        assertEquals(3, response.getSuccessCount());
+        assertEquals(2, response.getFailureCount());
+        assertEquals(List.of("Dòng 3: " + ErrorCode.EMAIL_INVALID.getMessage(),
+                "Dòng 5: " + ErrorCode.EMAIL_EXISTED.getMessage()), response.getErrorMessages());
+    }
+}
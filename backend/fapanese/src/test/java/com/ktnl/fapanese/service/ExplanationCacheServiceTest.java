@@ -0,0 +1,150 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.dto.request.ExplainExamRequest;
+import com.ktnl.fapanese.entity.ExamExplanation;
+import com.ktnl.fapanese.repository.ExamExplanationRepository;
+import com.ktnl.fapanese.service.implementations.ExplanationCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExplanationCacheServiceTest {
+
+    @Mock
+    private ExamExplanationRepository examExplanationRepository;
+
+    @InjectMocks
+    private ExplanationCacheService explanationCacheService;
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(explanationCacheService, "MAX_SIZE", 2);
+        ReflectionTestUtils.setField(explanationCacheService, "TTL", Duration.ofHours(1));
+        ReflectionTestUtils.setField(explanationCacheService, "PERSIST", true);
+    }
+
+    @Test
+    @DisplayName("getOrLoad - Miss - Gọi upstream và lưu DB")
+    void getOrLoad_Miss_CallsUpstreamAndPersists() {
+        when(examExplanationRepository.findById(anyString())).thenReturn(Optional.empty());
+
+        String result = explanationCacheService.getOrLoad(request("Q1"), this::upstream).join();
+
+        assertEquals("explain Q1", result);
+        assertEquals(1, upstreamCalls.get());
+        verify(examExplanationRepository).save(any(ExamExplanation.class));
+        assertEquals(1, explanationCacheService.getStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("getOrLoad - Cùng câu hỏi (khác khoảng trắng) - Lấy từ bộ nhớ")
+    void getOrLoad_NormalizedHit_FromMemory() {
+        when(examExplanationRepository.findById(anyString())).thenReturn(Optional.empty());
+
+        explanationCacheService.getOrLoad(request("Q1"), this::upstream).join();
+        String result = explanationCacheService
+                .getOrLoad(new ExplainExamRequest("  Q1 ", "A.  x   B. y", "A"), this::upstream).join();
+
+        assertEquals("explain Q1", result);
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1, explanationCacheService.getStats().getHits());
+        verify(examExplanationRepository, times(1)).findById(anyString());
+    }
+
+    @Test
+    @DisplayName("getOrLoad - Có trong MySQL - Không gọi upstream")
+    void getOrLoad_PersistedHit() {
+        when(examExplanationRepository.findById(anyString())).thenReturn(Optional.of(
+                new ExamExplanation("hash", "from db", LocalDateTime.now())));
+
+        String result = explanationCacheService.getOrLoad(request("Q1"), this::upstream).join();
+
+        assertEquals("from db", result);
+        assertEquals(0, upstreamCalls.get());
+    }
+
+    @Test
+    @DisplayName("getOrLoad - Request đồng thời - Chỉ một lời gọi upstream (single-flight)")
+    void getOrLoad_Concurrent_Coalesced() {
+        when(examExplanationRepository.findById(anyString())).thenReturn(Optional.empty());
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        var first = explanationCacheService.getOrLoad(request("Q1"), r -> {
+            upstreamCalls.incrementAndGet();
+            return pending;
+        });
+        var second = explanationCacheService.getOrLoad(request("Q1"), this::upstream);
+
+        pending.complete("shared");
+
+        assertEquals("shared", first.join());
+        assertEquals("shared", second.join());
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    @DisplayName("getOrLoad - Upstream lỗi - Không cache, lần sau gọi lại")
+    void getOrLoad_UpstreamError_NotCached() {
+        when(examExplanationRepository.findById(anyString())).thenReturn(Optional.empty());
+
+        var failed = explanationCacheService.getOrLoad(request("Q1"),
+                r -> CompletableFuture.failedFuture(new RuntimeException("boom")));
+        assertThrows(RuntimeException.class, failed::join);
+
+        assertEquals("explain Q1", explanationCacheService.getOrLoad(request("Q1"), this::upstream).join());
+        verify(examExplanationRepository, times(1)).save(any(ExamExplanation.class));
+    }
+
+    @Test
+    @DisplayName("getOrLoad - DB lỗi khi đọc - Coi như miss, vẫn gọi upstream")
+    void getOrLoad_DatabaseReadError_FallsThroughToUpstream() {
+        when(examExplanationRepository.findById(anyString())).thenThrow(new RuntimeException("db down"));
+
+        String result = explanationCacheService.getOrLoad(request("Q1"), this::upstream).join();
+
+        assertEquals("explain Q1", result);
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1, explanationCacheService.getStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("getOrLoad - Vượt MAX_SIZE - Bỏ entry ít dùng nhất")
+    void getOrLoad_Full_EvictsLeastRecentlyUsed() {
+        when(examExplanationRepository.findById(anyString())).thenReturn(Optional.empty());
+
+        explanationCacheService.getOrLoad(request("Q1"), this::upstream).join();
+        explanationCacheService.getOrLoad(request("Q2"), this::upstream).join();
+        explanationCacheService.getOrLoad(request("Q3"), this::upstream).join();
+
+        assertEquals(2, explanationCacheService.getStats().getSize());
+        assertEquals(1, explanationCacheService.getStats().getEvictions());
+    }
+
+    private ExplainExamRequest request(String question) {
+        return new ExplainExamRequest(question, "A. x B. y", "A");
+    }
+
+    private CompletableFuture<String> upstream(ExplainExamRequest request) {
+        upstreamCalls.incrementAndGet();
+        return CompletableFuture.completedFuture("explain " + request.getQuestion().trim());
+    }
+}
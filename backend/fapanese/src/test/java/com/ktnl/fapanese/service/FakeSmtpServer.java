@@ -0,0 +1,136 @@
+package com.ktnl.fapanese.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SMTP server giả chạy trên localhost cho test gửi mail: trả lời đủ lệnh cho JavaMail (EHLO, MAIL, RCPT, DATA,
+ * RSET, NOOP, QUIT), không AUTH / STARTTLS. Ghi lại email nhận được và số kết nối đã mở.
+ *
+ * - failNextMessages(n): n email tiếp theo bị từ chối ở cuối DATA bằng 451 (lỗi tạm thời).
+ * - holdMessages(): các email chờ ở DATA cho tới khi releaseMessages(), để giả lập server chậm.
+ */
+class FakeSmtpServer implements AutoCloseable {
+
+    record Received(String recipient, String data) {}
+
+    private final ServerSocket serverSocket;
+    private final List<Received> received = new ArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger failNext = new AtomicInteger();
+    private volatile CountDownLatch hold = new CountDownLatch(0);
+
+    FakeSmtpServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofPlatform().daemon().name("fake-smtp-accept").start(this::acceptLoop);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    int getConnections() {
+        return connections.get();
+    }
+
+    List<Received> getReceived() {
+        synchronized (received) {
+            return new ArrayList<>(received);
+        }
+    }
+
+    void failNextMessages(int count) {
+        failNext.set(count);
+    }
+
+    void holdMessages() {
+        hold = new CountDownLatch(1);
+    }
+
+    void releaseMessages() {
+        hold.countDown();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                Thread.ofPlatform().daemon().start(() -> handle(socket));
+            } catch (IOException e) {
+                return; // Server đã đóng
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+             OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 localhost FakeSmtp");
+            String recipient = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 localhost");
+                    case "MAIL" -> {
+                        recipient = null;
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        recipient = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                        reply(out, "250 OK");
+                    }
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        StringBuilder data = new StringBuilder();
+                        while ((line = in.readLine()) != null && !line.equals("."))
+                            data.append(line).append("\r\n");
+                        hold.await(10, TimeUnit.SECONDS);
+                        if (failNext.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                            reply(out, "451 Temporary failure, try again later");
+                        } else {
+                            synchronized (received) {
+                                received.add(new Received(recipient, data.toString()));
+                            }
+                            reply(out, "250 OK");
+                        }
+                    }
+                    case "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            // Client đóng kết nối
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        hold.countDown();
+        serverSocket.close();
+    }
+}
@@ -0,0 +1,47 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.configuration.AzureProps;
+import com.ktnl.fapanese.service.implementations.FfmpegAudioTranscoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FfmpegAudioTranscoderTest {
+
+    private AzureProps props;
+    private FfmpegAudioTranscoder transcoder;
+
+    @BeforeEach
+    void setUp() {
+        props = new AzureProps();
+        transcoder = new FfmpegAudioTranscoder(props);
+    }
+
+    @Test
+    @DisplayName("supports - Có cấu hình ffmpeg-path - Nhận mọi định dạng")
+    void supports_Configured() {
+        props.getSpeech().setFfmpegPath("ffmpeg");
+
+        assertTrue(transcoder.supports(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    @DisplayName("supports - ffmpeg-path để trống - Tắt fallback")
+    void supports_Disabled() {
+        props.getSpeech().setFfmpegPath("");
+
+        assertFalse(transcoder.supports(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    @DisplayName("toPcm16kMono - Không tìm thấy binary ffmpeg - IOException")
+    void toPcm16kMono_MissingBinary() {
+        props.getSpeech().setFfmpegPath("/nonexistent/ffmpeg");
+
+        assertThrows(IOException.class, () -> transcoder.toPcm16kMono(new byte[]{1, 2, 3}));
+    }
+}
@@ -1,16 +1,19 @@
 package com.ktnl.fapanese.service;
 
 import com.ktnl.fapanese.dto.request.FinalExamRequest;
+import com.ktnl.fapanese.dto.response.ExamSummaryResponse;
 import com.ktnl.fapanese.dto.response.FinalExamResponse;
 import com.ktnl.fapanese.entity.FinalExam;
 import com.ktnl.fapanese.entity.OverviewPart;
 import com.ktnl.fapanese.entity.Question;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.mapper.ExamSummaryMapper;
 import com.ktnl.fapanese.mapper.FinalExamMapper;
 import com.ktnl.fapanese.repository.FinalExamRepository;
 import com.ktnl.fapanese.repository.OverviewPartRepository;
 import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.repository.projection.ExamSummary;
 import com.ktnl.fapanese.service.implementations.FinalExamService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -41,6 +44,8 @@ class FinalExamServiceTest {
     private QuestionRepository questionRepository;
     @Mock
     private FinalExamMapper finalExamMapper;
+    @Mock
+    private ExamSummaryMapper examSummaryMapper;
 
     // Lớp service đang được test, tự động tiêm các mock ở trên vào
     @InjectMocks
@@ -90,7 +95,7 @@ class FinalExamServiceTest {
     void getAllFinalExams_ShouldReturnListOfExams() {
         // Given: Giả lập repository trả về một danh sách exam
         List<FinalExam> exams = List.of(exam);
-        when(finalExamRepository.findAll()).thenReturn(exams);
+        when(finalExamRepository.findAllWithQuestions()).thenReturn(exams);
 
         // Giả lập mapper chuyển đổi danh sách
         List<FinalExamResponse> responses = List.of(response);
@@ -103,7 +108,9 @@ class FinalExamServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Test Exam", result.get(0).getExamTitle());
-        verify(finalExamRepository, times(1)).findAll();
+        // Chỉ kiểm tra service gọi đúng method fetch join; mock không đếm được số câu SQL thật
+        verify(finalExamRepository, times(1)).findAllWithQuestions();
+        verifyNoMoreInteractions(finalExamRepository);
         verify(finalExamMapper, times(1)).toFinalExamResponseList(exams);
     }
 
@@ -112,7 +119,7 @@ class FinalExamServiceTest {
     @DisplayName("getFinalExamById - When Exam Exists - Should Return ExamResponse")
     void getFinalExamById_WhenExamExists_ShouldReturnExam() {
         // Given: Giả lập repository tìm thấy exam
-        when(finalExamRepository.findById(1L)).thenReturn(Optional.of(exam));
+        when(finalExamRepository.findWithQuestionsById(1L)).thenReturn(Optional.of(exam));
         when(finalExamMapper.toFinalExamResponse(exam)).thenReturn(response);
 
         // When: Gọi phương thức
@@ -121,14 +128,15 @@ class FinalExamServiceTest {
         // Then: Kiểm tra kết quả
         assertNotNull(result);
         assertEquals(response, result);
-        verify(finalExamRepository, times(1)).findById(1L);
+        verify(finalExamRepository, times(1)).findWithQuestionsById(1L);
+        verifyNoMoreInteractions(finalExamRepository);
     }
 
     @Test
     @DisplayName("getFinalExamById - When Exam Not Found - Should Throw EXAM_NOT_FOUND")
     void getFinalExamById_WhenExamNotFound_ShouldThrowException() {
         // Given: Giả lập repository không tìm thấy exam
-        when(finalExamRepository.findById(1L)).thenReturn(Optional.empty());
+        when(finalExamRepository.findWithQuestionsById(1L)).thenReturn(Optional.empty());
 
         // When & Then: Kiểm tra exception được ném ra
         AppException exception = assertThrows(AppException.class, () -> {
@@ -136,7 +144,7 @@ class FinalExamServiceTest {
         });
 
         assertEquals(ErrorCode.EXAM_NOT_FOUND, exception.getErrorCode());
-        verify(finalExamRepository, times(1)).findById(1L);
+        verify(finalExamRepository, times(1)).findWithQuestionsById(1L);
         verify(finalExamMapper, never()).toFinalExamResponse(any());
     }
 
@@ -397,7 +405,7 @@ class FinalExamServiceTest {
         List<FinalExamResponse> responses = List.of(response);
 
         when(overviewPartRepository.existsById(partId)).thenReturn(true);
-        when(finalExamRepository.findByOverviewPartId(partId)).thenReturn(exams);
+        when(finalExamRepository.findWithQuestionsByOverviewPartId(partId)).thenReturn(exams);
         when(finalExamMapper.toFinalExamResponseList(exams)).thenReturn(responses);
 
         // When
@@ -407,7 +415,8 @@ class FinalExamServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         verify(overviewPartRepository, times(1)).existsById(partId);
-        verify(finalExamRepository, times(1)).findByOverviewPartId(partId);
+        verify(finalExamRepository, times(1)).findWithQuestionsByOverviewPartId(partId);
+        verifyNoMoreInteractions(finalExamRepository);
         verify(finalExamMapper, times(1)).toFinalExamResponseList(exams);
     }
 
@@ -424,7 +433,43 @@ class FinalExamServiceTest {
         });
 
         assertEquals(ErrorCode.OVERVIEW_PART_NOT_FOUND, exception.getErrorCode());
-        verify(finalExamRepository, never()).findByOverviewPartId(any());
+        verifyNoInteractions(finalExamRepository);
+        verify(finalExamMapper, never()).toFinalExamResponseList(any());
+    }
+
+    // --- 7. Test cho getFinalExamSummaries ---
+    @Test
+    @DisplayName("getFinalExamSummaries - When Part Exists - Should Call Projection Repository Method")
+    void getFinalExamSummaries_WhenPartExists_ShouldCallProjectionMethod() {
+        // Given
+        Long partId = 10L;
+        List<ExamSummary> rows = List.of(new ExamSummary(1L, partId, "Test Exam", "FA25", null, 2025, 2L));
+        List<ExamSummaryResponse> responses = List.of(ExamSummaryResponse.builder().id(1L).questionCount(2L).build());
+
+        when(overviewPartRepository.existsById(partId)).thenReturn(true);
+        when(finalExamRepository.findSummaries(partId)).thenReturn(rows);
+        when(examSummaryMapper.toExamSummaryResponseList(rows)).thenReturn(responses);
+
+        // When
+        List<ExamSummaryResponse> result = finalExamService.getFinalExamSummaries(partId);
+
+        // Then: dùng method projection, không gọi method nạp entity FinalExam / Question
+        assertEquals(responses, result);
+        verify(finalExamRepository, times(1)).findSummaries(partId);
+        verifyNoMoreInteractions(finalExamRepository);
         verify(finalExamMapper, never()).toFinalExamResponseList(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("getFinalExamSummaries - When Part Not Found - Should Throw OVERVIEW_PART_NOT_FOUND")
+    void getFinalExamSummaries_WhenPartNotFound_ShouldThrowException() {
+        // Given
+        when(overviewPartRepository.existsById(10L)).thenReturn(false);
+
+        // When & Then
+        AppException exception = assertThrows(AppException.class, () -> finalExamService.getFinalExamSummaries(10L));
+
+        assertEquals(ErrorCode.OVERVIEW_PART_NOT_FOUND, exception.getErrorCode());
+        verifyNoInteractions(finalExamRepository);
+    }
+}
@@ -0,0 +1,296 @@
+package com.ktnl.fapanese.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktnl.fapanese.dto.response.ImportJobResponse;
+import com.ktnl.fapanese.entity.ImportJob;
+import com.ktnl.fapanese.entity.Question;
+import com.ktnl.fapanese.entity.enums.ImportJobStatus;
+import com.ktnl.fapanese.entity.enums.ImportJobType;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.repository.ImportJobRepository;
+import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.service.implementations.ExcelUploadService;
+import com.ktnl.fapanese.service.implementations.ImportJobService;
+import com.ktnl.fapanese.service.implementations.QuestionExcelUploadService;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ImportJobServiceTest {
+
+    @Mock private ImportJobRepository importJobRepository;
+    @Mock private QuestionRepository questionRepository;
+    @Mock private IAnswerKeyCacheService answerKeyCache;
+    @Mock private ExcelUploadService excelUploadService;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    Path jobDir;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final List<String> insertedContents = new ArrayList<>();
+    private ImportJobService importJobService;
+
+    @BeforeEach
+    void setUp() {
+        QuestionExcelUploadService questionExcelUploadService = new QuestionExcelUploadService(questionRepository, answerKeyCache);
+        ReflectionTestUtils.setField(questionExcelUploadService, "CHUNK_SIZE", 2);
+
+        importJobService = new ImportJobService(importJobRepository, excelUploadService, questionExcelUploadService,
+                transactionTemplate, new ObjectMapper());
+        ReflectionTestUtils.setField(importJobService, "JOB_DIR", jobDir.toString());
+        ReflectionTestUtils.setField(importJobService, "executor", Executors.newSingleThreadExecutor());
+        loginAs("lecturer@test.com", "ROLE_LECTURER");
+
+        // Repository giả lập bằng Map; transaction chỉ chạy thẳng callback
+        when(importJobRepository.save(any(ImportJob.class))).thenAnswer(inv -> {
+            ImportJob job = inv.getArgument(0);
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        when(importJobRepository.findById(anyString())).thenAnswer(inv -> Optional.ofNullable(jobs.get(inv.<String>getArgument(0))));
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(questionRepository.batchInsert(anyList())).thenAnswer(inv -> {
+            List<Question> batch = inv.getArgument(0);
+            batch.forEach(q -> insertedContents.add(q.getContent()));
+            return batch;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void loginAs(String email, String authority) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(email, null, authority));
+    }
+
+    @Test
+    @DisplayName("submit - Lưu file, trả jobId ngay; worker import xong thì job COMPLETED và file bị xóa")
+    void submit_RunsJobInBackground() throws Exception {
+        MockMultipartFile file = questionFile(5, 3);
+
+        ImportJobResponse submitted = importJobService.submit(ImportJobType.QUESTION, file);
+        assertEquals("QUEUED", submitted.getStatus());
+        assertEquals("questions.xlsx", submitted.getFileName());
+
+        awaitJobs();
+        ImportJobResponse job = importJobService.getJob(ImportJobType.QUESTION, submitted.getJobId());
+
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(5, job.getTotalRowsProcessed());
+        assertEquals(4, job.getSuccessCount());
+        assertEquals(1, job.getFailureCount());
+        assertEquals(1, job.getErrorMessages().size());
+        assertTrue(job.getErrorMessages().get(0).startsWith("Dòng 4:"));
+        assertNotNull(job.getFinishedAt());
+        assertEquals(List.of("Câu 1", "Câu 2", "Câu 4", "Câu 5"), insertedContents);
+        try (var files = Files.list(jobDir)) {
+            assertEquals(0, files.count());
+        }
+        // Checkpoint sau lô đầu (dòng 2-3) và lô thứ hai (tới dòng 5)
+        assertEquals(6, jobs.get(submitted.getJobId()).getLastCommittedRow());
+    }
+
+    @Test
+    @DisplayName("Tắt ứng dụng giữa chừng - Job giữ RUNNING; khởi động lại thì chạy tiếp từ lô đã commit, không lưu trùng")
+    void stoppedJob_ResumesFromLastCommittedChunk() throws Exception {
+        MockMultipartFile file = questionFile(6, 0);
+        // Ứng dụng bắt đầu tắt ngay sau khi lô đầu tiên được lưu
+        when(questionRepository.batchInsert(anyList())).thenAnswer(inv -> {
+            List<Question> batch = inv.getArgument(0);
+            batch.forEach(q -> insertedContents.add(q.getContent()));
+            ReflectionTestUtils.setField(importJobService, "stopping", true);
+            return batch;
+        });
+
+        String jobId = importJobService.submit(ImportJobType.QUESTION, file).getJobId();
+        awaitJobs();
+
+        ImportJob stopped = jobs.get(jobId);
+        assertEquals(ImportJobStatus.RUNNING, stopped.getStatus());
+        assertEquals(3, stopped.getLastCommittedRow());
+        assertEquals(2, stopped.getSuccessCount());
+        assertTrue(Files.exists(Path.of(stopped.getFilePath())));
+
+        // Khởi động lại
+        ReflectionTestUtils.setField(importJobService, "stopping", false);
+        ReflectionTestUtils.setField(importJobService, "executor", Executors.newSingleThreadExecutor());
+        // doAnswer: when(...) sẽ gọi lại answer cũ và bật cờ stopping lần nữa
+        doAnswer(inv -> {
+            List<Question> batch = inv.getArgument(0);
+            batch.forEach(q -> insertedContents.add(q.getContent()));
+            return batch;
+        }).when(questionRepository).batchInsert(anyList());
+        when(importJobRepository.findByStatusInOrderByCreatedAtAsc(anyList())).thenReturn(List.of(stopped));
+
+        importJobService.resumeUnfinishedJobs();
+        awaitJobs();
+
+        ImportJobResponse job = importJobService.getJob(ImportJobType.QUESTION, jobId);
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(6, job.getTotalRowsProcessed());
+        assertEquals(6, job.getSuccessCount());
+        assertEquals(0, job.getFailureCount());
+        assertEquals(List.of("Câu 1", "Câu 2", "Câu 3", "Câu 4", "Câu 5", "Câu 6"), insertedContents);
+    }
+
+    @Test
+    @DisplayName("Lưu lô lỗi trong transaction - Checkpoint không tính lô đó là thành công, các lô sau vẫn chạy")
+    void chunkFailure_RecordedInCheckpoint() throws Exception {
+        MockMultipartFile file = questionFile(4, 0);
+        when(questionRepository.batchInsert(anyList()))
+                .thenThrow(new RuntimeException("Deadlock"))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        String jobId = importJobService.submit(ImportJobType.QUESTION, file).getJobId();
+        awaitJobs();
+
+        ImportJobResponse job = importJobService.getJob(ImportJobType.QUESTION, jobId);
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(2, job.getSuccessCount());
+        assertEquals(2, job.getFailureCount());
+        assertEquals(List.of("Dòng 2-3: Lỗi hệ thống khi lưu dữ liệu. Deadlock"), job.getErrorMessages());
+    }
+
+    @Test
+    @DisplayName("File thiếu header bắt buộc - Job FAILED kèm lý do")
+    void missingHeader_JobFailed() throws Exception {
+        MockMultipartFile file = excelFile(List.of("content"), List.of(List.of("Câu 1")));
+
+        String jobId = importJobService.submit(ImportJobType.QUESTION, file).getJobId();
+        awaitJobs();
+
+        ImportJobResponse job = importJobService.getJob(ImportJobType.QUESTION, jobId);
+        assertEquals("FAILED", job.getStatus());
+        assertEquals(ErrorCode.EXCEL_MISSING_HEADER.getMessage("questiontype"), job.getFailureReason());
+        assertFalse(Files.exists(Path.of(jobs.get(jobId).getFilePath())));
+    }
+
+    @Test
+    @DisplayName("getJob - Sai loại job hoặc không tồn tại - Ném IMPORT_JOB_NOT_FOUND")
+    void getJob_NotFound() {
+        jobs.put("job-1", ImportJob.builder()
+                .id("job-1")
+                .type(ImportJobType.QUESTION)
+                .status(ImportJobStatus.QUEUED)
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        AppException wrongType = assertThrows(AppException.class,
+                () -> importJobService.getJob(ImportJobType.STUDENT, "job-1"));
+        assertEquals(ErrorCode.IMPORT_JOB_NOT_FOUND, wrongType.getErrorCode());
+
+        AppException missing = assertThrows(AppException.class,
+                () -> importJobService.getJob(ImportJobType.QUESTION, "unknown"));
+        assertEquals(ErrorCode.IMPORT_JOB_NOT_FOUND, missing.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("getJob - Chỉ người tạo job hoặc admin được xem kết quả")
+    void getJob_OnlyCreatorOrAdmin() {
+        jobs.put("job-1", ImportJob.builder()
+                .id("job-1")
+                .type(ImportJobType.QUESTION)
+                .status(ImportJobStatus.QUEUED)
+                .createdBy("lecturer@test.com")
+                .errorMessages("[]")
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        assertEquals("job-1", importJobService.getJob(ImportJobType.QUESTION, "job-1").getJobId());
+
+        loginAs("other@test.com", "ROLE_LECTURER");
+        AppException denied = assertThrows(AppException.class,
+                () -> importJobService.getJob(ImportJobType.QUESTION, "job-1"));
+        assertEquals(ErrorCode.IMPORT_JOB_ACCESS_DENIED, denied.getErrorCode());
+
+        loginAs("admin@test.com", "ROLE_ADMIN");
+        assertEquals("job-1", importJobService.getJob(ImportJobType.QUESTION, "job-1").getJobId());
+    }
+
+    @Test
+    @DisplayName("Checkpoint - Ghi tới dòng cuối đã đọc, kể cả dòng lỗi sau câu hợp lệ cuối, để chạy lại không đếm lỗi hai lần")
+    void checkpoint_CoversTrailingErrorRows() throws Exception {
+        // Dòng 2-3 một lô, dòng 4 hợp lệ, dòng 5 lỗi
+        String jobId = importJobService.submit(ImportJobType.QUESTION, questionFile(4, 4)).getJobId();
+
+        awaitJobs();
+
+        assertEquals(5, jobs.get(jobId).getLastCommittedRow());
+        assertEquals(1, jobs.get(jobId).getFailureCount());
+    }
+
+    private void awaitJobs() throws InterruptedException {
+        ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(importJobService, "executor");
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    // invalidRow > 0: dòng dữ liệu thứ invalidRow có QuestionType sai
+    private MockMultipartFile questionFile(int rows, int invalidRow) throws IOException {
+        List<List<String>> data = new ArrayList<>();
+        for (int i = 1; i <= rows; i++)
+            data.add(List.of("Câu " + i, i == invalidRow ? "ESSAY" : "MULTIPLE_CHOICE", "A"));
+        return excelFile(List.of("content", "questionType", "correctAnswer"), data);
+    }
+
+    private MockMultipartFile excelFile(List<String> headers, List<List<String>> data) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Questions");
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < headers.size(); i++)
+                header.createCell(i).setCellValue(headers.get(i));
+            for (int r = 0; r < data.size(); r++) {
+                Row row = sheet.createRow(r + 1);
+                for (int c = 0; c < data.get(r).size(); c++)
+                    row.createCell(c).setCellValue(data.get(r).get(c));
+            }
+            workbook.write(out);
+            return new MockMultipartFile("file", "questions.xlsx",
+                    "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", out.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.configuration.AzureProps;
+import com.ktnl.fapanese.dto.response.InterviewAudioChunkResponse;
+import com.ktnl.fapanese.service.implementations.InterviewPipelineService;
+import com.ktnl.fapanese.service.implementations.OpenAIService;
+import com.ktnl.fapanese.service.implementations.TextToSpeechService;
+import com.ktnl.fapanese.service.interfaces.ISpeechRecognitionJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InterviewPipelineServiceTest {
+
+    @Mock
+    private ISpeechRecognitionJobService sttJobs;
+    @Mock
+    private OpenAIService openai;
+    @Mock
+    private TextToSpeechService tts;
+
+    private InterviewPipelineService pipeline;
+
+    @BeforeEach
+    void setUp() {
+        AzureProps props = new AzureProps();
+        props.getSpeech().setTtsConcurrency(2);
+        pipeline = new InterviewPipelineService(props, sttJobs, openai, tts);
+    }
+
+    @Test
+    @DisplayName("transcribe - Trả về kết quả của worker pool STT")
+    void transcribe_Success() {
+        when(sttJobs.submit(any())).thenReturn(CompletableFuture.completedFuture("こんにちは"));
+
+        assertEquals("こんにちは", pipeline.transcribe(new byte[]{1}).block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    @DisplayName("transcribe - Client hủy giữa chừng - Hủy luôn job STT")
+    void transcribe_Cancelled_CancelsJob() {
+        CompletableFuture<String> job = new CompletableFuture<>();
+        when(sttJobs.submit(any())).thenReturn(job);
+
+        pipeline.transcribe(new byte[]{1}).subscribe().dispose();
+
+        assertTrue(job.isCancelled());
+    }
+
+    @Test
+    @DisplayName("reply - Mỗi câu một chunk audio, đúng thứ tự")
+    void reply_ChunksInOrder() throws Exception {
+        when(openai.chatInterviewStream("hi")).thenReturn(Flux.just("Bạn nói rất tốt. ", "Hãy nói [JA:ありがとう:JA] nhé."));
+        when(tts.synthSsmlPolyglot(anyString())).thenAnswer(inv -> inv.getArgument(0, String.class).getBytes(StandardCharsets.UTF_8));
+
+        List<InterviewAudioChunkResponse> chunks = pipeline.reply("hi").collectList().block(Duration.ofSeconds(5));
+
+        assertNotNull(chunks);
+        assertEquals(2, chunks.size());
+        assertEquals(0, chunks.get(0).getIndex());
+        assertEquals("Bạn nói rất tốt.", chunks.get(0).getText());
+        assertEquals("Hãy nói [JA:ありがとう:JA] nhé.",
+                new String(Base64.getDecoder().decode(chunks.get(1).getAudioBase64()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("reply - Câu đầu được TTS trước khi LLM stream xong")
+    void reply_SynthesizesBeforeLlmFinishes() throws Exception {
+        CountDownLatch firstSynthesized = new CountDownLatch(1);
+        Flux<String> tokens = Flux.concat(
+                Flux.just("Câu thứ nhất đây. "),
+                Flux.defer(() -> {
+                    // LLM chỉ sinh câu thứ hai sau khi câu thứ nhất đã được TTS
+                    try {
+                        assertTrue(firstSynthesized.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Flux.just("Câu thứ hai đây.");
+                }));
+        when(openai.chatInterviewStream("hi")).thenReturn(tokens);
+        when(tts.synthSsmlPolyglot(anyString())).thenAnswer(inv -> {
+            firstSynthesized.countDown();
+            return new byte[]{1};
+        });
+
+        List<InterviewAudioChunkResponse> chunks = pipeline.reply("hi").collectList().block(Duration.ofSeconds(10));
+
+        assertEquals(2, chunks.size());
+    }
+
+    @Test
+    @DisplayName("reply - TTS lỗi - Stream kết thúc với exception")
+    void reply_TtsError_Propagates() throws Exception {
+        when(openai.chatInterviewStream("hi")).thenReturn(Flux.just("Một câu đủ dài để đọc."));
+        when(tts.synthSsmlPolyglot(anyString())).thenThrow(new RuntimeException("TTS canceled"));
+
+        assertThrows(RuntimeException.class, () -> pipeline.reply("hi").blockLast(Duration.ofSeconds(5)));
+    }
+}
@@ -0,0 +1,86 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.dto.response.CacheStatsResponse;
+import com.ktnl.fapanese.service.implementations.JwtCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtCacheServiceTest {
+
+    private JwtCacheService jwtCacheService;
+
+    @BeforeEach
+    void setUp() {
+        jwtCacheService = new JwtCacheService();
+        ReflectionTestUtils.setField(jwtCacheService, "MAX_SIZE", 2);
+    }
+
+    @Test
+    @DisplayName("get - Token chưa có trong cache - Miss")
+    void get_NotCached_Miss() {
+        assertTrue(jwtCacheService.get("token-1").isEmpty());
+
+        CacheStatsResponse stats = jwtCacheService.getStats();
+        assertEquals(0, stats.getHits());
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    @DisplayName("get - Token đã put và còn hạn - Hit")
+    void get_CachedAndValid_Hit() {
+        Jwt jwt = buildJwt("token-1", "jti-1", Instant.now().plusSeconds(3600));
+        jwtCacheService.put(jwt);
+
+        assertSame(jwt, jwtCacheService.get("token-1").orElseThrow());
+        assertEquals(1, jwtCacheService.getStats().getHits());
+    }
+
+    @Test
+    @DisplayName("get - Token đã hết hạn (exp) - Miss và bị xóa khỏi cache")
+    void get_Expired_MissAndRemoved() {
+        jwtCacheService.put(buildJwt("token-1", "jti-1", Instant.now().minusSeconds(1)));
+
+        assertTrue(jwtCacheService.get("token-1").isEmpty());
+        assertEquals(0, jwtCacheService.getStats().getSize());
+    }
+
+    @Test
+    @DisplayName("evictByJti - Logout/refresh xóa token khỏi cache ngay lập tức")
+    void evictByJti_RemovesEntry() {
+        jwtCacheService.put(buildJwt("token-1", "jti-1", Instant.now().plusSeconds(3600)));
+
+        jwtCacheService.evictByJti("jti-1");
+
+        assertTrue(jwtCacheService.get("token-1").isEmpty());
+        assertEquals(1, jwtCacheService.getStats().getEvictions());
+    }
+
+    @Test
+    @DisplayName("put - Cache đầy - Không vượt quá MAX_SIZE")
+    void put_Full_StaysBounded() {
+        Instant exp = Instant.now().plusSeconds(3600);
+        jwtCacheService.put(buildJwt("token-1", "jti-1", exp));
+        jwtCacheService.put(buildJwt("token-2", "jti-2", exp));
+        jwtCacheService.put(buildJwt("token-3", "jti-3", exp));
+
+        assertEquals(2, jwtCacheService.getStats().getSize());
+        assertTrue(jwtCacheService.get("token-3").isPresent());
+    }
+
+    private Jwt buildJwt(String token, String jti, Instant exp) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "HS512")
+                .subject("user@example.com")
+                .jti(jti)
+                .issuedAt(exp.minusSeconds(3600))
+                .expiresAt(exp)
+                .build();
+    }
+}
@@ -9,6 +9,8 @@ import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
 import com.ktnl.fapanese.mapper.LessonMapper;
 import com.ktnl.fapanese.repository.CourseRepository;
+import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
 import com.ktnl.fapanese.repository.LessonRepository;
 
 import com.ktnl.fapanese.service.implementations.LessonService;
@@ -47,6 +49,12 @@ class LessonServiceTest {
     @Mock
     private CourseRepository courseRepository;
 
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @Mock
+    private IAnswerKeyCacheService answerKeyCache;
+
     // Không dùng @Mock cho LessonMapper vì nó được gọi tĩnh (static)
 
     @InjectMocks
@@ -320,6 +328,7 @@ class LessonServiceTest {
 
         if (!expectException) {
             doNothing().when(lessonRepository).delete(mockLesson);
+            when(questionRepository.findIdsByLessonId(lessonId)).thenReturn(List.of(5L, 6L));
         }
 
         // Act & Assert
@@ -329,10 +338,13 @@ class LessonServiceTest {
                 lessonService.deleteLessonByCourseCode(courseCode, lessonId);
             });
             assertEquals(expectedCode, e.getErrorCode());
-            verify(lessonRepository, never()).delete(any());
+            verify(lessonRepository, never()).delete(any(Lesson.class));
+            verifyNoInteractions(answerKeyCache);
         } else {
             lessonService.deleteLessonByCourseCode(courseCode, lessonId);
             verify(lessonRepository, times(1)).delete(mockLesson);
+            // Câu hỏi bị xóa theo cascade cũng bị bỏ khỏi cache đáp án
+            verify(answerKeyCache).evictAll(List.of(5L, 6L));
         }
     }
 }
\ No newline at end of file
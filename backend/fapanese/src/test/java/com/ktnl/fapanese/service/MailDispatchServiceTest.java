@@ -0,0 +1,182 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.dto.response.MailDispatchStatsResponse;
+import com.ktnl.fapanese.mail.AccountCreatedEmailTemplate;
+import com.ktnl.fapanese.service.implementations.MailDispatchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gửi mail thật qua FakeSmtpServer trên localhost.
+ */
+class MailDispatchServiceTest {
+
+    FakeSmtpServer smtp;
+    MailDispatchService mailDispatch;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtp = new FakeSmtpServer();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (mailDispatch != null)
+            ReflectionTestUtils.invokeMethod(mailDispatch, "shutdown");
+        smtp.close();
+    }
+
+    private void start(int workers, int queueCapacity, int maxMessagesPerConnection) {
+        start(workers, queueCapacity, maxMessagesPerConnection, 0);
+    }
+
+    private void start(int workers, int queueCapacity, int maxMessagesPerConnection, int maxPerSecond) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.getPort());
+
+        mailDispatch = new MailDispatchService(mailSender);
+        ReflectionTestUtils.setField(mailDispatch, "from", "noreply@fapanese.test");
+        ReflectionTestUtils.setField(mailDispatch, "WORKERS", workers);
+        ReflectionTestUtils.setField(mailDispatch, "QUEUE_CAPACITY", queueCapacity);
+        ReflectionTestUtils.setField(mailDispatch, "ENQUEUE_TIMEOUT_MS", 0L);
+        ReflectionTestUtils.setField(mailDispatch, "MAX_MESSAGES_PER_CONNECTION", maxMessagesPerConnection);
+        ReflectionTestUtils.setField(mailDispatch, "RETRY_DELAY_MS", 10L);
+        ReflectionTestUtils.setField(mailDispatch, "MAX_PER_SECOND", maxPerSecond);
+        ReflectionTestUtils.invokeMethod(mailDispatch, "init");
+    }
+
+    private List<CompletableFuture<Void>> submitAll(int count) {
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            results.add(mailDispatch.submit("user" + i + "@test.com", "Subject " + i, "<p>Body " + i + "</p>"));
+        return results;
+    }
+
+    private static void awaitAll(List<CompletableFuture<Void>> results) throws Exception {
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Submit - Gửi đủ email, dùng lại kết nối SMTP thay vì mở mỗi email một kết nối")
+    void submit_ManyEmails_ReusesConnections() throws Exception {
+        start(2, 100, 100);
+
+        awaitAll(submitAll(40));
+
+        List<FakeSmtpServer.Received> received = smtp.getReceived();
+        assertEquals(40, received.size());
+        Set<String> recipients = received.stream().map(FakeSmtpServer.Received::recipient).collect(Collectors.toSet());
+        assertEquals(40, recipients.size());
+        assertTrue(smtp.getConnections() <= 2, "Mở " + smtp.getConnections() + " kết nối cho 40 email");
+
+        MailDispatchStatsResponse stats = mailDispatch.getStats();
+        assertEquals(40, stats.getSent());
+        assertEquals(0, stats.getFailed());
+        assertEquals(smtp.getConnections(), stats.getConnectionsOpened());
+    }
+
+    @Test
+    @DisplayName("Submit - Mở lại kết nối sau max-messages-per-connection email")
+    void submit_MaxMessagesPerConnection_Reconnects() throws Exception {
+        start(1, 100, 5);
+
+        awaitAll(submitAll(12));
+
+        assertEquals(12, smtp.getReceived().size());
+        assertEquals(3, smtp.getConnections());
+    }
+
+    @Test
+    @DisplayName("Submit - Lỗi tạm thời (451) được thử lại và gửi thành công")
+    void submit_TransientFailure_RetriedAndDelivered() throws Exception {
+        start(1, 100, 100);
+        smtp.failNextMessages(1);
+
+        awaitAll(submitAll(3));
+
+        assertEquals(3, smtp.getReceived().size());
+        MailDispatchStatsResponse stats = mailDispatch.getStats();
+        assertEquals(3, stats.getSent());
+        assertEquals(1, stats.getRetried());
+        assertEquals(0, stats.getFailed());
+    }
+
+    @Test
+    @DisplayName("Submit - Lỗi quá max-attempts thì future lỗi")
+    void submit_PersistentFailure_FailsAfterMaxAttempts() {
+        start(1, 100, 100);
+        smtp.failNextMessages(100);
+
+        CompletableFuture<Void> result = mailDispatch.submit("a@test.com", "Subject", "<p>Body</p>");
+
+        assertThrows(Exception.class, () -> result.get(10, TimeUnit.SECONDS));
+        MailDispatchStatsResponse stats = mailDispatch.getStats();
+        assertEquals(1, stats.getFailed());
+        assertEquals(2, stats.getRetried());
+        assertTrue(smtp.getReceived().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Submit - Hàng đợi đầy thì từ chối ngay")
+    void submit_QueueFull_Rejected() throws Exception {
+        start(1, 2, 100);
+        smtp.holdMessages();
+
+        // 1 email đang gửi (bị giữ ở DATA) + tối đa 2 trong hàng đợi; worker có thể lấy thêm một lô trước khi bị giữ
+        List<CompletableFuture<Void>> results = submitAll(30);
+        long rejected = results.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+        assertTrue(rejected > 0);
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> results.stream().filter(CompletableFuture::isCompletedExceptionally).findFirst().orElseThrow().join());
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(rejected, mailDispatch.getStats().getRejected());
+
+        smtp.releaseMessages();
+        awaitAll(results.stream().filter(r -> !r.isCompletedExceptionally()).toList());
+        assertEquals(30 - rejected, smtp.getReceived().size());
+    }
+
+    @Test
+    @DisplayName("Submit - Giới hạn tốc độ áp dụng chung cho mọi worker")
+    void submit_MaxPerSecond_ThrottlesAllWorkers() throws Exception {
+        start(3, 100, 100, 50);
+
+        long startedAt = System.nanoTime();
+        awaitAll(submitAll(21));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        assertEquals(21, smtp.getReceived().size());
+        // 50 email/s → 21 email cần ít nhất 20 khoảng 20ms, dù có 3 worker
+        assertTrue(elapsedMs >= 380, "Gửi 21 email trong " + elapsedMs + " ms");
+    }
+
+    @Test
+    @DisplayName("Template - Khung HTML dựng sẵn cho kết quả giống format cả khung mỗi lần")
+    void template_PrecompiledShell_SameAsFormattedLayout() {
+        String content = new AccountCreatedEmailTemplate().getContent("a@test.com", "p%s1");
+
+        assertTrue(content.startsWith("<!DOCTYPE html>"));
+        assertTrue(content.contains("a@test.com"));
+        assertTrue(content.contains("p%s1"));
+        // %% trong CSS của khung phải thành % như khi .formatted()
+        assertTrue(content.contains("width: 45%;"));
+        assertFalse(content.contains("%%"));
+        assertTrue(content.stripTrailing().endsWith("</html>"));
+    }
+}
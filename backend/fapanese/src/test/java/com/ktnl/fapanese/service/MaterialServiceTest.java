@@ -6,10 +6,12 @@ import com.ktnl.fapanese.dto.response.MaterialResponse;
 import com.ktnl.fapanese.entity.*;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.mail.MaterialAssignedEmail;
 import com.ktnl.fapanese.mapper.ClassMaterialMapper;
 import com.ktnl.fapanese.mapper.MaterialMapper;
 import com.ktnl.fapanese.repository.*;
 import com.ktnl.fapanese.service.implementations.MaterialService;
+import com.ktnl.fapanese.service.interfaces.IClassNotificationService;
 import com.ktnl.fapanese.service.interfaces.IFileUploadService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -58,6 +60,9 @@ class MaterialServiceTest {
     @Mock
     private StudentClassRepository studentClassRepository;
 
+    @Mock
+    private IClassNotificationService classNotificationService;
+
     @InjectMocks
     private MaterialService materialService;
 
@@ -99,6 +104,7 @@ class MaterialServiceTest {
 
         mockClassCourse = new ClassCourse();
         mockClassCourse.setId(10L);
+        mockClassCourse.setClassName("JPD113-SE1801");
 
         mockClassMaterialId = new ClassMaterialId(10L, 1L);
         mockClassMaterial = ClassMaterial.builder()
@@ -293,7 +299,7 @@ class MaterialServiceTest {
             ErrorCode code = ErrorCode.valueOf(expectedErrorCodeString);
             AppException e = assertThrows(AppException.class, () -> materialService.deleteMaterial(materialId));
             assertEquals(code, e.getErrorCode());
-            verify(materialRepository, never()).delete(any());
+            verify(materialRepository, never()).delete(any(Material.class));
             verify(iFileUploadService, never()).deleteFile(any());
         } else {
             assertDoesNotThrow(() -> materialService.deleteMaterial(materialId));
@@ -327,9 +333,13 @@ class MaterialServiceTest {
             AppException e = assertThrows(AppException.class, () -> materialService.assignToClass(materialId, classId, null));
             assertEquals(code, e.getErrorCode());
             verify(classMaterialRepository, never()).save(any());
+            verify(classNotificationService, never()).notifyClass(anyLong(), any(), any(String[].class));
         } else {
             materialService.assignToClass(materialId, classId, null);
             verify(classMaterialRepository, times(1)).save(any(ClassMaterial.class));
+            // Báo cho cả lớp: tên lớp, tên tài liệu, không có hạn nộp
+            verify(classNotificationService, times(1)).notifyClass(eq(classId), any(MaterialAssignedEmail.class),
+                    eq("JPD113-SE1801"), eq("Test Material"), eq(""));
         }
     }
 
@@ -7,9 +7,11 @@ import com.ktnl.fapanese.dto.response.MaterialSubmissionResponse;
 import com.ktnl.fapanese.entity.*;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.mail.SubmissionGradedEmail;
 import com.ktnl.fapanese.mapper.MaterialSubmissionMapper;
 import com.ktnl.fapanese.repository.*;
 import com.ktnl.fapanese.service.implementations.MaterialSubmissionService;
+import com.ktnl.fapanese.service.interfaces.IEmailOutboxService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -48,6 +50,9 @@ class MaterialSubmissionServiceTest {
     @Mock
     private MaterialSubmissionMapper mapper;
 
+    @Mock
+    private IEmailOutboxService emailOutbox;
+
     @InjectMocks
     private MaterialSubmissionService submissionService;
 
@@ -72,11 +77,15 @@ class MaterialSubmissionServiceTest {
 
         mockMaterial = new Material();
         mockMaterial.setId(1L);
+        mockMaterial.setTitle("Bài tập 1");
         // Gán ClassMaterial vào Material để test logic "materialInClass"
         mockMaterial.setClassMaterials(Set.of(mockClassMaterial));
 
         mockStudent = new Student();
         mockStudent.setId("std123");
+        User mockUser = new User();
+        mockUser.setEmail("std123@fpt.edu.vn");
+        mockStudent.setUser(mockUser);
 
         mockRequest = MaterialSubmissionRequest.builder()
                 .materialId(1L)
@@ -210,6 +219,7 @@ class MaterialSubmissionServiceTest {
             });
             assertEquals(code, e.getErrorCode());
             verify(submissionRepository, never()).save(any());
+            verify(emailOutbox, never()).enqueue(any(), any(), any(String[].class));
         } else {
             ArgumentCaptor<MaterialSubmission> captor = ArgumentCaptor.forClass(MaterialSubmission.class);
             MaterialSubmissionResponse result = submissionService.grade(submissionId, mockGradeRequest);
@@ -222,6 +232,9 @@ class MaterialSubmissionServiceTest {
             assertEquals(MaterialSubmission.Status.GRADED, saved.getStatus());
             assertEquals(9.5f, saved.getScore());
             assertEquals("Good job", saved.getFeedback());
+            // Chỉ sinh viên của bài nộp nhận email điểm
+            verify(emailOutbox, times(1)).enqueue(eq("std123@fpt.edu.vn"), any(SubmissionGradedEmail.class),
+                    eq("Bài tập 1"), eq("9.5"), eq("Good job"));
         }
     }
 
@@ -2,19 +2,23 @@ package com.ktnl.fapanese.service;
 
 
 import com.ktnl.fapanese.dto.request.MiddleExamRequest;
+import com.ktnl.fapanese.dto.response.ExamSummaryResponse;
 import com.ktnl.fapanese.dto.response.MiddleExamResponse;
 import com.ktnl.fapanese.entity.MiddleExam;
 import com.ktnl.fapanese.entity.OverviewPart;
 import com.ktnl.fapanese.entity.Question;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.mapper.ExamSummaryMapper;
 import com.ktnl.fapanese.mapper.MiddleExamMapper;
 import com.ktnl.fapanese.repository.MiddleExamRepository;
 import com.ktnl.fapanese.repository.OverviewPartRepository;
 import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.repository.projection.ExamSummary;
 import com.ktnl.fapanese.service.implementations.MiddleExamService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvFileSource;
@@ -48,6 +52,8 @@ class MiddleExamServiceTest {
     private QuestionRepository questionRepository;
     @Mock
     private MiddleExamMapper middleExamMapper;
+    @Mock
+    private ExamSummaryMapper examSummaryMapper;
 
     @InjectMocks
     private MiddleExamService middleExamService;
@@ -100,7 +106,7 @@ class MiddleExamServiceTest {
                 .collect(Collectors.toList());
         List<MiddleExamResponse> mockResponseList = Collections.nCopies(repoReturnsSize, mockResponse);
 
-        when(middleExamRepository.findAll()).thenReturn(mockList);
+        when(middleExamRepository.findAllWithQuestions()).thenReturn(mockList);
         when(middleExamMapper.toMiddleExamResponseList(mockList)).thenReturn(mockResponseList);
 
         // Act
@@ -109,7 +115,9 @@ class MiddleExamServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(repoReturnsSize, result.size());
-        verify(middleExamRepository, times(1)).findAll();
+        // Chỉ kiểm tra service gọi đúng method fetch join; mock không đếm được số câu SQL thật
+        verify(middleExamRepository, times(1)).findAllWithQuestions();
+        verifyNoMoreInteractions(middleExamRepository);
     }
 
     // --- 2. getMiddleExamById ---
@@ -120,10 +128,10 @@ class MiddleExamServiceTest {
                                      boolean expectException, String expectedErrorCodeString) {
         // Arrange
         if (mockExamFound) {
-            when(middleExamRepository.findById(examId)).thenReturn(Optional.of(mockExam));
+            when(middleExamRepository.findWithQuestionsById(examId)).thenReturn(Optional.of(mockExam));
             when(middleExamMapper.toMiddleExamResponse(mockExam)).thenReturn(mockResponse);
         } else {
-            when(middleExamRepository.findById(examId)).thenReturn(Optional.empty());
+            when(middleExamRepository.findWithQuestionsById(examId)).thenReturn(Optional.empty());
         }
 
         // Act & Assert
@@ -136,7 +144,8 @@ class MiddleExamServiceTest {
             assertNotNull(result);
             assertEquals(mockResponse.getId(), result.getId());
         }
-        verify(middleExamRepository, times(1)).findById(examId);
+        verify(middleExamRepository, times(1)).findWithQuestionsById(examId);
+        verifyNoMoreInteractions(middleExamRepository);
     }
 
     // --- 3. createMiddleExam ---
@@ -300,7 +309,7 @@ class MiddleExamServiceTest {
                 .collect(Collectors.toList());
         List<MiddleExamResponse> mockResponseList = Collections.nCopies(repoReturnsSize, mockResponse);
 
-        when(middleExamRepository.findByOverviewPartId(partId)).thenReturn(mockList);
+        when(middleExamRepository.findWithQuestionsByOverviewPartId(partId)).thenReturn(mockList);
         when(middleExamMapper.toMiddleExamResponseList(mockList)).thenReturn(mockResponseList);
 
         // Act & Assert
@@ -308,12 +317,41 @@ class MiddleExamServiceTest {
             ErrorCode code = ErrorCode.valueOf(expectedErrorCodeString);
             AppException e = assertThrows(AppException.class, () -> middleExamService.getAllMiddleExamsByOverviewPartId(partId));
             assertEquals(code, e.getErrorCode());
-            verify(middleExamRepository, never()).findByOverviewPartId(anyLong());
+            verifyNoInteractions(middleExamRepository);
         } else {
             List<MiddleExamResponse> result = middleExamService.getAllMiddleExamsByOverviewPartId(partId);
             assertNotNull(result);
             assertEquals(repoReturnsSize, result.size());
-            verify(middleExamRepository, times(1)).findByOverviewPartId(partId);
+            verify(middleExamRepository, times(1)).findWithQuestionsByOverviewPartId(partId);
+            verifyNoMoreInteractions(middleExamRepository);
         }
     }
+
+    // --- 7. getMiddleExamSummaries ---
+    @Test
+    @DisplayName("getMiddleExamSummaries - không lọc part: gọi method projection, không gọi method nạp entity")
+    void getMiddleExamSummaries_WithoutPart_ShouldCallProjectionMethod() {
+        List<ExamSummary> rows = List.of(new ExamSummary(1L, 10L, "Giữa kỳ", "FA25", null, 2025, 40L));
+        List<ExamSummaryResponse> responses = List.of(ExamSummaryResponse.builder().id(1L).questionCount(40L).build());
+        when(middleExamRepository.findSummaries(null)).thenReturn(rows);
+        when(examSummaryMapper.toExamSummaryResponseList(rows)).thenReturn(responses);
+
+        List<ExamSummaryResponse> result = middleExamService.getMiddleExamSummaries(null);
+
+        assertEquals(responses, result);
+        verify(middleExamRepository, times(1)).findSummaries(null);
+        verifyNoMoreInteractions(middleExamRepository);
+        verifyNoInteractions(overviewPartRepository, middleExamMapper);
+    }
+
+    @Test
+    @DisplayName("getMiddleExamSummaries - part không tồn tại: ném OVERVIEW_PART_NOT_FOUND")
+    void getMiddleExamSummaries_WhenPartNotFound_ShouldThrow() {
+        when(overviewPartRepository.existsById(99L)).thenReturn(false);
+
+        AppException e = assertThrows(AppException.class, () -> middleExamService.getMiddleExamSummaries(99L));
+
+        assertEquals(ErrorCode.OVERVIEW_PART_NOT_FOUND, e.getErrorCode());
+        verifyNoInteractions(middleExamRepository);
+    }
 }
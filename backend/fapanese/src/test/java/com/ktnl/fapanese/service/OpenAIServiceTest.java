@@ -0,0 +1,285 @@
+package com.ktnl.fapanese.service;
+
+import com.azure.ai.openai.OpenAIClientBuilder;
+import com.ktnl.fapanese.configuration.AzureProps;
+import com.ktnl.fapanese.configuration.OpenAIConfig;
+import com.ktnl.fapanese.dto.request.ExplainExamRequest;
+import com.ktnl.fapanese.dto.request.GradingSpeakingTestRequest;
+import com.ktnl.fapanese.dto.response.GradingSpeakingTestResponse;
+import com.ktnl.fapanese.entity.ExamExplanation;
+import com.ktnl.fapanese.repository.ExamExplanationRepository;
+import com.ktnl.fapanese.service.implementations.ExplanationCacheService;
+import com.ktnl.fapanese.service.implementations.OpenAIService;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test OpenAIService với một endpoint Azure OpenAI giả chạy local (HttpServer của JDK),
+ * không gọi ra Azure thật.
+ */
+class OpenAIServiceTest {
+
+    private HttpServer stubServer;
+    private ConnectionProvider connectionProvider;
+    private ThreadPoolTaskExecutor executor;
+    private OpenAIService openAIService;
+    private ExplanationCacheService explanationCache;
+    private ExamExplanationRepository examExplanationRepository;
+
+    // Nội dung assistant mà stub sẽ trả về
+    private final AtomicReference<String> stubContent = new AtomicReference<>("ok");
+    private final AtomicInteger stubStatus = new AtomicInteger(200);
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stubServer.createContext("/openai/deployments/test-deployment/chat/completions", exchange -> {
+            requestCount.incrementAndGet();
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+            // Request có "stream": true → trả về dạng text/event-stream, mỗi ký tự một chunk
+            boolean stream = request.replace(" ", "").contains("\"stream\":true");
+            byte[] body = (stream ? chatCompletionStream(stubContent.get()) : chatCompletionJson(stubContent.get()))
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", stream ? "text/event-stream" : "application/json");
+            exchange.sendResponseHeaders(stubStatus.get(), body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        stubServer.start();
+
+        AzureProps props = new AzureProps();
+        props.getOpenai().setEndpoint("http://127.0.0.1:" + stubServer.getAddress().getPort());
+        props.getOpenai().setKey("dummy-key");
+        props.getOpenai().setDeploymentName("test-deployment");
+        props.getOpenai().setAsyncPoolSize(2);
+
+        OpenAIConfig config = new OpenAIConfig(props);
+        connectionProvider = config.openAiConnectionProvider();
+        executor = config.openAiExecutor();
+
+        // SDK không cho gửi key qua HTTP thường, nên stub local dùng builder không có credential
+        // nhưng vẫn đi qua HttpClient + connection pool của OpenAIConfig
+        var builder = new OpenAIClientBuilder()
+                .endpoint(props.getOpenai().getEndpoint())
+                .httpClient(config.openAiHttpClient(connectionProvider));
+
+        // Cache chỉ dùng tầng bộ nhớ trong test
+        examExplanationRepository = mock(ExamExplanationRepository.class);
+        explanationCache = new ExplanationCacheService(examExplanationRepository);
+        ReflectionTestUtils.setField(explanationCache, "MAX_SIZE", 100);
+        ReflectionTestUtils.setField(explanationCache, "TTL", Duration.ofHours(1));
+        ReflectionTestUtils.setField(explanationCache, "PERSIST", false);
+
+        openAIService = new OpenAIService(props,
+                config.openAiClient(builder),
+                config.openAiAsyncClient(builder),
+                executor,
+                explanationCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.stop(0);
+        connectionProvider.dispose();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("chatInterview - Sync - Trả về nội dung từ LLM")
+    void chatInterview_Sync_Success() {
+        stubContent.set("Xin chào [JA:こんにちは:JA]");
+
+        assertEquals("Xin chào [JA:こんにちは:JA]", openAIService.chatInterview("こんにちは"));
+    }
+
+    @Test
+    @DisplayName("explainExam - Gọi nhiều lần dùng chung một client")
+    void explainExam_ReusesClient() {
+        stubContent.set("Giải thích");
+
+        openAIService.explainExam(new ExplainExamRequest("Q1", "A. x\nB. y", "A"));
+        openAIService.explainExam(new ExplainExamRequest("Q2", "A. x\nB. y", "B"));
+
+        assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    @DisplayName("explainExam - Cùng câu hỏi - Chỉ gọi Azure OpenAI một lần")
+    void explainExam_SameQuestion_ServedFromCache() {
+        stubContent.set("Giải thích");
+        ExplainExamRequest request = new ExplainExamRequest("Q", "A. x\nB. y", "A");
+
+        assertEquals("Giải thích", openAIService.explainExam(request));
+        assertEquals("Giải thích", openAIService.explainExam(request));
+
+        assertEquals(1, requestCount.get());
+    }
+
+    @Test
+    @DisplayName("chatInterviewAsync - Kết quả giống bản sync")
+    void chatInterviewAsync_Success() throws Exception {
+        stubContent.set("async reply");
+
+        String result = openAIService.chatInterviewAsync("こんにちは").get(10, TimeUnit.SECONDS);
+
+        assertEquals("async reply", result);
+    }
+
+    @Test
+    @DisplayName("gradeSpeakingTestAsync - Parse JSON trả về thành DTO")
+    void gradeSpeakingTestAsync_ParsesJson() throws Exception {
+        stubContent.set("{\"passage\":\"p\",\"picture\":\"pic\",\"question1\":\"q1\",\"question2\":\"q2\",\"overall\":\"o\"}");
+
+        GradingSpeakingTestResponse result = openAIService
+                .gradeSpeakingTestAsync(new GradingSpeakingTestRequest())
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals("p", result.getPassage());
+        assertEquals("o", result.getOverall());
+    }
+
+    @Test
+    @DisplayName("explainExamAsync - Upstream lỗi - Future hoàn thành với exception")
+    void explainExamAsync_UpstreamError() {
+        stubStatus.set(500);
+
+        var future = openAIService.explainExamAsync(new ExplainExamRequest("Q", "A", "A"));
+
+        assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("chatInterviewStream - Ghép các delta lại bằng đúng nội dung đầy đủ")
+    void chatInterviewStream_ConcatenatesDeltas() {
+        stubContent.set("Xin chào [JA:こんにちは:JA]");
+
+        List<String> deltas = openAIService.chatInterviewStream("こんにちは")
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertNotNull(deltas);
+        assertTrue(deltas.size() > 1);
+        assertEquals("Xin chào [JA:こんにちは:JA]", String.join("", deltas));
+    }
+
+    @Test
+    @DisplayName("explainExamStream - Stream xong thì lưu cache, lần sau không gọi Azure OpenAI")
+    void explainExamStream_CachesFullText() {
+        stubContent.set("Giải thích");
+        ExplainExamRequest request = new ExplainExamRequest("Q", "A. x\nB. y", "A");
+
+        String streamed = String.join("", openAIService.explainExamStream(request)
+                .collectList()
+                .block(Duration.ofSeconds(10)));
+
+        assertEquals("Giải thích", streamed);
+        assertEquals("Giải thích", openAIService.explainExamStream(request).blockLast(Duration.ofSeconds(10)));
+        assertEquals("Giải thích", openAIService.explainExam(request));
+        assertEquals(1, requestCount.get());
+    }
+
+    @Test
+    @DisplayName("explainExamStream - Nhiều stream cùng câu hỏi chỉ gọi Azure một lần, lưu DB ngoài event loop")
+    void explainExamStream_Concurrent_SingleFlightAndSavesOffEventLoop() {
+        stubContent.set("Giải thích");
+        ExplainExamRequest request = new ExplainExamRequest("Q", "A. x\nB. y", "A");
+        ReflectionTestUtils.setField(explanationCache, "PERSIST", true);
+        AtomicReference<String> saveThread = new AtomicReference<>();
+        when(examExplanationRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(examExplanationRepository.save(any(ExamExplanation.class))).thenAnswer(inv -> {
+            saveThread.set(Thread.currentThread().getName());
+            return inv.getArgument(0);
+        });
+
+        List<String> results = Flux.merge(
+                        openAIService.explainExamStream(request).collectList().map(parts -> String.join("", parts)),
+                        openAIService.explainExamStream(request).collectList().map(parts -> String.join("", parts)),
+                        Mono.fromFuture(openAIService.explainExamAsync(request)))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(List.of("Giải thích", "Giải thích", "Giải thích"), results);
+        assertEquals(1, requestCount.get());
+        verify(examExplanationRepository, times(1)).save(any(ExamExplanation.class));
+        assertTrue(saveThread.get().startsWith("openai-"), "save chạy trên " + saveThread.get());
+    }
+
+    @Test
+    @DisplayName("explainExamStream - Một stream đang chờ bị ngắt không làm hỏng kết quả của các request chờ khác")
+    void explainExamStream_CancelledFollower_OthersStillGetResult() throws Exception {
+        ExplainExamRequest request = new ExplainExamRequest("Q", "A. x\nB. y", "A");
+        // Giữ một lời gọi upstream đang chạy để mọi request sau đều chờ kết quả chung
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        explanationCache.getOrLoad(request, r -> upstream);
+
+        CompletableFuture<String> waiting = openAIService.explainExamAsync(request);
+        Disposable follower = openAIService.explainExamStream(request).subscribe();
+        follower.dispose();
+
+        upstream.complete("Giải thích");
+
+        assertEquals("Giải thích", waiting.get(10, TimeUnit.SECONDS));
+        assertEquals("Giải thích", openAIService.explainExamStream(request).blockLast(Duration.ofSeconds(10)));
+        assertEquals(0, requestCount.get());
+    }
+
+    private static String chatCompletionStream(String content) {
+        StringBuilder sse = new StringBuilder();
+        content.codePoints().forEach(cp -> {
+            String escaped = new String(Character.toChars(cp)).replace("\\", "\\\\").replace("\"", "\\\"");
+            sse.append("data: {\"id\":\"chatcmpl-stub\",\"object\":\"chat.completion.chunk\",\"created\":1700000000,")
+                    .append("\"model\":\"stub\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"")
+                    .append(escaped)
+                    .append("\"},\"finish_reason\":null}]}\n\n");
+        });
+        return sse.append("data: [DONE]\n\n").toString();
+    }
+
+    private static String chatCompletionJson(String content) {
+        String escaped = content.replace("\\", "\\\\").replace("\"", "\\\"");
+        return """
+                {
+                  "id": "chatcmpl-stub",
+                  "object": "chat.completion",
+                  "created": 1700000000,
+                  "model": "stub",
+                  "choices": [
+                    {
+                      "index": 0,
+                      "finish_reason": "stop",
+                      "message": { "role": "assistant", "content": "%s" }
+                    }
+                  ],
+                  "usage": { "prompt_tokens": 1, "completion_tokens": 1, "total_tokens": 2 }
+                }
+                """.formatted(escaped);
+    }
+}
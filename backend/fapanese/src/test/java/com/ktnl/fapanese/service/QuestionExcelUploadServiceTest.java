@@ -6,10 +6,13 @@ import com.ktnl.fapanese.repository.QuestionRepository;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
 import com.ktnl.fapanese.service.implementations.QuestionExcelUploadService;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvFileSource;
@@ -21,11 +24,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections; // 👈 THÊM IMPORT NÀY
 import java.util.List;
@@ -41,6 +46,9 @@ class QuestionExcelUploadServiceTest {
     @Mock
     private QuestionRepository questionRepository;
 
+    @Mock
+    private IAnswerKeyCacheService answerKeyCache;
+
     @InjectMocks
     private QuestionExcelUploadService excelUploadService;
 
@@ -108,8 +116,8 @@ class QuestionExcelUploadServiceTest {
 
     @BeforeEach
     void setUp() {
-        // Mock hành vi saveAll (thành công)
-        when(questionRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        // Mock hành vi batchInsert (thành công)
+        when(questionRepository.batchInsert(anyList())).thenAnswer(inv -> inv.getArgument(0));
     }
 
     // ============================================================
@@ -195,7 +203,7 @@ class QuestionExcelUploadServiceTest {
                 inputStream = createExcelInputStream(headers, Arrays.asList(
                         Arrays.asList("Nội dung 1", "MULTIPLE_CHOICE", "VOCABULARY", "A", "A", null)
                 ));
-                when(questionRepository.saveAll(anyList())).thenThrow(new RuntimeException("Database is down"));
+                when(questionRepository.batchInsert(anyList())).thenThrow(new RuntimeException("Database is down"));
                 break;
 
             default:
@@ -211,7 +219,7 @@ class QuestionExcelUploadServiceTest {
             AppException ex = assertThrows(AppException.class,
                     () -> excelUploadService.processQuestionExcel(mockFile));
             assertEquals(code, ex.getErrorCode());
-            verify(questionRepository, never()).saveAll(anyList());
+            verify(questionRepository, never()).batchInsert(anyList());
 
         } else {
             // Test các kịch bản chạy xong (thành công hoặc lỗi từng dòng)
@@ -224,35 +232,119 @@ class QuestionExcelUploadServiceTest {
 
             // Kiểm tra các kịch bản con
             if (scenario.equals("SUCCESS")) {
-                verify(questionRepository, times(1)).saveAll(questionListCaptor.capture());
+                verify(questionRepository, times(1)).batchInsert(questionListCaptor.capture());
                 List<Question> savedQuestions = questionListCaptor.getValue();
                 assertEquals(3, savedQuestions.size());
                 // Kiểm tra logic default category (Dòng 4 -> index 2)
                 assertEquals("TRUE_FALSE", savedQuestions.get(2).getQuestionType().name());
                 assertEquals("VOCABULARY", savedQuestions.get(2).getCategory().name());
+                // Câu hỏi vừa import được đưa vào cache đáp án
+                verify(answerKeyCache, times(1)).putAll(savedQuestions);
             }
             else if (scenario.equals("ALIAS_HEADER")) {
-                verify(questionRepository, times(1)).saveAll(questionListCaptor.capture());
+                verify(questionRepository, times(1)).batchInsert(questionListCaptor.capture());
                 assertEquals(1, questionListCaptor.getValue().size());
                 assertEquals("Nội dung 1", questionListCaptor.getValue().get(0).getContent());
             }
             else if (scenario.equals("DB_FAIL")) {
-                verify(questionRepository, times(1)).saveAll(anyList());
+                verify(questionRepository, times(1)).batchInsert(anyList());
                 assertEquals(1, result.getTotalRowsProcessed());
                 assertEquals(0, result.getSuccessCount());
-                assertEquals(2, result.getFailureCount()); // ⭐ SỬA LỖI LOGIC: Failure là 2 (do setFailureCount + addErrorMessage)
-                assertTrue(result.getErrorMessages().get(0).contains("Lỗi hệ thống"));
+                assertEquals(1, result.getFailureCount()); // Mọi dòng của lô lỗi, chỉ một thông báo
+                assertEquals("Dòng 2-2: Lỗi hệ thống khi lưu dữ liệu. Database is down", result.getErrorMessages().get(0));
+                verify(answerKeyCache, never()).putAll(anyList());
             }
             else if (scenario.equals("BAD_DATA_TYPE")) {
-                verify(questionRepository, never()).saveAll(anyList());
+                verify(questionRepository, never()).batchInsert(anyList());
                 assertEquals(2, result.getFailureCount());
                 assertTrue(result.getErrorMessages().get(0).contains("QuestionType"));
                 assertTrue(result.getErrorMessages().get(1).contains("Category"));
             }
             else if (scenario.equals("HEADER_ONLY")) {
-                verify(questionRepository, never()).saveAll(anyList());
+                verify(questionRepository, never()).batchInsert(anyList());
                 assertTrue(result.getErrorMessages().get(0).contains("Không tìm thấy dòng dữ liệu"));
             }
         }
     }
-}
\ No newline at end of file
+
+    // ============================================================
+    // Lưu theo lô (CHUNK_SIZE)
+    // ============================================================
+
+    private List<List<String>> multipleChoiceRows(int count) {
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            rows.add(Arrays.asList("Nội dung " + i, "MULTIPLE_CHOICE", "VOCABULARY", "A", "A", null));
+        }
+        return rows;
+    }
+
+    @Test
+    @DisplayName("processQuestionExcel: File lớn hơn CHUNK_SIZE được lưu thành nhiều lô, giữ đúng thứ tự")
+    void processQuestionExcel_SavesInChunks() throws IOException {
+        ReflectionTestUtils.setField(excelUploadService, "CHUNK_SIZE", 2);
+        List<String> headers = Arrays.asList(HEADER_CONTENT, HEADER_TYPE, HEADER_CATEGORY, HEADER_OPTION_A, HEADER_CORRECT_ANSWER, HEADER_FILL_ANSWER);
+        MockMultipartFile file = createMockFile(createExcelInputStream(headers, multipleChoiceRows(5)));
+
+        ExcelUploadResponse result = excelUploadService.processQuestionExcel(file);
+
+        assertEquals(5, result.getTotalRowsProcessed());
+        assertEquals(5, result.getSuccessCount());
+        assertEquals(0, result.getFailureCount());
+
+        verify(questionRepository, times(3)).batchInsert(questionListCaptor.capture());
+        List<List<Question>> chunks = questionListCaptor.getAllValues();
+        assertEquals(List.of(2, 2, 1), chunks.stream().map(List::size).toList());
+        assertEquals("Nội dung 1", chunks.get(0).get(0).getContent());
+        assertEquals("Nội dung 5", chunks.get(2).get(0).getContent());
+        verify(answerKeyCache, times(3)).putAll(anyList());
+    }
+
+    @Test
+    @DisplayName("processQuestionExcel: Lô giữa bị lỗi khi lưu → chỉ các dòng của lô đó thất bại, các lô khác vẫn được lưu")
+    void processQuestionExcel_ChunkSaveFails_OtherChunksSaved() throws IOException {
+        ReflectionTestUtils.setField(excelUploadService, "CHUNK_SIZE", 2);
+        List<String> headers = Arrays.asList(HEADER_CONTENT, HEADER_TYPE, HEADER_CATEGORY, HEADER_OPTION_A, HEADER_CORRECT_ANSWER, HEADER_FILL_ANSWER);
+        List<List<String>> rows = multipleChoiceRows(6);
+        rows.add(3, Arrays.asList("Nội dung lỗi", "INVALID_TYPE")); // Dòng 5: lỗi validate, không nằm trong lô nào
+        MockMultipartFile file = createMockFile(createExcelInputStream(headers, rows));
+        when(questionRepository.batchInsert(anyList()))
+                .thenAnswer(inv -> inv.getArgument(0))
+                .thenThrow(new RuntimeException("Database is down"))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        ExcelUploadResponse result = excelUploadService.processQuestionExcel(file);
+
+        verify(questionRepository, times(3)).batchInsert(anyList());
+        verify(answerKeyCache, times(2)).putAll(anyList());
+        assertEquals(7, result.getTotalRowsProcessed());
+        assertEquals(4, result.getSuccessCount());
+        assertEquals(3, result.getFailureCount()); // 1 dòng sai kiểu + 2 dòng của lô lỗi
+        assertEquals(2, result.getErrorMessages().size());
+        assertTrue(result.getErrorMessages().get(0).startsWith("Dòng 5: "));
+        // Lô thứ hai gồm dòng 4 và dòng 6 (dòng 5 bị loại khi validate)
+        assertEquals("Dòng 4-6: Lỗi hệ thống khi lưu dữ liệu. Database is down", result.getErrorMessages().get(1));
+    }
+
+    @Test
+    @DisplayName("processQuestionExcel: Vẫn đọc được file .xls (HSSF)")
+    void processQuestionExcel_LegacyXls() throws IOException {
+        try (Workbook workbook = new HSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Questions");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue(HEADER_CONTENT);
+            header.createCell(1).setCellValue(HEADER_TYPE);
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue("Nội dung 1");
+            row.createCell(1).setCellValue("TRUE_FALSE");
+            workbook.write(out);
+
+            MockMultipartFile file = new MockMultipartFile("file", "test.xls", "application/vnd.ms-excel", out.toByteArray());
+            ExcelUploadResponse result = excelUploadService.processQuestionExcel(file);
+
+            assertEquals(1, result.getSuccessCount());
+            verify(questionRepository).batchInsert(questionListCaptor.capture());
+            assertEquals("Nội dung 1", questionListCaptor.getValue().get(0).getContent());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.entity.enums.QuestionCategory;
+import com.ktnl.fapanese.entity.enums.QuestionType;
+import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.repository.projection.QuestionExportRow;
+import com.ktnl.fapanese.service.implementations.QuestionExportService;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QuestionExportServiceTest {
+
+    @Mock
+    QuestionRepository questionRepository;
+
+    @InjectMocks
+    QuestionExportService questionExportService;
+
+    private static QuestionExportRow mcq(long id, String content) {
+        return new QuestionExportRow(id, content, QuestionCategory.VOCABULARY, QuestionType.MULTIPLE_CHOICE,
+                "あ", "い", "う", "え", "A", null, 7L);
+    }
+
+    @Test
+    @DisplayName("exportCsv - có BOM, header trùng file import, escape dấu phẩy / nháy / xuống dòng")
+    void exportCsv_ShouldWriteHeaderAndEscapeFields() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(questionRepository.streamAllForExport()).thenReturn(Stream.of(
+                mcq(1L, "食べる"),
+                mcq(2L, "Chọn \"đúng\", rồi\nxuống dòng")
+        ).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        questionExportService.exportCsv(out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("\uFEFF"));
+        String[] lines = csv.substring(1).split("\r\n");
+        assertEquals("id,content,category,questionType,optionA,optionB,optionC,optionD,correctAnswer,fillAnswer,lessonPartId", lines[0]);
+        assertEquals("1,食べる,VOCABULARY,MULTIPLE_CHOICE,あ,い,う,え,A,,7", lines[1]);
+        assertEquals("2,\"Chọn \"\"đúng\"\", rồi\nxuống dòng\",VOCABULARY,MULTIPLE_CHOICE,あ,い,う,え,A,,7", lines[2]);
+        assertTrue(closed.get(), "Stream từ DB phải được đóng để trả connection");
+    }
+
+    @Test
+    @DisplayName("exportXlsx - ghi đủ mọi dòng qua SXSSF, đọc lại được bằng XSSF")
+    void exportXlsx_ShouldWriteAllRows() throws Exception {
+        int total = 1_000; // lớn hơn cửa sổ 100 dòng của SXSSF, buộc phải flush xuống file tạm
+        AtomicBoolean closed = new AtomicBoolean();
+        when(questionRepository.streamAllForExport()).thenReturn(LongStream.rangeClosed(1, total)
+                .mapToObj(id -> mcq(id, "Câu " + id))
+                .onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        questionExportService.exportXlsx(out);
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(total, sheet.getLastRowNum());
+            assertEquals("questionType", sheet.getRow(0).getCell(3).getStringCellValue());
+
+            Row last = sheet.getRow(total);
+            assertEquals(String.valueOf(total), last.getCell(0).getStringCellValue());
+            assertEquals("Câu " + total, last.getCell(1).getStringCellValue());
+            assertNull(last.getCell(9)); // fillAnswer rỗng thì không tạo cell
+            assertEquals("7", last.getCell(10).getStringCellValue());
+        }
+        assertTrue(closed.get());
+    }
+}
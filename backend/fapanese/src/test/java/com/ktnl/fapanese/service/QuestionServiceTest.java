@@ -1,8 +1,11 @@
 package com.ktnl.fapanese.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktnl.fapanese.dto.request.QuestionFilterRequest;
 import com.ktnl.fapanese.dto.request.QuestionRequest;
 import com.ktnl.fapanese.dto.request.UserAnswer;
+import com.ktnl.fapanese.dto.response.CursorPageResponse;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.dto.response.QuestionResponse;
 import com.ktnl.fapanese.dto.response.SubmitQuizResponse;
 import com.ktnl.fapanese.entity.LessonPart;
@@ -15,6 +18,8 @@ import com.ktnl.fapanese.mapper.QuestionMapper;
 import com.ktnl.fapanese.repository.LessonPartRepository;
 import com.ktnl.fapanese.repository.LessonRepository;
 import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService;
+import com.ktnl.fapanese.service.interfaces.IAnswerKeyCacheService.AnswerKey;
 import com.ktnl.fapanese.service.implementations.QuestionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -22,12 +27,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvFileSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -35,6 +51,9 @@ import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import com.fasterxml.jackson.core.type.TypeReference;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -52,6 +71,9 @@ class QuestionServiceTest {
     @Mock
     QuestionMapper questionMapper;
 
+    @Mock
+    IAnswerKeyCacheService answerKeyCache;
+
     @InjectMocks
     QuestionService questionService;
 
@@ -402,17 +424,21 @@ class QuestionServiceTest {
         List<UserAnswer> userAnswers = buildUserAnswersFromJson(userAnswersJson);
         List<Question> questionsInDb = buildQuestionsFromJson(questionsJson);
 
-        // Map<QuestionId, Question> để findById
+        // Map<QuestionId, Question> để giả lập cache đáp án
         Map<Long, Question> questionMap = questionsInDb.stream()
                 .collect(Collectors.toMap(Question::getId, q -> q, (a, b) -> a));
 
-        when(questionRepository.findById(anyLong()))
+        when(answerKeyCache.getAll(anyCollection()))
                 .thenAnswer(invocation -> {
-                    Long id = invocation.getArgument(0);
-                    return Optional.ofNullable(questionMap.get(id));
+                    Collection<Long> ids = invocation.getArgument(0);
+                    return ids.stream()
+                            .map(questionMap::get)
+                            .filter(Objects::nonNull)
+                            .map(AnswerKey::of)
+                            .collect(Collectors.toMap(AnswerKey::questionId, k -> k, (a, b) -> a));
                 });
 
-        when(questionRepository.countByLessonPartId(anyLong()))
+        when(answerKeyCache.countByLessonPart(anyLong()))
                 .thenAnswer(invocation -> {
                     Long lpId = invocation.getArgument(0);
 
@@ -540,10 +566,10 @@ class QuestionServiceTest {
         ua.setUserAnswer("Osaka");
 
         // Repo mocks
-        when(questionRepository.findById(1L)).thenReturn(Optional.of(q));
+        when(answerKeyCache.getAll(anyCollection())).thenReturn(Map.of(1L, AnswerKey.of(q)));
 
-        // fallback: giả lập repo trả 0 → để test nhánh else
-        when(questionRepository.countByLessonPartId(10L)).thenReturn(0);
+        // fallback: giả lập cache trả 0 → để test nhánh else
+        when(answerKeyCache.countByLessonPart(10L)).thenReturn(0);
 
         SubmitQuizResponse result =
                 questionService.checkAndSubmitAnswers(List.of(ua));
@@ -574,8 +600,8 @@ class QuestionServiceTest {
         ua.setUserAnswer("something-else");
 
         // Repo behavior
-        when(questionRepository.findById(1L)).thenReturn(Optional.of(q));
-        when(questionRepository.countByLessonPartId(10L)).thenReturn(1);
+        when(answerKeyCache.getAll(anyCollection())).thenReturn(Map.of(1L, AnswerKey.of(q)));
+        when(answerKeyCache.countByLessonPart(10L)).thenReturn(1);
 
         SubmitQuizResponse result =
                 questionService.checkAndSubmitAnswers(List.of(ua));
@@ -586,4 +612,144 @@ class QuestionServiceTest {
     }
 
 
+    @Test
+    @DisplayName("checkAndSubmitAnswers – 50 câu → chấm từ cache đáp án, không query MySQL")
+    void checkAndSubmitAnswers_GradesFromAnswerKeyCache() {
+        List<UserAnswer> answers = new ArrayList<>();
+        Map<Long, AnswerKey> keys = new HashMap<>();
+        for (long id = 1; id <= 50; id++) {
+            answers.add(new UserAnswer(id, id % 2 == 0 ? " a " : "B"));
+            keys.put(id, AnswerKey.of(id, QuestionType.MULTIPLE_CHOICE, "A", null, 10L));
+        }
+
+        when(answerKeyCache.getAll(anyCollection())).thenReturn(keys);
+        when(answerKeyCache.countByLessonPart(10L)).thenReturn(50);
+
+        SubmitQuizResponse result = questionService.checkAndSubmitAnswers(answers);
+
+        assertEquals(25, result.getCorrectCount());
+        assertEquals(50, result.getTotalQuestions());
+        assertEquals(50, result.getDetailedResults().size());
+        assertEquals(2L, result.getDetailedResults().get(1).getQuestionId());
+        assertEquals("A", result.getDetailedResults().get(1).getCorrectAnswer());
+        verify(answerKeyCache, times(1)).getAll(anyCollection());
+        verifyNoInteractions(questionRepository);
+    }
+
+    @Test
+    @DisplayName("create / update / delete → cập nhật cache đáp án")
+    void crud_RefreshesAnswerKeyCache() {
+        LessonPart lp = new LessonPart();
+        lp.setId(10L);
+        Question saved = Question.builder().id(5L).questionType(QuestionType.FILL).fillAnswer("Tokyo").lessonPart(lp).build();
+        QuestionRequest request = new QuestionRequest();
+        request.setLessonPartId(10L);
+
+        when(lessonPartRepository.findById(10L)).thenReturn(Optional.of(lp));
+        when(questionMapper.toQuestion(request)).thenReturn(saved);
+        when(questionRepository.save(saved)).thenReturn(saved);
+        when(questionRepository.findById(5L)).thenReturn(Optional.of(saved));
+        when(questionRepository.existsById(5L)).thenReturn(true);
+
+        questionService.createQuestion(request);
+        questionService.updateQuestion(5L, request);
+        questionService.deleteQuestion(5L);
+
+        verify(answerKeyCache, times(2)).put(saved);
+        verify(answerKeyCache).evict(5L);
+    }
+
+    @Test
+    @DisplayName("checkAndSubmitAnswers – FILL nhưng userAnswer null → sai, không NPE")
+    void checkAndSubmitAnswers_FillNullAnswer_ShouldBeIncorrect() {
+        when(answerKeyCache.getAll(anyCollection())).thenReturn(Map.of(
+                1L, AnswerKey.of(1L, QuestionType.FILL, null, "Tokyo", 10L)));
+        when(answerKeyCache.countByLessonPart(10L)).thenReturn(1);
+
+        SubmitQuizResponse result = questionService.checkAndSubmitAnswers(List.of(new UserAnswer(1L, null)));
+
+        assertEquals(0, result.getCorrectCount());
+    }
+
+    // ================= searchQuestions =================
+
+    @Test
+    @DisplayName("searchQuestions - chỉ đọc một trang qua Specification, không gọi findAll() toàn bảng")
+    void searchQuestions_ShouldQuerySinglePage() {
+        Question q = Question.builder().id(5L).content("食べる").build();
+        QuestionResponse r = new QuestionResponse();
+        r.setId(5L);
+        Pageable pageable = PageRequest.of(2, 10, Sort.by("id"));
+
+        when(questionRepository.findAll(any(Specification.class), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(q), pageable, 21));
+        when(questionMapper.toQuestionResponse(q)).thenReturn(r);
+
+        PageResponse<QuestionResponse> result = questionService.searchQuestions(
+                QuestionFilterRequest.builder().category(QuestionCategory.VOCABULARY).keyword("食").build(), pageable);
+
+        assertEquals(List.of(r), result.getItems());
+        assertEquals(2, result.getPage());
+        assertEquals(10, result.getSize());
+        assertEquals(21, result.getTotalElements());
+        assertEquals(3, result.getTotalPages());
+        assertFalse(result.isHasNext());
+        verify(questionRepository).findAll(any(Specification.class), eq(pageable));
+        verify(questionRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("searchQuestions - bộ lọc rỗng không sinh điều kiện WHERE")
+    @SuppressWarnings("unchecked")
+    void searchQuestions_EmptyFilter_ShouldNotAddPredicates() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(questionRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(Page.empty(pageable));
+
+        PageResponse<QuestionResponse> result = questionService.searchQuestions(new QuestionFilterRequest(), pageable);
+
+        ArgumentCaptor<Specification<Question>> spec = ArgumentCaptor.forClass(Specification.class);
+        verify(questionRepository).findAll(spec.capture(), eq(pageable));
+        CriteriaBuilder cb = mock(CriteriaBuilder.class);
+        assertNull(spec.getValue().toPredicate(mock(Root.class), mock(CriteriaQuery.class), cb));
+        verifyNoInteractions(cb);
+        assertTrue(result.getItems().isEmpty());
+        assertEquals(0, result.getTotalElements());
+    }
+
+    // ================= scanQuestions =================
+
+    @Test
+    @DisplayName("scanQuestions - đọc dư một dòng để biết còn trang sau, nextCursor = id cuối trang")
+    void scanQuestions_WhenMoreRows_ShouldReturnCursor() {
+        List<Question> rows = List.of(Question.builder().id(11L).build(),
+                Question.builder().id(12L).build(),
+                Question.builder().id(15L).build());
+        when(questionRepository.findNextPage(10L, null, null, Limit.of(3))).thenReturn(rows);
+        when(questionMapper.toQuestionResponseList(anyList()))
+                .thenAnswer(inv -> ((List<Question>) inv.getArgument(0)).stream()
+                        .map(q -> QuestionResponse.builder().id(q.getId()).build())
+                        .toList());
+
+        CursorPageResponse<QuestionResponse> result = questionService.scanQuestions(10L, 2, null, null);
+
+        assertEquals(List.of(11L, 12L), result.getItems().stream().map(QuestionResponse::getId).toList());
+        assertEquals(12L, result.getNextCursor());
+        assertTrue(result.isHasMore());
+    }
+
+    @Test
+    @DisplayName("scanQuestions - trang cuối: hasMore = false; limit bị chặn trong [1, 1000]")
+    void scanQuestions_LastPage_ShouldClampLimit() {
+        when(questionRepository.findNextPage(eq(0L), eq(QuestionCategory.GRAMMAR), eq(3L), any(Limit.class)))
+                .thenReturn(List.of());
+        when(questionMapper.toQuestionResponseList(anyList())).thenReturn(List.of());
+
+        CursorPageResponse<QuestionResponse> result = questionService.scanQuestions(null, 50_000, QuestionCategory.GRAMMAR, 3L);
+
+        assertTrue(result.getItems().isEmpty());
+        assertNull(result.getNextCursor());
+        assertFalse(result.isHasMore());
+        verify(questionRepository).findNextPage(0L, QuestionCategory.GRAMMAR, 3L, Limit.of(1001));
+    }
 }
+
@@ -0,0 +1,170 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.dto.request.UserAnswer;
+import com.ktnl.fapanese.entity.LessonPart;
+import com.ktnl.fapanese.entity.Question;
+import com.ktnl.fapanese.entity.enums.QuestionType;
+import com.ktnl.fapanese.mapper.QuestionMapper;
+import com.ktnl.fapanese.repository.LessonPartRepository;
+import com.ktnl.fapanese.repository.LessonRepository;
+import com.ktnl.fapanese.repository.QuestionRepository;
+import com.ktnl.fapanese.repository.projection.QuestionAnswerKey;
+import com.ktnl.fapanese.service.implementations.AnswerKeyCacheService;
+import com.ktnl.fapanese.service.implementations.QuestionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmark chấm bài quiz theo số câu: findById từng câu (N+2 query), một query đáp án + một
+ * query đếm, và checkAndSubmitAnswers hiện tại (chấm từ cache đáp án, không query).
+ * Mỗi lời gọi repository giả lập một round trip tới MySQL. Không chạy trong build thường:
+ *
+ *   mvn test -Dtest=QuizGradingBenchmarkTest -Dbenchmark=true [-Dbenchmark.rttMicros=300]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class QuizGradingBenchmarkTest {
+
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 100;
+    private static final int[] QUIZ_SIZES = {10, 50, 200};
+    private static final long RTT_NANOS = TimeUnit.MICROSECONDS.toNanos(Long.getLong("benchmark.rttMicros", 300));
+
+    @Test
+    @DisplayName("Benchmark - Thời gian chấm bài theo số câu (N+1 vs batch vs cache)")
+    void grading_PerQuestionVsBatchedVsCached() {
+        System.out.printf("%-8s %14s %14s %14s %14s %14s %14s%n", "size",
+                "n+1 p50 (us)", "batch p50 (us)", "cache p50 (us)", "n+1 p95 (us)", "batch p95 (us)", "cache p95 (us)");
+
+        for (int size : QUIZ_SIZES) {
+            Map<Long, Question> questions = questions(size);
+            List<UserAnswer> answers = answers(size);
+            AtomicInteger roundTrips = new AtomicInteger();
+            QuestionRepository repository = repository(questions, roundTrips);
+            QuestionService service = new QuestionService(repository, mock(LessonRepository.class),
+                    mock(QuestionMapper.class), mock(LessonPartRepository.class), new AnswerKeyCacheService(repository));
+
+            long[] perQuestion = measure(() -> gradeOneByOne(repository, answers));
+            long[] batched = measure(() -> gradeBatched(repository, answers));
+            roundTrips.set(0);
+            long[] cached = measure(() -> service.checkAndSubmitAnswers(answers).getCorrectCount());
+            assertEquals(1, roundTrips.get()); // chỉ lần nạp cache đầu tiên
+
+            System.out.printf("%-8d %14d %14d %14d %14d %14d %14d%n", size,
+                    percentile(perQuestion, 0.5), percentile(batched, 0.5), percentile(cached, 0.5),
+                    percentile(perQuestion, 0.95), percentile(batched, 0.95), percentile(cached, 0.95));
+        }
+    }
+
+    /**
+     * Cách chấm cũ: mỗi câu một findById, thêm một findById cho câu đầu và một count.
+     */
+    private static int gradeOneByOne(QuestionRepository repository, List<UserAnswer> answers) {
+        int correct = 0;
+        for (UserAnswer answer : answers) {
+            Question q = repository.findById(answer.getQuestionId()).orElseThrow();
+            if (q.getCorrectAnswer().equalsIgnoreCase(answer.getUserAnswer()))
+                correct++;
+        }
+        Long lessonPartId = repository.findById(answers.get(0).getQuestionId()).orElseThrow().getLessonPart().getId();
+        repository.countByLessonPartId(lessonPartId);
+        return correct;
+    }
+
+    /**
+     * Một query lấy đáp án của các câu được nộp + một query đếm.
+     */
+    private static int gradeBatched(QuestionRepository repository, List<UserAnswer> answers) {
+        Map<Long, QuestionAnswerKey> keys = new HashMap<>();
+        repository.findAnswerKeysByIdIn(answers.stream().map(UserAnswer::getQuestionId).toList())
+                .forEach(key -> keys.put(key.id(), key));
+        int correct = 0;
+        for (UserAnswer answer : answers) {
+            if (keys.get(answer.getQuestionId()).correctAnswer().equalsIgnoreCase(answer.getUserAnswer()))
+                correct++;
+        }
+        repository.countByLessonPartId(keys.get(answers.get(0).getQuestionId()).lessonPartId());
+        return correct;
+    }
+
+    private static QuestionRepository repository(Map<Long, Question> questions, AtomicInteger roundTrips) {
+        QuestionRepository repository = mock(QuestionRepository.class);
+        when(repository.findById(anyLong())).thenAnswer(inv -> {
+            roundTrip(roundTrips);
+            return Optional.ofNullable(questions.get(inv.<Long>getArgument(0)));
+        });
+        when(repository.findAnswerKeysByIdIn(anyCollection())).thenAnswer(inv -> {
+            roundTrip(roundTrips);
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().map(questions::get).map(q -> new QuestionAnswerKey(q.getId(),
+                    q.getQuestionType(), q.getCorrectAnswer(), q.getFillAnswer(), q.getLessonPart().getId())).toList();
+        });
+        when(repository.findAllAnswerKeys()).thenAnswer(inv -> {
+            roundTrip(roundTrips);
+            return questions.values().stream().map(q -> new QuestionAnswerKey(q.getId(),
+                    q.getQuestionType(), q.getCorrectAnswer(), q.getFillAnswer(), q.getLessonPart().getId())).toList();
+        });
+        when(repository.countByLessonPartId(anyLong())).thenAnswer(inv -> {
+            roundTrip(roundTrips);
+            return questions.size();
+        });
+        return repository;
+    }
+
+    private static void roundTrip(AtomicInteger roundTrips) {
+        roundTrips.incrementAndGet();
+        LockSupport.parkNanos(RTT_NANOS);
+    }
+
+    private static Map<Long, Question> questions(int size) {
+        LessonPart lessonPart = new LessonPart();
+        lessonPart.setId(1L);
+        Map<Long, Question> questions = new HashMap<>();
+        for (long id = 1; id <= size; id++) {
+            questions.put(id, Question.builder().id(id).questionType(QuestionType.MULTIPLE_CHOICE)
+                    .correctAnswer("A").lessonPart(lessonPart).build());
+        }
+        return questions;
+    }
+
+    private static List<UserAnswer> answers(int size) {
+        List<UserAnswer> answers = new ArrayList<>();
+        for (long id = 1; id <= size; id++)
+            answers.add(new UserAnswer(id, id % 3 == 0 ? "B" : "A"));
+        return answers;
+    }
+
+    private interface Step {
+        int run();
+    }
+
+    private static long[] measure(Step step) {
+        for (int i = 0; i < WARMUP; i++)
+            step.run();
+
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            step.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        return samples;
+    }
+
+    private static long percentile(long[] samples, double p) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))] / 1000;
+    }
+}
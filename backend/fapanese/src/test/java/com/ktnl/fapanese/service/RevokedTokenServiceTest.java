@@ -0,0 +1,96 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.entity.InvalidatedToken;
+import com.ktnl.fapanese.repository.InvalidatedTokenRepository;
+import com.ktnl.fapanese.service.implementations.RevokedTokenService;
+import com.ktnl.fapanese.service.interfaces.IJwtCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RevokedTokenServiceTest {
+
+    @Mock
+    private InvalidatedTokenRepository invalidatedTokenRepository;
+
+    @Mock
+    private IJwtCacheService jwtCacheService;
+
+    @InjectMocks
+    private RevokedTokenService revokedTokenService;
+
+    private static final long REFRESHABLE_DURATION_SECONDS = 60;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(revokedTokenService, "REFRESHABLE_DURATION", REFRESHABLE_DURATION_SECONDS);
+    }
+
+    @Test
+    @DisplayName("loadRevokedTokens - Load các jti còn hiệu lực từ DB khi khởi động")
+    void loadRevokedTokens_LoadsFromRepository() {
+        Date expiry = Date.from(Instant.now().plus(1, ChronoUnit.HOURS));
+        when(invalidatedTokenRepository.findAllByExpiryTimeAfter(any(Date.class)))
+                .thenReturn(List.of(new InvalidatedToken("jti-1", expiry)));
+
+        ReflectionTestUtils.invokeMethod(revokedTokenService, "loadRevokedTokens");
+
+        assertTrue(revokedTokenService.isRevoked("jti-1"));
+        assertFalse(revokedTokenService.isRevoked("jti-2"));
+    }
+
+    @Test
+    @DisplayName("revoke - Ghi DB, cập nhật bộ nhớ và xóa khỏi cache JWT")
+    void revoke_WritesThrough() {
+        Date expiry = Date.from(Instant.now().plus(1, ChronoUnit.HOURS));
+
+        revokedTokenService.revoke("jti-1", expiry);
+
+        verify(invalidatedTokenRepository).save(new InvalidatedToken("jti-1", expiry));
+        verify(jwtCacheService).evictByJti("jti-1");
+        assertTrue(revokedTokenService.isRevoked("jti-1"));
+    }
+
+    @Test
+    @DisplayName("isRevoked - Không truy vấn DB")
+    void isRevoked_DoesNotHitDatabase() {
+        assertFalse(revokedTokenService.isRevoked("jti-1"));
+        assertFalse(revokedTokenService.isRevoked(null));
+
+        verifyNoInteractions(invalidatedTokenRepository);
+    }
+
+    @Test
+    @DisplayName("purgeExpired - Chỉ xóa token đã qua cả thời hạn refresh")
+    void purgeExpired_RemovesOnlyFullyExpired() {
+        // exp đã qua nhưng vẫn còn trong REFRESHABLE_DURATION → vẫn phải giữ
+        Date stillRefreshable = Date.from(Instant.now().minusSeconds(10));
+        // exp đã qua hơn REFRESHABLE_DURATION → xóa
+        Date fullyExpired = Date.from(Instant.now().minusSeconds(REFRESHABLE_DURATION_SECONDS + 10));
+
+        revokedTokenService.revoke("jti-keep", stillRefreshable);
+        revokedTokenService.revoke("jti-drop", fullyExpired);
+        when(invalidatedTokenRepository.deleteAllExpiredBefore(any(Date.class))).thenReturn(1);
+
+        int deleted = revokedTokenService.purgeExpired();
+
+        assertEquals(1, deleted);
+        assertTrue(revokedTokenService.isRevoked("jti-keep"));
+        assertFalse(revokedTokenService.isRevoked("jti-drop"));
+    }
+}
@@ -17,6 +17,7 @@ import com.ktnl.fapanese.repository.SpeakingExamRepository;
 import com.ktnl.fapanese.repository.SpeakingQuestionRepository;
 import com.ktnl.fapanese.repository.SpeakingRepository;
 import com.ktnl.fapanese.service.implementations.SpeakingExamService;
+import com.ktnl.fapanese.service.interfaces.ISpeakingSamplerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -59,6 +60,8 @@ class SpeakingExamServiceTest {
     SpeakingTestItemMapper speakingTestItemMapper;
     @Mock
     SpeakingTestQuestionMapper speakingTestQuestionMapper;
+    @Mock
+    ISpeakingSamplerService speakingSampler;
 
     @InjectMocks
     SpeakingExamService speakingExamService;
@@ -281,7 +284,7 @@ class SpeakingExamServiceTest {
             AppException ex = assertThrows(AppException.class,
                     () -> speakingExamService.deleteSpeakingExam(id));
             assertEquals(code, ex.getErrorCode());
-            verify(speakingExamRepository, never()).delete(any());
+            verify(speakingExamRepository, never()).delete(any(SpeakingExam.class));
         } else {
             speakingExamService.deleteSpeakingExam(id);
             verify(speakingExamRepository, times(1)).delete(dummyExam);
@@ -354,6 +357,14 @@ class SpeakingExamServiceTest {
         return q;
     }
 
+    private void mockPool(Long partId, Speaking passage, Speaking picture, Speaking question) {
+        when(speakingSampler.pickSpeaking(partId, SpeakingType.PASSAGE)).thenReturn(Optional.of(passage.getId()));
+        when(speakingSampler.pickSpeaking(partId, SpeakingType.PICTURE)).thenReturn(Optional.of(picture.getId()));
+        when(speakingSampler.pickSpeaking(partId, SpeakingType.QUESTION)).thenReturn(Optional.of(question.getId()));
+        when(speakingSampler.pickQuestions(picture.getId(), 1)).thenReturn(List.of(100L));
+        when(speakingSampler.pickQuestions(question.getId(), 2)).thenReturn(List.of(201L, 200L));
+    }
+
     @Test
     @DisplayName("generateRandomSpeakingTest - Success")
     void generateRandomSpeakingTest_Success() {
@@ -366,19 +377,14 @@ class SpeakingExamServiceTest {
         SpeakingQuestion noPicQuestion1 = mockQuestion(200L);
         SpeakingQuestion noPicQuestion2 = mockQuestion(201L);
 
-        // Mock repo 'speaking'
-        when(speakingRepository.findRandomSpeakingByPartIdAndType(partId, SpeakingType.PASSAGE.name()))
-                .thenReturn(Optional.of(passage));
-        when(speakingRepository.findRandomSpeakingByPartIdAndType(partId, SpeakingType.PICTURE.name()))
-                .thenReturn(Optional.of(picture));
-        when(speakingRepository.findRandomSpeakingByPartIdAndType(partId, SpeakingType.QUESTION.name()))
-                .thenReturn(Optional.of(question));
+        // Mock pool bốc id
+        mockPool(partId, passage, picture, question);
 
-        // Mock repo 'question'
-        when(speakingQuestionRepository.findRandomQuestionsForSpeaking(picture.getId(), 1))
-                .thenReturn(List.of(picQuestion));
-        when(speakingQuestionRepository.findRandomQuestionsForSpeaking(question.getId(), 2))
-                .thenReturn(List.of(noPicQuestion1, noPicQuestion2));
+        // Mock batch fetch (thứ tự trả về khác thứ tự đã bốc)
+        when(speakingRepository.findAllById(List.of(10L, 20L, 30L)))
+                .thenReturn(List.of(question, passage, picture));
+        when(speakingQuestionRepository.findAllById(List.of(100L, 201L, 200L)))
+                .thenReturn(List.of(noPicQuestion1, noPicQuestion2, picQuestion));
 
         // Mock mappers
         when(speakingTestItemMapper.toSpeakingTestItemResponse(any(Speaking.class)))
@@ -407,31 +413,79 @@ class SpeakingExamServiceTest {
         verify(speakingTestItemMapper, times(1)).toSpeakingTestItemResponse(question);
 
         verify(speakingTestQuestionMapper, times(1)).toSpeakingQuestionResponseList(List.of(picQuestion));
-        verify(speakingTestQuestionMapper, times(1)).toSpeakingQuestionResponseList(List.of(noPicQuestion1, noPicQuestion2));
+        verify(speakingTestQuestionMapper, times(1)).toSpeakingQuestionResponseList(List.of(noPicQuestion2, noPicQuestion1));
+
+        // Chỉ 2 query theo khóa chính, không nạp lại pool
+        verify(speakingRepository, times(1)).findAllById(anyIterable());
+        verify(speakingQuestionRepository, times(1)).findAllById(anyIterable());
+        verify(speakingSampler, never()).reload();
+    }
+
+    @Test
+    @DisplayName("generateRandomSpeakingTest - Pool có id đã bị xóa → reload rồi bốc lại")
+    void generateRandomSpeakingTest_StalePool_ReloadsAndRetries() {
+        Long partId = 1L;
+        Speaking passage = mockSpeaking(10L, SpeakingType.PASSAGE);
+        Speaking picture = mockSpeaking(20L, SpeakingType.PICTURE);
+        Speaking question = mockSpeaking(30L, SpeakingType.QUESTION);
+        mockPool(partId, passage, picture, question);
+
+        when(speakingRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(passage, picture)) // lần 1: thiếu speaking 30
+                .thenReturn(List.of(passage, picture, question));
+        when(speakingQuestionRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(mockQuestion(100L), mockQuestion(200L), mockQuestion(201L)));
+        when(speakingTestItemMapper.toSpeakingTestItemResponse(any(Speaking.class)))
+                .thenAnswer(inv -> new SpeakingTestItemResponse(inv.<Speaking>getArgument(0).getId(), null, null, null, null, null));
+
+        SpeakingTestResponse result = speakingExamService.generateRandomSpeakingTest(partId);
+
+        assertEquals(question.getId(), result.getQuestionPart().getId());
+        verify(speakingSampler, times(1)).reload();
+        verify(speakingRepository, times(2)).findAllById(anyIterable());
+    }
+
+    @Test
+    @DisplayName("generateRandomSpeakingTest - Pool vẫn sai sau khi reload → OVERVIEW_PART_NOT_FOUND")
+    void generateRandomSpeakingTest_StaleAfterReload_Throws() {
+        Long partId = 1L;
+        Speaking passage = mockSpeaking(10L, SpeakingType.PASSAGE);
+        Speaking picture = mockSpeaking(20L, SpeakingType.PICTURE);
+        Speaking question = mockSpeaking(30L, SpeakingType.QUESTION);
+        mockPool(partId, passage, picture, question);
+
+        when(speakingRepository.findAllById(anyIterable())).thenReturn(List.of(passage, picture, question));
+        when(speakingQuestionRepository.findAllById(anyIterable())).thenReturn(List.of(mockQuestion(100L)));
+
+        AppException ex = assertThrows(AppException.class,
+                () -> speakingExamService.generateRandomSpeakingTest(partId));
+
+        assertEquals(ErrorCode.OVERVIEW_PART_NOT_FOUND, ex.getErrorCode());
+        verify(speakingSampler, times(1)).reload();
     }
 
     @Test
     @DisplayName("generateRandomSpeakingTest - Fail - Passage Not Found")
     void generateRandomSpeakingTest_Fail_PassageNotFound() {
         Long partId = 1L;
-        when(speakingRepository.findRandomSpeakingByPartIdAndType(partId, SpeakingType.PASSAGE.name()))
+        when(speakingSampler.pickSpeaking(partId, SpeakingType.PASSAGE))
                 .thenReturn(Optional.empty()); // <-- Lỗi
 
         AppException ex = assertThrows(AppException.class,
                 () -> speakingExamService.generateRandomSpeakingTest(partId));
 
         assertEquals(ErrorCode.OVERVIEW_PART_NOT_FOUND, ex.getErrorCode());
+        verify(speakingRepository, never()).findAllById(anyIterable());
     }
 
     @Test
     @DisplayName("generateRandomSpeakingTest - Fail - Picture Not Found")
     void generateRandomSpeakingTest_Fail_PictureNotFound() {
         Long partId = 1L;
-        Speaking passage = mockSpeaking(10L, SpeakingType.PASSAGE);
 
-        when(speakingRepository.findRandomSpeakingByPartIdAndType(partId, SpeakingType.PASSAGE.name()))
-                .thenReturn(Optional.of(passage));
-        when(speakingRepository.findRandomSpeakingByPartIdAndType(partId, SpeakingType.PICTURE.name()))
+        when(speakingSampler.pickSpeaking(partId, SpeakingType.PASSAGE))
+                .thenReturn(Optional.of(10L));
+        when(speakingSampler.pickSpeaking(partId, SpeakingType.PICTURE))
                 .thenReturn(Optional.empty()); // <-- Lỗi
 
         AppException ex = assertThrows(AppException.class,
@@ -444,14 +498,12 @@ class SpeakingExamServiceTest {
     @DisplayName("generateRandomSpeakingTest - Fail - Question Not Found")
     void generateRandomSpeakingTest_Fail_QuestionNotFound() {
         Long partId = 1L;
-        Speaking passage = mockSpeaking(10L, SpeakingType.PASSAGE);
-        Speaking picture = mockSpeaking(20L, SpeakingType.PICTURE);
 
-        when(speakingRepository.findRandomSpeakingByPartIdAndType(partId, SpeakingType.PASSAGE.name()))
-                .thenReturn(Optional.of(passage));
-        when(speakingRepository.findRandomSpeakingByPartIdAndType(partId, SpeakingType.PICTURE.name()))
-                .thenReturn(Optional.of(picture));
-        when(speakingRepository.findRandomSpeakingByPartIdAndType(partId, SpeakingType.QUESTION.name()))
+        when(speakingSampler.pickSpeaking(partId, SpeakingType.PASSAGE))
+                .thenReturn(Optional.of(10L));
+        when(speakingSampler.pickSpeaking(partId, SpeakingType.PICTURE))
+                .thenReturn(Optional.of(20L));
+        when(speakingSampler.pickSpeaking(partId, SpeakingType.QUESTION))
                 .thenReturn(Optional.empty()); // <-- Lỗi
 
         AppException ex = assertThrows(AppException.class,
@@ -14,6 +14,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvFileSource;
+import com.ktnl.fapanese.service.interfaces.ISpeakingSamplerService;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -39,6 +40,8 @@ class SpeakingQuestionServiceTest {
     SpeakingRepository speakingRepository;
     @Mock
     SpeakingQuestionMapper speakingQuestionMapper;
+    @Mock
+    ISpeakingSamplerService speakingSampler;
 
     @InjectMocks
     SpeakingQuestionService speakingQuestionService;
@@ -107,6 +110,7 @@ class SpeakingQuestionServiceTest {
             assertNotNull(result);
             assertEquals(dummyResponse.getId(), result.getId());
             verify(speakingQuestionRepository, times(1)).save(dummyQuestion);
+            verify(speakingSampler, times(1)).putQuestion(dummyQuestion);
         }
     }
 
@@ -269,6 +273,7 @@ class SpeakingQuestionServiceTest {
             SpeakingQuestionResponse result = speakingQuestionService.updateQuestion(questionId, request);
             assertNotNull(result);
             verify(speakingQuestionRepository, times(1)).save(existingQuestion);
+            verify(speakingSampler, times(1)).putQuestion(existingQuestion);
             // Verify mapper được gọi
             verify(speakingQuestionMapper, times(1)).updateSpeakingQuestion(existingQuestion, request);
         }
@@ -301,6 +306,7 @@ class SpeakingQuestionServiceTest {
         } else {
             speakingQuestionService.deleteQuestion(questionId);
             verify(speakingQuestionRepository, times(1)).deleteById(questionId);
+            verify(speakingSampler, times(1)).evictQuestion(questionId);
         }
     }
 }
@@ -0,0 +1,153 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.entity.OverviewPart;
+import com.ktnl.fapanese.entity.Speaking;
+import com.ktnl.fapanese.entity.SpeakingExam;
+import com.ktnl.fapanese.entity.SpeakingQuestion;
+import com.ktnl.fapanese.entity.enums.SpeakingType;
+import com.ktnl.fapanese.repository.SpeakingQuestionRepository;
+import com.ktnl.fapanese.repository.SpeakingRepository;
+import com.ktnl.fapanese.repository.projection.SpeakingPoolEntry;
+import com.ktnl.fapanese.repository.projection.SpeakingQuestionPoolEntry;
+import com.ktnl.fapanese.service.implementations.SpeakingSamplerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SpeakingSamplerServiceTest {
+
+    @Mock
+    private SpeakingRepository speakingRepository;
+    @Mock
+    private SpeakingQuestionRepository speakingQuestionRepository;
+
+    @InjectMocks
+    private SpeakingSamplerService speakingSamplerService;
+
+    @BeforeEach
+    void setUp() {
+        when(speakingRepository.findAllPoolEntries()).thenReturn(List.of(
+                new SpeakingPoolEntry(1L, 10L, SpeakingType.PASSAGE),
+                new SpeakingPoolEntry(2L, 10L, SpeakingType.PASSAGE),
+                new SpeakingPoolEntry(3L, 10L, SpeakingType.PICTURE),
+                new SpeakingPoolEntry(4L, 20L, SpeakingType.PASSAGE)));
+        when(speakingQuestionRepository.findAllPoolEntries()).thenReturn(List.of(
+                new SpeakingQuestionPoolEntry(100L, 3L),
+                new SpeakingQuestionPoolEntry(101L, 3L),
+                new SpeakingQuestionPoolEntry(102L, 3L),
+                new SpeakingQuestionPoolEntry(103L, 3L)));
+    }
+
+    private static Speaking speaking(Long id, Long overviewPartId, SpeakingType type) {
+        OverviewPart part = new OverviewPart();
+        part.setId(overviewPartId);
+        SpeakingExam exam = new SpeakingExam();
+        exam.setOverviewPart(part);
+        return Speaking.builder().id(id).type(type).speakingExam(exam).build();
+    }
+
+    private static SpeakingQuestion question(Long id, Long speakingId) {
+        return SpeakingQuestion.builder().id(id).speaking(Speaking.builder().id(speakingId).build()).build();
+    }
+
+    @Test
+    @DisplayName("pickSpeaking - Chỉ bốc trong đúng (overviewPart, type); nạp pool một lần")
+    void pickSpeaking_PicksFromMatchingPoolOnly() {
+        Set<Long> picked = new HashSet<>();
+        for (int i = 0; i < 200; i++)
+            picked.add(speakingSamplerService.pickSpeaking(10L, SpeakingType.PASSAGE).orElseThrow());
+
+        assertEquals(Set.of(1L, 2L), picked);
+        assertEquals(Optional.of(3L), speakingSamplerService.pickSpeaking(10L, SpeakingType.PICTURE));
+        assertTrue(speakingSamplerService.pickSpeaking(10L, SpeakingType.QUESTION).isEmpty());
+        assertTrue(speakingSamplerService.pickSpeaking(99L, SpeakingType.PASSAGE).isEmpty());
+        verify(speakingRepository, times(1)).findAllPoolEntries();
+        verify(speakingQuestionRepository, times(1)).findAllPoolEntries();
+    }
+
+    @Test
+    @DisplayName("pickQuestions - Không trùng lặp, tối đa bằng số câu hiện có")
+    void pickQuestions_DistinctAndCapped() {
+        for (int i = 0; i < 200; i++) {
+            List<Long> two = speakingSamplerService.pickQuestions(3L, 2);
+            assertEquals(2, two.size());
+            assertNotEquals(two.get(0), two.get(1));
+            assertTrue(List.of(100L, 101L, 102L, 103L).containsAll(two));
+        }
+        assertEquals(Set.of(100L, 101L, 102L, 103L), new HashSet<>(speakingSamplerService.pickQuestions(3L, 10)));
+        assertTrue(speakingSamplerService.pickQuestions(1L, 2).isEmpty());
+        assertTrue(speakingSamplerService.pickQuestions(3L, 0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("pickQuestions - Mỗi câu có xác suất được bốc xấp xỉ bằng nhau")
+    void pickQuestions_RoughlyUniform() {
+        Map<Long, Integer> counts = new HashMap<>();
+        int draws = 20_000;
+        for (int i = 0; i < draws; i++)
+            speakingSamplerService.pickQuestions(3L, 2).forEach(id -> counts.merge(id, 1, Integer::sum));
+
+        // Kỳ vọng mỗi câu: draws * 2 / 4 = 10000 lần
+        counts.values().forEach(count -> assertTrue(Math.abs(count - 10_000) < 500, "count = " + count));
+    }
+
+    @Test
+    @DisplayName("putSpeaking - Đổi type thì chuyển sang pool mới; evictSpeaking xóa cả câu hỏi con")
+    void putAndEvictSpeaking_UpdatesPools() {
+        speakingSamplerService.pickSpeaking(10L, SpeakingType.PASSAGE); // nạp pool
+
+        speakingSamplerService.putSpeaking(speaking(2L, 10L, SpeakingType.QUESTION));
+        speakingSamplerService.putSpeaking(speaking(5L, 30L, SpeakingType.PICTURE));
+
+        assertEquals(Optional.of(1L), speakingSamplerService.pickSpeaking(10L, SpeakingType.PASSAGE));
+        assertEquals(Optional.of(2L), speakingSamplerService.pickSpeaking(10L, SpeakingType.QUESTION));
+        assertEquals(Optional.of(5L), speakingSamplerService.pickSpeaking(30L, SpeakingType.PICTURE));
+
+        speakingSamplerService.evictSpeaking(3L);
+
+        assertTrue(speakingSamplerService.pickSpeaking(10L, SpeakingType.PICTURE).isEmpty());
+        assertTrue(speakingSamplerService.pickQuestions(3L, 2).isEmpty());
+        verify(speakingRepository, times(1)).findAllPoolEntries();
+    }
+
+    @Test
+    @DisplayName("putQuestion / evictQuestion - Cập nhật pool câu hỏi, kể cả khi đổi Speaking cha")
+    void putAndEvictQuestion_UpdatesPools() {
+        speakingSamplerService.pickQuestions(3L, 1); // nạp pool
+
+        speakingSamplerService.putQuestion(question(200L, 4L));
+        speakingSamplerService.putQuestion(question(100L, 4L)); // chuyển từ speaking 3 sang 4
+        speakingSamplerService.evictQuestion(101L);
+
+        assertEquals(Set.of(102L, 103L), new HashSet<>(speakingSamplerService.pickQuestions(3L, 10)));
+        assertEquals(Set.of(100L, 200L), new HashSet<>(speakingSamplerService.pickQuestions(4L, 10)));
+    }
+
+    @Test
+    @DisplayName("Chưa nạp pool - CRUD bỏ qua; invalidate - Lần bốc sau nạp lại từ DB")
+    void notLoadedAndInvalidate_ReloadLazily() {
+        speakingSamplerService.putSpeaking(speaking(9L, 10L, SpeakingType.PASSAGE));
+        speakingSamplerService.evictQuestion(100L);
+        verifyNoInteractions(speakingRepository, speakingQuestionRepository);
+
+        speakingSamplerService.pickSpeaking(10L, SpeakingType.PASSAGE);
+        speakingSamplerService.invalidate();
+        speakingSamplerService.pickSpeaking(10L, SpeakingType.PASSAGE);
+
+        verify(speakingRepository, times(2)).findAllPoolEntries();
+        assertEquals(4, speakingSamplerService.pickQuestions(3L, 10).size());
+    }
+}
@@ -13,6 +13,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvFileSource;
+import com.ktnl.fapanese.service.interfaces.ISpeakingSamplerService;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -37,6 +38,8 @@ class SpeakingServiceTest {
     SpeakingRepository speakingRepository;
     @Mock
     SpeakingMapper speakingMapper;
+    @Mock
+    ISpeakingSamplerService speakingSampler;
 
     @InjectMocks
     SpeakingService speakingService;
@@ -78,6 +81,7 @@ class SpeakingServiceTest {
         assertNotNull(result);
         assertEquals(dummyResponse.getId(), result.getId());
         verify(speakingRepository, times(1)).save(dummySpeaking);
+        verify(speakingSampler, times(1)).putSpeaking(dummySpeaking);
     }
 
     // ============================================================
@@ -201,9 +205,11 @@ class SpeakingServiceTest {
                     () -> speakingService.deleteSpeakingById(id));
             assertEquals(code, ex.getErrorCode());
             verify(speakingRepository, never()).deleteById(anyLong());
+            verify(speakingSampler, never()).evictSpeaking(anyLong());
         } else {
             speakingService.deleteSpeakingById(id);
             verify(speakingRepository, times(1)).deleteById(id);
+            verify(speakingSampler, times(1)).evictSpeaking(id);
         }
     }
 
@@ -0,0 +1,64 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.service.implementations.SpeechChunker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpeechChunkerTest {
+
+    @Test
+    @DisplayName("split - Cắt theo dấu kết thúc câu tiếng Việt và tiếng Nhật")
+    void split_SentenceBoundaries() {
+        List<String> chunks = split("Bạn trả lời rất tốt. ", "Hãy thử nói lại nhé!", " 今日はよく頑張りましたね。次の質問です");
+
+        assertEquals(List.of("Bạn trả lời rất tốt.", "Hãy thử nói lại nhé!", "今日はよく頑張りましたね。", "次の質問です"), chunks);
+    }
+
+    @Test
+    @DisplayName("split - Không cắt bên trong tag [JA:...:JA] dù token bị chia nhỏ")
+    void split_KeepsJaTagIntact() {
+        List<String> chunks = split("Bạn nên nói [J", "A:はじめまして。よろし", "くお願いします。:JA] nhé. ", "Cảm ơn bạn rất nhiều.");
+
+        assertEquals(List.of("Bạn nên nói [JA:はじめまして。よろしくお願いします。:JA] nhé.", "Cảm ơn bạn rất nhiều."), chunks);
+    }
+
+    @Test
+    @DisplayName("split - Số thứ tự \"1.\" và câu quá ngắn không bị tách riêng")
+    void split_ShortPiecesMerged() {
+        List<String> chunks = split("Ừ. Câu 1.5 điểm khá ổn. Tiếp tục nhé");
+
+        assertEquals(List.of("Ừ. Câu 1.5 điểm khá ổn.", "Tiếp tục nhé"), chunks);
+    }
+
+    @Test
+    @DisplayName("push - Không có dấu câu mà quá dài - Cắt tại khoảng trắng")
+    void push_TooLong_CutsAtWhitespace() {
+        SpeechChunker chunker = new SpeechChunker();
+
+        List<String> chunks = chunker.push("từ ".repeat(80));
+
+        assertFalse(chunks.isEmpty());
+        assertTrue(chunks.get(0).length() <= 200);
+        assertNotNull(chunker.flush());
+    }
+
+    @Test
+    @DisplayName("split - Ghép lại các câu bằng đúng nội dung ban đầu (bỏ khoảng trắng thừa)")
+    void split_PreservesText() {
+        String text = "Xin chào. Bạn tên là gì? [JA:お名前は何ですか。:JA] Hãy trả lời bằng tiếng Nhật.";
+
+        List<String> chunks = split(text.split("(?<=\\G.{3})"));
+
+        assertEquals(text, String.join(" ", chunks));
+    }
+
+    private List<String> split(String... tokens) {
+        return SpeechChunker.split(Flux.just(tokens)).collectList().block(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,145 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.configuration.AzureProps;
+import com.ktnl.fapanese.dto.response.SpeechRecognitionStatsResponse;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.service.implementations.SpeechRecognitionJobService;
+import com.ktnl.fapanese.service.implementations.SpeechToTextService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpeechRecognitionJobServiceTest {
+
+    @Mock
+    private SpeechToTextService speechToTextService;
+
+    private AzureProps props;
+    private SpeechRecognitionJobService jobService;
+
+    // Giữ worker bận cho tới khi test cho phép
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        props = new AzureProps();
+        props.getSpeech().setSttParallelism(1);
+        props.getSpeech().setSttQueueCapacity(1);
+        props.getSpeech().setSttTimeout(Duration.ofSeconds(5));
+
+        jobService = new SpeechRecognitionJobService(props, speechToTextService);
+        ReflectionTestUtils.invokeMethod(jobService, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        ReflectionTestUtils.invokeMethod(jobService, "shutdown");
+    }
+
+    @Test
+    @DisplayName("submit - Thành công - Trả về transcript và cập nhật thống kê")
+    void submit_Success() throws Exception {
+        when(speechToTextService.transcribeWav(any())).thenReturn("こんにちは");
+
+        assertEquals("こんにちは", jobService.submit(new byte[]{1}).get(5, TimeUnit.SECONDS));
+
+        SpeechRecognitionStatsResponse stats = jobService.getStats();
+        assertEquals(1, stats.getCompleted());
+        assertEquals(1, stats.getParallelism());
+        assertEquals(1, stats.getQueueCapacity());
+    }
+
+    @Test
+    @DisplayName("submit - Worker và hàng đợi đều đầy - STT_BUSY, không xếp hàng thêm")
+    void submit_Saturated_RejectsWithBusy() throws Exception {
+        when(speechToTextService.transcribeWav(any())).thenAnswer(inv -> {
+            started.countDown();
+            release.await();
+            return "ok";
+        });
+
+        var running = jobService.submit(new byte[]{1});
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        var queued = jobService.submit(new byte[]{2});
+        var rejected = jobService.submit(new byte[]{3});
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertEquals(ErrorCode.STT_BUSY, ((AppException) ex.getCause()).getErrorCode());
+        assertEquals(1, jobService.getStats().getQueueDepth());
+        assertEquals(1, jobService.getStats().getRejected());
+
+        release.countDown();
+        assertEquals("ok", running.get(5, TimeUnit.SECONDS));
+        assertEquals("ok", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("submit - Quá stt-timeout - STT_TIMEOUT và worker bị interrupt để dừng recognizer")
+    void submit_Timeout_InterruptsWorker() throws Exception {
+        props.getSpeech().setSttTimeout(Duration.ofMillis(200));
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(speechToTextService.transcribeWav(any())).thenAnswer(inv -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return "late";
+        });
+
+        var job = jobService.submit(new byte[]{1});
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> job.get(5, TimeUnit.SECONDS));
+        assertEquals(ErrorCode.STT_TIMEOUT, ((AppException) ex.getCause()).getErrorCode());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(1, jobService.getStats().getTimedOut());
+    }
+
+    @Test
+    @DisplayName("submit - Client hủy job đang chờ trong hàng đợi - Job không bao giờ chạy")
+    void submit_CancelledWhileQueued_NeverRuns() throws Exception {
+        when(speechToTextService.transcribeWav(any())).thenAnswer(inv -> {
+            started.countDown();
+            release.await();
+            return "ok";
+        });
+
+        var running = jobService.submit(new byte[]{1});
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        var queued = jobService.submit(new byte[]{2});
+        queued.cancel(true);
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+
+        verify(speechToTextService, times(1)).transcribeWav(any());
+    }
+
+    @Test
+    @DisplayName("submit - SpeechToTextService lỗi - Future lỗi và đếm failed")
+    void submit_Failure() throws Exception {
+        when(speechToTextService.transcribeWav(any())).thenThrow(new RuntimeException("No speech recognized"));
+
+        var job = jobService.submit(new byte[]{1});
+
+        assertThrows(ExecutionException.class, () -> job.get(5, TimeUnit.SECONDS));
+        assertEquals(1, jobService.getStats().getFailed());
+    }
+}
@@ -0,0 +1,136 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.configuration.AzureProps;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.service.implementations.SpeechSynthesizerPool;
+import com.microsoft.cognitiveservices.speech.SpeechConfig;
+import com.microsoft.cognitiveservices.speech.SpeechSynthesisOutputFormat;
+import com.microsoft.cognitiveservices.speech.SpeechSynthesizer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedConstruction;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SpeechSynthesizerPoolTest {
+
+    private static final SpeechSynthesizerPool.PoolKey KEY =
+            new SpeechSynthesizerPool.PoolKey("ja-JP-NanamiNeural", SpeechSynthesisOutputFormat.Riff16Khz16BitMonoPcm);
+
+    private AzureProps props;
+    private SpeechSynthesizerPool pool;
+
+    private MockedStatic<SpeechConfig> staticSpeechConfig;
+    private MockedConstruction<SpeechSynthesizer> synthConstruction;
+
+    @BeforeEach
+    void setUp() {
+        props = new AzureProps();
+        props.getSpeech().setKey("dummy-key");
+        props.getSpeech().setRegion("dummy-region");
+        props.getSpeech().setTtsPoolSize(2);
+        props.getSpeech().setTtsBorrowTimeout(Duration.ofMillis(100));
+        pool = new SpeechSynthesizerPool(props);
+
+        staticSpeechConfig = Mockito.mockStatic(SpeechConfig.class);
+        staticSpeechConfig.when(() -> SpeechConfig.fromSubscription(anyString(), anyString()))
+                .thenAnswer(inv -> mock(SpeechConfig.class));
+        synthConstruction = Mockito.mockConstruction(SpeechSynthesizer.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        staticSpeechConfig.close();
+        synthConstruction.close();
+    }
+
+    @Test
+    @DisplayName("borrow/release - Synthesizer khỏe được dùng lại")
+    void borrow_ReusesHealthySynthesizer() throws Exception {
+        SpeechSynthesizer first = pool.borrow(KEY);
+        pool.release(KEY, first, true);
+        SpeechSynthesizer second = pool.borrow(KEY);
+
+        assertSame(first, second);
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(1, pool.getReusedCount());
+    }
+
+    @Test
+    @DisplayName("release - Không khỏe - Bị đóng, lần mượn sau tạo mới")
+    void release_Unhealthy_Discarded() throws Exception {
+        SpeechSynthesizer first = pool.borrow(KEY);
+        pool.release(KEY, first, false);
+        SpeechSynthesizer second = pool.borrow(KEY);
+
+        assertNotSame(first, second);
+        verify(first).close();
+        assertEquals(1, pool.getDiscardedCount());
+    }
+
+    @Test
+    @DisplayName("borrow - Cùng key - Chỉ tạo SpeechConfig một lần")
+    void borrow_SharesSpeechConfig() throws Exception {
+        pool.borrow(KEY);
+        pool.borrow(KEY);
+
+        assertEquals(2, pool.getCreatedCount());
+        staticSpeechConfig.verify(() -> SpeechConfig.fromSubscription(anyString(), anyString()), times(1));
+    }
+
+    @Test
+    @DisplayName("borrow - Pool đã cho mượn hết - TTS_BUSY sau tts-borrow-timeout")
+    void borrow_Exhausted_Busy() throws Exception {
+        pool.borrow(KEY);
+        pool.borrow(KEY);
+
+        AppException ex = assertThrows(AppException.class, () -> pool.borrow(KEY));
+        assertEquals(ErrorCode.TTS_BUSY, ex.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("borrow - Synthesizer nằm không quá tts-max-idle - Bị thay bằng cái mới")
+    void borrow_StaleIdle_Replaced() throws Exception {
+        props.getSpeech().setTtsMaxIdle(Duration.ZERO);
+        SpeechSynthesizer first = pool.borrow(KEY);
+        pool.release(KEY, first, true);
+        Thread.sleep(5);
+
+        SpeechSynthesizer second = pool.borrow(KEY);
+
+        assertNotSame(first, second);
+        verify(first).close();
+    }
+
+    @Test
+    @DisplayName("prewarm - Tạo sẵn synthesizer, request đầu tiên không phải khởi tạo")
+    void prewarm_CreatesIdleSynthesizers() throws Exception {
+        pool.prewarm(KEY, 1);
+
+        pool.borrow(KEY);
+
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(1, pool.getReusedCount());
+    }
+
+    @Test
+    @DisplayName("shutdown - Đóng toàn bộ synthesizer đang rảnh")
+    void shutdown_ClosesIdle() throws Exception {
+        SpeechSynthesizer synthesizer = pool.borrow(KEY);
+        pool.release(KEY, synthesizer, true);
+
+        ReflectionTestUtils.invokeMethod(pool, "shutdown");
+
+        verify(synthesizer).close();
+    }
+}
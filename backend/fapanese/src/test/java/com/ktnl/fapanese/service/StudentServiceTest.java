@@ -1,7 +1,9 @@
 package com.ktnl.fapanese.service;
 
 import com.ktnl.fapanese.dto.request.CreateStudentRequest;
+import com.ktnl.fapanese.dto.request.StudentFilterRequest;
 import com.ktnl.fapanese.dto.response.CreateStudentAccountResponse;
+import com.ktnl.fapanese.dto.response.PageResponse;
 import com.ktnl.fapanese.dto.response.UserResponse;
 import com.ktnl.fapanese.entity.Role;
 import com.ktnl.fapanese.entity.Student;
@@ -12,8 +14,8 @@ import com.ktnl.fapanese.mail.AccountCreatedEmailTemplate;
 import com.ktnl.fapanese.mapper.UserMapper;
 import com.ktnl.fapanese.repository.RoleRepository;
 import com.ktnl.fapanese.repository.UserRepository;
-import com.ktnl.fapanese.service.implementations.EmailService;
 import com.ktnl.fapanese.service.implementations.StudentService;
+import com.ktnl.fapanese.service.interfaces.IEmailOutboxService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -28,6 +30,10 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.ArrayList;
@@ -40,7 +46,10 @@ import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -56,7 +65,7 @@ class StudentServiceTest {
     @Mock
     PasswordEncoder passwordEncoder;
     @Mock
-    EmailService emailService;
+    IEmailOutboxService emailOutbox;
 
     @InjectMocks
     StudentService studentService;
@@ -118,7 +127,6 @@ class StudentServiceTest {
         when(roleRepo.findByRoleName("STUDENT")).thenReturn(studentRole);
 
         // SỬA LỖI 1: Tách 2 dòng
-        when(emailService.sendEmail(anyString(), any(AccountCreatedEmailTemplate.class), anyString(), anyString())).thenReturn(null);
         when(mapper.toUserResponse(any(User.class))).thenReturn(dummyResponse);
 
         // SỬA LỖI 2: THÊM DÒNG QUAN TRỌNG NÀY
@@ -164,7 +172,7 @@ class StudentServiceTest {
                     () -> studentService.createStudentAccount(request));
             assertEquals(code, ex.getErrorCode());
             verify(userRepo, never()).save(any());
-            verify(emailService, never()).sendEmail(anyString(), any(), anyString(), anyString());
+            verify(emailOutbox, never()).enqueue(anyString(), any(), anyString(), anyString());
         } else {
             CreateStudentAccountResponse result = studentService.createStudentAccount(request);
 
@@ -179,8 +187,8 @@ class StudentServiceTest {
             assertNotNull(savedUser.getStudent());
             assertNotNull(savedUser.getStudent().getUser());
 
-            // Verify email được gửi
-            verify(emailService, times(1)).sendEmail(eq(email), any(), eq(email), passwordCaptor.capture());
+            // Verify email được ghi vào outbox (gửi sau khi commit)
+            verify(emailOutbox, times(1)).enqueue(eq(email), any(AccountCreatedEmailTemplate.class), eq(email), passwordCaptor.capture());
             assertEquals(8, passwordCaptor.getValue().length());
         }
     }
@@ -193,62 +201,115 @@ class StudentServiceTest {
     @InjectMocks
     StudentService studentServiceSpy; // Dùng Spy để test hàm này
 
+    private CreateStudentRequest mockBulkRequest(String email) {
+        CreateStudentRequest request = new CreateStudentRequest();
+        request.setEmail(email);
+        User user = new User();
+        user.setEmail(email);
+        when(mapper.toUser(request)).thenReturn(user);
+        when(mapper.toStudent(request)).thenReturn(new Student());
+        return request;
+    }
+
     @Test
-    @DisplayName("createStudentAccountList - Success")
+    @DisplayName("createStudentAccountList - Success: kiểm tra email cho cả lô, đọc role một lần, một lần saveAll")
     void createStudentAccountList_Success() {
         // 1. --- ARRANGE ---
-        CreateStudentRequest req1 = new CreateStudentRequest();
-        req1.setEmail("e1@test.com");
-        CreateStudentRequest req2 = new CreateStudentRequest();
-        req2.setEmail("e2@test.com");
-        List<CreateStudentRequest> list = List.of(req1, req2);
-
-        // Giả lập hàm createStudentAccount (vì nó đã được test riêng)
-        doReturn(dummyCreateResponse).when(studentServiceSpy).createStudentAccount(any(CreateStudentRequest.class));
+        CreateStudentRequest req1 = mockBulkRequest("e1@test.com");
+        CreateStudentRequest req2 = mockBulkRequest("e2@test.com");
+        when(userRepo.findExistingEmails(anyCollection())).thenReturn(List.of());
 
         // 2. --- ACT ---
-        boolean result = studentServiceSpy.createStudentAccountList(list);
+        List<String> skipped = studentServiceSpy.createStudentAccountList(List.of(req1, req2));
 
         // 3. --- ASSERT ---
-        assertTrue(result);
-        // Verify hàm createStudentAccount được gọi 2 lần
-        verify(studentServiceSpy, times(2)).createStudentAccount(any(CreateStudentRequest.class));
+        assertTrue(skipped.isEmpty());
+        verify(userRepo, times(1)).findExistingEmails(List.of("e1@test.com", "e2@test.com"));
+        verify(roleRepo, times(1)).findByRoleName("STUDENT");
+        verify(userRepo, never()).findByEmail(anyString());
+        verify(userRepo, never()).save(any(User.class));
+
+        ArgumentCaptor<List<User>> usersCaptor = ArgumentCaptor.forClass(List.class);
+        verify(userRepo, times(1)).saveAll(usersCaptor.capture());
+        List<User> savedUsers = usersCaptor.getValue();
+        assertEquals(2, savedUsers.size());
+        for (User saved : savedUsers) {
+            assertEquals("hashed_password_abc123", saved.getPassword_hash());
+            assertTrue(saved.getRoles().contains(studentRole));
+            assertEquals(0, saved.getStatus());
+            assertSame(saved, saved.getStudent().getUser());
+        }
+
+        // Mỗi tài khoản một email trong outbox, mật khẩu trong email khớp với mật khẩu đã băm
+        ArgumentCaptor<String> passwords = ArgumentCaptor.forClass(String.class);
+        verify(emailOutbox).enqueue(eq("e1@test.com"), any(AccountCreatedEmailTemplate.class), eq("e1@test.com"), passwords.capture());
+        verify(emailOutbox).enqueue(eq("e2@test.com"), any(AccountCreatedEmailTemplate.class), eq("e2@test.com"), passwords.capture());
+        verify(passwordEncoder).encode(passwords.getAllValues().get(0));
+        verify(passwordEncoder).encode(passwords.getAllValues().get(1));
     }
 
     @Test
-    @DisplayName("createStudentAccountList - Fail on second student")
-    void createStudentAccountList_Fail() {
+    @DisplayName("createStudentAccountList - Email đã tồn tại bị bỏ qua và trả về, các email khác vẫn được tạo")
+    void createStudentAccountList_ExistingEmail_SkipsOnlyThatStudent() {
         // 1. --- ARRANGE ---
-        CreateStudentRequest req1 = new CreateStudentRequest();
-        req1.setEmail("e1@test.com");
-        CreateStudentRequest reqFail = new CreateStudentRequest(); // Request này sẽ fail
-        reqFail.setEmail("fail@test.com");
-        List<CreateStudentRequest> list = List.of(req1, reqFail);
-
-        // Giả lập:
-        // - Lần 1 (req1) thành công
-        doReturn(dummyCreateResponse).when(studentServiceSpy).createStudentAccount(req1);
-        // - Lần 2 (reqFail) ném lỗi
-        doThrow(new AppException(ErrorCode.EMAIL_EXISTED)).when(studentServiceSpy).createStudentAccount(reqFail);
+        CreateStudentRequest req1 = mockBulkRequest("e1@test.com");
+        CreateStudentRequest reqExisting = new CreateStudentRequest();
+        reqExisting.setEmail("fail@test.com");
+        when(userRepo.findExistingEmails(anyCollection())).thenReturn(List.of("fail@test.com"));
 
-        // 2. --- ACT & ASSERT ---
-        AppException ex = assertThrows(AppException.class,
-                () -> studentServiceSpy.createStudentAccountList(list));
+        // 2. --- ACT ---
+        List<String> skipped = studentServiceSpy.createStudentAccountList(List.of(req1, reqExisting));
 
-        assertEquals(ErrorCode.EMAIL_EXISTED, ex.getErrorCode());
+        // 3. --- ASSERT ---
+        assertEquals(List.of("fail@test.com"), skipped);
+        ArgumentCaptor<List<User>> usersCaptor = ArgumentCaptor.forClass(List.class);
+        verify(userRepo, times(1)).saveAll(usersCaptor.capture());
+        assertEquals(List.of("e1@test.com"), usersCaptor.getValue().stream().map(User::getEmail).toList());
+        verify(emailOutbox, times(1)).enqueue(anyString(), any(), anyString(), anyString());
+        verify(emailOutbox, never()).enqueue(eq("fail@test.com"), any(), anyString(), anyString());
+    }
 
-        // Verify hàm createStudentAccount chỉ được gọi 2 lần (lần 1 thành công, lần 2 fail)
-        verify(studentServiceSpy, times(1)).createStudentAccount(req1);
-        verify(studentServiceSpy, times(1)).createStudentAccount(reqFail);
+    @Test
+    @DisplayName("createStudentAccountList - Email đã lưu khác hoa thường vẫn bị bỏ qua, trả về dạng viết thường")
+    void createStudentAccountList_ExistingEmailDifferentCase_Skipped() {
+        CreateStudentRequest req1 = mockBulkRequest("e1@test.com");
+        CreateStudentRequest reqExisting = new CreateStudentRequest();
+        reqExisting.setEmail("nguyen@x.com");
+        // Collation MySQL không phân biệt hoa thường: query trả về email như đã lưu
+        when(userRepo.findExistingEmails(anyCollection())).thenReturn(List.of("Nguyen@X.com"));
+
+        List<String> skipped = studentServiceSpy.createStudentAccountList(List.of(req1, reqExisting));
+
+        assertEquals(List.of("nguyen@x.com"), skipped);
+        verify(userRepo).findExistingEmails(List.of("e1@test.com", "nguyen@x.com"));
+        ArgumentCaptor<List<User>> usersCaptor = ArgumentCaptor.forClass(List.class);
+        verify(userRepo, times(1)).saveAll(usersCaptor.capture());
+        assertEquals(List.of("e1@test.com"), usersCaptor.getValue().stream().map(User::getEmail).toList());
+        verify(emailOutbox, never()).enqueue(eq("nguyen@x.com"), any(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("createStudentAccountList - Mọi email đều đã tồn tại → không lưu ai cả")
+    void createStudentAccountList_AllExisting_SavesNothing() {
+        CreateStudentRequest request = new CreateStudentRequest();
+        request.setEmail("fail@test.com");
+        when(userRepo.findExistingEmails(anyCollection())).thenReturn(List.of("fail@test.com"));
+
+        List<String> skipped = studentServiceSpy.createStudentAccountList(List.of(request));
+
+        assertEquals(List.of("fail@test.com"), skipped);
+        verify(userRepo, never()).saveAll(anyList());
+        verify(emailOutbox, never()).enqueue(anyString(), any(), anyString(), anyString());
     }
 
     @Test
     @DisplayName("createStudentAccountList - Empty List")
     void createStudentAccountList_Empty() {
         List<CreateStudentRequest> list = Collections.emptyList();
-        boolean result = studentServiceSpy.createStudentAccountList(list);
-        assertTrue(result);
+        List<String> skipped = studentServiceSpy.createStudentAccountList(list);
+        assertTrue(skipped.isEmpty());
         verify(studentServiceSpy, never()).createStudentAccount(any());
+        verify(userRepo, never()).saveAll(anyList());
     }
 
     // ============================================================
@@ -378,7 +439,7 @@ class StudentServiceTest {
             AppException ex = assertThrows(AppException.class,
                     () -> studentService.deleteStudent(email));
             assertEquals(code, ex.getErrorCode());
-            verify(userRepo, never()).delete(any());
+            verify(userRepo, never()).delete(any(User.class));
         } else {
             studentService.deleteStudent(email);
             // Verify đúng user đã bị xóa
@@ -403,4 +464,27 @@ class StudentServiceTest {
                 return null;
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("searchStudents - đọc một trang qua Specification thay vì nạp toàn bộ sinh viên")
+    void searchStudents_ShouldQuerySinglePage() {
+        User user = new User();
+        user.setEmail("sv01@fpt.edu.vn");
+        UserResponse response = new UserResponse();
+        Pageable pageable = PageRequest.of(0, 20);
+
+        when(userRepo.findAll(any(Specification.class), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(user), pageable, 45));
+        when(mapper.toUserResponse(user)).thenReturn(response);
+
+        PageResponse<UserResponse> result = studentService.searchStudents(
+                StudentFilterRequest.builder().campus("HCM").keyword("sv01").build(), pageable);
+
+        assertEquals(List.of(response), result.getItems());
+        assertEquals(45, result.getTotalElements());
+        assertEquals(3, result.getTotalPages());
+        assertTrue(result.isHasNext());
+        verify(userRepo, never()).findByRoles_RoleName(anyString());
+    }
+}
+
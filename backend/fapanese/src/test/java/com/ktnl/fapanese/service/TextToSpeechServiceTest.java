@@ -1,6 +1,7 @@
 package com.ktnl.fapanese.service;
 
 import com.ktnl.fapanese.configuration.AzureProps;
+import com.ktnl.fapanese.service.implementations.SpeechSynthesizerPool;
 import com.ktnl.fapanese.service.implementations.TextToSpeechService;
 import com.microsoft.cognitiveservices.speech.*;
 import lombok.SneakyThrows;
@@ -15,9 +16,13 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -33,7 +38,6 @@ class TextToSpeechServiceTest {
     @Mock
     private AzureProps.Speech speechProps;
 
-    @InjectMocks
     private TextToSpeechService textToSpeechService;
 
     // Mocks cho Azure SDK
@@ -61,6 +65,11 @@ class TextToSpeechServiceTest {
         when(props.getSpeech()).thenReturn(speechProps);
         when(speechProps.getKey()).thenReturn("dummy-key");
         when(speechProps.getRegion()).thenReturn("dummy-region");
+        when(speechProps.getTtsPoolSize()).thenReturn(2);
+        when(speechProps.getTtsBorrowTimeout()).thenReturn(Duration.ofSeconds(1));
+        when(speechProps.getTtsMaxIdle()).thenReturn(Duration.ofMinutes(5));
+
+        textToSpeechService = new TextToSpeechService(props, new SpeechSynthesizerPool(props));
 
         future = CompletableFuture.completedFuture(mockResult);
 
@@ -171,6 +180,58 @@ class TextToSpeechServiceTest {
         assertTrue(capturedSsml.contains("<voice name='ja-JP-NanamiNeural'>こんにちは</voice>"));
     }
 
+    @Test
+    @DisplayName("synthSsmlPolyglotAsync - Chạy trên thread pool TTS riêng, không trên thread gọi")
+    void synthSsmlPolyglotAsync_RunsOnTtsThread() throws Exception {
+        byte[] dummyAudio = new byte[]{1, 2, 3};
+        when(mockResult.getReason()).thenReturn(ResultReason.SynthesizingAudioCompleted);
+        when(mockResult.getAudioData()).thenReturn(dummyAudio);
+        ReflectionTestUtils.invokeMethod(textToSpeechService, "startExecutor");
+        try {
+            // Mock constructor chỉ có hiệu lực trên thread test: tạo sẵn synthesizer trong pool trước
+            textToSpeechService.synthSsmlPolyglot("Xin chào");
+            AtomicReference<String> synthThread = new AtomicReference<>();
+            when(mockSynthesizer.SpeakSsmlAsync(anyString())).thenAnswer(inv -> {
+                synthThread.set(Thread.currentThread().getName());
+                return future;
+            });
+
+            byte[] result = textToSpeechService.synthSsmlPolyglotAsync("Tạm biệt").get(5, TimeUnit.SECONDS);
+
+            assertEquals(dummyAudio, result);
+            assertTrue(synthThread.get().startsWith("tts-"), "TTS chạy trên " + synthThread.get());
+        } finally {
+            ReflectionTestUtils.invokeMethod(textToSpeechService, "shutdown");
+        }
+    }
+
+    @Test
+    @DisplayName("synthSsmlPolyglot - Gọi nhiều lần - Dùng lại SpeechConfig và SpeechSynthesizer từ pool")
+    void synthSsmlPolyglot_ReusesPooledSynthesizer() throws Exception {
+        when(mockResult.getReason()).thenReturn(ResultReason.SynthesizingAudioCompleted);
+        when(mockResult.getAudioData()).thenReturn(new byte[]{1});
+
+        textToSpeechService.synthSsmlPolyglot("Xin chào");
+        textToSpeechService.synthSsmlPolyglot("Tạm biệt");
+
+        assertEquals(1, synthConstruction.constructed().size());
+        staticSpeechConfig.verify(() -> SpeechConfig.fromSubscription(anyString(), anyString()), Mockito.times(1));
+    }
+
+    @Test
+    @DisplayName("synthSsmlPolyglot - Lỗi kết nối - Bỏ synthesizer, lần sau tạo cái mới")
+    void synthSsmlPolyglot_ConnectionError_ReplacesSynthesizer() {
+        when(mockResult.getReason()).thenReturn(ResultReason.Canceled);
+        when(mockDetails.getErrorCode()).thenReturn(CancellationErrorCode.ConnectionFailure);
+        when(mockDetails.getErrorDetails()).thenReturn("Connection lost");
+
+        assertThrows(RuntimeException.class, () -> textToSpeechService.synthSsmlPolyglot("Xin chào"));
+        assertThrows(RuntimeException.class, () -> textToSpeechService.synthSsmlPolyglot("Xin chào"));
+
+        assertEquals(2, synthConstruction.constructed().size());
+        Mockito.verify(synthConstruction.constructed().get(0)).close();
+    }
+
     @Test
     @DisplayName("synthSsmlPolyglot - Canceled")
     void synthSsmlPolyglot_Canceled() {
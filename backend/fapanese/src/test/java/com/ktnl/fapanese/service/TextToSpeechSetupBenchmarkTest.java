@@ -0,0 +1,121 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.configuration.AzureProps;
+import com.ktnl.fapanese.service.implementations.SpeechSynthesizerPool;
+import com.ktnl.fapanese.service.implementations.TextToSpeechService;
+import com.microsoft.cognitiveservices.speech.ResultReason;
+import com.microsoft.cognitiveservices.speech.SpeechConfig;
+import com.microsoft.cognitiveservices.speech.SpeechSynthesisOutputFormat;
+import com.microsoft.cognitiveservices.speech.SpeechSynthesizer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark chi phí khởi tạo TTS cho mỗi request: tạo mới SpeechConfig + SpeechSynthesizer (cách cũ)
+ * so với mượn từ SpeechSynthesizerPool. Không chạy trong build thường:
+ *
+ *   mvn test -Dtest=TextToSpeechSetupBenchmarkTest -Dbenchmark=true
+ *
+ * Bản end-to-end (gọi Azure thật) chỉ chạy khi có biến môi trường AZURE_SPEECH_KEY / AZURE_SPEECH_REGION.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TextToSpeechSetupBenchmarkTest {
+
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 500;
+    private static final SpeechSynthesizerPool.PoolKey KEY =
+            new SpeechSynthesizerPool.PoolKey("ja-JP-NanamiNeural", SpeechSynthesisOutputFormat.Riff16Khz16BitMonoPcm);
+
+    @Test
+    @DisplayName("Benchmark - Chi phí khởi tạo synthesizer mỗi request (SDK native, không gọi mạng)")
+    void setupCost_FreshVsPooled() throws Exception {
+        AzureProps props = props(System.getenv().getOrDefault("AZURE_SPEECH_KEY", "benchmark-key"),
+                System.getenv().getOrDefault("AZURE_SPEECH_REGION", "southeastasia"));
+        SpeechSynthesizerPool pool = new SpeechSynthesizerPool(props);
+
+        long[] fresh = measure(() -> {
+            SpeechConfig cfg = SpeechConfig.fromSubscription(props.getSpeech().getKey(), props.getSpeech().getRegion());
+            cfg.setSpeechSynthesisVoiceName(KEY.voice());
+            cfg.setSpeechSynthesisOutputFormat(KEY.format());
+            new SpeechSynthesizer(cfg, null).close();
+            cfg.close();
+        });
+        long[] pooled = measure(() -> pool.release(KEY, pool.borrow(KEY), true));
+
+        report("setup / request", fresh, pooled);
+        assertEquals(1, pool.getCreatedCount());
+        ReflectionTestUtils.invokeMethod(pool, "shutdown");
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "AZURE_SPEECH_KEY", matches = ".+")
+    @DisplayName("Benchmark - Thời gian synthJa end-to-end (Azure thật)")
+    void endToEnd_FreshVsPooled() throws Exception {
+        AzureProps props = props(System.getenv("AZURE_SPEECH_KEY"), System.getenv("AZURE_SPEECH_REGION"));
+        TextToSpeechService pooledService = new TextToSpeechService(props, new SpeechSynthesizerPool(props));
+        String text = "こんにちは。";
+
+        long[] fresh = new long[10];
+        long[] pooled = new long[10];
+        for (int i = 0; i < fresh.length; i++) {
+            long start = System.nanoTime();
+            SpeechConfig cfg = SpeechConfig.fromSubscription(props.getSpeech().getKey(), props.getSpeech().getRegion());
+            cfg.setSpeechSynthesisVoiceName(KEY.voice());
+            cfg.setSpeechSynthesisOutputFormat(KEY.format());
+            try (SpeechSynthesizer synth = new SpeechSynthesizer(cfg, null)) {
+                assertEquals(ResultReason.SynthesizingAudioCompleted, synth.SpeakTextAsync(text).get().getReason());
+            }
+            fresh[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            pooledService.synthJa(text);
+            pooled[i] = System.nanoTime() - start;
+        }
+
+        report("synthJa end-to-end", fresh, pooled);
+    }
+
+    private static AzureProps props(String key, String region) {
+        AzureProps props = new AzureProps();
+        props.getSpeech().setKey(key);
+        props.getSpeech().setRegion(region);
+        return props;
+    }
+
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    private static long[] measure(Step step) throws Exception {
+        for (int i = 0; i < WARMUP; i++)
+            step.run();
+
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            step.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        return samples;
+    }
+
+    private static void report(String name, long[] fresh, long[] pooled) {
+        System.out.printf("%-20s %12s %12s%n", name, "fresh (us)", "pooled (us)");
+        for (double p : new double[]{0.5, 0.95, 0.99}) {
+            System.out.printf("%-20s %12d %12d%n", "p" + Math.round(p * 100), percentile(fresh, p), percentile(pooled, p));
+        }
+    }
+
+    private static long percentile(long[] samples, double p) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))] / 1000;
+    }
+}
@@ -5,6 +5,7 @@ import com.ktnl.fapanese.dto.response.IntrospectResponse;
 import com.ktnl.fapanese.exception.AppException;
 import com.ktnl.fapanese.exception.ErrorCode;
 import com.ktnl.fapanese.service.implementations.TokenValidationService;
+import com.ktnl.fapanese.service.interfaces.IRevokedTokenService;
 import com.nimbusds.jose.*;
 import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jwt.JWTClaimsSet;
@@ -16,25 +17,30 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvFileSource;
-import org.mockito.Spy;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class TokenValidationServiceTest {
 
-    // Dùng @Spy để tạo một đối tượng thật, cho phép chúng ta
+    @Mock
+    private IRevokedTokenService revokedTokenService;
+
+    // Dùng spy() để tạo một đối tượng thật, cho phép chúng ta
     // mock một phần (hàm introspect) và gọi thật (hàm verifyToken)
-    @Spy
-    private TokenValidationService tokenValidationService = new TokenValidationService();
+    private TokenValidationService tokenValidationService;
 
     // Các hằng số (constants) dùng để test
     private static final String TEST_KEY = "day-la-key-bi-mat-sieu-dai-de-test-jwt-hs256";
@@ -44,6 +50,8 @@ class TokenValidationServiceTest {
 
     @BeforeEach
     void setUp() {
+        tokenValidationService = spy(new TokenValidationService(revokedTokenService));
+
         // Dùng ReflectionTestUtils để "ép" giá trị vào các trường @Value
         ReflectionTestUtils.setField(tokenValidationService, "SIGNER_KEY", TEST_KEY);
         ReflectionTestUtils.setField(tokenValidationService, "VALID_DURATION", VALID_DURATION_SECONDS);
@@ -183,6 +191,26 @@ class TokenValidationServiceTest {
     }
 
 
+    @Test
+    @DisplayName("verifyToken - Token còn hạn nhưng đã bị thu hồi (logout) - Fail")
+    @SneakyThrows
+    void verifyToken_RevokedToken_Fail() {
+        Date now = new Date();
+        Date iat = new Date(now.getTime() - 5_000);
+        Date exp = new Date(now.getTime() + 3600_000);
+        String token = generateToken(TEST_KEY, iat, exp, "user1");
+        String jti = SignedJWT.parse(token).getJWTClaimsSet().getJWTID();
+
+        when(revokedTokenService.isRevoked(jti)).thenReturn(true);
+
+        // ACT & ASSERT
+        AppException ex = assertThrows(AppException.class,
+                () -> tokenValidationService.verifyToken(token, false));
+
+        assertEquals(ErrorCode.AUTHENTICATED, ex.getErrorCode());
+    }
+
+
     // ============================================================
     // 3. HÀM PHỤ TRỢ (Helper Method)
     // ============================================================
@@ -198,6 +226,7 @@ class TokenValidationServiceTest {
         // 2. Tạo ClaimsSet (payload)
         JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
                 .subject(subject)
+                .jwtID(UUID.randomUUID().toString())
                 .issueTime(iat)
                 .expirationTime(exp)
                 .build();
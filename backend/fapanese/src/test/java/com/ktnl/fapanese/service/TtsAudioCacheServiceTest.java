@@ -0,0 +1,158 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.service.implementations.TextToSpeechService;
+import com.ktnl.fapanese.service.implementations.TtsAudioCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TtsAudioCacheServiceTest {
+
+    @Mock
+    private TextToSpeechService tts;
+
+    @InjectMocks
+    private TtsAudioCacheService ttsAudioCacheService;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ttsAudioCacheService, "DIR", dir);
+        ReflectionTestUtils.setField(ttsAudioCacheService, "MEMORY_MAX_BYTES", 10L);
+    }
+
+    @Test
+    @DisplayName("getOrSynthesize - Miss - Gọi Azure và ghi file {key}.wav")
+    void getOrSynthesize_Miss_SynthesizesAndWritesFile() throws Exception {
+        when(tts.synthJa("こんにちは")).thenReturn(new byte[]{1, 2, 3});
+
+        byte[] audio = ttsAudioCacheService.getOrSynthesize(1, "こんにちは");
+
+        assertArrayEquals(new byte[]{1, 2, 3}, audio);
+        String key = ttsAudioCacheService.audioKey(1, "こんにちは");
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(dir.resolve(key + ".wav")));
+        assertEquals(1, ttsAudioCacheService.getStats().getMisses());
+        assertEquals(3L, ttsAudioCacheService.getStats().getSizeBytes());
+    }
+
+    @Test
+    @DisplayName("getOrSynthesize - Cùng câu (khác khoảng trắng / full-width) - Không gọi Azure lần hai")
+    void getOrSynthesize_NormalizedHit() throws Exception {
+        when(tts.synthJa(anyString())).thenReturn(new byte[]{1});
+
+        ttsAudioCacheService.getOrSynthesize(1, "ＡＢＣ です");
+        byte[] audio = ttsAudioCacheService.getOrSynthesize(1, "  ABC   です ");
+
+        assertArrayEquals(new byte[]{1}, audio);
+        verify(tts, times(1)).synthJa(anyString());
+        assertEquals(1, ttsAudioCacheService.getStats().getHits());
+    }
+
+    @Test
+    @DisplayName("audioKey - Mode khác nhau - Key khác nhau")
+    void audioKey_DependsOnMode() {
+        assertNotEquals(ttsAudioCacheService.audioKey(1, "はい"), ttsAudioCacheService.audioKey(2, "はい"));
+    }
+
+    @Test
+    @DisplayName("audioKey - Mode không hợp lệ - Ném TTS_MODE_INVALID")
+    void audioKey_InvalidMode_Throws() {
+        AppException ex = assertThrows(AppException.class, () -> ttsAudioCacheService.audioKey(3, "はい"));
+        assertEquals(ErrorCode.TTS_MODE_INVALID, ex.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Bộ nhớ vượt giới hạn byte - Bỏ entry cũ nhất nhưng vẫn đọc lại được từ đĩa")
+    void memoryLimit_EvictsButDiskStillServes() throws Exception {
+        when(tts.synthJa("a")).thenReturn(new byte[6]);
+        when(tts.synthJa("b")).thenReturn(new byte[6]);
+
+        ttsAudioCacheService.getOrSynthesize(1, "a");
+        ttsAudioCacheService.getOrSynthesize(1, "b");
+
+        assertEquals(1, ttsAudioCacheService.getStats().getEvictions());
+        assertEquals(6L, ttsAudioCacheService.getStats().getSizeBytes());
+
+        byte[] audio = ttsAudioCacheService.getOrSynthesize(1, "a");
+        assertEquals(6, audio.length);
+        verify(tts, times(1)).synthJa("a");
+    }
+
+    @Test
+    @DisplayName("find - File có sẵn trên đĩa (sau restart) - Trả về audio")
+    void find_FromDisk() throws Exception {
+        String key = ttsAudioCacheService.audioKey(2, "xin chào");
+        Files.write(dir.resolve(key + ".wav"), new byte[]{9});
+
+        assertTrue(ttsAudioCacheService.contains(key));
+        assertArrayEquals(new byte[]{9}, ttsAudioCacheService.find(key).orElseThrow());
+        verifyNoInteractions(tts);
+    }
+
+    @Test
+    @DisplayName("find - Key không phải SHA-256 hex - Không đọc file")
+    void find_InvalidKey_Empty() {
+        assertTrue(ttsAudioCacheService.find("../../etc/passwd").isEmpty());
+        assertFalse(ttsAudioCacheService.contains("../../etc/passwd"));
+    }
+
+    @Test
+    @DisplayName("getOrSynthesize - Nhiều request cùng câu đồng thời - Chỉ gọi Azure 1 lần")
+    void getOrSynthesize_SingleFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(tts.synthSsmlPolyglot("câu")).thenAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new byte[]{7};
+        });
+
+        CompletableFuture<byte[]> first = CompletableFuture.supplyAsync(() -> synth(2, "câu"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<byte[]> second = CompletableFuture.supplyAsync(() -> synth(2, "câu"));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertArrayEquals(new byte[]{7}, first.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(new byte[]{7}, second.get(5, TimeUnit.SECONDS));
+        verify(tts, times(1)).synthSsmlPolyglot("câu");
+    }
+
+    @Test
+    @DisplayName("getOrSynthesize - Azure lỗi - Không ghi cache")
+    void getOrSynthesize_Failure_NotCached() throws Exception {
+        when(tts.synthJa("x")).thenThrow(new RuntimeException("TTS canceled"));
+
+        assertThrows(RuntimeException.class, () -> ttsAudioCacheService.getOrSynthesize(1, "x"));
+        assertFalse(ttsAudioCacheService.contains(ttsAudioCacheService.audioKey(1, "x")));
+    }
+
+    private byte[] synth(int mode, String text) {
+        try {
+            return ttsAudioCacheService.getOrSynthesize(mode, text);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.dto.response.TtsPrerenderJobResponse;
+import com.ktnl.fapanese.exception.AppException;
+import com.ktnl.fapanese.exception.ErrorCode;
+import com.ktnl.fapanese.repository.*;
+import com.ktnl.fapanese.service.interfaces.ITtsAudioCacheService;
+import com.ktnl.fapanese.service.implementations.TtsPrerenderService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TtsPrerenderServiceTest {
+
+    @Mock private LessonRepository lessonRepository;
+    @Mock private VocabularyRepository vocabularyRepository;
+    @Mock private GrammarRepository grammarRepository;
+    @Mock private SpeakingExamRepository speakingExamRepository;
+    @Mock private SpeakingRepository speakingRepository;
+    @Mock private SpeakingQuestionRepository speakingQuestionRepository;
+    @Mock private ITtsAudioCacheService ttsAudioCache;
+
+    @InjectMocks
+    private TtsPrerenderService ttsPrerenderService;
+
+    @Test
+    @DisplayName("prerenderLesson - Bỏ câu trùng / rỗng, bỏ qua câu đã có trong cache")
+    void prerenderLesson_RendersMissingOnly() throws Exception {
+        when(lessonRepository.existsById(1L)).thenReturn(true);
+        when(vocabularyRepository.findWordKanaByLessonId(1L)).thenReturn(List.of("ねこ", "いぬ", "ねこ"));
+        when(grammarRepository.findExampleSentencesByLessonId(1L)).thenReturn(Arrays.asList("これはねこです。", null, " "));
+        when(ttsAudioCache.audioKey(anyInt(), anyString())).thenAnswer(inv -> "k:" + inv.getArgument(1));
+        when(ttsAudioCache.contains(anyString())).thenAnswer(inv -> "k:いぬ".equals(inv.getArgument(0)));
+
+        TtsPrerenderJobResponse started = ttsPrerenderService.prerenderLesson(1L);
+        TtsPrerenderJobResponse job = awaitFinished(started.getJobId());
+
+        assertEquals("lesson:1", job.getTarget());
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(3, job.getTotal());
+        assertEquals(2, job.getRendered());
+        assertEquals(1, job.getCached());
+        assertNotNull(job.getFinishedAt());
+        verify(ttsAudioCache).getOrSynthesize(1, "ねこ");
+        verify(ttsAudioCache).getOrSynthesize(1, "これはねこです。");
+        verify(ttsAudioCache, never()).getOrSynthesize(1, "いぬ");
+    }
+
+    @Test
+    @DisplayName("prerenderSpeakingExam - Một câu lỗi - Đếm failed, vẫn chạy tiếp")
+    void prerenderSpeakingExam_CountsFailures() throws Exception {
+        when(speakingExamRepository.existsById(2L)).thenReturn(true);
+        when(speakingRepository.findPassagesBySpeakingExamId(2L)).thenReturn(List.of("passage"));
+        when(speakingQuestionRepository.findQuestionTextsBySpeakingExamId(2L)).thenReturn(List.of("q1"));
+        when(ttsAudioCache.audioKey(anyInt(), anyString())).thenAnswer(inv -> "k:" + inv.getArgument(1));
+        when(ttsAudioCache.getOrSynthesize(1, "passage")).thenThrow(new RuntimeException("TTS canceled"));
+
+        TtsPrerenderJobResponse job = awaitFinished(ttsPrerenderService.prerenderSpeakingExam(2L).getJobId());
+
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(2, job.getTotal());
+        assertEquals(1, job.getRendered());
+        assertEquals(1, job.getFailed());
+    }
+
+    @Test
+    @DisplayName("prerenderLesson - Lesson không tồn tại - Ném LESSON_NOT_FOUND")
+    void prerenderLesson_NotFound() {
+        when(lessonRepository.existsById(9L)).thenReturn(false);
+
+        AppException ex = assertThrows(AppException.class, () -> ttsPrerenderService.prerenderLesson(9L));
+        assertEquals(ErrorCode.LESSON_NOT_FOUND, ex.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("prerenderSpeakingExam - Đề không tồn tại - Ném EXAM_NOT_FOUND")
+    void prerenderSpeakingExam_NotFound() {
+        when(speakingExamRepository.existsById(9L)).thenReturn(false);
+
+        AppException ex = assertThrows(AppException.class, () -> ttsPrerenderService.prerenderSpeakingExam(9L));
+        assertEquals(ErrorCode.EXAM_NOT_FOUND, ex.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("getJob - Job không tồn tại - Ném TTS_PRERENDER_JOB_NOT_FOUND")
+    void getJob_NotFound() {
+        AppException ex = assertThrows(AppException.class, () -> ttsPrerenderService.getJob("missing"));
+        assertEquals(ErrorCode.TTS_PRERENDER_JOB_NOT_FOUND, ex.getErrorCode());
+    }
+
+    private TtsPrerenderJobResponse awaitFinished(String jobId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            TtsPrerenderJobResponse job = ttsPrerenderService.getJob(jobId);
+            if (!"RUNNING".equals(job.getStatus()))
+                return job;
+            Thread.sleep(50);
+        }
+        fail("Pre-render job did not finish");
+        return null;
+    }
+}
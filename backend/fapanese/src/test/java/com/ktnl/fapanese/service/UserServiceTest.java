@@ -540,7 +540,7 @@ class UserServiceTest {
                 verify(userRepo, times(1)).save(userCaptor.capture());
                 assertEquals(3, userCaptor.getValue().getStatus());
                 verify(emailService, times(1)).sendEmail(anyString(), eq(teacherApprovalEmail), anyString());
-                verify(userRepo, never()).delete(any());
+                verify(userRepo, never()).delete(any(User.class));
             }
             else if ("DELETE_REJECT".equals(action)) {
                 // Reject Teacher
@@ -553,7 +553,7 @@ class UserServiceTest {
                 verify(userRepo, times(1)).save(userCaptor.capture());
                 assertEquals(newStatus, userCaptor.getValue().getStatus());
                 verify(emailService, never()).sendEmail(anyString(), any(), anyString());
-                verify(userRepo, never()).delete(any());
+                verify(userRepo, never()).delete(any(User.class));
             }
         }
     }
@@ -0,0 +1,73 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.service.implementations.WavAudioTranscoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WavAudioTranscoderTest {
+
+    private final WavAudioTranscoder transcoder = new WavAudioTranscoder();
+
+    @Test
+    @DisplayName("supports - Header RIFF/WAVE - true; WebM - false")
+    void supports_ByMagicBytes() throws IOException {
+        assertTrue(transcoder.supports(wav(16000, 1, 0.1, 1000)));
+        assertFalse(transcoder.supports(new byte[]{0x1A, 0x45, (byte) 0xDF, (byte) 0xA3}));
+    }
+
+    @Test
+    @DisplayName("toPcm16kMono - WAV 16kHz mono - Giữ nguyên dữ liệu, bỏ header")
+    void toPcm16kMono_AlreadyTargetFormat() throws IOException {
+        byte[] pcm = transcoder.toPcm16kMono(wav(16000, 1, 1.0, 1000));
+
+        assertEquals(32000, pcm.length);
+        assertEquals(1000, sample(pcm, 100));
+    }
+
+    @Test
+    @DisplayName("toPcm16kMono - WAV 44.1kHz stereo - Downmix và resample về 16kHz")
+    void toPcm16kMono_ResampleAndDownmix() throws IOException {
+        byte[] pcm = transcoder.toPcm16kMono(wav(44100, 2, 1.0, 2000));
+
+        assertEquals(16000, pcm.length / 2, 2);
+        assertEquals(2000, sample(pcm, 8000));
+    }
+
+    @Test
+    @DisplayName("toPcm16kMono - Dữ liệu không phải WAV hợp lệ - IOException")
+    void toPcm16kMono_Invalid() {
+        byte[] bad = "RIFF\0\0\0\0WAVEjunk".getBytes();
+
+        assertThrows(IOException.class, () -> transcoder.toPcm16kMono(bad));
+    }
+
+    // WAV 16-bit với mọi mẫu bằng cùng một giá trị
+    private static byte[] wav(float rate, int channels, double seconds, int value) throws IOException {
+        int frames = (int) (rate * seconds);
+        byte[] data = new byte[frames * channels * 2];
+        for (int i = 0; i < frames * channels; i++) {
+            data[i * 2] = (byte) value;
+            data[i * 2 + 1] = (byte) (value >> 8);
+        }
+
+        AudioFormat format = new AudioFormat(rate, 16, channels, true, false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(data), format, frames),
+                AudioFileFormat.Type.WAVE, out);
+        return out.toByteArray();
+    }
+
+    private static short sample(byte[] pcm, int index) {
+        return (short) ((pcm[index * 2] & 0xFF) | (pcm[index * 2 + 1] << 8));
+    }
+}
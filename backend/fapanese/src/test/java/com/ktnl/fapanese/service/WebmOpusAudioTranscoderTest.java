@@ -0,0 +1,68 @@
+package com.ktnl.fapanese.service;
+
+import com.ktnl.fapanese.service.implementations.WebmOpusAudioTranscoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebmOpusAudioTranscoderTest {
+
+    private final WebmOpusAudioTranscoder transcoder = new WebmOpusAudioTranscoder();
+
+    @Test
+    @DisplayName("supports - File WebM (magic EBML) - true; WAV - false")
+    void supports_ByMagicBytes() throws IOException {
+        assertTrue(transcoder.supports(load("test_audio.webm")));
+        assertFalse(transcoder.supports("RIFF....WAVE".getBytes()));
+        assertFalse(transcoder.supports(new byte[0]));
+    }
+
+    @Test
+    @DisplayName("toPcm16kMono - File ghi âm có tiếng nói - Giải mã ra PCM có năng lượng")
+    void toPcm16kMono_Speech() throws IOException {
+        byte[] pcm = transcoder.toPcm16kMono(load("test_audio.webm"));
+
+        assertEquals(0, pcm.length % 2);
+        // Ít nhất 0.5 giây audio 16kHz 16-bit
+        assertTrue(pcm.length > 16000);
+        assertTrue(rms(pcm) > rms(transcoder.toPcm16kMono(load("silent_audio.webm"))));
+    }
+
+    @Test
+    @DisplayName("toPcm16kMono - Độ dài PCM khớp với thời lượng track audio (bỏ qua track video)")
+    void toPcm16kMono_DurationMatchesAudioTrack() throws IOException {
+        // silent_audio.webm dài 2.888 giây
+        byte[] pcm = transcoder.toPcm16kMono(load("silent_audio.webm"));
+
+        double seconds = pcm.length / 2.0 / 16000;
+        assertEquals(2.888, seconds, 0.05);
+    }
+
+    @Test
+    @DisplayName("toPcm16kMono - Dữ liệu hỏng - IOException (để chuyển sang ffmpeg)")
+    void toPcm16kMono_Corrupted() throws IOException {
+        byte[] data = load("test_audio.webm");
+        byte[] truncated = Arrays.copyOf(data, 200);
+
+        assertThrows(IOException.class, () -> transcoder.toPcm16kMono(truncated));
+    }
+
+    private static byte[] load(String name) throws IOException {
+        return new ClassPathResource(name).getInputStream().readAllBytes();
+    }
+
+    private static double rms(byte[] pcm) {
+        double sum = 0;
+        int samples = pcm.length / 2;
+        for (int i = 0; i < samples; i++) {
+            short s = (short) ((pcm[i * 2] & 0xFF) | (pcm[i * 2 + 1] << 8));
+            sum += (double) s * s;
+        }
+        return Math.sqrt(sum / Math.max(1, samples));
+    }
+}
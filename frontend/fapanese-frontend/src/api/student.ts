@@ -2,9 +2,19 @@ import axios, { type AxiosProgressEvent } from "axios";
 
 const API_URL = "https://fapanese-backend-production.up.railway.app/fapanese/api/students";
 
-export const getAllStudents = async (token: string) => {
-  const res = await axios.get(API_URL, {
+export interface StudentSearchParams {
+  keyword?: string;
+  campus?: string;
+  page?: number;
+  size?: number;
+  sort?: string;
+}
+
+// Một trang sinh viên: { items, page, size, totalElements, totalPages, hasNext }
+export const searchStudents = async (token: string, params: StudentSearchParams = {}) => {
+  const res = await axios.get(`${API_URL}/search`, {
     headers: { Authorization: `Bearer ${token}` },
+    params,
   });
   return res.data.result;
 };
@@ -5,7 +5,7 @@ import { FaEdit, FaTrashAlt, FaSave, FaUpload } from "react-icons/fa";
 
 // Giả định API của bạn đã có các hàm này
 import {
-    getAllStudents,
+    searchStudents,
     registerStudent, // Dùng cho thêm thủ công
     updateStudent,
     deleteStudent,
@@ -52,6 +52,8 @@ const itemVariants = {
     }),
 };
 
+const PAGE_SIZE = 20;
+
 // --- Kiểu dữ liệu Form ---
 interface StudentForm {
     firstName: string;
@@ -70,29 +72,49 @@ export default function StudentManagementPage() {
     const [uploadProgress, setUploadProgress] = useState<number>(0);
     const fileInputRef = useRef<HTMLInputElement>(null);
     const token = localStorage.getItem("token") ?? "";
+    const [searchTerm, setSearchTerm] = useState("");
+    const [debouncedSearch, setDebouncedSearch] = useState("");
+    const [page, setPage] = useState(0);
+    const [totalPages, setTotalPages] = useState(0);
+    const [totalElements, setTotalElements] = useState(0);
 
-    // --- Fetch danh sách sinh viên ---
+    // --- Fetch một trang sinh viên (lọc + sắp xếp theo email ở server) ---
     const fetchStudents = async () => {
         try {
-            const data = await getAllStudents(token);
-            // Sắp xếp theo email hoặc tên nếu muốn
-            setStudents(Array.isArray(data) ? data.sort((a, b) => a.email.localeCompare(b.email)) : []);
+            const data = await searchStudents(token, {
+                keyword: debouncedSearch || undefined,
+                page,
+                size: PAGE_SIZE,
+                sort: "email",
+            });
+            setStudents(data?.items || []);
+            setTotalPages(data?.totalPages || 0);
+            setTotalElements(data?.totalElements || 0);
         } catch (err) {
             console.error("❌ Lỗi khi tải danh sách sinh viên:", err);
             alert("Không thể tải danh sách sinh viên. Vui lòng thử lại.");
         }
     };
 
+    // Chờ người dùng gõ xong rồi mới gọi API, và quay về trang đầu khi đổi từ khóa
+    useEffect(() => {
+        const timer = setTimeout(() => {
+            setDebouncedSearch(searchTerm.trim());
+            setPage(0);
+        }, 300);
+        return () => clearTimeout(timer);
+    }, [searchTerm]);
+
     useEffect(() => {
         fetchStudents();
-    }, []); // Chỉ chạy 1 lần khi component mount
+    }, [page, debouncedSearch]);
 
     // --- Xóa sinh viên ---
     const handleDelete = async (email: string) => {
         if (window.confirm(`Xác nhận xóa học sinh có Email: ${email}?`)) {
             try {
                 await deleteStudent(email, token);
-                setStudents(prev => prev.filter(s => s.email !== email));
+                fetchStudents(); // Tải lại trang hiện tại
                 alert("Xóa thành công!");
             } catch (err: any) {
                 console.error("❌ Lỗi khi xóa sinh viên:", err);
@@ -368,6 +390,17 @@ export default function StudentManagementPage() {
                 )}
             </AnimatePresence>
 
+            {/* Tìm kiếm */}
+            <div className="mb-4">
+                <input
+                    type="text"
+                    placeholder="Tìm theo email, họ hoặc tên..."
+                    value={searchTerm}
+                    onChange={(e) => setSearchTerm(e.target.value)}
+                    className={`border ${BORDER_COLOR} p-2.5 rounded-md w-full sm:w-96 focus:ring-1 focus:ring-cyan-500 focus:border-cyan-500 outline-none transition`}
+                />
+            </div>
+
             {/* Bảng danh sách */}
             <div className="overflow-x-auto shadow-lg rounded-xl border border-gray-200 bg-white">
                 <table className="min-w-full text-sm">
@@ -429,6 +462,15 @@ export default function StudentManagementPage() {
                         )}
                     </motion.tbody>
                 </table>
+                {/* Phân trang */}
+                <div className={`p-3 border-t ${BORDER_COLOR} text-sm text-gray-500 flex items-center justify-between`}>
+                    <span>Hiển thị {students.length} / {totalElements} học sinh.</span>
+                    <div className="flex items-center gap-3">
+                        <button onClick={() => setPage(p => p - 1)} disabled={page === 0} className="px-3 py-1 rounded-md bg-gray-100 hover:bg-gray-200 disabled:opacity-50 disabled:cursor-not-allowed">Trước</button>
+                        <span>Trang {page + 1} / {Math.max(totalPages, 1)}</span>
+                        <button onClick={() => setPage(p => p + 1)} disabled={page + 1 >= totalPages} className="px-3 py-1 rounded-md bg-gray-100 hover:bg-gray-200 disabled:opacity-50 disabled:cursor-not-allowed">Sau</button>
+                    </div>
+                </div>
             </div>
         </div>
     );
@@ -67,6 +67,7 @@ const fadeIn = {
   hidden: { opacity: 0, y: 10 },
   show: { opacity: 1, y: 0, transition: { duration: 0.4 } },
 };
+const STUDENT_PAGE_SIZE = 20;
 
 // --- Component ---
 const TeacherClassDetailPage: React.FC = () => {
@@ -87,6 +88,10 @@ const TeacherClassDetailPage: React.FC = () => {
   // Add Student Modal State
   const [showAddStudentModal, setShowAddStudentModal] = useState(false);
   const [searchTerm, setSearchTerm] = useState("");
+  const [debouncedSearch, setDebouncedSearch] = useState("");
+  const [studentPage, setStudentPage] = useState(0);
+  const [hasMoreStudents, setHasMoreStudents] = useState(false);
+  const [totalStudents, setTotalStudents] = useState(0);
   const [selectedStudentIdsToAdd, setSelectedStudentIdsToAdd] = useState<
     Set<string>
   >(new Set()); // Dùng Set để lưu nhiều ID
@@ -228,17 +233,20 @@ const TeacherClassDetailPage: React.FC = () => {
     }
   };
 
-  // --- Fetch All Students (for Add Modal) ---
-  const fetchAllStudents = useCallback(async () => {
+  // --- Fetch Students (for Add Modal): từng trang, lọc theo từ khóa ở server ---
+  const fetchAllStudents = useCallback(async (keyword: string, page: number) => {
     setLoadingAllStudents(true);
-    // --- !!! CẦN API BACKEND: GET /api/students !!! ---
     try {
-      const res = await axios.get(`${API_URL}/students`, {
-        // Adjust endpoint if needed
+      const res = await axios.get(`${API_URL}/students/search`, {
         headers: { Authorization: `Bearer ${token}` },
+        params: { keyword: keyword || undefined, page, size: STUDENT_PAGE_SIZE, sort: "email" },
       });
-      // Assuming API returns List<Student>
-      setAllStudents(res.data.result || res.data || []);
+      const result = res.data.result;
+      const items: Student[] = result?.items || [];
+      // Trang 0 thay danh sách, các trang sau nối thêm ("Xem thêm")
+      setAllStudents((prev) => (page === 0 ? items : [...prev, ...items]));
+      setHasMoreStudents(!!result?.hasNext);
+      setTotalStudents(result?.totalElements || 0);
     } catch (err) {
       console.error("❌ Lỗi tải danh sách tất cả sinh viên:", err);
       setNotifMessage("Không thể tải danh sách sinh viên để thêm.");
@@ -403,10 +411,24 @@ const TeacherClassDetailPage: React.FC = () => {
   const openAddStudentModal = () => {
     setSelectedStudentIdsToAdd(new Set());
     setSearchTerm("");
-    fetchAllStudents(); // Fetch all students when modal opens
+    setDebouncedSearch("");
+    setStudentPage(0);
     setShowAddStudentModal(true);
   };
 
+  // Chờ người dùng gõ xong rồi mới gọi API, và quay về trang đầu khi đổi từ khóa
+  useEffect(() => {
+    const timer = setTimeout(() => {
+      setDebouncedSearch(searchTerm.trim());
+      setStudentPage(0);
+    }, 300);
+    return () => clearTimeout(timer);
+  }, [searchTerm]);
+
+  useEffect(() => {
+    if (showAddStudentModal) fetchAllStudents(debouncedSearch, studentPage);
+  }, [showAddStudentModal, debouncedSearch, studentPage, fetchAllStudents]);
+
   const toggleStudentSelection = (studentId: string) => {
     setSelectedStudentIdsToAdd((prevSet) => {
       const newSet = new Set(prevSet);
@@ -530,20 +552,8 @@ const TeacherClassDetailPage: React.FC = () => {
   // --- Filter available students for Add Modal ---
   const availableStudentsToAdd = useMemo(() => {
     const studentIdsInClass = new Set(studentsInClass.map((s) => s.id));
-    return allStudents
-      .filter((s) => !studentIdsInClass.has(s.id)) // Exclude students already in class
-      .filter((s) => {
-        // Filter by search term
-        if (!searchTerm) return true;
-        const lowerSearch = searchTerm.toLowerCase();
-        return (
-          s.id.toLowerCase().includes(lowerSearch) ||
-          s.firstName.toLowerCase().includes(lowerSearch) ||
-          s.lastName.toLowerCase().includes(lowerSearch) ||
-          s.email.toLowerCase().includes(lowerSearch)
-        );
-      });
-  }, [allStudents, studentsInClass, searchTerm]);
+    return allStudents.filter((s) => !studentIdsInClass.has(s.id)); // Exclude students already in class
+  }, [allStudents, studentsInClass]);
 
   // --- ✅ HÀM QUẢN LÝ TÀI LIỆU ---
 
@@ -1167,7 +1177,7 @@ const TeacherClassDetailPage: React.FC = () => {
               <div className="mb-4 relative flex-shrink-0">
                 <input
                   type="text"
-                  placeholder="Tìm sinh viên theo ID, tên, email..."
+                  placeholder="Tìm sinh viên theo email, họ hoặc tên..."
                   value={searchTerm}
                   onChange={(e) => setSearchTerm(e.target.value)}
                   className="w-full border p-3 pl-10 rounded-lg focus:ring-cyan-500 focus:border-cyan-500 bg-gray-50"
@@ -1178,11 +1188,11 @@ const TeacherClassDetailPage: React.FC = () => {
 
               {/* Student List */}
               <div className="flex-grow overflow-y-auto border rounded mb-4 bg-gray-50">
-                {loadingAllStudents ? (
+                {loadingAllStudents && studentPage === 0 ? (
                   <div className="flex justify-center p-6">
                     <CircularProgress size={30} />
                   </div>
-                ) : availableStudentsToAdd.length === 0 ? (
+                ) : availableStudentsToAdd.length === 0 && !hasMoreStudents ? (
                   <p className="p-6 text-center text-gray-500 italic">
                     Không tìm thấy sinh viên phù hợp hoặc tất cả đã ở trong lớp.
                   </p>
@@ -1221,6 +1231,17 @@ const TeacherClassDetailPage: React.FC = () => {
                     ))}
                   </ul>
                 )}
+                {hasMoreStudents && (
+                  <div className="p-3 text-center border-t">
+                    <button
+                      onClick={() => setStudentPage((p) => p + 1)}
+                      disabled={loadingAllStudents}
+                      className="px-4 py-1.5 rounded-full bg-gray-200 hover:bg-gray-300 text-sm disabled:opacity-50"
+                    >
+                      {loadingAllStudents ? "Đang tải..." : `Xem thêm (${allStudents.length} / ${totalStudents})`}
+                    </button>
+                  </div>
+                )}
               </div>
 
               {/* Action Buttons */}
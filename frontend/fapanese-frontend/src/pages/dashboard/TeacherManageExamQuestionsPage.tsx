@@ -43,6 +43,7 @@ const mainBg = "#e8ebf0";
 const neumorphicShadow = "8px 8px 15px #c6c9cc, -4px -4px 15px #ffffff";
 const insetShadow = "inset 4px 4px 8px #c6c9cc, inset -4px -4px 8px #ffffff";
 const fadeIn = { hidden: { opacity: 0, y: 10 }, show: { opacity: 1, y: 0, transition: { duration: 0.4 } } };
+const PAGE_SIZE = 20;
 
 
 // --- Component ---
@@ -53,12 +54,18 @@ const TeacherManageExamQuestionsPage: React.FC = () => {
 
   const [currentPart, setCurrentPart] = useState<OverviewPart | null>(null); // Parent Part info (for type)
   const [currentExam, setCurrentExam] = useState<Exam | null>(null);         // Current Exam info
-  const [allQuestions, setAllQuestions] = useState<ExamQuestion[]>([]);      // All questions from /api/questions
+  const [pageQuestions, setPageQuestions] = useState<ExamQuestion[]>([]);    // One page from /api/questions/search
+  const [knownQuestions, setKnownQuestions] = useState<Map<number, ExamQuestion>>(new Map()); // Questions already loaded (exam + pages seen)
   const [selectedQuestionIds, setSelectedQuestionIds] = useState<Set<number>>(new Set()); // IDs of questions selected for this exam
   const [loading, setLoading] = useState(true);
   const [saving, setSaving] = useState(false); // Loading state for save button
   const [notifMessage, setNotifMessage] = useState<string | null>(null);
   const [searchTerm, setSearchTerm] = useState(""); // Search filter for available questions
+  const [debouncedSearch, setDebouncedSearch] = useState("");
+  const [page, setPage] = useState(0);
+  const [totalPages, setTotalPages] = useState(0);
+  const [totalElements, setTotalElements] = useState(0);
+  const [searching, setSearching] = useState(false);
 
   const token = localStorage.getItem("token") || "";
   const API_URL = "https://fapanese-backend-production.up.railway.app/fapanese/api";
@@ -81,7 +88,7 @@ const TeacherManageExamQuestionsPage: React.FC = () => {
   }, [partId]);
 
 
-  // --- Fetch Exam Details & All Questions ---
+  // --- Fetch Exam Details ---
   const fetchData = useCallback(async () => {
     if (!examId || !currentPart) {
       // If part type isn't loaded yet, wait. If no examId, show error.
@@ -95,19 +102,17 @@ const TeacherManageExamQuestionsPage: React.FC = () => {
     const examApiUrl = currentPart.type === "MIDDLE_EXAM"
         ? `${API_URL}/middle-exams/${examId}`
         : `${API_URL}/final-exams/${examId}`;
-    const allQuestionsUrl = `${API_URL}/questions`;
 
     try {
-      const [examRes, allQuestionsRes] = await Promise.all([
-        axios.get(examApiUrl, { headers: { Authorization: `Bearer ${token}` } }),
-        axios.get(allQuestionsUrl, { headers: { Authorization: `Bearer ${token}` } }),
-      ]);
-
+      const examRes = await axios.get(examApiUrl, { headers: { Authorization: `Bearer ${token}` } });
       const examData = examRes.data.result || examRes.data;
-      const allQuestionsData = allQuestionsRes.data.result || allQuestionsRes.data || [];
 
       setCurrentExam(examData);
-      setAllQuestions(allQuestionsData);
+      setKnownQuestions(prev => {
+        const next = new Map(prev);
+        (examData.questions || []).forEach((q: ExamQuestion) => next.set(q.id, q));
+        return next;
+      });
 
       // Initialize selected IDs based on current exam questions
       const initialSelectedIds = new Set(examData.questions?.map((q: ExamQuestion) => q.id) || []);
@@ -128,6 +133,47 @@ const TeacherManageExamQuestionsPage: React.FC = () => {
      }
    }, [currentPart, examId, fetchData]);
 
+  // --- Fetch one page of the question bank (lọc + phân trang ở server) ---
+  const fetchAvailable = useCallback(async () => {
+    setSearching(true);
+    try {
+      const res = await axios.get(`${API_URL}/questions/search`, {
+        headers: { Authorization: `Bearer ${token}` },
+        params: { keyword: debouncedSearch || undefined, page, size: PAGE_SIZE, sort: "id,desc" },
+      });
+      const result = res.data.result;
+      const items: ExamQuestion[] = result?.items || [];
+      setPageQuestions(items);
+      setTotalPages(result?.totalPages || 0);
+      setTotalElements(result?.totalElements || 0);
+      // Giữ lại câu đã thấy để cột "đã chọn" vẫn hiển thị khi chuyển trang
+      setKnownQuestions(prev => {
+        const next = new Map(prev);
+        items.forEach(q => next.set(q.id, q));
+        return next;
+      });
+    } catch (err) {
+      console.error("❌ Lỗi tải ngân hàng câu hỏi:", err);
+      setNotifMessage("Không thể tải danh sách câu hỏi.");
+      setPageQuestions([]);
+    } finally {
+      setSearching(false);
+    }
+  }, [token, debouncedSearch, page]);
+
+  // Chờ người dùng gõ xong rồi mới gọi API, và quay về trang đầu khi đổi từ khóa
+  useEffect(() => {
+    const timer = setTimeout(() => {
+      setDebouncedSearch(searchTerm.trim());
+      setPage(0);
+    }, 300);
+    return () => clearTimeout(timer);
+  }, [searchTerm]);
+
+  useEffect(() => {
+    fetchAvailable();
+  }, [fetchAvailable]);
+
 
   // --- Toggle Question Selection ---
   const toggleQuestionSelection = (questionId: number) => {
@@ -185,29 +231,16 @@ const TeacherManageExamQuestionsPage: React.FC = () => {
 
   // --- Filtered Available Questions ---
   const availableQuestions = useMemo(() => {
-    return allQuestions
-      .filter(q => !selectedQuestionIds.has(q.id)) // Filter out already selected
-      .filter(q => { // Filter by search term (content or ID)
-          if (!searchTerm) return true;
-          const lowerSearch = searchTerm.toLowerCase();
-          return (
-              q.id.toString().includes(lowerSearch) ||
-              q.content.toLowerCase().includes(lowerSearch) ||
-              q.category.toLowerCase().includes(lowerSearch) ||
-              q.questionType.toLowerCase().includes(lowerSearch)
-          );
-      });
-  }, [allQuestions, selectedQuestionIds, searchTerm]);
+    return pageQuestions.filter(q => !selectedQuestionIds.has(q.id)); // Filter out already selected
+  }, [pageQuestions, selectedQuestionIds]);
 
   // --- Selected Questions List ---
    const selectedQuestionsList = useMemo(() => {
-     // Create a map for quick lookup
-     const allQuestionsMap = new Map(allQuestions.map(q => [q.id, q]));
      // Filter based on selected IDs and map back to full question objects
      return Array.from(selectedQuestionIds)
-            .map(id => allQuestionsMap.get(id))
+            .map(id => knownQuestions.get(id))
             .filter((q): q is ExamQuestion => q !== undefined); // Type guard to filter out undefined
-   }, [allQuestions, selectedQuestionIds]);
+   }, [knownQuestions, selectedQuestionIds]);
 
 
   // --- Render Question Row ---
@@ -316,12 +349,12 @@ const TeacherManageExamQuestionsPage: React.FC = () => {
 
              {/* Column 2: Available Questions */}
              <motion.div initial="hidden" animate="show" variants={fadeIn} transition={{delay: 0.1}}>
-                 <h2 className="text-xl font-semibold text-gray-700 mb-4">Câu hỏi có sẵn ({availableQuestions.length} / {allQuestions.length})</h2>
+                 <h2 className="text-xl font-semibold text-gray-700 mb-4">Câu hỏi có sẵn ({totalElements})</h2>
                  {/* Search Input */}
                  <div className="mb-4 relative">
                     <input
                         type="text"
-                        placeholder="Tìm theo ID, nội dung, loại, thể loại..."
+                        placeholder="Tìm theo nội dung câu hỏi..."
                         value={searchTerm}
                         onChange={(e) => setSearchTerm(e.target.value)}
                         className="w-full border p-3 pl-10 rounded-lg focus:ring-cyan-500 focus:border-cyan-500"
@@ -331,10 +364,12 @@ const TeacherManageExamQuestionsPage: React.FC = () => {
                  </div>
 
                   <div className="bg-white rounded-lg shadow-md overflow-hidden" style={{ boxShadow: neumorphicShadow }}>
-                     {availableQuestions.length === 0 && searchTerm ? (
+                     {searching ? (
+                         <div className="flex justify-center p-6"><CircularProgress size={28} /></div>
+                     ) : availableQuestions.length === 0 && debouncedSearch ? (
                          <p className="p-6 text-center text-gray-500 italic">Không tìm thấy câu hỏi phù hợp.</p>
-                     ) : availableQuestions.length === 0 && !searchTerm ? (
-                         <p className="p-6 text-center text-gray-500 italic">Tất cả câu hỏi đã được chọn hoặc không có câu hỏi nào.</p>
+                     ) : availableQuestions.length === 0 ? (
+                         <p className="p-6 text-center text-gray-500 italic">Tất cả câu hỏi trong trang này đã được chọn hoặc không có câu hỏi nào.</p>
                      ) : (
                         <div className="max-h-[60vh] overflow-y-auto">
                             <table className="min-w-full divide-y divide-gray-200">
@@ -354,6 +389,12 @@ const TeacherManageExamQuestionsPage: React.FC = () => {
                             </table>
                         </div>
                      )}
+                     {/* Pagination */}
+                     <div className="p-3 border-t border-gray-200 text-sm text-gray-500 flex items-center justify-end gap-3">
+                        <button onClick={() => setPage(p => p - 1)} disabled={page === 0 || searching} className="px-3 py-1 rounded-full bg-gray-200 hover:bg-gray-300 disabled:opacity-50 disabled:cursor-not-allowed">Trước</button>
+                        <span>Trang {page + 1} / {Math.max(totalPages, 1)}</span>
+                        <button onClick={() => setPage(p => p + 1)} disabled={page + 1 >= totalPages || searching} className="px-3 py-1 rounded-full bg-gray-200 hover:bg-gray-300 disabled:opacity-50 disabled:cursor-not-allowed">Sau</button>
+                     </div>
                  </div>
             </motion.div>
 
@@ -1,4 +1,4 @@
-import React, { useEffect, useState, useMemo, useRef } from "react";
+import React, { useEffect, useState, useRef } from "react";
 import { motion, AnimatePresence } from "framer-motion";
 import { useParams, useNavigate, Link } from "react-router-dom";
 import { IoMdArrowBack } from "react-icons/io";
@@ -27,6 +27,8 @@ const neumorphicShadow = "8px 8px 15px #c6c9cc, -4px -4px 15px #ffffff";
 const insetShadow = "inset 4px 4px 8px #c6c9cc, inset -4px -4px 8px #ffffff";
 const fadeIn = { hidden: { opacity: 0, y: 10 }, show: { opacity: 1, y: 0, transition: { duration: 0.4 } } };
 
+const PAGE_SIZE = 20;
+
 // --- Initial State for New Question ---
 const initialNewQuestionState: Partial<ExamQuestion> = {
     content: "",
@@ -51,6 +53,10 @@ const TeacherQuestionBankPage: React.FC = () => {
     const [searchTerm, setSearchTerm] = useState("");
     const [filterType, setFilterType] = useState<string>("ALL"); // ALL, MULTIPLE_CHOICE, FILL, TRUE_FALSE
     const [filterCategory, setFilterCategory] = useState<string>("ALL"); // ALL, VOCABULARY, GRAMMAR, READING
+    const [debouncedSearch, setDebouncedSearch] = useState("");
+    const [page, setPage] = useState(0);
+    const [totalPages, setTotalPages] = useState(0);
+    const [totalElements, setTotalElements] = useState(0);
 
     // Add Modal State
     const [showAddModal, setShowAddModal] = useState(false);
@@ -63,14 +69,25 @@ const TeacherQuestionBankPage: React.FC = () => {
     const token = localStorage.getItem("token") || "";
     const API_URL = "https://fapanese-backend-production.up.railway.app/fapanese/api";
 
-    // --- Fetch All Questions ---
+    // --- Fetch one page of questions (lọc + phân trang ở server) ---
     const fetchQuestions = async () => {
         setLoading(true);
         try {
-            const res = await axios.get(`${API_URL}/questions`, {
+            const res = await axios.get(`${API_URL}/questions/search`, {
                 headers: { Authorization: `Bearer ${token}` },
+                params: {
+                    keyword: debouncedSearch || undefined,
+                    questionType: filterType === "ALL" ? undefined : filterType,
+                    category: filterCategory === "ALL" ? undefined : filterCategory,
+                    page,
+                    size: PAGE_SIZE,
+                    sort: "id,desc",
+                },
             });
-            setQuestions(res.data.result || res.data || []);
+            const result = res.data.result;
+            setQuestions(result?.items || []);
+            setTotalPages(result?.totalPages || 0);
+            setTotalElements(result?.totalElements || 0);
         } catch (err) {
             console.error("❌ Lỗi tải ngân hàng câu hỏi:", err);
             setNotifMessage("Không thể tải danh sách câu hỏi.");
@@ -80,29 +97,18 @@ const TeacherQuestionBankPage: React.FC = () => {
         }
     };
 
+    // Chờ người dùng gõ xong rồi mới gọi API, và quay về trang đầu khi đổi từ khóa
+    useEffect(() => {
+        const timer = setTimeout(() => {
+            setDebouncedSearch(searchTerm.trim());
+            setPage(0);
+        }, 300);
+        return () => clearTimeout(timer);
+    }, [searchTerm]);
+
     useEffect(() => {
         fetchQuestions();
-    }, []);
-
-    // --- Filtered Questions ---
-    const filteredQuestions = useMemo(() => {
-        return questions
-            .filter(q => filterType === 'ALL' || q.questionType === filterType)
-            .filter(q => filterCategory === 'ALL' || q.category === filterCategory)
-            .filter(q => {
-                if (!searchTerm) return true;
-                const lowerSearch = searchTerm.toLowerCase();
-                return (
-                    q.id.toString().includes(lowerSearch) ||
-                    q.content.toLowerCase().includes(lowerSearch) ||
-                    q.correctAnswer.toLowerCase().includes(lowerSearch) ||
-                    q.optionA?.toLowerCase().includes(lowerSearch) ||
-                    q.optionB?.toLowerCase().includes(lowerSearch) ||
-                    q.optionC?.toLowerCase().includes(lowerSearch) ||
-                    q.optionD?.toLowerCase().includes(lowerSearch)
-                );
-            });
-    }, [questions, searchTerm, filterType, filterCategory]);
+    }, [page, debouncedSearch, filterType, filterCategory]);
 
     // --- Add Modal Handlers ---
     const openAddModal = () => {
@@ -335,7 +341,7 @@ const TeacherQuestionBankPage: React.FC = () => {
                     <div className="md:col-span-2 relative">
                         <input
                             type="text"
-                            placeholder="Tìm theo ID, nội dung, đáp án..."
+                            placeholder="Tìm theo nội dung câu hỏi..."
                             value={searchTerm}
                             onChange={(e) => setSearchTerm(e.target.value)}
                             className="w-full border p-3 pl-10 rounded-lg focus:ring-cyan-500 focus:border-cyan-500 bg-gray-50"
@@ -348,7 +354,7 @@ const TeacherQuestionBankPage: React.FC = () => {
                         <label className="block text-xs font-medium text-gray-500 mb-1">Loại câu hỏi</label>
                         <select
                             value={filterType}
-                            onChange={(e) => setFilterType(e.target.value)}
+                            onChange={(e) => { setFilterType(e.target.value); setPage(0); }}
                             className="w-full border p-3 rounded-lg bg-white focus:ring-cyan-500 focus:border-cyan-500"
                             style={{ boxShadow: insetShadow }}
                         >
@@ -363,7 +369,7 @@ const TeacherQuestionBankPage: React.FC = () => {
                         <label className="block text-xs font-medium text-gray-500 mb-1">Thể loại</label>
                         <select
                             value={filterCategory}
-                            onChange={(e) => setFilterCategory(e.target.value)}
+                            onChange={(e) => { setFilterCategory(e.target.value); setPage(0); }}
                             className="w-full border p-3 rounded-lg bg-white focus:ring-cyan-500 focus:border-cyan-500"
                             style={{ boxShadow: insetShadow }}
                         >
@@ -378,9 +384,9 @@ const TeacherQuestionBankPage: React.FC = () => {
                 {/* Question Table */}
                 {loading ? (
                     <div className="flex justify-center items-center h-60"><CircularProgress /></div>
-                ) : filteredQuestions.length === 0 ? (
+                ) : questions.length === 0 ? (
                     <p className="text-center italic text-gray-500 mt-10">
-                        {questions.length === 0 ? 'Chưa có câu hỏi nào trong ngân hàng.' : 'Không tìm thấy câu hỏi phù hợp với bộ lọc.'}
+                        {!debouncedSearch && filterType === 'ALL' && filterCategory === 'ALL' ? 'Chưa có câu hỏi nào trong ngân hàng.' : 'Không tìm thấy câu hỏi phù hợp với bộ lọc.'}
                     </p>
                 ) : (
                     <motion.div
@@ -401,7 +407,7 @@ const TeacherQuestionBankPage: React.FC = () => {
                                     </tr>
                                 </thead>
                                 <tbody className="bg-white divide-y divide-gray-200">
-                                    {filteredQuestions.map((q) => (
+                                    {questions.map((q) => (
                                         <motion.tr key={q.id} variants={fadeIn} className="hover:bg-gray-50">
                                             <td className="px-4 py-4 whitespace-nowrap text-sm font-medium text-gray-500">{q.id}</td>
                                             <td className="px-6 py-4 text-sm text-gray-800 max-w-sm" title={q.content}><div className="line-clamp-2">{q.content}</div></td>
@@ -417,9 +423,14 @@ const TeacherQuestionBankPage: React.FC = () => {
                                 </tbody>
                             </table>
                         </div>
-                        {/* Optional: Add Pagination if needed */}
-                        <div className="p-4 border-t border-gray-200 text-sm text-gray-500">
-                            Hiển thị {filteredQuestions.length} / {questions.length} câu hỏi.
+                        {/* Pagination */}
+                        <div className="p-4 border-t border-gray-200 text-sm text-gray-500 flex items-center justify-between">
+                            <span>Hiển thị {questions.length} / {totalElements} câu hỏi.</span>
+                            <div className="flex items-center gap-3">
+                                <button onClick={() => setPage(p => p - 1)} disabled={page === 0} className="px-3 py-1 rounded-full bg-gray-200 hover:bg-gray-300 disabled:opacity-50 disabled:cursor-not-allowed">Trước</button>
+                                <span>Trang {page + 1} / {Math.max(totalPages, 1)}</span>
+                                <button onClick={() => setPage(p => p + 1)} disabled={page + 1 >= totalPages} className="px-3 py-1 rounded-full bg-gray-200 hover:bg-gray-300 disabled:opacity-50 disabled:cursor-not-allowed">Sau</button>
+                            </div>
                         </div>
                     </motion.div>
                 )}